@@ -0,0 +1,145 @@
+package com.example.birds.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result (-rf json) with a stored baseline result and flags the regressions.
+ * </br>
+ * Results are matched by benchmark, mode and parameters. A result regresses when its score moved in the bad
+ * direction (higher time per operation, lower throughput) by more than the threshold, relative to the baseline,
+ * and by more than the sum of both score errors, so that noisy results are not flagged.
+ * </br>
+ * Usage: BenchmarkComparison baseline.json result.json [threshold, 0.1 by default]
+ * Exits with 1 when a result regressed, 2 when a file can't be read.
+ */
+public final class BenchmarkComparison {
+
+    private static final double DEFAULT_THRESHOLD = 0.1;
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison baseline.json result.json [threshold]");
+            System.exit(2);
+        }
+        final Path baselinePath = Path.of(args[0]);
+        final Path resultPath = Path.of(args[1]);
+        final double threshold = args.length > 2 && !args[2].isBlank() ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        for (Path path : List.of(baselinePath, resultPath)) {
+            if (!Files.isRegularFile(path)) {
+                System.err.println("Missing benchmark result " + path
+                        + ", record one with: mvn -Pbenchmarks test-compile exec:exec -Djmh.result=" + path);
+                System.exit(2);
+            }
+        }
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final Map<String, Score> baseline = readScores(objectMapper.readTree(baselinePath.toFile()));
+        final Map<String, Score> result = readScores(objectMapper.readTree(resultPath.toFile()));
+        final List<String> regressions = new ArrayList<>();
+
+        System.out.printf("%-11s %-90s %14s %14s %9s%n", "STATUS", "BENCHMARK", "BASELINE", "RESULT", "CHANGE");
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            final Score score = entry.getValue();
+            final Score baselineScore = baseline.get(entry.getKey());
+            if (baselineScore == null) {
+                System.out.printf("%-11s %-90s %14s %14.3f %9s%n", "NEW", entry.getKey(), "-", score.value, "-");
+                continue;
+            }
+            final Status status = compare(baselineScore, score, threshold);
+            if (status == Status.REGRESSION) {
+                regressions.add(entry.getKey());
+            }
+            System.out.printf("%-11s %-90s %14.3f %14.3f %+8.1f%% %s%n", status, entry.getKey(), baselineScore.value,
+                    score.value, 100 * (score.value - baselineScore.value) / baselineScore.value, score.unit);
+        }
+        for (String key : baseline.keySet()) {
+            if (!result.containsKey(key)) {
+                System.out.printf("%-11s %-90s %14.3f %14s %9s%n", "MISSING", key, baseline.get(key).value, "-", "-");
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%: %s%n", regressions.size(),
+                    100 * threshold, regressions);
+            System.exit(1);
+        }
+        System.out.printf("No regression above %.0f%%%n", 100 * threshold);
+    }
+
+    /**
+     * Compares a score with its baseline.
+     * @param baseline {@link Score}
+     * @param score {@link Score}
+     * @param threshold double, relative change ignored, e.g. 0.1 for 10%
+     * @return {@link Status}
+     */
+    static Status compare(Score baseline, Score score, double threshold) {
+        final double change = (score.value - baseline.value) / baseline.value;
+        final double difference = Math.abs(score.value - baseline.value);
+        if (Math.abs(change) <= threshold || difference <= baseline.error + score.error) {
+            return Status.UNCHANGED;
+        }
+        final boolean worse = score.higherIsBetter ? change < 0 : change > 0;
+        return worse ? Status.REGRESSION : Status.IMPROVEMENT;
+    }
+
+    /**
+     * Reads the primary scores of a JMH JSON result, by benchmark, mode and parameters.
+     * @param results {@link JsonNode}, the JMH result array
+     * @return Map of {@link Score} by key, sorted
+     */
+    static Map<String, Score> readScores(JsonNode results) {
+        final Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode result : results) {
+            final Map<String, String> params = new LinkedHashMap<>();
+            final Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+            final String mode = result.path("mode").asText();
+            final String benchmark = result.path("benchmark").asText().replace("com.example.birds.benchmark.", "");
+            final String key = benchmark + " " + mode + (params.isEmpty() ? "" : " " + params);
+
+            final JsonNode primaryMetric = result.path("primaryMetric");
+            // the error is NaN when there are too few iterations to compute it
+            final double error = primaryMetric.path("scoreError").asDouble();
+            scores.put(key, new Score(primaryMetric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    primaryMetric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    enum Status {
+        UNCHANGED, IMPROVEMENT, REGRESSION
+    }
+
+    static final class Score {
+
+        private final double value;
+
+        private final double error;
+
+        private final String unit;
+
+        private final boolean higherIsBetter;
+
+        Score(double value, double error, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
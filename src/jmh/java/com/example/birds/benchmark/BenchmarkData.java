@@ -0,0 +1,56 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.model.Sighting;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic datasets shared by the in-JVM benchmarks: one bird for every ten sightings,
+ * sightings one minute apart with one of 100 locations and coordinates around Santa Monica.
+ */
+final class BenchmarkData {
+
+    static final LocalDateTime START_DATE_TIME = LocalDateTime.parse("2023-07-18T10:00:00");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Builds the birds of a dataset of the provided number of sightings.
+     * @param sightingCount int
+     * @return List of {@link BirdResponseDto}, at least one
+     */
+    static List<BirdResponseDto> buildBirdResponseDTOs(int sightingCount) {
+        final int birdCount = Math.max(1, sightingCount / 10);
+        final List<BirdResponseDto> birdResponseDTOs = new ArrayList<>(birdCount);
+        for (int i = 0; i < birdCount; i++) {
+            birdResponseDTOs.add(new BirdResponseDto(new ObjectId().toHexString(), "name" + i, "color" + i, 10d, 20d));
+        }
+        return birdResponseDTOs;
+    }
+
+    /**
+     * Builds sightings of randomly picked birds, the same ones for the same seed.
+     * @param sightingCount int
+     * @param birdResponseDTOs List of {@link BirdResponseDto}
+     * @param random {@link Random}
+     * @return List of {@link Sighting}
+     */
+    static List<Sighting> buildSightings(int sightingCount, List<BirdResponseDto> birdResponseDTOs, Random random) {
+        final List<Sighting> sightings = new ArrayList<>(sightingCount);
+        for (int i = 0; i < sightingCount; i++) {
+            final String birdId = birdResponseDTOs.get(random.nextInt(birdResponseDTOs.size())).getId();
+            final Sighting sighting = new Sighting(birdId, "location" + (i % 100), START_DATE_TIME.plusMinutes(i));
+            sighting.setId(new ObjectId().toHexString());
+            sighting.setCoordinates(new GeoJsonPoint(-118.5 + random.nextDouble(), 34 + random.nextDouble()));
+            sightings.add(sighting);
+        }
+        return sightings;
+    }
+}
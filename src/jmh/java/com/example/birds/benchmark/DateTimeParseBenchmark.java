@@ -0,0 +1,55 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.service.ModelService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link ModelService#getDateTime(String)}, parsing a batch of date-time strings per operation,
+ * as done for every sighting of a bulk request, and for a rejected date-time string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateTimeParseBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int dateTimeCount;
+
+    private final ModelService modelService = new ModelService();
+
+    private List<String> dateTimeStrings;
+
+    @Setup
+    public void setUp() {
+        dateTimeStrings = new ArrayList<>(dateTimeCount);
+        for (int i = 0; i < dateTimeCount; i++) {
+            dateTimeStrings.add(BenchmarkData.START_DATE_TIME.plusMinutes(i).plusSeconds(i % 60).toString());
+        }
+    }
+
+    @Benchmark
+    public void getDateTime(Blackhole blackhole) {
+        for (String dateTimeString : dateTimeStrings) {
+            blackhole.consume(modelService.getDateTime(dateTimeString));
+        }
+    }
+
+    @Benchmark
+    public void getInvalidDateTime(Blackhole blackhole) {
+        for (int i = 0; i < dateTimeCount; i++) {
+            try {
+                blackhole.consume(modelService.getDateTime("2023-07-18 10:00:00"));
+            } catch (IllegalArgumentException exception) {
+                blackhole.consume(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.service.ModelService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the JSON serialization of the listing responses, {@link SightingResponseDto} and {@link BirdResponseDto}
+ * lists, with an {@link ObjectMapper} configured as the one of the application (ISO-8601 date-times).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoSerializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int sightingCount;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private ObjectWriter sightingsWriter;
+
+    private ObjectWriter birdsWriter;
+
+    private List<SightingResponseDto> sightingResponseDTOs;
+
+    private List<BirdResponseDto> birdResponseDTOs;
+
+    @Setup
+    public void setUp() {
+        birdResponseDTOs = BenchmarkData.buildBirdResponseDTOs(sightingCount);
+        sightingResponseDTOs = new ModelService().getSightingResponseDTOs(
+                BenchmarkData.buildSightings(sightingCount, birdResponseDTOs, new Random(42)), birdResponseDTOs);
+        sightingsWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, SightingResponseDto.class));
+        birdsWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, BirdResponseDto.class));
+    }
+
+    @Benchmark
+    public byte[] serializeSightings() throws JsonProcessingException {
+        return sightingsWriter.writeValueAsBytes(sightingResponseDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeBirds() throws JsonProcessingException {
+        return birdsWriter.writeValueAsBytes(birdResponseDTOs);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.BirdsApplication;
+import com.example.birds.config.FanOutMode;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.service.SightingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential and the concurrent reads of the sighting listings, see
+ * {@link com.example.birds.service.ReadFanOut}: the sightings of a bird, read while the bird is,
+ * and the sightings of a location, referencing about 1800 birds read with two concurrent "$in" queries.
+ * The bird cache is disabled, so that every call reads the birds from MongoDB.
+ * </br>
+ * Requires a running mongod, by default mongodb://localhost:27017/birdservice-benchmark
+ * (override with -Dbenchmark.mongodb.uri=...). The database is dropped and seeded on setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SightingFanOutBenchmark {
+
+    private static final String DEFAULT_URI = "mongodb://localhost:27017/birdservice-benchmark";
+
+    private static final int BIRD_COUNT = 10_000;
+
+    private static final int SIGHTING_COUNT = 200_000;
+
+    private static final int LOCATION_COUNT = 100;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final LocalDateTime FIRST_DATE_TIME = LocalDateTime.parse("2023-01-01T00:00:00");
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    private FanOutMode mode;
+
+    private ConfigurableApplicationContext context;
+
+    private SightingService sightingService;
+
+    private String birdId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BirdsApplication.class)
+                .web(WebApplicationType.NONE)
+                // command line arguments, since default properties would be overridden by application.properties
+                .run("--spring.data.mongodb.uri=" + System.getProperty("benchmark.mongodb.uri", DEFAULT_URI),
+                        "--sightings.fan-out.mode=" + mode, "--birds.cache.enabled=false");
+        final MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        seed(mongoTemplate);
+
+        sightingService = context.getBean(SightingService.class);
+        birdId = mongoTemplate.findOne(new Query(), Bird.class).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsOfBird() {
+        return sightingService.getSightingsByCriteria(birdId, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsByLocation() {
+        return sightingService.getSightingsByCriteria(null, List.of("location0"), null, null, null);
+    }
+
+    /**
+     * Drops and seeds the benchmark database, unless it already holds the expected dataset.
+     * Same dataset as {@link SightingJoinModeBenchmark}.
+     * @param mongoTemplate {@link MongoTemplate}
+     */
+    private static void seed(MongoTemplate mongoTemplate) {
+        if (mongoTemplate.estimatedCount(Bird.class) == BIRD_COUNT
+                && mongoTemplate.estimatedCount(Sighting.class) == SIGHTING_COUNT) {
+            return;
+        }
+        mongoTemplate.dropCollection(Bird.class);
+        mongoTemplate.dropCollection(Sighting.class);
+
+        final List<Bird> birds = new ArrayList<>(BIRD_COUNT);
+        for (int i = 0; i < BIRD_COUNT; i++) {
+            birds.add(new Bird("name" + i, "color" + (i % 20), 10d + i % 50, 5d + i % 30));
+        }
+        final List<Bird> savedBirds = new ArrayList<>(mongoTemplate.insertAll(birds));
+
+        final Random random = new Random(42);
+        final List<Sighting> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < SIGHTING_COUNT; i++) {
+            final String sightingBirdId = savedBirds.get(random.nextInt(BIRD_COUNT)).getId();
+            batch.add(new Sighting(sightingBirdId, "location" + (i % LOCATION_COUNT), FIRST_DATE_TIME.plusMinutes(i)));
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+}
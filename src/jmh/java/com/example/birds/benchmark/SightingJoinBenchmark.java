@@ -0,0 +1,46 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.service.ModelService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link ModelService#getSightingResponseDTOs(List, List)}.
+ * </br>
+ * The number of birds grows with the number of sightings (one bird for every ten sightings),
+ * so a linear join shows a time per operation growing by the same factor as the dataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SightingJoinBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int sightingCount;
+
+    private final ModelService modelService = new ModelService();
+
+    private List<Sighting> sightings;
+
+    private List<BirdResponseDto> birdResponseDTOs;
+
+    @Setup
+    public void setUp() {
+        birdResponseDTOs = BenchmarkData.buildBirdResponseDTOs(sightingCount);
+        sightings = BenchmarkData.buildSightings(sightingCount, birdResponseDTOs, new Random(42));
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingResponseDTOs() {
+        return modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+    }
+}
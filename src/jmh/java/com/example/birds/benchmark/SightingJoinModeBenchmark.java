@@ -0,0 +1,117 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.BirdsApplication;
+import com.example.birds.config.JoinMode;
+import com.example.birds.config.SightingJoinProperties;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.service.SightingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the in-JVM join with the $lookup aggregation join of sightings with their birds,
+ * for date-time searches matching different fractions (selectivity) of the sightings.
+ * </br>
+ * Requires a running mongod, by default mongodb://localhost:27017/birdservice-benchmark
+ * (override with -Dbenchmark.mongodb.uri=...). The database is dropped and seeded on setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SightingJoinModeBenchmark {
+
+    private static final String DEFAULT_URI = "mongodb://localhost:27017/birdservice-benchmark";
+
+    private static final int BIRD_COUNT = 10_000;
+
+    private static final int SIGHTING_COUNT = 200_000;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final LocalDateTime FIRST_DATE_TIME = LocalDateTime.parse("2023-01-01T00:00:00");
+
+    @Param({"0.001", "0.01", "0.1", "1"})
+    private double selectivity;
+
+    @Param({"JVM", "AGGREGATION"})
+    private JoinMode joinMode;
+
+    private ConfigurableApplicationContext context;
+
+    private SightingService sightingService;
+
+    private String startDateTime;
+
+    private String endDateTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BirdsApplication.class)
+                .web(WebApplicationType.NONE)
+                // a command line argument, since default properties would be overridden by application.properties
+                .run("--spring.data.mongodb.uri=" + System.getProperty("benchmark.mongodb.uri", DEFAULT_URI));
+        seed(context.getBean(MongoTemplate.class));
+
+        context.getBean(SightingJoinProperties.class).setDateTime(joinMode);
+        sightingService = context.getBean(SightingService.class);
+
+        // sightings are one minute apart, so the interval covers the requested fraction of them
+        startDateTime = FIRST_DATE_TIME.minusMinutes(1).toString();
+        endDateTime = FIRST_DATE_TIME.plusMinutes((long) (SIGHTING_COUNT * selectivity)).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsByDateTimeInterval() {
+        return sightingService.getSightingsByCriteria(null, null, startDateTime, endDateTime, null);
+    }
+
+    /**
+     * Drops and seeds the benchmark database, unless it already holds the expected dataset.
+     * @param mongoTemplate {@link MongoTemplate}
+     */
+    private static void seed(MongoTemplate mongoTemplate) {
+        if (mongoTemplate.estimatedCount(Bird.class) == BIRD_COUNT
+                && mongoTemplate.estimatedCount(Sighting.class) == SIGHTING_COUNT) {
+            return;
+        }
+        mongoTemplate.dropCollection(Bird.class);
+        mongoTemplate.dropCollection(Sighting.class);
+
+        final List<Bird> birds = new ArrayList<>(BIRD_COUNT);
+        for (int i = 0; i < BIRD_COUNT; i++) {
+            birds.add(new Bird("name" + i, "color" + (i % 20), 10d + i % 50, 5d + i % 30));
+        }
+        final List<Bird> savedBirds = new ArrayList<>(mongoTemplate.insertAll(birds));
+
+        final Random random = new Random(42);
+        final List<Sighting> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < SIGHTING_COUNT; i++) {
+            final String birdId = savedBirds.get(random.nextInt(BIRD_COUNT)).getId();
+            batch.add(new Sighting(birdId, "location" + (i % 100), FIRST_DATE_TIME.plusMinutes(i)));
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+}
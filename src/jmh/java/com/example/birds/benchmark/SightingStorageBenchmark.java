@@ -0,0 +1,162 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.BirdsApplication;
+import com.example.birds.config.SightingStorageMode;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.SightingStorageManager;
+import com.example.birds.service.SightingService;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sightings stored in a regular collection with sightings stored in a time-series collection:
+ * the storage size, printed on setup, and the latency of the date-time, bird and location searches.
+ * </br>
+ * Requires a running mongod (7.0 or later for the time-series collection), by default
+ * mongodb://localhost:27017 (override with -Dbenchmark.mongodb.uri=...). Each storage mode uses its own database,
+ * birdservice-benchmark-regular and birdservice-benchmark-time_series, seeded on setup unless already seeded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SightingStorageBenchmark {
+
+    private static final String DEFAULT_URI = "mongodb://localhost:27017";
+
+    private static final int BIRD_COUNT = 10_000;
+
+    private static final int SIGHTING_COUNT = 200_000;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final int LOCATION_COUNT = 100;
+
+    private static final LocalDateTime FIRST_DATE_TIME = LocalDateTime.parse("2023-01-01T00:00:00");
+
+    @Param({"REGULAR", "TIME_SERIES"})
+    private SightingStorageMode storageMode;
+
+    @Param({"0.001", "0.01", "0.1"})
+    private double selectivity;
+
+    private ConfigurableApplicationContext context;
+
+    private SightingService sightingService;
+
+    private String birdId;
+
+    private String startDateTime;
+
+    private String endDateTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BirdsApplication.class)
+                .web(WebApplicationType.NONE)
+                // command line arguments, since default properties would be overridden by application.properties
+                .run("--spring.data.mongodb.uri=" + System.getProperty("benchmark.mongodb.uri", DEFAULT_URI),
+                        "--spring.data.mongodb.database=birdservice-benchmark-" + storageMode.name().toLowerCase(),
+                        "--sightings.storage.mode=" + storageMode,
+                        "--indexes.verify-on-startup=false");
+        final MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        seed(mongoTemplate, context.getBean(SightingStorageManager.class));
+        printStorageSize(mongoTemplate);
+
+        sightingService = context.getBean(SightingService.class);
+        birdId = mongoTemplate.findOne(new Query(), Bird.class).getId();
+
+        // sightings are one minute apart, so the interval covers the requested fraction of them
+        startDateTime = FIRST_DATE_TIME.minusMinutes(1).toString();
+        endDateTime = FIRST_DATE_TIME.plusMinutes((long) (SIGHTING_COUNT * selectivity)).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsByDateTimeInterval() {
+        return sightingService.getSightingsByCriteria(null, null, startDateTime, endDateTime, null);
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsByBirdAndDateTimeInterval() {
+        return sightingService.getSightingsByCriteria(birdId, null, startDateTime, endDateTime, null);
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> getSightingsByLocationAndDateTimeInterval() {
+        return sightingService.getSightingsByCriteria(null, List.of("location0"), startDateTime, endDateTime, null);
+    }
+
+    /**
+     * Drops and seeds the benchmark database, unless it already holds the expected dataset,
+     * then creates the declared indexes.
+     * @param mongoTemplate {@link MongoTemplate}
+     * @param sightingStorageManager {@link SightingStorageManager}
+     */
+    private static void seed(MongoTemplate mongoTemplate, SightingStorageManager sightingStorageManager) {
+        if (mongoTemplate.count(new Query(), Bird.class) != BIRD_COUNT
+                || mongoTemplate.count(new Query(), Sighting.class) != SIGHTING_COUNT) {
+            mongoTemplate.dropCollection(Bird.class);
+            mongoTemplate.dropCollection(Sighting.class);
+            // creates the time-series collection again, in time-series mode
+            sightingStorageManager.ensureCollection();
+
+            final List<Bird> birds = new ArrayList<>(BIRD_COUNT);
+            for (int i = 0; i < BIRD_COUNT; i++) {
+                birds.add(new Bird("name" + i, "color" + (i % 20), 10d + i % 50, 5d + i % 30));
+            }
+            final List<Bird> savedBirds = new ArrayList<>(mongoTemplate.insertAll(birds));
+
+            final Random random = new Random(42);
+            final List<Sighting> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = 0; i < SIGHTING_COUNT; i++) {
+                final String sightingBirdId = savedBirds.get(random.nextInt(BIRD_COUNT)).getId();
+                batch.add(new Sighting(sightingBirdId, "location" + (i % LOCATION_COUNT), FIRST_DATE_TIME.plusMinutes(i)));
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    mongoTemplate.insertAll(batch);
+                    batch.clear();
+                }
+            }
+            mongoTemplate.insertAll(batch);
+        }
+
+        final IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : List.of(Bird.class, Sighting.class)) {
+            for (IndexDefinition index : indexResolver.resolveIndexFor(entity)) {
+                mongoTemplate.indexOps(entity).ensureIndex(index);
+            }
+        }
+    }
+
+    /**
+     * Prints the size of the sightings collection and of its indexes, as reported by MongoDB.
+     * @param mongoTemplate {@link MongoTemplate}
+     */
+    private void printStorageSize(MongoTemplate mongoTemplate) {
+        final Document stats = mongoTemplate.getDb()
+                .runCommand(new Document("collStats", mongoTemplate.getCollectionName(Sighting.class)));
+        System.out.printf("%n%s sightings: storageSize=%s bytes, totalIndexSize=%s bytes%n", storageMode,
+                stats.get("storageSize"), stats.get("totalIndexSize"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.birds.benchmark;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.service.ModelService;
+import com.example.birds.service.ValidationService;
+import com.example.birds.util.BirdIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for both {@link ValidationService} orphan record checks: of sightings against their birds,
+ * and of sightings already joined with their birds. The datasets hold no orphan sightings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int sightingCount;
+
+    private final ValidationService validationService = new ValidationService();
+
+    private List<Sighting> sightings;
+
+    private List<BirdResponseDto> birdResponseDTOs;
+
+    private List<SightingResponseDto> sightingResponseDTOs;
+
+    @Setup
+    public void setUp() {
+        birdResponseDTOs = BenchmarkData.buildBirdResponseDTOs(sightingCount);
+        sightings = BenchmarkData.buildSightings(sightingCount, birdResponseDTOs, new Random(42));
+        sightingResponseDTOs = new ModelService().getSightingResponseDTOs(sightings, birdResponseDTOs);
+    }
+
+    @Benchmark
+    public BirdIndex verifyOrphanRecords() {
+        return validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
+    }
+
+    @Benchmark
+    public List<SightingResponseDto> verifyJoinedOrphanRecords() {
+        validationService.verifyOrphanRecords(sightingResponseDTOs);
+        return sightingResponseDTOs;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.birds.loadtest;
+
+import com.example.birds.BirdsApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: boots {@link BirdsApplication} on a random port against an embedded mongod
+ * (or a local one, see loadtest.mongodb.uri), seeds a synthetic dataset through the REST API, then drives
+ * the mixed workload of loadtest.mix at loadtest.rate requests per second and writes a {@link LoadTestReport}.
+ * </br>
+ * The arrival rate is open-loop: requests start on schedule whatever the response times, as independent users would,
+ * so a slow application gets a growing number of requests in flight instead of a lower request rate.
+ * Requests of the warmup are sent but not reported.
+ */
+public final class LoadTest {
+
+    private static final String EMBEDDED_DATABASE_URI = "mongodb://localhost/birdservice-loadtest";
+
+    private static final int CLIENT_THREADS = 8;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final ExecutorService clientExecutor = Executors.newFixedThreadPool(CLIENT_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.getTimeout())
+                .executor(clientExecutor)
+                .build();
+
+        int status = 0;
+        try (ConfigurableApplicationContext context = start(settings)) {
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            final URI baseUri = URI.create("http://localhost:" + port);
+            System.out.printf("Seeding %d birds and %d sightings%n", settings.getBirds(), settings.getSightings());
+            final LoadTestDataset dataset = LoadTestDataset.seed(client, baseUri, settings, objectMapper);
+
+            System.out.printf("Driving %.1f requests/s for %s after a %s warmup%n", settings.getRate(),
+                    settings.getDuration(), settings.getWarmup());
+            final LocalDateTime startedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            final LoadTestRecorder recorder = drive(settings, client, dataset);
+            final Path run = new LoadTestReport(settings, recorder, startedAt, objectMapper).write(System.out);
+            System.out.println("Report written to " + run.toAbsolutePath());
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            status = 1;
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Boots the application, on a random port, against an embedded mongod or the empty loadtest.mongodb.uri database.
+     * @param settings {@link LoadTestSettings}
+     * @return {@link ConfigurableApplicationContext}
+     */
+    static ConfigurableApplicationContext start(LoadTestSettings settings) {
+        final List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        if (settings.isEmbedded()) {
+            // the embedded mongod listens on a random port, overriding the one of the uri
+            args.add("--spring.data.mongodb.uri=" + EMBEDDED_DATABASE_URI);
+            args.add("--spring.mongodb.embedded.version=" + settings.getEmbeddedVersion());
+        } else {
+            final String database = new ConnectionString(settings.getMongodbUri()).getDatabase();
+            if (Objects.isNull(database)) {
+                throw new IllegalArgumentException("loadtest.mongodb.uri must name a database: " + settings.getMongodbUri());
+            }
+            try (MongoClient mongoClient = MongoClients.create(settings.getMongodbUri())) {
+                mongoClient.getDatabase(database).drop();
+            }
+            args.add("--spring.data.mongodb.uri=" + settings.getMongodbUri());
+        }
+        args.addAll(settings.getAppArgs());
+        final SpringApplication application = new SpringApplication(BirdsApplication.class);
+        if (!settings.getProfiles().isBlank()) {
+            application.setAdditionalProfiles(settings.getProfiles().split(","));
+        }
+        if (!settings.isEmbedded()) {
+            application.addInitializers(context -> excludeEmbeddedMongo(context.getEnvironment()));
+        }
+        return application.run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Adds the embedded mongod auto-configuration, on the load test classpath, to the excluded ones.
+     * @param environment {@link ConfigurableEnvironment}
+     */
+    private static void excludeEmbeddedMongo(ConfigurableEnvironment environment) {
+        final String excluded = environment.getProperty("spring.autoconfigure.exclude", "");
+        final String embedded = EmbeddedMongoAutoConfiguration.class.getName();
+        environment.getPropertySources().addFirst(new MapPropertySource("loadtest", Map.of(
+                "spring.autoconfigure.exclude", excluded.isBlank() ? embedded : excluded + "," + embedded)));
+    }
+
+    /**
+     * Sends the requests of the warmup, then of the measured duration, on schedule, and waits for their responses.
+     * @param settings {@link LoadTestSettings}
+     * @param client {@link HttpClient}
+     * @param dataset {@link LoadTestDataset}
+     * @return the {@link LoadTestRecorder} of the measured requests
+     * @throws InterruptedException when interrupted
+     */
+    static LoadTestRecorder drive(LoadTestSettings settings, HttpClient client, LoadTestDataset dataset)
+            throws InterruptedException {
+        final Random random = new Random(settings.getSeed());
+        final LoadTestOperation[] operations = settings.getMix().keySet().toArray(new LoadTestOperation[0]);
+        final int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += settings.getMix().get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        final LoadTestRecorder warmupRecorder = new LoadTestRecorder(settings.getMix().keySet());
+        final LoadTestRecorder recorder = new LoadTestRecorder(settings.getMix().keySet());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+        final long start = System.nanoTime();
+        final long measurementStart = start + settings.getWarmup().toNanos();
+        final long end = measurementStart + settings.getDuration().toNanos();
+
+        long scheduled = start;
+        while (scheduled < end) {
+            final long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            final int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            send(client, dataset, operations[index], random, scheduled,
+                    scheduled < measurementStart ? warmupRecorder : recorder, inFlight, settings.getMaxInFlight());
+            // late requests keep their schedule, they are sent at once and report the delay
+            scheduled += settings.isPoisson()
+                    ? (long) (-Math.log(1 - random.nextDouble()) * intervalNanos)
+                    : (long) intervalNanos;
+        }
+
+        final long deadline = System.nanoTime() + settings.getTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return recorder;
+    }
+
+    private static void send(HttpClient client, LoadTestDataset dataset, LoadTestOperation operation, Random random,
+                             long scheduled, LoadTestRecorder recorder, AtomicInteger inFlight, int maxInFlight) {
+        if (inFlight.get() >= maxInFlight) {
+            recorder.dropped(operation);
+            return;
+        }
+        final HttpRequest request = operation.request(dataset, random);
+        if (Objects.isNull(request)) {
+            recorder.dropped(operation);
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            final long latency = System.nanoTime() - scheduled;
+            inFlight.decrementAndGet();
+            if (Objects.nonNull(error)) {
+                recorder.error(operation, error.getCause() instanceof HttpTimeoutException
+                        || error instanceof HttpTimeoutException ? "timeout" : "connection");
+            } else if (response.statusCode() / 100 != 2) {
+                recorder.error(operation, "HTTP " + response.statusCode());
+            } else {
+                operation.onSuccess(dataset, response.body());
+                recorder.success(operation, latency);
+            }
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.birds.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Synthetic dataset seeded through the REST API, and the requests reading and writing it.
+ * </br>
+ * Birds get one of {@value #COLORS} colors, sightings one of {@value #LOCATIONS} locations, a date-time during
+ * the last days and coordinates inside California. The seeded birds and sightings are read and updated,
+ * only the sightings created by the load test are deleted, so that reads never miss.
+ */
+final class LoadTestDataset {
+
+    static final int COLORS = 20;
+
+    static final int LOCATIONS = 100;
+
+    static final double WEST = -124;
+
+    static final double EAST = -114;
+
+    static final double SOUTH = 32;
+
+    static final double NORTH = 42;
+
+    private static final int BULK_SIZE = 5000;
+
+    private static final int SEED_CONCURRENCY = 32;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final URI baseUri;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration timeout;
+
+    private final List<String> birdIds;
+
+    private final List<String> sightingIds;
+
+    private final Queue<String> createdSightingIds = new ConcurrentLinkedQueue<>();
+
+    private final LocalDateTime end;
+
+    private final int sightingDays;
+
+    private LoadTestDataset(URI baseUri, ObjectMapper objectMapper, Duration timeout, List<String> birdIds,
+                            List<String> sightingIds, LocalDateTime end, int sightingDays) {
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.birdIds = birdIds;
+        this.sightingIds = sightingIds;
+        this.end = end;
+        this.sightingDays = sightingDays;
+    }
+
+    /**
+     * Creates the birds, then their sightings with the bulk endpoint.
+     * @param client {@link HttpClient}
+     * @param baseUri {@link URI} of the application
+     * @param settings {@link LoadTestSettings}
+     * @param objectMapper {@link ObjectMapper}
+     * @return the seeded {@link LoadTestDataset}
+     * @throws IOException when a bird or a sighting isn't created
+     * @throws IllegalStateException when the application rejects a bird or a sighting
+     * @throws InterruptedException when interrupted
+     */
+    static LoadTestDataset seed(HttpClient client, URI baseUri, LoadTestSettings settings, ObjectMapper objectMapper)
+            throws IOException, InterruptedException {
+        final Random random = new Random(settings.getSeed());
+        final LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final LoadTestDataset seeding = new LoadTestDataset(baseUri, objectMapper, settings.getTimeout(), List.of(),
+                List.of(), end, settings.getSightingDays());
+
+        final Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        final List<CompletableFuture<String>> birds = new ArrayList<>(settings.getBirds());
+        for (int i = 0; i < settings.getBirds(); i++) {
+            permits.acquire();
+            birds.add(client.sendAsync(seeding.post("/api/birds", seeding.birdBody(i, random)),
+                            HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> permits.release())
+                    .thenApply(response -> seeding.readId(seeding.checkStatus(response, "bird").body())));
+        }
+        final List<String> birdIds = new ArrayList<>(birds.size());
+        for (CompletableFuture<String> bird : birds) {
+            birdIds.add(bird.join());
+        }
+
+        final List<String> sightingIds = new ArrayList<>(settings.getSightings());
+        for (int start = 0; start < settings.getSightings(); start += BULK_SIZE) {
+            final List<Map<String, Object>> chunk = new ArrayList<>(BULK_SIZE);
+            for (int i = start; i < Math.min(start + BULK_SIZE, settings.getSightings()); i++) {
+                chunk.add(seeding.sighting(birdIds.get(random.nextInt(birdIds.size())), random));
+            }
+            final HttpResponse<String> response = client.send(seeding.post("/api/sightings/bulk", chunk),
+                    HttpResponse.BodyHandlers.ofString());
+            final JsonNode result = objectMapper.readTree(seeding.checkStatus(response, "sightings").body());
+            if (result.path("failed").asInt() > 0) {
+                throw new IOException("Sightings not seeded: " + result.path("items").findValuesAsText("error"));
+            }
+            result.path("items").forEach(item -> sightingIds.add(item.path("id").asText()));
+        }
+        return new LoadTestDataset(baseUri, objectMapper, settings.getTimeout(), List.copyOf(birdIds),
+                List.copyOf(sightingIds), end, settings.getSightingDays());
+    }
+
+    String randomBirdId(Random random) {
+        return birdIds.get(random.nextInt(birdIds.size()));
+    }
+
+    String randomSightingId(Random random) {
+        return sightingIds.get(random.nextInt(sightingIds.size()));
+    }
+
+    void addCreatedSighting(String id) {
+        createdSightingIds.add(id);
+    }
+
+    /**
+     * Takes the oldest sighting created by the load test.
+     * @return {@link String} sighting id, null when there is none left
+     */
+    String pollCreatedSighting() {
+        return createdSightingIds.poll();
+    }
+
+    String randomColor(Random random) {
+        return "color" + random.nextInt(COLORS);
+    }
+
+    String randomLocation(Random random) {
+        return "location" + random.nextInt(LOCATIONS);
+    }
+
+    /**
+     * Picks a date-time during the seeded days.
+     * @param random {@link Random}
+     * @return {@link LocalDateTime}
+     */
+    LocalDateTime randomDateTime(Random random) {
+        return end.minusSeconds((long) (random.nextDouble() * sightingDays * 24 * 3600));
+    }
+
+    LocalDateTime getEnd() {
+        return end;
+    }
+
+    String format(LocalDateTime dateTime) {
+        return dateTime.format(DATE_TIME_FORMATTER);
+    }
+
+    Map<String, Object> birdBody(int index, Random random) {
+        final Map<String, Object> bird = new LinkedHashMap<>();
+        bird.put("name", "bird" + index);
+        bird.put("color", "color" + index % COLORS);
+        bird.put("weight", 10 + random.nextDouble() * 90);
+        bird.put("height", 5 + random.nextDouble() * 45);
+        return bird;
+    }
+
+    Map<String, Object> sighting(String birdId, Random random) {
+        final Map<String, Object> sighting = new LinkedHashMap<>();
+        sighting.put("birdId", birdId);
+        sighting.put("location", randomLocation(random));
+        sighting.put("dateTime", format(randomDateTime(random)));
+        sighting.put("coordinates", List.of(WEST + random.nextDouble() * (EAST - WEST),
+                SOUTH + random.nextDouble() * (NORTH - SOUTH)));
+        return sighting;
+    }
+
+    HttpRequest get(String pathAndQuery) {
+        return request(pathAndQuery).GET().build();
+    }
+
+    HttpRequest post(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").POST(bodyOf(body)).build();
+    }
+
+    HttpRequest put(String path, Object body) {
+        return request(path).header("Content-Type", "application/json").PUT(bodyOf(body)).build();
+    }
+
+    HttpRequest delete(String path) {
+        return request(path).DELETE().build();
+    }
+
+    /**
+     * Reads the id of a created bird or sighting.
+     * @param body {@link String} response body
+     * @return {@link String} id
+     * @throws IllegalStateException when the body isn't a JSON object
+     */
+    String readId(String body) {
+        try {
+            return objectMapper.readTree(body).path("id").asText();
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+
+    private HttpResponse<String> checkStatus(HttpResponse<String> response, String what) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Failed to create " + what + ": HTTP " + response.statusCode() + " "
+                    + response.body());
+        }
+        return response;
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery))
+                .header("Accept", "application/json")
+                .timeout(timeout);
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException(exception.getMessage(), exception);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.birds.loadtest;
+
+import com.example.birds.util.SightingHeatmapSearch;
+
+import java.net.http.HttpRequest;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The requests of the mixed workload, each reported separately.
+ */
+enum LoadTestOperation {
+
+    GET_BIRD("getBird") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.get("/api/birds/" + dataset.randomBirdId(random));
+        }
+    },
+    SEARCH_BIRDS("searchBirds") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.get("/api/birds/search?color=" + dataset.randomColor(random) + "&limit=100");
+        }
+    },
+    LIST_BIRDS("listBirds") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.get("/api/birds?limit=100");
+        }
+    },
+    CREATE_BIRD("createBird") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.post("/api/birds", dataset.birdBody(random.nextInt(Integer.MAX_VALUE), random));
+        }
+    },
+    UPDATE_BIRD("updateBird") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final int index = random.nextInt(Integer.MAX_VALUE);
+            return dataset.put("/api/birds/" + dataset.randomBirdId(random), dataset.birdBody(index, random));
+        }
+    },
+    GET_SIGHTING("getSighting") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.get("/api/sightings/" + dataset.randomSightingId(random));
+        }
+    },
+    SEARCH_SIGHTINGS("searchSightings") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final LocalDateTime start = dataset.randomDateTime(random);
+            return dataset.get("/api/sightings/search?location=" + dataset.randomLocation(random)
+                    + "&startDateTime=" + dataset.format(start)
+                    + "&endDateTime=" + dataset.format(start.plusDays(1)) + "&limit=100");
+        }
+    },
+    COUNT_SIGHTINGS("countSightings") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final LocalDateTime start = dataset.getEnd().minusHours(1 + random.nextInt(24));
+            return dataset.get("/api/sightings/count?startDateTime=" + dataset.format(start));
+        }
+    },
+    LIST_SIGHTINGS("listSightings") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.get("/api/sightings?limit=100");
+        }
+    },
+    CREATE_SIGHTING("createSighting") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            return dataset.post("/api/sightings", dataset.sighting(dataset.randomBirdId(random), random));
+        }
+
+        @Override
+        void onSuccess(LoadTestDataset dataset, String body) {
+            dataset.addCreatedSighting(dataset.readId(body));
+        }
+    },
+    UPDATE_SIGHTING("updateSighting") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final Map<String, Object> sighting = dataset.sighting(dataset.randomBirdId(random), random);
+            return dataset.put("/api/sightings/" + dataset.randomSightingId(random), sighting);
+        }
+    },
+    DELETE_SIGHTING("deleteSighting") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final String id = dataset.pollCreatedSighting();
+            return id == null ? null : dataset.delete("/api/sightings/" + id);
+        }
+    },
+    HEATMAP("heatmap") {
+        @Override
+        HttpRequest request(LoadTestDataset dataset, Random random) {
+            final int zoom = 4 + random.nextInt(5);
+            final double longitude = LoadTestDataset.WEST + random.nextDouble() * (LoadTestDataset.EAST - LoadTestDataset.WEST);
+            final double latitude = LoadTestDataset.SOUTH + random.nextDouble() * (LoadTestDataset.NORTH - LoadTestDataset.SOUTH);
+            return dataset.get("/api/sightings/heatmap/" + zoom + "/" + SightingHeatmapSearch.getTileX(zoom, longitude)
+                    + "/" + SightingHeatmapSearch.getTileY(zoom, latitude));
+        }
+    };
+
+    private final String name;
+
+    LoadTestOperation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Finds an operation by its name, as used in loadtest.mix and in the reports.
+     * @param name {@link String}
+     * @return {@link LoadTestOperation}
+     * @throws IllegalArgumentException when no operation has this name
+     */
+    static LoadTestOperation of(String name) {
+        for (LoadTestOperation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation: " + name);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Builds the next request of this operation.
+     * @param dataset {@link LoadTestDataset}
+     * @param random {@link Random}
+     * @return {@link HttpRequest}, null when there is nothing to send, e.g. no created sighting left to delete
+     */
+    abstract HttpRequest request(LoadTestDataset dataset, Random random);
+
+    /**
+     * Handles the body of a successful response.
+     * @param dataset {@link LoadTestDataset}
+     * @param body {@link String}
+     */
+    void onSuccess(LoadTestDataset dataset, String body) {
+    }
+}
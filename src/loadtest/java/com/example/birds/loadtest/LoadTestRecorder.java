@@ -0,0 +1,92 @@
+package com.example.birds.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records, per operation, the latency histogram of the successful responses and the failed or dropped requests.
+ * </br>
+ * Latencies are recorded in microseconds, from the time the request was scheduled to start, rather than sent,
+ * so that the requests delayed by a saturated client or application report the wait (no coordinated omission).
+ */
+final class LoadTestRecorder {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(5);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<LoadTestOperation, OperationRecorder> recorders = new EnumMap<>(LoadTestOperation.class);
+
+    LoadTestRecorder(Collection<LoadTestOperation> operations) {
+        for (LoadTestOperation operation : operations) {
+            recorders.put(operation, new OperationRecorder());
+        }
+    }
+
+    /**
+     * Records a successful response.
+     * @param operation {@link LoadTestOperation}
+     * @param latencyNanos long, from the scheduled start
+     */
+    void success(LoadTestOperation operation, long latencyNanos) {
+        recorders.get(operation).histogram.recordValue(
+                Math.min(HIGHEST_LATENCY, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+    }
+
+    /**
+     * Records a failed request: an error status, a timeout or a connection failure.
+     * @param operation {@link LoadTestOperation}
+     * @param reason {@link String}, e.g. "HTTP 500"
+     */
+    void error(LoadTestOperation operation, String reason) {
+        recorders.get(operation).errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a request that was not sent.
+     * @param operation {@link LoadTestOperation}
+     */
+    void dropped(LoadTestOperation operation) {
+        recorders.get(operation).dropped.increment();
+    }
+
+    Collection<LoadTestOperation> getOperations() {
+        return recorders.keySet();
+    }
+
+    Histogram getHistogram(LoadTestOperation operation) {
+        return recorders.get(operation).histogram;
+    }
+
+    /**
+     * Gets the failed requests of an operation by reason.
+     * @param operation {@link LoadTestOperation}
+     * @return Map of counts by reason, sorted
+     */
+    Map<String, Long> getErrors(LoadTestOperation operation) {
+        final Map<String, Long> errors = new TreeMap<>();
+        recorders.get(operation).errors.forEach((reason, count) -> errors.put(reason, count.sum()));
+        return errors;
+    }
+
+    long getDropped(LoadTestOperation operation) {
+        return recorders.get(operation).dropped.sum();
+    }
+
+    private static final class OperationRecorder {
+
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, SIGNIFICANT_DIGITS);
+
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private final LongAdder dropped = new LongAdder();
+    }
+}
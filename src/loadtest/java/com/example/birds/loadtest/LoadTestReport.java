@@ -0,0 +1,172 @@
+package com.example.birds.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the report of a load test run, kept for trend comparison:
+ * <ul>
+ *     <li>{reports}/{run}/summary.json, the settings, and the throughput and latency percentiles per operation</li>
+ *     <li>{reports}/{run}/{operation}.hgrm, the latency percentile distributions in milliseconds,
+ *     readable by the HdrHistogram plotter</li>
+ *     <li>{reports}/history.csv, one line per operation and run, appended</li>
+ * </ul>
+ */
+final class LoadTestReport {
+
+    static final String TOTAL = "total";
+
+    private static final DateTimeFormatter RUN_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final String HISTORY_HEADER = "startedAt,profiles,rate,arrival,birds,sightings,operation,requests,"
+            + "throughput,errors,dropped,p50Ms,p90Ms,p99Ms,p999Ms,maxMs";
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestSettings settings;
+
+    private final LoadTestRecorder recorder;
+
+    private final LocalDateTime startedAt;
+
+    private final ObjectMapper objectMapper;
+
+    LoadTestReport(LoadTestSettings settings, LoadTestRecorder recorder, LocalDateTime startedAt,
+                   ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.recorder = recorder;
+        this.startedAt = startedAt;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the report files and prints the summary.
+     * @param out {@link PrintStream} the summary is printed to
+     * @return {@link Path} of the run directory
+     * @throws IOException when a file can't be written
+     */
+    Path write(PrintStream out) throws IOException {
+        final Path reports = Path.of(settings.getReports());
+        final Path run = reports.resolve(startedAt.format(RUN_FORMATTER));
+        Files.createDirectories(run);
+
+        final Histogram total = new Histogram(3);
+        final Map<String, Long> totalErrors = new TreeMap<>();
+        long totalDropped = 0;
+        final List<Map<String, Object>> operations = new ArrayList<>();
+        for (LoadTestOperation operation : recorder.getOperations()) {
+            final Histogram histogram = recorder.getHistogram(operation);
+            final Map<String, Long> errors = recorder.getErrors(operation);
+            total.add(histogram);
+            errors.forEach((reason, count) -> totalErrors.merge(reason, count, Long::sum));
+            totalDropped += recorder.getDropped(operation);
+            operations.add(getStats(operation.getName(), histogram, errors, recorder.getDropped(operation)));
+            writeHistogram(run.resolve(operation.getName() + ".hgrm"), histogram);
+        }
+        operations.add(getStats(TOTAL, total, totalErrors, totalDropped));
+        writeHistogram(run.resolve(TOTAL + ".hgrm"), total);
+
+        final Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", startedAt.toString());
+        summary.put("settings", getSettings());
+        summary.put("operations", operations);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(run.resolve("summary.json").toFile(), summary);
+        appendHistory(reports.resolve("history.csv"), operations);
+        print(out, operations);
+        return run;
+    }
+
+    private Map<String, Object> getSettings() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mongodb", settings.isEmbedded() ? "embedded " + settings.getEmbeddedVersion() : "local");
+        result.put("profiles", settings.getProfiles());
+        result.put("appArgs", settings.getAppArgs());
+        result.put("rate", settings.getRate());
+        result.put("arrival", settings.isPoisson() ? "poisson" : "constant");
+        result.put("warmup", settings.getWarmup().toString());
+        result.put("duration", settings.getDuration().toString());
+        result.put("birds", settings.getBirds());
+        result.put("sightings", settings.getSightings());
+        final Map<String, Integer> mix = new LinkedHashMap<>();
+        settings.getMix().forEach((operation, weight) -> mix.put(operation.getName(), weight));
+        result.put("mix", mix);
+        result.put("maxInFlight", settings.getMaxInFlight());
+        return result;
+    }
+
+    private Map<String, Object> getStats(String name, Histogram histogram, Map<String, Long> errors, long dropped) {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("operation", name);
+        stats.put("requests", histogram.getTotalCount());
+        stats.put("throughput", histogram.getTotalCount() / (double) settings.getDuration().toMillis() * 1000);
+        stats.put("errors", errors.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("errorsByReason", errors);
+        stats.put("dropped", dropped);
+        stats.put("meanMs", histogram.getMean() / MICROS_PER_MILLI);
+        stats.put("p50Ms", getPercentile(histogram, 50));
+        stats.put("p90Ms", getPercentile(histogram, 90));
+        stats.put("p99Ms", getPercentile(histogram, 99));
+        stats.put("p999Ms", getPercentile(histogram, 99.9));
+        stats.put("maxMs", histogram.getMaxValue() / MICROS_PER_MILLI);
+        return stats;
+    }
+
+    private double getPercentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private void writeHistogram(Path path, Histogram histogram) throws IOException {
+        try (PrintStream stream = new PrintStream(Files.newOutputStream(path), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(stream, MICROS_PER_MILLI);
+        }
+    }
+
+    private void appendHistory(Path path, List<Map<String, Object>> operations) throws IOException {
+        final StringBuilder lines = new StringBuilder();
+        if (!Files.exists(path)) {
+            lines.append(HISTORY_HEADER).append(System.lineSeparator());
+        }
+        for (Map<String, Object> stats : operations) {
+            lines.append(String.join(",", startedAt.toString(), settings.getProfiles().replace(',', '+'),
+                            format(settings.getRate()), settings.isPoisson() ? "poisson" : "constant",
+                            String.valueOf(settings.getBirds()), String.valueOf(settings.getSightings()),
+                            (String) stats.get("operation"), String.valueOf(stats.get("requests")),
+                            format((double) stats.get("throughput")), String.valueOf(stats.get("errors")),
+                            String.valueOf(stats.get("dropped")), format((double) stats.get("p50Ms")),
+                            format((double) stats.get("p90Ms")), format((double) stats.get("p99Ms")),
+                            format((double) stats.get("p999Ms")), format((double) stats.get("maxMs"))))
+                    .append(System.lineSeparator());
+        }
+        Files.writeString(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void print(PrintStream out, List<Map<String, Object>> operations) {
+        out.printf("%-16s %10s %10s %8s %8s %10s %10s %10s %10s %10s%n", "OPERATION", "REQUESTS", "REQ/S",
+                "ERRORS", "DROPPED", "P50 MS", "P90 MS", "P99 MS", "P999 MS", "MAX MS");
+        for (Map<String, Object> stats : operations) {
+            out.printf(Locale.ROOT, "%-16s %10d %10.1f %8d %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    stats.get("operation"), stats.get("requests"), stats.get("throughput"), stats.get("errors"),
+                    stats.get("dropped"), stats.get("p50Ms"), stats.get("p90Ms"), stats.get("p99Ms"),
+                    stats.get("p999Ms"), stats.get("maxMs"));
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.birds.loadtest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from the loadtest.* system properties.
+ */
+final class LoadTestSettings {
+
+    static final String DEFAULT_MIX = "getBird=15,searchBirds=10,listBirds=3,createBird=2,updateBird=2,"
+            + "getSighting=20,searchSightings=15,countSightings=5,listSightings=3,createSighting=10,"
+            + "updateSighting=5,deleteSighting=5,heatmap=5";
+
+    /**
+     * Mix of the SightingController requests only, selected with loadtest.mix=sightings.
+     */
+    static final String SIGHTINGS_MIX = "getSighting=35,searchSightings=25,countSightings=10,listSightings=5,"
+            + "createSighting=10,updateSighting=5,deleteSighting=5,heatmap=5";
+
+    private final String mongodbUri;
+
+    private final String embeddedVersion;
+
+    private final String profiles;
+
+    private final String appArgs;
+
+    private final int birds;
+
+    private final int sightings;
+
+    private final int sightingDays;
+
+    private final double rate;
+
+    private final boolean poisson;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final Duration timeout;
+
+    private final int maxInFlight;
+
+    private final Map<LoadTestOperation, Integer> mix;
+
+    private final String reports;
+
+    private final long seed;
+
+    private LoadTestSettings(String mongodbUri, String embeddedVersion, String profiles, String appArgs, int birds,
+                             int sightings, int sightingDays, double rate, boolean poisson, Duration warmup, Duration duration,
+                             Duration timeout, int maxInFlight, Map<LoadTestOperation, Integer> mix, String reports,
+                             long seed) {
+        this.mongodbUri = mongodbUri;
+        this.embeddedVersion = embeddedVersion;
+        this.profiles = profiles;
+        this.appArgs = appArgs;
+        this.birds = birds;
+        this.sightings = sightings;
+        this.sightingDays = sightingDays;
+        this.rate = rate;
+        this.poisson = poisson;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+        this.mix = mix;
+        this.reports = reports;
+        this.seed = seed;
+    }
+
+    /**
+     * Reads the settings from the system properties, see the README for their meaning.
+     * @return a {@link LoadTestSettings} object
+     * @throws IllegalArgumentException when a setting is invalid
+     */
+    static LoadTestSettings fromSystemProperties() {
+        final String arrival = System.getProperty("loadtest.arrival", "constant");
+        if (!"constant".equals(arrival) && !"poisson".equals(arrival)) {
+            throw new IllegalArgumentException("loadtest.arrival must be constant or poisson: " + arrival);
+        }
+        final LoadTestSettings settings = new LoadTestSettings(
+                System.getProperty("loadtest.mongodb.uri", ""),
+                System.getProperty("loadtest.mongodb.embedded-version", "4.0.21"),
+                System.getProperty("loadtest.profiles", ""),
+                System.getProperty("loadtest.app-args", "").trim(),
+                Integer.parseInt(System.getProperty("loadtest.birds", "1000")),
+                Integer.parseInt(System.getProperty("loadtest.sightings", "100000")),
+                Integer.parseInt(System.getProperty("loadtest.sighting-days", "30")),
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                "poisson".equals(arrival),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT30S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT2M")),
+                Duration.parse(System.getProperty("loadtest.timeout", "PT30S")),
+                Integer.parseInt(System.getProperty("loadtest.max-in-flight", "10000")),
+                parseMix(getMix(System.getProperty("loadtest.mix", DEFAULT_MIX))),
+                System.getProperty("loadtest.reports", "loadtest-reports"),
+                Long.parseLong(System.getProperty("loadtest.seed", "42")));
+        if (settings.birds < 1 || settings.sightings < 1 || settings.sightingDays < 1) {
+            throw new IllegalArgumentException("loadtest.birds, loadtest.sightings and loadtest.sighting-days must be positive");
+        }
+        if (settings.rate <= 0 || settings.maxInFlight < 1) {
+            throw new IllegalArgumentException("loadtest.rate and loadtest.max-in-flight must be positive");
+        }
+        return settings;
+    }
+
+    private static String getMix(String mix) {
+        return "sightings".equals(mix) ? SIGHTINGS_MIX : mix;
+    }
+
+    /**
+     * Parses an operation mix, e.g. "getBird=3,createSighting=1".
+     * @param mix {@link String} comma separated operation=weight pairs
+     * @return Map of the weights by {@link LoadTestOperation}, without the zero weights
+     * @throws IllegalArgumentException when an operation is unknown, a weight negative or all the weights zero
+     */
+    static Map<LoadTestOperation, Integer> parseMix(String mix) {
+        final Map<LoadTestOperation, Integer> result = new EnumMap<>(LoadTestOperation.class);
+        for (String entry : mix.split(",")) {
+            final String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            final int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid loadtest.mix weight: " + entry);
+            }
+            if (weight > 0) {
+                result.put(LoadTestOperation.of(pair[0].trim()), weight);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix holds no operation");
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Local mongod URI, holding the database name, empty for an embedded mongod.
+     * @return {@link String}
+     */
+    String getMongodbUri() {
+        return mongodbUri;
+    }
+
+    boolean isEmbedded() {
+        return mongodbUri.isBlank();
+    }
+
+    String getEmbeddedVersion() {
+        return embeddedVersion;
+    }
+
+    String getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Additional application arguments, e.g. "--threads.mode=virtual --server.tomcat.max-connections=20000".
+     * @return List of {@link String}, empty when none
+     */
+    List<String> getAppArgs() {
+        return appArgs.isEmpty() ? List.of() : List.of(appArgs.split("\\s+"));
+    }
+
+    int getBirds() {
+        return birds;
+    }
+
+    int getSightings() {
+        return sightings;
+    }
+
+    int getSightingDays() {
+        return sightingDays;
+    }
+
+    /**
+     * Requests started per second, whatever the response times.
+     * @return double
+     */
+    double getRate() {
+        return rate;
+    }
+
+    /**
+     * Whether the requests arrive as a Poisson process (exponential gaps), rather than at a constant interval.
+     * @return boolean
+     */
+    boolean isPoisson() {
+        return poisson;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Requests in flight above which the next ones are dropped, when the application can't keep up.
+     * @return int
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    Map<LoadTestOperation, Integer> getMix() {
+        return mix;
+    }
+
+    String getReports() {
+        return reports;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+}
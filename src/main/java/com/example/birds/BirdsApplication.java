@@ -1,8 +1,12 @@
 package com.example.birds;
 
+import com.example.birds.repository.SightingStorageManager;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 /**
  * Main class for this spring boot application.
  */
@@ -11,9 +15,17 @@ public class BirdsApplication {
 
 	/**
 	 * Main method.
+	 * </br>
+	 * With the --{@value SightingStorageManager#MIGRATE_OPTION} option, the sightings are migrated
+	 * to a time-series collection without starting the web server, then the application exits.
 	 * @param args {@link String} array
 	 */
 	public static void main(String[] args) {
+		if (Arrays.asList(args).contains("--" + SightingStorageManager.MIGRATE_OPTION)) {
+			final SpringApplication application = new SpringApplication(BirdsApplication.class);
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
 		SpringApplication.run(BirdsApplication.class, args);
 	}
 
@@ -0,0 +1,56 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cache of birds read by id, see {@link com.example.birds.service.BirdCache}.
+ * </br>
+ * Example: birds.cache.maximum-size=10000
+ */
+@Component
+@ConfigurationProperties(prefix = "birds.cache")
+public class BirdCacheProperties {
+
+    /**
+     * Whether birds read by id are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached birds, the least useful ones are evicted first.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which a cached bird is read again from MongoDB.
+     * Bounds how long a bird updated by another instance can be served stale.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
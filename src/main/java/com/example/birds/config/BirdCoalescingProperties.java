@@ -0,0 +1,28 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the coalescing of concurrent identical bird reads,
+ * see {@link com.example.birds.service.BirdRequestCoalescer}.
+ * </br>
+ * Example: birds.coalescing.enabled=false
+ */
+@Component
+@ConfigurationProperties(prefix = "birds.coalescing")
+public class BirdCoalescingProperties {
+
+    /**
+     * Whether concurrent reads of the same bird, or searches with the same criteria, share a single MongoDB query.
+     */
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.birds.config;
+
+import com.example.birds.util.ErrorMessages;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the asynchronous deletion of birds, see {@link com.example.birds.service.BirdDeletionService}.
+ * </br>
+ * Example: birds.deletion.chunk-size=10000
+ */
+@Component
+@ConfigurationProperties(prefix = "birds.deletion")
+public class BirdDeletionProperties {
+
+    /**
+     * Number of sightings deleted at once.
+     */
+    private int chunkSize = 10_000;
+
+    /**
+     * Time during which the progress of a deletion can be read after its last change.
+     */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * Number of deletions waiting for the running one, further deletions are rejected.
+     */
+    private int queueCapacity = 100;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CHUNK_SIZE);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_QUEUE_CAPACITY);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+}
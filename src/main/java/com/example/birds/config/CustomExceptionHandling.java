@@ -1,5 +1,6 @@
 package com.example.birds.config;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,6 +11,7 @@ import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Custom exception handling, class for handling specific exceptions.
@@ -24,6 +26,9 @@ public class CustomExceptionHandling implements HandlerExceptionResolver {
      * in case of {@link IllegalArgumentException} response will be set as BAD_REQUEST.
      * </br>
      * in case of {@link IllegalStateException} response will be set as NOT_FOUND.
+     * </br>
+     * in case of {@link QueryTimeoutException} or {@link RejectedExecutionException} response will be set as
+     * SERVICE_UNAVAILABLE.
      * @param ex {@link Exception}
      * @return a {@link ResponseEntity} of {@link String}
      */
@@ -34,6 +39,8 @@ public class CustomExceptionHandling implements HandlerExceptionResolver {
             status = HttpStatus.BAD_REQUEST;
         } else if (ex instanceof IllegalStateException) {
             status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof QueryTimeoutException || ex instanceof RejectedExecutionException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
         }
 
         return new ResponseEntity<>("Status: " + status + " - " + ex.getMessage(), status);
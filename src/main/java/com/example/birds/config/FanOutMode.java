@@ -0,0 +1,16 @@
+package com.example.birds.config;
+
+/**
+ * How the independent MongoDB reads of a sighting listing are run.
+ */
+public enum FanOutMode {
+    /**
+     * One after the other, on the request thread.
+     */
+    SEQUENTIAL,
+    /**
+     * At the same time, on the bounded pool of I/O threads of {@link SightingFanOutProperties},
+     * or on virtual threads with threads.mode=virtual.
+     */
+    PARALLEL
+}
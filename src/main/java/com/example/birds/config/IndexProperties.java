@@ -0,0 +1,55 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the verification of the MongoDB indexes declared on the entities,
+ * see {@link com.example.birds.repository.IndexManager}.
+ * </br>
+ * Example: indexes.create-missing=false
+ */
+@Component
+@ConfigurationProperties(prefix = "indexes")
+public class IndexProperties {
+
+    /**
+     * Whether the indexes are verified in the background once the application started.
+     */
+    private boolean verifyOnStartup = true;
+
+    /**
+     * Whether the verification creates the missing indexes, or only logs them.
+     */
+    private boolean createMissing = true;
+
+    /**
+     * Whether bird and sighting searches tell MongoDB which declared index to use, instead of letting the planner choose.
+     * Hinting an index that doesn't exist fails the search.
+     */
+    private boolean hints = true;
+
+    public boolean isVerifyOnStartup() {
+        return verifyOnStartup;
+    }
+
+    public void setVerifyOnStartup(boolean verifyOnStartup) {
+        this.verifyOnStartup = verifyOnStartup;
+    }
+
+    public boolean isCreateMissing() {
+        return createMissing;
+    }
+
+    public void setCreateMissing(boolean createMissing) {
+        this.createMissing = createMissing;
+    }
+
+    public boolean isHints() {
+        return hints;
+    }
+
+    public void setHints(boolean hints) {
+        this.hints = hints;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.birds.config;
+
+/**
+ * Where sightings are joined with their birds.
+ */
+public enum JoinMode {
+    /**
+     * Sightings and birds are read separately and joined by the application.
+     */
+    JVM,
+    /**
+     * Sightings are joined with their birds by MongoDB, with a single $lookup aggregation.
+     */
+    AGGREGATION
+}
@@ -0,0 +1,83 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the profiler of the MongoDB commands by query shape,
+ * see {@link com.example.birds.repository.QueryProfiler}.
+ * </br>
+ * Example: queries.profiler.slow-threshold=250ms
+ */
+@Component
+@ConfigurationProperties(prefix = "queries.profiler")
+public class QueryProfilerProperties {
+
+    /**
+     * Whether the MongoDB commands are timed by query shape.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Duration above which a command is logged as slow.
+     */
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    /**
+     * Whether slow reads (find, aggregate, count and distinct) are explained in the background,
+     * running them again to count the documents they examine.
+     */
+    private boolean explain = true;
+
+    /**
+     * Minimum duration between two explains of the same query shape.
+     */
+    private Duration explainInterval = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of query shapes profiled, the commands of new shapes are not profiled beyond it.
+     */
+    private int maxShapes = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public boolean isExplain() {
+        return explain;
+    }
+
+    public void setExplain(boolean explain) {
+        this.explain = explain;
+    }
+
+    public Duration getExplainInterval() {
+        return explainInterval;
+    }
+
+    public void setExplainInterval(Duration explainInterval) {
+        this.explainInterval = explainInterval;
+    }
+
+    public int getMaxShapes() {
+        return maxShapes;
+    }
+
+    public void setMaxShapes(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+}
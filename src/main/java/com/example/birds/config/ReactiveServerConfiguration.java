@@ -0,0 +1,26 @@
+package com.example.birds.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Web server of the "reactive" profile.
+ * </br>
+ * Tomcat stays on the classpath for the default Spring MVC stack and would otherwise be preferred by Spring Boot
+ * for the reactive stack too, so Netty (event loop, no thread per connection) is selected explicitly.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfiguration {
+
+    /**
+     * Netty web server factory, server.* properties still apply to it.
+     * @return a {@link NettyReactiveWebServerFactory} object
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
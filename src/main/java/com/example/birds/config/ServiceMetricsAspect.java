@@ -0,0 +1,174 @@
+package com.example.birds.config;
+
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.SightingBulkResultDto;
+import com.example.birds.util.BirdIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the metrics of the service methods, in the provided {@link MeterRegistry}:
+ * <ul>
+ *     <li>{@value #CALLS}: timer of every public method of the services (except {@code ModelService} and
+ *     {@code ValidationService}), tagged by service, method, outcome (success, error or cancelled) and exception</li>
+ *     <li>{@value #ERRORS}: counter of the failed calls, tagged by service, method and exception</li>
+ *     <li>{@value #RESULTS}: summary of the number of items returned (lists, pages, bulk results, fluxes)</li>
+ *     <li>{@value #JOIN_BIRDS} and {@value #JOIN_SIGHTINGS}: summaries of the number of birds and sightings
+ *     joined in the JVM, and {@value #JOIN} the timer of these joins</li>
+ * </ul>
+ * Reactive methods are timed from subscription to termination, not while the Mono or Flux is assembled.
+ * MongoDB commands (mongodb.driver.commands), repository invocations and HTTP requests are recorded by
+ * the Spring Boot actuator.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String CALLS = "birds.service.calls";
+
+    public static final String ERRORS = "birds.service.errors";
+
+    public static final String RESULTS = "birds.service.results";
+
+    public static final String JOIN = "birds.join";
+
+    public static final String JOIN_BIRDS = "birds.join.birds";
+
+    public static final String JOIN_SIGHTINGS = "birds.join.sightings";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a service method call, and records the number of items it returns.
+     * @param joinPoint {@link ProceedingJoinPoint}
+     * @return the result of the call, a Mono or a Flux recording its metrics when subscribed
+     * @throws Throwable the exception thrown by the call
+     */
+    @Around("execution(public * com.example.birds.service.*Service.*(..))"
+            + " && !within(com.example.birds.service.ModelService)"
+            + " && !within(com.example.birds.service.ValidationService)")
+    public Object recordServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        final String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        final String method = joinPoint.getSignature().getName();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        final Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable throwable) {
+            stop(sample, service, method, throwable);
+            throw throwable;
+        }
+        if (result instanceof Mono) {
+            return recordMono((Mono<?>) result, service, method);
+        }
+        if (result instanceof Flux) {
+            return recordFlux((Flux<?>) result, service, method);
+        }
+        stop(sample, service, method, null);
+        recordResultSize(result, service, method);
+        return result;
+    }
+
+    /**
+     * Times a join of sightings with their birds, and records the number of birds and sightings joined.
+     * @param joinPoint {@link ProceedingJoinPoint}
+     * @param sightings List of the joined sightings
+     * @param birdIndex {@link BirdIndex} of their birds
+     * @return the joined sightings
+     * @throws Throwable the exception thrown by the join
+     */
+    @Around("execution(* com.example.birds.service.ModelService.getSightingResponseDTOs(java.util.List,"
+            + " com.example.birds.util.BirdIndex)) && args(sightings, birdIndex)")
+    public Object recordJoin(ProceedingJoinPoint joinPoint, List<?> sightings, BirdIndex birdIndex) throws Throwable {
+        DistributionSummary.builder(JOIN_BIRDS).register(meterRegistry).record(birdIndex.size());
+        DistributionSummary.builder(JOIN_SIGHTINGS).register(meterRegistry).record(sightings.size());
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sample.stop(Timer.builder(JOIN).register(meterRegistry));
+        }
+    }
+
+    private Mono<?> recordMono(Mono<?> mono, String service, String method) {
+        return Mono.defer(() -> {
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            return mono
+                    .doOnSuccess(value -> {
+                        stop(sample, service, method, null);
+                        recordResultSize(value, service, method);
+                    })
+                    .doOnError(throwable -> stop(sample, service, method, throwable))
+                    .doOnCancel(() -> stop(sample, service, method, "cancelled", NONE));
+        });
+    }
+
+    private Flux<?> recordFlux(Flux<?> flux, String service, String method) {
+        return Flux.defer(() -> {
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            final AtomicLong count = new AtomicLong();
+            return flux
+                    .doOnNext(value -> count.incrementAndGet())
+                    .doOnComplete(() -> {
+                        stop(sample, service, method, null);
+                        summary(service, method).record(count.get());
+                    })
+                    .doOnError(throwable -> stop(sample, service, method, throwable))
+                    .doOnCancel(() -> stop(sample, service, method, "cancelled", NONE));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String service, String method, Throwable throwable) {
+        if (Objects.isNull(throwable)) {
+            stop(sample, service, method, "success", NONE);
+            return;
+        }
+        final String exception = throwable.getClass().getSimpleName();
+        stop(sample, service, method, "error", exception);
+        Counter.builder(ERRORS)
+                .tags("service", service, "method", method, "exception", exception)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void stop(Timer.Sample sample, String service, String method, String outcome, String exception) {
+        sample.stop(Timer.builder(CALLS)
+                .tags("service", service, "method", method, "outcome", outcome, "exception", exception)
+                .register(meterRegistry));
+    }
+
+    private void recordResultSize(Object result, String service, String method) {
+        if (result instanceof Collection) {
+            summary(service, method).record(((Collection<?>) result).size());
+        } else if (result instanceof CursorPageDto) {
+            summary(service, method).record(((CursorPageDto<?>) result).getItems().size());
+        } else if (result instanceof SightingBulkResultDto) {
+            summary(service, method).record(((SightingBulkResultDto) result).getItems().size());
+        }
+    }
+
+    private DistributionSummary summary(String service, String method) {
+        return DistributionSummary.builder(RESULTS)
+                .tags("service", service, "method", method)
+                .register(meterRegistry);
+    }
+}
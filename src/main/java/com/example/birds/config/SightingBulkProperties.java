@@ -0,0 +1,32 @@
+package com.example.birds.config;
+
+import com.example.birds.util.ErrorMessages;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the bulk creation of sightings.
+ * </br>
+ * Example: sightings.bulk.chunk-size=1000
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.bulk")
+public class SightingBulkProperties {
+
+    /**
+     * Number of sightings validated and written to MongoDB at once.
+     * Bounds the memory used by a bulk request, whatever the size of its body.
+     */
+    private int chunkSize = 1000;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CHUNK_SIZE);
+        }
+        this.chunkSize = chunkSize;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the concurrent reads of the sighting listings, see {@link com.example.birds.service.ReadFanOut}.
+ * </br>
+ * Example: sightings.fan-out.mode=sequential
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.fan-out")
+public class SightingFanOutProperties {
+
+    /**
+     * Whether the independent reads of a listing run one after the other or at the same time.
+     */
+    private FanOutMode mode = FanOutMode.PARALLEL;
+
+    /**
+     * Number of I/O threads running the reads forked by the requests.
+     */
+    private int threads = 16;
+
+    /**
+     * Number of forked reads waiting for an I/O thread, beyond it the requests run their reads themselves.
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * Time a request waits for its forked reads, they are cancelled beyond it.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    public FanOutMode getMode() {
+        return mode;
+    }
+
+    public void setMode(FanOutMode mode) {
+        this.mode = mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
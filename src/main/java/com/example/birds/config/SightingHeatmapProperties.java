@@ -0,0 +1,69 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the sighting heatmap tiles, see {@link com.example.birds.service.SightingHeatmapCache}.
+ * </br>
+ * Example: sightings.heatmap.cells=16
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.heatmap")
+public class SightingHeatmapProperties {
+
+    /**
+     * Number of grid cells of a tile side, a tile holds cells x cells cells.
+     */
+    private int cells = 16;
+
+    /**
+     * Whether computed tiles are cached.
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * Maximum number of cached tiles, the least useful ones are evicted first.
+     */
+    private long cacheMaximumSize = 10_000;
+
+    /**
+     * Time after which a cached tile is computed again.
+     * Bounds how long the sightings written through another instance are missing from a tile.
+     */
+    private Duration cacheExpireAfterWrite = Duration.ofMinutes(10);
+
+    public int getCells() {
+        return cells;
+    }
+
+    public void setCells(int cells) {
+        this.cells = cells;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(long cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public Duration getCacheExpireAfterWrite() {
+        return cacheExpireAfterWrite;
+    }
+
+    public void setCacheExpireAfterWrite(Duration cacheExpireAfterWrite) {
+        this.cacheExpireAfterWrite = cacheExpireAfterWrite;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Selects, for each sighting listing, the {@link JoinMode} used for joining sightings with their birds.
+ * </br>
+ * Example: sightings.join-mode.location=aggregation
+ * </br>
+ * Searching by bird is not configurable, as it always reads exactly one bird.
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.join-mode")
+public class SightingJoinProperties {
+
+    /**
+     * Join mode used when listing all sightings.
+     */
+    private JoinMode all = JoinMode.JVM;
+
+    /**
+     * Join mode used when searching sightings by location.
+     */
+    private JoinMode location = JoinMode.JVM;
+
+    /**
+     * Join mode used when searching sightings by date-time interval.
+     */
+    private JoinMode dateTime = JoinMode.JVM;
+
+    public JoinMode getAll() {
+        return all;
+    }
+
+    public void setAll(JoinMode all) {
+        this.all = all;
+    }
+
+    public JoinMode getLocation() {
+        return location;
+    }
+
+    public void setLocation(JoinMode location) {
+        this.location = location;
+    }
+
+    public JoinMode getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(JoinMode dateTime) {
+        this.dateTime = dateTime;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.birds.config;
+
+/**
+ * How sightings are stored in MongoDB.
+ */
+public enum SightingStorageMode {
+    /**
+     * Sightings are stored in a regular collection.
+     */
+    REGULAR,
+    /**
+     * Sightings are stored in a time-series collection, bucketed by bird and date-time.
+     */
+    TIME_SERIES
+}
@@ -0,0 +1,77 @@
+package com.example.birds.config;
+
+import com.example.birds.util.ErrorMessages;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Settings of the {@link SightingStorageMode} of the sightings,
+ * see {@link com.example.birds.repository.SightingStorageManager}.
+ * </br>
+ * Example: sightings.storage.mode=time-series
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.storage")
+public class SightingStorageProperties {
+
+    /**
+     * Granularities accepted by MongoDB for a time-series collection.
+     */
+    static final List<String> GRANULARITIES = List.of("seconds", "minutes", "hours");
+
+    /**
+     * Whether sightings are stored in a regular or in a time-series collection.
+     */
+    private SightingStorageMode mode = SightingStorageMode.REGULAR;
+
+    /**
+     * Time span of the buckets of the time-series collection, matching the usual interval between the sightings
+     * of a bird. Only used when the collection is created.
+     */
+    private String granularity = "minutes";
+
+    /**
+     * Number of sightings copied at once by the migration to the time-series collection.
+     */
+    private int migrationBatchSize = 1000;
+
+    public SightingStorageMode getMode() {
+        return mode;
+    }
+
+    public void setMode(SightingStorageMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Whether sightings are stored in a time-series collection.
+     * @return boolean
+     */
+    public boolean isTimeSeries() {
+        return mode == SightingStorageMode.TIME_SERIES;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        if (!GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_GRANULARITY);
+        }
+        this.granularity = granularity;
+    }
+
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    public void setMigrationBatchSize(int migrationBatchSize) {
+        if (migrationBatchSize < 1) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CHUNK_SIZE);
+        }
+        this.migrationBatchSize = migrationBatchSize;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.birds.config;
+
+import com.example.birds.util.ErrorMessages;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory index of the recent sightings by date-time,
+ * see {@link com.example.birds.service.SightingTimeIndex}.
+ * </br>
+ * Example: sightings.time-index.memory-budget=64MB
+ */
+@Component
+@ConfigurationProperties(prefix = "sightings.time-index")
+public class SightingTimeIndexProperties {
+
+    /**
+     * Whether date-time interval searches and counts are served from memory.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How far back from startup the sightings are loaded.
+     * Searches starting before the retained window are read from MongoDB.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Estimated memory the index may use, the oldest sightings are dropped from the index beyond it.
+     */
+    private DataSize memoryBudget = DataSize.ofMegabytes(64);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        if (retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_RETENTION);
+        }
+        this.retention = retention;
+    }
+
+    public DataSize getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(DataSize memoryBudget) {
+        if (memoryBudget.isNegative() || memoryBudget.toBytes() == 0) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_MEMORY_BUDGET);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+}
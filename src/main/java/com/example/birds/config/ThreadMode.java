@@ -0,0 +1,15 @@
+package com.example.birds.config;
+
+/**
+ * Kind of threads running the requests and their MongoDB calls.
+ */
+public enum ThreadMode {
+    /**
+     * Pooled platform threads, Tomcat running at most server.tomcat.threads.max requests at once.
+     */
+    PLATFORM,
+    /**
+     * One virtual thread per request and per forked read, requires Java 21 or later.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,27 @@
+package com.example.birds.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Threads running the requests, see {@link VirtualThreadConfiguration}.
+ * </br>
+ * Example: threads.mode=virtual
+ */
+@Component
+@ConfigurationProperties(prefix = "threads")
+public class ThreadingProperties {
+
+    /**
+     * Whether the requests, their streamed responses and the forked sighting reads run on platform or virtual threads.
+     */
+    private ThreadMode mode = ThreadMode.PLATFORM;
+
+    public ThreadMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ThreadMode mode) {
+        this.mode = mode;
+    }
+}
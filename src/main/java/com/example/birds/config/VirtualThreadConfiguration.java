@@ -0,0 +1,42 @@
+package com.example.birds.config;
+
+import com.example.birds.util.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Virtual threads, opted in with threads.mode=virtual, requires Java 21 or later.
+ * </br>
+ * Tomcat runs every request on a new virtual thread instead of its pool of server.tomcat.threads.max platform
+ * threads, so requests blocked on MongoDB no longer hold a pooled thread: the concurrent requests are limited by
+ * server.tomcat.max-connections, and their MongoDB calls by the connection pool of the driver (maxPoolSize of the uri).
+ * Streamed responses are written on virtual threads too, and so are the forked sighting reads, see
+ * {@link com.example.birds.service.ReadFanOut}. Not used by the "reactive" profile, served by Netty.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "threads", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Runs the requests on virtual threads, named tomcat-handler-N.
+     * @return a {@link TomcatProtocolHandlerCustomizer} object
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-"));
+    }
+
+    /**
+     * Replaces the pool of the asynchronous requests (streamed responses) by virtual threads, named task-N.
+     * @return an {@link AsyncTaskExecutor} object
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-"));
+    }
+}
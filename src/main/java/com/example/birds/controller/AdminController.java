@@ -0,0 +1,185 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.dto.IndexRecommendationDto;
+import com.example.birds.dto.IndexReportDto;
+import com.example.birds.dto.QueryShapeDto;
+import com.example.birds.dto.RollupRebuildDto;
+import com.example.birds.dto.SightingTimeIndexStatsDto;
+import com.example.birds.repository.IndexManager;
+import com.example.birds.repository.QueryProfiler;
+import com.example.birds.service.BirdCache;
+import com.example.birds.service.ModelService;
+import com.example.birds.service.SightingHeatmapCache;
+import com.example.birds.service.SightingService;
+import com.example.birds.service.SightingTimeIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin Controller class, for inspecting the application at runtime.
+ * Served by both the MVC and the reactive stack.
+ */
+@RestController
+@RequestMapping("/admin")
+@Tag(name ="Admin API", description = "Collection of API(s) for inspecting the application.")
+public class AdminController {
+    static final String QUERY_SHAPE_SORT_DESCRIPTION = "Sort by total (default), mean, p99 or max duration, count "
+            + "of commands, or ratio of documents examined per document returned, descending";
+    static final String QUERY_SHAPE_LIMIT_DESCRIPTION = "Number of shapes, between 1 and 1000 (100 by default)";
+
+    private final BirdCache birdCache;
+
+    private final IndexManager indexManager;
+
+    private final ModelService modelService;
+
+    private final SightingService sightingService;
+
+    private final SightingTimeIndex sightingTimeIndex;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    private final QueryProfiler queryProfiler;
+
+    @Autowired
+    public AdminController(BirdCache birdCache, IndexManager indexManager, ModelService modelService,
+                           SightingService sightingService, SightingTimeIndex sightingTimeIndex,
+                           SightingHeatmapCache sightingHeatmapCache, QueryProfiler queryProfiler) {
+        this.birdCache = birdCache;
+        this.indexManager = indexManager;
+        this.modelService = modelService;
+        this.sightingService = sightingService;
+        this.sightingTimeIndex = sightingTimeIndex;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+        this.queryProfiler = queryProfiler;
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics of the cache of birds read by id.
+     * @return a {@link CacheStatsDto} object
+     */
+    @Operation(summary = "Gets the statistics of the bird cache.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The statistics since the application started."),
+    })
+    @GetMapping("/caches/birds")
+    public CacheStatsDto getBirdCacheStats() {
+        return birdCache.getStats();
+    }
+
+    /**
+     * Gets the hit, miss and eviction statistics of the cache of heatmap tiles.
+     * @return a {@link CacheStatsDto} object
+     */
+    @Operation(summary = "Gets the statistics of the heatmap tile cache.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The statistics since the application started."),
+    })
+    @GetMapping("/caches/heatmap")
+    public CacheStatsDto getHeatmapCacheStats() {
+        return sightingHeatmapCache.getStats();
+    }
+
+    /**
+     * Gets the state of the in-memory index of the recent sightings by date-time: its size, memory use, retained
+     * window and the number of searches served from memory or read from MongoDB.
+     * @return a {@link SightingTimeIndexStatsDto} object
+     */
+    @Operation(summary = "Gets the statistics of the sighting time index.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The statistics since the application started."),
+    })
+    @GetMapping("/sightings/time-index")
+    public SightingTimeIndexStatsDto getSightingTimeIndexStats() {
+        return sightingTimeIndex.getStats();
+    }
+
+    /**
+     * Compares the declared and the existing MongoDB indexes and explains each repository query.
+     * Nothing is created, missing indexes are created in the background at startup.
+     * @return a {@link IndexReportDto} object
+     */
+    @Operation(summary = "Gets the index drift and the plan of each repository query.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The index drift and the query plans."),
+    })
+    @GetMapping("/indexes")
+    public IndexReportDto getIndexReport() {
+        return indexManager.getReport();
+    }
+
+    /**
+     * Recommends the compound index serving a bird search best, with the same parameters as GET /api/birds/search.
+     * Nothing is created, declaring the index on {@link com.example.birds.model.Bird} creates it at startup.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String}
+     * @return a {@link IndexRecommendationDto} object
+     */
+    @Operation(summary = "Recommends the index serving a bird search best.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The hinted and the recommended index."),
+            @ApiResponse(responseCode = "400", description = "Bad Request - invalid range or sort provided", content = @Content),
+    })
+    @GetMapping("/indexes/birds")
+    public IndexRecommendationDto getBirdIndexRecommendation(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double minWeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double maxWeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double minHeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double maxHeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.BIRD_SORT_DESCRIPTION) String sort) {
+        return indexManager.getBirdIndexRecommendation(
+                modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight, sort));
+    }
+
+    /**
+     * Gets the profiled MongoDB query shapes, the top offenders first: latency percentiles since the application
+     * started and, for the shapes having slow reads, the documents examined per document returned.
+     * @param sort {@link String}
+     * @param limit {@link Integer}
+     * @return List of {@link QueryShapeDto}
+     */
+    @Operation(summary = "Gets the MongoDB query shapes costing the most.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The query shapes, the top offenders first."),
+            @ApiResponse(responseCode = "400", description = "Bad Request - invalid sort or limit provided", content = @Content),
+    })
+    @GetMapping("/query-shapes")
+    public List<QueryShapeDto> getQueryShapes(
+            @RequestParam(required = false) @Parameter(description = QUERY_SHAPE_SORT_DESCRIPTION) String sort,
+            @RequestParam(required = false) @Parameter(description = QUERY_SHAPE_LIMIT_DESCRIPTION) Integer limit) {
+        return queryProfiler.getTopShapes(sort, modelService.getPageLimit(limit));
+    }
+
+    /**
+     * Regenerates the sighting rollups, read by GET /api/sightings/stats, from the sightings.
+     * Runs synchronously, with a single aggregation replacing the rollups once complete.
+     * @return a {@link RollupRebuildDto} object
+     */
+    @Operation(summary = "Regenerates the sighting rollups from the sightings.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The number of rollups written."),
+    })
+    @PostMapping("/rollups/sightings/rebuild")
+    public RollupRebuildDto rebuildSightingRollups() {
+        return sightingService.rebuildSightingRollups();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.birds.controller;
 
+import com.example.birds.dto.BirdDeletionDto;
 import com.example.birds.dto.BirdResponseDto;
 import com.example.birds.dto.BirdSaveDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -8,10 +9,17 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.example.birds.service.BirdDeletionService;
 import com.example.birds.service.BirdService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -22,14 +30,32 @@ import java.util.List;
  * <br>
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/birds")
 @Tag(name ="Birds API", description = "Collection of API(s) for birds.")
 public class BirdController {
+    static final String CURSOR_DESCRIPTION = "Cursor of the page, as returned in the X-Next-Cursor header of the previous page";
+    static final String LIMIT_DESCRIPTION = "Page size, between 1 and 1000 (100 if only a cursor is provided)";
+
+    static final String STREAM_DESCRIPTION = "Must be true, the whole result is streamed as a chunked JSON array";
+
+    static final String ASYNC_DESCRIPTION = "Must be true, the bird and its sightings are deleted in the background";
+
+    static final String RANGE_DESCRIPTION = "Inclusive bound, the range is open on the side left out";
+    static final String BIRD_SORT_DESCRIPTION = "Sort by name, color, weight or height then id, optionally followed by "
+            + ",asc or ,desc (unsorted by default); a sorted search has a single page";
+
     private final BirdService birdService;
 
+    private final BirdDeletionService birdDeletionService;
+
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public BirdController(BirdService birdService) {
+    public BirdController(BirdService birdService, BirdDeletionService birdDeletionService, ObjectMapper objectMapper) {
         this.birdService = birdService;
+        this.birdDeletionService = birdDeletionService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -80,6 +106,42 @@ public class BirdController {
         birdService.deleteBird(id);
     }
 
+    /**
+     * Starts deleting a bird by id in the background. This also deletes all the related sightings, chunk by chunk.
+     * @param id {@link String}
+     * @param async boolean, only matched when true
+     * @return a {@link ResponseEntity} of {@link BirdDeletionDto} object, with the location of the progress.
+     */
+    @Operation(summary = "Starts deleting a bird by id in the background.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "202", description = "Accepted - The deletion of the bird was started."),
+            @ApiResponse(responseCode = "404", description = "Not Found - A bird was not found.", content = @Content),
+    })
+    @DeleteMapping(value = "/{id}", params = "async=true")
+    public ResponseEntity<BirdDeletionDto> deleteBirdAsync(
+            @PathVariable @Parameter(description = "The bird id") String id,
+            @RequestParam @Parameter(description = ASYNC_DESCRIPTION) boolean async) {
+        final BirdDeletionDto deletion = birdDeletionService.startDeletion(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/birds/deletions/" + deletion.getId()))
+                .body(deletion);
+    }
+
+    /**
+     * Gets the progress of a bird deletion started in the background.
+     * @param deletionId {@link String}
+     * @return a {@link BirdDeletionDto} object.
+     */
+    @Operation(summary = "Gets the progress of a bird deletion.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The progress was retrieved successfully."),
+            @ApiResponse(responseCode = "404", description = "Not Found - A deletion was not found or expired.", content = @Content),
+    })
+    @GetMapping("/deletions/{deletionId}")
+    public BirdDeletionDto getBirdDeletion(@PathVariable @Parameter(description = "The deletion id") String deletionId) {
+        return birdDeletionService.getDeletion(deletionId);
+    }
+
     /**
      * Gets a bird by id.
      * @param id {@link String}
@@ -97,25 +159,142 @@ public class BirdController {
 
     /**
      * Gets all the birds.
+     * When a cursor or a limit is provided a single page of birds, sorted by id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
      * @return a List of {@link BirdResponseDto} objects
      */
     @Operation(summary = "Gets all the birds.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The birds were found."),
+            @ApiResponse(responseCode = "400", description = "Bad Request - invalid cursor or limit provided", content = @Content),
+    })
     @GetMapping
-    public List<BirdResponseDto> getAllBirds() {
-        return birdService.getAllBirds();
+    public ResponseEntity<List<BirdResponseDto>> getAllBirds(
+            @RequestParam(required = false) @Parameter(description = CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(birdService.getAllBirds());
+        }
+        return PageResponses.of(birdService.getBirdsPage(null, null, null, null, null, null, null, cursor, limit));
     }
 
     /**
-     * Gets birds filtered by various parameters.
-     * If no parameters are provided we will return all birds.
+     * Streams all the birds as newline delimited JSON, one bird per line, straight from a database cursor.
+     * Selected by requesting the application/x-ndjson media type.
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams all the birds as newline delimited JSON.")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBirds() {
+        return JsonStreams.<BirdResponseDto>ndjson(objectMapper,
+                consumer -> birdService.streamBirdsByCriteria(null, null, null, null, null, null, null,
+                        consumer));
+    }
+
+    /**
+     * Streams all the birds as a chunked JSON array, straight from a database cursor.
+     * @param stream {@link Boolean}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams all the birds as a JSON array.")
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBirdsAsArray(
+            @RequestParam @Parameter(description = STREAM_DESCRIPTION) Boolean stream) {
+        return JsonStreams.<BirdResponseDto>jsonArray(objectMapper,
+                consumer -> birdService.streamBirdsByCriteria(null, null, null, null, null, null, null,
+                        consumer));
+    }
+
+    /**
+     * Gets the birds matching all the provided criteria, combined in a single query.
+     * If no criteria is provided it will return all the birds.
+     * When a cursor or a limit is provided a single page of birds, sorted by id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * With a sort, the limit returns the first birds in the sort order, without a next page.
      * @param name {@link String}
      * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String}
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
      * @return a List of {@link BirdResponseDto} objects
      */
-    @Operation(summary = "Gets the birds by name or by color.")
+    @Operation(summary = "Gets the birds by name, color, weight range and height range.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The birds were found."),
+            @ApiResponse(responseCode = "400", description = "Bad Request - invalid range, sort, cursor or limit provided", content = @Content),
+    })
     @GetMapping("/search")
-    public List<BirdResponseDto> getBirdsByCriteria(@RequestParam(required = false) String name,
-                                         @RequestParam(required = false) String color) {
-        return birdService.getBirdsByCriteria(name, color);
+    public ResponseEntity<List<BirdResponseDto>> getBirdsByCriteria(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minHeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxHeight,
+            @RequestParam(required = false) @Parameter(description = BIRD_SORT_DESCRIPTION) String sort,
+            @RequestParam(required = false) @Parameter(description = CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(birdService.getBirdsByCriteria(name, color, minWeight, maxWeight, minHeight,
+                    maxHeight, sort));
+        }
+        return PageResponses.of(birdService.getBirdsPage(name, color, minWeight, maxWeight, minHeight, maxHeight, sort,
+                cursor, limit));
+    }
+
+    /**
+     * Streams the birds matching all the provided criteria as newline delimited JSON, one bird per line.
+     * Selected by requesting the application/x-ndjson media type.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams the birds by name, color, weight range and height range as newline delimited JSON.")
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBirdsByCriteria(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minHeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxHeight,
+            @RequestParam(required = false) @Parameter(description = BIRD_SORT_DESCRIPTION) String sort) {
+        return JsonStreams.<BirdResponseDto>ndjson(objectMapper, consumer -> birdService.streamBirdsByCriteria(
+                name, color, minWeight, maxWeight, minHeight, maxHeight, sort, consumer));
+    }
+
+    /**
+     * Streams the birds matching all the provided criteria as a chunked JSON array.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String}
+     * @param stream {@link Boolean}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams the birds by name, color, weight range and height range as a JSON array.")
+    @GetMapping(value = "/search", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBirdsByCriteriaAsArray(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxWeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double minHeight,
+            @RequestParam(required = false) @Parameter(description = RANGE_DESCRIPTION) Double maxHeight,
+            @RequestParam(required = false) @Parameter(description = BIRD_SORT_DESCRIPTION) String sort,
+            @RequestParam @Parameter(description = STREAM_DESCRIPTION) Boolean stream) {
+        return JsonStreams.<BirdResponseDto>jsonArray(objectMapper, consumer -> birdService.streamBirdsByCriteria(
+                name, color, minWeight, maxWeight, minHeight, maxHeight, sort, consumer));
     }
-}
\ No newline at end of file
+}
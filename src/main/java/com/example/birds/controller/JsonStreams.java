@@ -0,0 +1,89 @@
+package com.example.birds.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Utility class that writes items to the response as they are produced, instead of serializing a whole list.
+ * Items are written through a single {@link JsonGenerator}, so the response is flushed in buffer sized chunks
+ * and memory use doesn't depend on the number of items.
+ * </br>
+ * Since the response status is committed with the first chunk, a failure while producing the items
+ * can only abort the response, leaving the client with a truncated body.
+ */
+final class JsonStreams {
+
+    private static final String NDJSON_SEPARATOR = "\n";
+
+    /**
+     * private constructor that throws exception in order to prevent instantiating through reflexion.
+     */
+    private JsonStreams() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Builds a body writing the produced items as newline delimited JSON, one item per line.
+     * @param objectMapper {@link ObjectMapper}
+     * @param producer {@link Consumer} that feeds the items to the provided item consumer
+     * @param <T> type of the items
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper objectMapper, Consumer<Consumer<T>> producer) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(outputStream -> {
+            try (JsonGenerator generator = createGenerator(objectMapper, outputStream)) {
+                generator.setRootValueSeparator(new SerializedString(NDJSON_SEPARATOR));
+                produce(generator, producer);
+                generator.writeRaw(NDJSON_SEPARATOR);
+            }
+        });
+    }
+
+    /**
+     * Builds a body writing the produced items as a single JSON array.
+     * @param objectMapper {@link ObjectMapper}
+     * @param producer {@link Consumer} that feeds the items to the provided item consumer
+     * @param <T> type of the items
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    static <T> ResponseEntity<StreamingResponseBody> jsonArray(ObjectMapper objectMapper,
+                                                               Consumer<Consumer<T>> producer) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(outputStream -> {
+            try (JsonGenerator generator = createGenerator(objectMapper, outputStream)) {
+                generator.writeStartArray();
+                produce(generator, producer);
+                generator.writeEndArray();
+            }
+        });
+    }
+
+    private static JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream outputStream)
+            throws IOException {
+        // the servlet output stream is closed by the container
+        return objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static <T> void produce(JsonGenerator generator, Consumer<Consumer<T>> producer) throws IOException {
+        try {
+            producer.accept(item -> {
+                try {
+                    generator.writeObject(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
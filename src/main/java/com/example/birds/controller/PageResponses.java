@@ -0,0 +1,50 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.CursorPageDto;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utility class that converts cursor pages into responses.
+ * The page items are the response body, so paged and unpaged responses share the same body format.
+ */
+final class PageResponses {
+
+    /**
+     * private constructor that throws exception in order to prevent instantiating through reflexion.
+     */
+    private PageResponses() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Builds a response having the page items as body and the next cursor, if any, as a response header.
+     * @param page {@link CursorPageDto}
+     * @param <T> type of the page items
+     * @return a {@link ResponseEntity} of List of page items
+     */
+    static <T> ResponseEntity<List<T>> of(CursorPageDto<T> page) {
+        return getBuilder(page).body(page.getItems());
+    }
+
+    /**
+     * Builds a reactive response having the page items as body and the next cursor, if any, as a response header.
+     * @param page {@link CursorPageDto}
+     * @param <T> type of the page items
+     * @return a {@link ResponseEntity} of Flux of page items
+     */
+    static <T> ResponseEntity<Flux<T>> ofFlux(CursorPageDto<T> page) {
+        return getBuilder(page).body(Flux.fromIterable(page.getItems()));
+    }
+
+    private static ResponseEntity.BodyBuilder getBuilder(CursorPageDto<?> page) {
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (Objects.nonNull(page.getNextCursor())) {
+            builder.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.service.ReactiveBirdService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Birds Controller class, same REST contract as {@link BirdController}.
+ * Replaces it when the "reactive" profile is active.
+ * </br>
+ * Listings are written while they are read from MongoDB, as a JSON array,
+ * or as newline delimited JSON when requested with "Accept: application/x-ndjson".
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/birds")
+public class ReactiveBirdController {
+
+    private final ReactiveBirdService birdService;
+
+    @Autowired
+    public ReactiveBirdController(ReactiveBirdService birdService) {
+        this.birdService = birdService;
+    }
+
+    /**
+     * Creates a bird.
+     * @param birdSaveDto {@link BirdSaveDto}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    @Operation(summary = "Creates a bird.")
+    @PostMapping
+    public Mono<BirdResponseDto> createBird(@RequestBody BirdSaveDto birdSaveDto) {
+        return birdService.saveBird(birdSaveDto);
+    }
+
+    /**
+     * Updates a bird.
+     * @param id {@link String}
+     * @param birdSaveDto {@link BirdSaveDto}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    @Operation(summary = "Updates a bird by id.")
+    @PutMapping("/{id}")
+    public Mono<BirdResponseDto> updateBird(@PathVariable @Parameter(description = "The bird id") String id,
+                                            @RequestBody BirdSaveDto birdSaveDto) {
+        return birdService.updateBird(id, birdSaveDto);
+    }
+
+    /**
+     * Deletes a bird by id. This also deletes all the related sightings.
+     * @param id {@link String}
+     * @return a Mono completing once the bird is deleted
+     */
+    @Operation(summary = "Deletes a bird by id.")
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteBird(@PathVariable @Parameter(description = "The bird id") String id) {
+        return birdService.deleteBird(id);
+    }
+
+    /**
+     * Gets a bird by id.
+     * @param id {@link String}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    @Operation(summary = "Gets a bird by id.")
+    @GetMapping("/{id}")
+    public Mono<BirdResponseDto> getBirdById(@PathVariable @Parameter(description = "The bird id") String id) {
+        return birdService.getBirdById(id);
+    }
+
+    /**
+     * Gets all the birds.
+     * When a cursor or a limit is provided a single page of birds, sorted by id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
+     * @return a Mono of {@link ResponseEntity} of Flux of {@link BirdResponseDto} objects
+     */
+    @Operation(summary = "Gets all the birds.")
+    @GetMapping
+    public Mono<ResponseEntity<Flux<BirdResponseDto>>> getAllBirds(
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        return getBirdsByCriteria(null, null, null, null, null, null, null, cursor, limit);
+    }
+
+    /**
+     * Gets the birds matching all the provided criteria, combined in a single query.
+     * If no criteria is provided it will return all the birds.
+     * When a cursor or a limit is provided a single page of birds, sorted by id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * With a sort, the limit returns the first birds in the sort order, without a next page.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String}
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
+     * @return a Mono of {@link ResponseEntity} of Flux of {@link BirdResponseDto} objects
+     */
+    @Operation(summary = "Gets the birds by name, color, weight range and height range.")
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<BirdResponseDto>>> getBirdsByCriteria(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double minWeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double maxWeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double minHeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.RANGE_DESCRIPTION) Double maxHeight,
+            @RequestParam(required = false) @Parameter(description = BirdController.BIRD_SORT_DESCRIPTION) String sort,
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(birdService.getBirdsByCriteria(name, color, minWeight, maxWeight,
+                    minHeight, maxHeight, sort)));
+        }
+        return birdService.getBirdsPage(name, color, minWeight, maxWeight, minHeight, maxHeight, sort, cursor, limit)
+                .map(PageResponses::ofFlux);
+    }
+}
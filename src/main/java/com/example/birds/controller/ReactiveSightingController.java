@@ -0,0 +1,235 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.SightingHeatmapTileDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.service.ReactiveSightingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive Sightings Controller class, same REST contract as {@link SightingController}.
+ * Replaces it when the "reactive" profile is active.
+ * </br>
+ * Listings are written while they are read from MongoDB, as a JSON array,
+ * or as newline delimited JSON when requested with "Accept: application/x-ndjson".
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/sightings")
+public class ReactiveSightingController {
+
+    private final ReactiveSightingService sightingService;
+
+    @Autowired
+    public ReactiveSightingController(ReactiveSightingService sightingService) {
+        this.sightingService = sightingService;
+    }
+
+    /**
+     * Creates a sighting.
+     * @param sighting {@link SightingSaveDto}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    @Operation(summary = "Creates a sighting.")
+    @PostMapping
+    public Mono<SightingResponseDto> createSighting(@RequestBody SightingSaveDto sighting) {
+        return sightingService.saveSighting(sighting);
+    }
+
+    /**
+     * Updates a sighting.
+     * @param id {@link String}
+     * @param sightingSaveDto {@link SightingSaveDto}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    @Operation(summary = "Updates a sighting.")
+    @PutMapping("/{id}")
+    public Mono<SightingResponseDto> updateSighting(@PathVariable @Parameter(description = "The sighting id") String id,
+                                                    @RequestBody SightingSaveDto sightingSaveDto) {
+        return sightingService.updateSighting(sightingSaveDto, id);
+    }
+
+    /**
+     * Deletes a sighting.
+     * @param id {@link String}
+     * @return a Mono completing once the sighting is deleted
+     */
+    @Operation(summary = "Deletes a sighting.")
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteSighting(@PathVariable @Parameter(description = "The sighting id") String id) {
+        return sightingService.deleteSighting(id);
+    }
+
+    /**
+     * Gets a sighting by id.
+     * @param id {@link String}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    @Operation(summary = "Gets a sighting by id.")
+    @GetMapping("/{id}")
+    public Mono<SightingResponseDto> getSightingById(@PathVariable @Parameter(description = "The sighting id") String id) {
+        return sightingService.getSightingById(id);
+    }
+
+    /**
+     * Gets all sightings.
+     * When a cursor or a limit is provided a single page of sightings, sorted by dateTime then id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
+     * @return a Mono of {@link ResponseEntity} of Flux of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Gets all sightings.")
+    @GetMapping
+    public Mono<ResponseEntity<Flux<SightingResponseDto>>> getAllSightings(
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        return getSightingsByCriteria(null, null, null, null, null, cursor, limit);
+    }
+
+    /**
+     * Gets all sightings matching all the provided criteria, combined in a single query.
+     * If no criteria is provided it will return all the sightings.
+     * Example of valid startDateTime format: "2023-07-18T10:00:00", either date-time bound can be omitted.
+     * When a cursor or a limit is provided a single page of sightings, sorted by dateTime then id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * @param birdId {@link String}
+     * @param location List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
+     * @return a Mono of {@link ResponseEntity} of Flux of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Filters a sighting by criteria.")
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<SightingResponseDto>>> getSightingsByCriteria(
+            @RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = SightingController.LOCATION_DESCRIPTION)
+                    List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SightingController.SORT_DESCRIPTION) String sort,
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(
+                    sightingService.getSightingsByCriteria(birdId, location, startDateTime, endDateTime, sort)));
+        }
+        return sightingService.getSightingsPage(birdId, location, startDateTime, endDateTime, sort, cursor, limit)
+                .map(PageResponses::ofFlux);
+    }
+
+    /**
+     * Counts the sightings filtered by the provided criteria, see {@link SightingController#countSightingsByCriteria}.
+     * @param birdId {@link String}
+     * @param location List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return a Mono of the number of sightings
+     */
+    @Operation(summary = "Counts the sightings matching the criteria.")
+    @GetMapping("/count")
+    public Mono<Long> countSightingsByCriteria(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = SightingController.LOCATION_DESCRIPTION)
+                    List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime) {
+        return sightingService.countSightingsByCriteria(birdId, location, startDateTime, endDateTime);
+    }
+
+    /**
+     * Gets the sightings near a point, the nearest first, see {@link SightingController#getSightingsNear}.
+     * @param longitude {@link Double}
+     * @param latitude {@link Double}
+     * @param radius {@link Double}
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Gets the sightings near a point.")
+    @GetMapping("/near")
+    public Flux<SightingResponseDto> getSightingsNear(
+            @RequestParam @Parameter(description = SightingController.LONGITUDE_DESCRIPTION) Double longitude,
+            @RequestParam @Parameter(description = SightingController.LATITUDE_DESCRIPTION) Double latitude,
+            @RequestParam @Parameter(description = SightingController.RADIUS_DESCRIPTION) Double radius,
+            @RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime) {
+        return sightingService.getSightingsNear(birdId, startDateTime, endDateTime, longitude, latitude, radius);
+    }
+
+    /**
+     * Gets the sightings inside a polygon, see {@link SightingController#getSightingsWithin}.
+     * @param polygon {@link String}
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Gets the sightings inside a polygon.")
+    @GetMapping("/within")
+    public Flux<SightingResponseDto> getSightingsWithin(
+            @RequestParam @Parameter(description = SightingController.POLYGON_DESCRIPTION) String polygon,
+            @RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SightingController.SORT_DESCRIPTION) String sort) {
+        return sightingService.getSightingsWithin(birdId, startDateTime, endDateTime, polygon, sort);
+    }
+
+    /**
+     * Gets the number of sightings per time bucket, see {@link SightingController#getSightingStats}.
+     * @param birdId {@link String}
+     * @param location {@link String}
+     * @param startDate {@link String}
+     * @param endDate {@link String}
+     * @param bucket {@link String}
+     * @param groupBy List of {@link String}
+     * @return a Flux of {@link SightingStatsDto} objects
+     */
+    @Operation(summary = "Counts the sightings by bird, location and time bucket.")
+    @GetMapping("/stats")
+    public Flux<SightingStatsDto> getSightingStats(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) @Parameter(description = SightingController.DATE_DESCRIPTION) String startDate,
+            @RequestParam(required = false) @Parameter(description = SightingController.DATE_DESCRIPTION) String endDate,
+            @RequestParam(required = false) @Parameter(description = SightingController.BUCKET_DESCRIPTION) String bucket,
+            @RequestParam(required = false) @Parameter(description = SightingController.GROUP_BY_DESCRIPTION)
+                    List<String> groupBy) {
+        return sightingService.getSightingStats(birdId, location, startDate, endDate, bucket, groupBy);
+    }
+
+    /**
+     * Gets the number of sightings per grid cell of a heatmap tile, see {@link SightingController#getHeatmapTile}.
+     * @param zoom int
+     * @param x int
+     * @param y int
+     * @param startDate {@link String}
+     * @param endDate {@link String}
+     * @return a Mono of {@link SightingHeatmapTileDto}
+     */
+    @Operation(summary = "Counts the sightings of a heatmap tile by grid cell.")
+    @GetMapping("/heatmap/{zoom}/{x}/{y}")
+    public Mono<SightingHeatmapTileDto> getHeatmapTile(
+            @PathVariable @Parameter(description = SightingController.ZOOM_DESCRIPTION) int zoom,
+            @PathVariable @Parameter(description = SightingController.TILE_X_DESCRIPTION) int x,
+            @PathVariable @Parameter(description = SightingController.TILE_Y_DESCRIPTION) int y,
+            @RequestParam(required = false) @Parameter(description = SightingController.DATE_DESCRIPTION) String startDate,
+            @RequestParam(required = false) @Parameter(description = SightingController.DATE_DESCRIPTION) String endDate) {
+        return sightingService.getHeatmapTile(zoom, x, y, startDate, endDate);
+    }
+}
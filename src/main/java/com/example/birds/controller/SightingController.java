@@ -1,17 +1,29 @@
 package com.example.birds.controller;
 
+import com.example.birds.dto.SightingBulkResultDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.service.SightingBulkService;
 import com.example.birds.service.SightingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -22,14 +34,36 @@ import java.util.List;
  * <br>
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/sightings")
 @Tag(name ="Sightings API", description = "Collection of API(s) for sightings.")
 public class SightingController {
+    static final String LOCATION_DESCRIPTION = "Location of the sightings, repeat the parameter to match any of several locations";
+    static final String SORT_DESCRIPTION = "Sort by dateTime then id: asc or desc (unsorted by default, asc for pages)";
+    static final String DATE_DESCRIPTION = "Inclusive day bound, e.g. 2023-07-18 (open when omitted)";
+    static final String BUCKET_DESCRIPTION = "Time span the sightings are counted over: day (default), month or year";
+    static final String GROUP_BY_DESCRIPTION = "Fields the sightings are also counted by: bird and/or location (both by default)";
+    static final String LONGITUDE_DESCRIPTION = "Longitude of the center, between -180 and 180";
+    static final String LATITUDE_DESCRIPTION = "Latitude of the center, between -90 and 90";
+    static final String RADIUS_DESCRIPTION = "Maximum distance from the center, in meters";
+    static final String POLYGON_DESCRIPTION = "Positions of the polygon as longitude,latitude separated by ;"
+            + " e.g. -118.5,34.0;-118.4,34.0;-118.4,34.1 (closed automatically)";
+    static final String ZOOM_DESCRIPTION = "Zoom level, between 0 and 20: the world is split in 2^zoom x 2^zoom tiles";
+    static final String TILE_X_DESCRIPTION = "Column of the tile, from longitude -180 eastward, between 0 and 2^zoom - 1";
+    static final String TILE_Y_DESCRIPTION = "Row of the tile, from latitude 90 southward, between 0 and 2^zoom - 1";
+
     private final SightingService sightingService;
 
+    private final SightingBulkService sightingBulkService;
+
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public SightingController(SightingService sightingService) {
+    public SightingController(SightingService sightingService, SightingBulkService sightingBulkService,
+                              ObjectMapper objectMapper) {
         this.sightingService = sightingService;
+        this.sightingBulkService = sightingBulkService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -47,6 +81,24 @@ public class SightingController {
         return sightingService.saveSighting(sighting);
     }
 
+    /**
+     * Creates many sightings at once from a JSON array, read while it is received.
+     * Each sighting is created or reported as failed on its own, a failure doesn't fail the whole request.
+     * @param body {@link InputStream} of a JSON array of {@link SightingSaveDto}
+     * @return a {@link SightingBulkResultDto} object
+     */
+    @Operation(summary = "Creates sightings in bulk.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = SightingSaveDto.class))))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The outcome of each sighting."),
+            @ApiResponse(responseCode = "400", description = "Bad Command - the body is not a JSON array", content = @Content),
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SightingBulkResultDto createSightings(InputStream body) {
+        return sightingBulkService.saveSightings(body);
+    }
+
     /**
      * Updates a sighting.
      * @param id {@link String}
@@ -93,35 +145,260 @@ public class SightingController {
 
     /**
      * Gets all sightings.
+     * When a cursor or a limit is provided a single page of sightings, sorted by dateTime then id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
      * @return a List of {@link SightingResponseDto} objects
      */
     @Operation(summary = "Gets all sightings.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The sightings were found."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - invalid cursor or limit provided."),
+    })
     @GetMapping
-    public List<SightingResponseDto> getAllSightings() {
-        return sightingService.getAllSightings();
+    public ResponseEntity<List<SightingResponseDto>> getAllSightings(
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(sightingService.getAllSightings());
+        }
+        return PageResponses.of(sightingService.getSightingsPage(null, null, null, null, null, cursor, limit));
+    }
+
+    /**
+     * Streams all sightings as newline delimited JSON, one sighting per line, straight from a database cursor.
+     * Selected by requesting the application/x-ndjson media type.
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams all sightings as newline delimited JSON.")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllSightings() {
+        return JsonStreams.<SightingResponseDto>ndjson(objectMapper,
+                consumer -> sightingService.streamSightingsByCriteria(null, null, null, null, null, consumer));
     }
 
     /**
-     * Gets all sightings filtered by the provided criteria.
+     * Streams all sightings as a chunked JSON array, straight from a database cursor.
+     * @param stream {@link Boolean}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams all sightings as a JSON array.")
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllSightingsAsArray(
+            @RequestParam @Parameter(description = BirdController.STREAM_DESCRIPTION) Boolean stream) {
+        return JsonStreams.<SightingResponseDto>jsonArray(objectMapper,
+                consumer -> sightingService.streamSightingsByCriteria(null, null, null, null, null, consumer));
+    }
+
+    /**
+     * Gets all sightings matching all the provided criteria, combined in a single query.
      * If no criteria is provided it will return all the sightings.
-     * Example of valid startDateTime format: "2023-07-18T10:00:00"
+     * Example of valid startDateTime format: "2023-07-18T10:00:00", either date-time bound can be omitted.
+     * When a cursor or a limit is provided a single page of sightings, sorted by dateTime then id, is returned
+     * and the cursor of the next page is sent in the X-Next-Cursor response header.
      * @param birdId {@link String}
-     * @param location {@link String}
+     * @param location List of {@link String}
      * @param startDateTime {@link String}
      * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param cursor {@link String}
+     * @param limit {@link Integer}
      * @return a List of {@link SightingResponseDto} objects
      */
     @Operation(summary = "Filters a sighting by criteria.")
     @ApiResponses(value = {
             @ApiResponse(responseCode  = "200", description = "OK - A sighting was updated successfully."),
-            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad DateTime string."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad DateTime string, sort, cursor or limit."),
             @ApiResponse(responseCode  = "404", description = "Not Found - A sighting was not found."),
     })
     @GetMapping("/search")
-    public List<SightingResponseDto> getSightingsByCriteria(@RequestParam(required = false) String birdId,
-                                                 @RequestParam(required = false) String location,
-                                                 @RequestParam(required = false) String startDateTime,
-                                                 @RequestParam(required = false) String endDateTime) {
-        return sightingService.getSightingsByCriteria(birdId, location, startDateTime, endDateTime);
+    public ResponseEntity<List<SightingResponseDto>> getSightingsByCriteria(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = LOCATION_DESCRIPTION) List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SORT_DESCRIPTION) String sort,
+            @RequestParam(required = false) @Parameter(description = BirdController.CURSOR_DESCRIPTION) String cursor,
+            @RequestParam(required = false) @Parameter(description = BirdController.LIMIT_DESCRIPTION) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(sightingService.getSightingsByCriteria(birdId, location, startDateTime, endDateTime, sort));
+        }
+        return PageResponses.of(sightingService.getSightingsPage(birdId, location, startDateTime, endDateTime, sort,
+                cursor, limit));
+    }
+
+    /**
+     * Counts the sightings filtered by the provided criteria, applied as for GET /api/sightings/search.
+     * Recent date-time intervals are counted in memory when the sighting time index is enabled.
+     * Example: GET /api/sightings/count?startDateTime=2023-07-18T10:00:00
+     * @param birdId {@link String}
+     * @param location List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return the number of sightings
+     */
+    @Operation(summary = "Counts the sightings matching the criteria.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The number of sightings."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad DateTime string."),
+    })
+    @GetMapping("/count")
+    public long countSightingsByCriteria(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = LOCATION_DESCRIPTION) List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime) {
+        return sightingService.countSightingsByCriteria(birdId, location, startDateTime, endDateTime);
+    }
+
+    /**
+     * Gets the sightings at most radius meters away from a point, the nearest first,
+     * optionally of a single bird and inside a date-time interval.
+     * Example: GET /api/sightings/near?longitude=-118.49&latitude=34.01&radius=5000&startDateTime=2023-07-18T10:00:00
+     * @param longitude {@link Double}
+     * @param latitude {@link Double}
+     * @param radius {@link Double}
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return a List of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Gets the sightings near a point.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The sightings, the nearest first."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad coordinates, radius or DateTime string."),
+            @ApiResponse(responseCode  = "404", description = "Not Found - The bird was not found."),
+    })
+    @GetMapping("/near")
+    public List<SightingResponseDto> getSightingsNear(
+            @RequestParam @Parameter(description = LONGITUDE_DESCRIPTION) Double longitude,
+            @RequestParam @Parameter(description = LATITUDE_DESCRIPTION) Double latitude,
+            @RequestParam @Parameter(description = RADIUS_DESCRIPTION) Double radius,
+            @RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime) {
+        return sightingService.getSightingsNear(birdId, startDateTime, endDateTime, longitude, latitude, radius);
+    }
+
+    /**
+     * Gets the sightings inside a polygon, optionally of a single bird and inside a date-time interval.
+     * Example: GET /api/sightings/within?polygon=-118.5,34.0;-118.4,34.0;-118.4,34.1;-118.5,34.1&sort=desc
+     * @param polygon {@link String}
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @return a List of {@link SightingResponseDto} objects
+     */
+    @Operation(summary = "Gets the sightings inside a polygon.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The sightings inside the polygon."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad polygon, sort or DateTime string."),
+            @ApiResponse(responseCode  = "404", description = "Not Found - The bird was not found."),
+    })
+    @GetMapping("/within")
+    public List<SightingResponseDto> getSightingsWithin(
+            @RequestParam @Parameter(description = POLYGON_DESCRIPTION) String polygon,
+            @RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SORT_DESCRIPTION) String sort) {
+        return sightingService.getSightingsWithin(birdId, startDateTime, endDateTime, polygon, sort);
+    }
+
+    /**
+     * Streams the sightings filtered by the provided criteria as newline delimited JSON, one sighting per line.
+     * Selected by requesting the application/x-ndjson media type.
+     * @param birdId {@link String}
+     * @param location List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams the sightings filtered by criteria as newline delimited JSON.")
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSightingsByCriteria(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = LOCATION_DESCRIPTION) List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SORT_DESCRIPTION) String sort) {
+        return JsonStreams.<SightingResponseDto>ndjson(objectMapper, consumer ->
+                sightingService.streamSightingsByCriteria(birdId, location, startDateTime, endDateTime, sort, consumer));
+    }
+
+    /**
+     * Streams the sightings filtered by the provided criteria as a chunked JSON array.
+     * @param birdId {@link String}
+     * @param location List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param stream {@link Boolean}
+     * @return a {@link ResponseEntity} of {@link StreamingResponseBody}
+     */
+    @Operation(summary = "Streams the sightings filtered by criteria as a JSON array.")
+    @GetMapping(value = "/search", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSightingsByCriteriaAsArray(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) @Parameter(description = LOCATION_DESCRIPTION) List<String> location,
+            @RequestParam(required = false) String startDateTime,
+            @RequestParam(required = false) String endDateTime,
+            @RequestParam(required = false) @Parameter(description = SORT_DESCRIPTION) String sort,
+            @RequestParam @Parameter(description = BirdController.STREAM_DESCRIPTION) Boolean stream) {
+        return JsonStreams.<SightingResponseDto>jsonArray(objectMapper, consumer ->
+                sightingService.streamSightingsByCriteria(birdId, location, startDateTime, endDateTime, sort, consumer));
+    }
+
+    /**
+     * Gets the number of sightings per time bucket, and per bird and location unless grouped otherwise,
+     * read from rollups maintained on every sighting write instead of from the sightings.
+     * Example: GET /api/sightings/stats?location=Forest&startDate=2023-01-01&bucket=month&groupBy=bird
+     * @param birdId {@link String}
+     * @param location {@link String}
+     * @param startDate {@link String}
+     * @param endDate {@link String}
+     * @param bucket {@link String}
+     * @param groupBy List of {@link String}
+     * @return a List of {@link SightingStatsDto} objects, sorted by bucket, bird id then location
+     */
+    @Operation(summary = "Counts the sightings by bird, location and time bucket.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The sighting counts, empty if none matches."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad date, bucket or groupBy."),
+    })
+    @GetMapping("/stats")
+    public List<SightingStatsDto> getSightingStats(@RequestParam(required = false) String birdId,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) @Parameter(description = DATE_DESCRIPTION) String startDate,
+            @RequestParam(required = false) @Parameter(description = DATE_DESCRIPTION) String endDate,
+            @RequestParam(required = false) @Parameter(description = BUCKET_DESCRIPTION) String bucket,
+            @RequestParam(required = false) @Parameter(description = GROUP_BY_DESCRIPTION) List<String> groupBy) {
+        return sightingService.getSightingStats(birdId, location, startDate, endDate, bucket, groupBy);
+    }
+
+    /**
+     * Gets the number of sightings per grid cell of a heatmap tile, during an optional time window.
+     * Tiles split the world in 2^zoom x 2^zoom longitude/latitude rectangles, each split again in grid cells;
+     * computed tiles are cached until a sighting of the tile and window is written.
+     * Example: GET /api/sightings/heatmap/6/11/17?startDate=2023-07-01&endDate=2023-07-31
+     * @param zoom int
+     * @param x int
+     * @param y int
+     * @param startDate {@link String}
+     * @param endDate {@link String}
+     * @return a {@link SightingHeatmapTileDto} object
+     */
+    @Operation(summary = "Counts the sightings of a heatmap tile by grid cell.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode  = "200", description = "OK - The tile, without cells if no sighting matches."),
+            @ApiResponse(responseCode  = "400", description = "Bad Command - For example bad zoom, tile or date."),
+    })
+    @GetMapping("/heatmap/{zoom}/{x}/{y}")
+    public SightingHeatmapTileDto getHeatmapTile(
+            @PathVariable @Parameter(description = ZOOM_DESCRIPTION) int zoom,
+            @PathVariable @Parameter(description = TILE_X_DESCRIPTION) int x,
+            @PathVariable @Parameter(description = TILE_Y_DESCRIPTION) int y,
+            @RequestParam(required = false) @Parameter(description = DATE_DESCRIPTION) String startDate,
+            @RequestParam(required = false) @Parameter(description = DATE_DESCRIPTION) String endDate) {
+        return sightingService.getHeatmapTile(zoom, x, y, startDate, endDate);
     }
 }
@@ -0,0 +1,81 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the progress of an asynchronous bird deletion.
+ */
+@Schema(description = "Data Transfer Object for the progress of a bird deletion.")
+public class BirdDeletionDto {
+
+    /**
+     * State of a bird deletion.
+     */
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    @Schema(description = "ID of the deletion", example = "3f2b8c1e-5d0a-4c8e-9b7a-1f2e3d4c5b6a")
+    private final String id;
+    @Schema(description = "ID of the deleted bird", example = "60d5ec49f23e4d3b8c6a72f8")
+    private final String birdId;
+    @Schema(description = "State of the deletion", example = "RUNNING")
+    private final Status status;
+    @Schema(description = "Number of sightings of the bird when the deletion started", example = "250000")
+    private final long totalSightings;
+    @Schema(description = "Number of sightings deleted so far", example = "120000")
+    private final long deletedSightings;
+    @Schema(description = "Reason of the failure, null unless failed", example = "Timed out")
+    private final String error;
+
+    public BirdDeletionDto(String id, String birdId, Status status, long totalSightings, long deletedSightings,
+                           String error) {
+        this.id = id;
+        this.birdId = birdId;
+        this.status = status;
+        this.totalSightings = totalSightings;
+        this.deletedSightings = deletedSightings;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalSightings() {
+        return totalSightings;
+    }
+
+    public long getDeletedSightings() {
+        return deletedSightings;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BirdDeletionDto)) return false;
+        BirdDeletionDto that = (BirdDeletionDto) o;
+        return getTotalSightings() == that.getTotalSightings() && getDeletedSightings() == that.getDeletedSightings()
+                && Objects.equals(getId(), that.getId()) && Objects.equals(getBirdId(), that.getBirdId())
+                && getStatus() == that.getStatus() && Objects.equals(getError(), that.getError());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getBirdId(), getStatus(), getTotalSightings(), getDeletedSightings(), getError());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the statistics of a cache since the application started.
+ */
+@Schema(description = "Data Transfer Object for cache statistics.")
+public class CacheStatsDto {
+
+    @Schema(description = "Number of lookups served from the cache", example = "90")
+    private final long hitCount;
+    @Schema(description = "Number of lookups that had to read MongoDB", example = "10")
+    private final long missCount;
+    @Schema(description = "Ratio of lookups served from the cache, 1 when there were no lookups", example = "0.9")
+    private final double hitRate;
+    @Schema(description = "Number of entries evicted because of size or expiration", example = "2")
+    private final long evictionCount;
+    @Schema(description = "Approximate number of cached entries", example = "8")
+    private final long size;
+
+    public CacheStatsDto(long hitCount, long missCount, double hitRate, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatsDto)) return false;
+        CacheStatsDto that = (CacheStatsDto) o;
+        return getHitCount() == that.getHitCount() && getMissCount() == that.getMissCount()
+                && Double.compare(getHitRate(), that.getHitRate()) == 0
+                && getEvictionCount() == that.getEvictionCount() && getSize() == that.getSize();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getHitCount(), getMissCount(), getHitRate(), getEvictionCount(), getSize());
+    }
+}
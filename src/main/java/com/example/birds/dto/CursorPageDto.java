@@ -0,0 +1,51 @@
+package com.example.birds.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of results read with keyset (cursor) pagination.
+ * The next cursor is returned to clients in the {@link #NEXT_CURSOR_HEADER} response header.
+ * @param <T> type of the page items
+ */
+public class CursorPageDto<T> {
+
+    /**
+     * Response header carrying the cursor of the next page, absent on the last page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    public CursorPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Opaque cursor to be sent back for reading the next page.
+     * @return a {@link String} or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CursorPageDto)) return false;
+        CursorPageDto<?> that = (CursorPageDto<?>) o;
+        return Objects.equals(getItems(), that.getItems()) && Objects.equals(getNextCursor(), that.getNextCursor());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getItems(), getNextCursor());
+    }
+}
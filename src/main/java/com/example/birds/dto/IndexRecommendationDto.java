@@ -0,0 +1,70 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the index recommended for a search.
+ */
+@Schema(description = "Data Transfer Object for the index recommended for a search.")
+public class IndexRecommendationDto {
+
+    @Schema(description = "Filter of the search", example = "{\"color\": \"red\", \"weight\": {\"$gte\": 1.5}}")
+    private final String filter;
+    @Schema(description = "Sort of the search, empty if unsorted", example = "{\"height\": -1, \"_id\": -1}")
+    private final String sort;
+    @Schema(description = "Declared index hinted to MongoDB for the search, null if none is hinted", example = "color_id")
+    private final String hintedIndex;
+    @Schema(description = "Keys of the index serving the search best: equality fields, then sort, then ranges",
+            example = "{\"color\": 1, \"height\": 1, \"weight\": 1, \"_id\": 1}")
+    private final String recommendedIndex;
+    @Schema(description = "Declared index starting with the recommended keys, null if it has to be created",
+            example = "null")
+    private final String declaredIndex;
+
+    public IndexRecommendationDto(String filter, String sort, String hintedIndex, String recommendedIndex,
+                                  String declaredIndex) {
+        this.filter = filter;
+        this.sort = sort;
+        this.hintedIndex = hintedIndex;
+        this.recommendedIndex = recommendedIndex;
+        this.declaredIndex = declaredIndex;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getHintedIndex() {
+        return hintedIndex;
+    }
+
+    public String getRecommendedIndex() {
+        return recommendedIndex;
+    }
+
+    public String getDeclaredIndex() {
+        return declaredIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndexRecommendationDto)) return false;
+        IndexRecommendationDto that = (IndexRecommendationDto) o;
+        return Objects.equals(getFilter(), that.getFilter()) && Objects.equals(getSort(), that.getSort())
+                && Objects.equals(getHintedIndex(), that.getHintedIndex())
+                && Objects.equals(getRecommendedIndex(), that.getRecommendedIndex())
+                && Objects.equals(getDeclaredIndex(), that.getDeclaredIndex());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getFilter(), getSort(), getHintedIndex(), getRecommendedIndex(), getDeclaredIndex());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the state of the MongoDB indexes.
+ */
+@Schema(description = "Data Transfer Object for the state of the MongoDB indexes.")
+public class IndexReportDto {
+
+    @Schema(description = "Differences between the declared and the existing indexes, empty if none",
+            example = "[\"Missing index name_id on birds: {\\\"name\\\": 1, \\\"_id\\\": 1}\"]")
+    private final List<String> drift;
+    @Schema(description = "Plan of each repository query")
+    private final List<QueryPlanDto> queryPlans;
+
+    public IndexReportDto(List<String> drift, List<QueryPlanDto> queryPlans) {
+        this.drift = drift;
+        this.queryPlans = queryPlans;
+    }
+
+    public List<String> getDrift() {
+        return drift;
+    }
+
+    public List<QueryPlanDto> getQueryPlans() {
+        return queryPlans;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndexReportDto)) return false;
+        IndexReportDto that = (IndexReportDto) o;
+        return Objects.equals(getDrift(), that.getDrift()) && Objects.equals(getQueryPlans(), that.getQueryPlans());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getDrift(), getQueryPlans());
+    }
+}
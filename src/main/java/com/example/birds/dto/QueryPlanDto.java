@@ -0,0 +1,59 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the plan MongoDB chose for one of the repository queries.
+ */
+@Schema(description = "Data Transfer Object for the plan of a repository query.")
+public class QueryPlanDto {
+
+    @Schema(description = "Repository method running the query", example = "SightingRepository.findByBirdId")
+    private final String query;
+    @Schema(description = "Whether the query is served by an index, false if it scans the whole collection", example = "true")
+    private final boolean indexed;
+    @Schema(description = "Stages of the winning plan, from the root", example = "[\"FETCH\", \"IXSCAN\"]")
+    private final List<String> stages;
+    @Schema(description = "Indexes used by the winning plan", example = "[\"birdId_dateTime_id\"]")
+    private final List<String> indexes;
+
+    public QueryPlanDto(String query, boolean indexed, List<String> stages, List<String> indexes) {
+        this.query = query;
+        this.indexed = indexed;
+        this.stages = stages;
+        this.indexes = indexes;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public List<String> getStages() {
+        return stages;
+    }
+
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QueryPlanDto)) return false;
+        QueryPlanDto that = (QueryPlanDto) o;
+        return isIndexed() == that.isIndexed() && Objects.equals(getQuery(), that.getQuery())
+                && Objects.equals(getStages(), that.getStages()) && Objects.equals(getIndexes(), that.getIndexes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getQuery(), isIndexed(), getStages(), getIndexes());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the latencies and the cost of the MongoDB commands sharing a query shape.
+ */
+@Schema(description = "Data Transfer Object for the profile of a query shape.")
+public class QueryShapeDto {
+
+    @Schema(description = "Query shape, the command with its literal values replaced by ?",
+            example = "find sightings {\"filter\": {\"birdId\": \"?\"}, \"sort\": {\"dateTime\": 1, \"_id\": 1}}")
+    private final String shape;
+    @Schema(description = "Command name", example = "find")
+    private final String command;
+    @Schema(description = "Collection the command runs on", example = "sightings")
+    private final String collection;
+    @Schema(description = "Number of commands", example = "1200")
+    private final long count;
+    @Schema(description = "Number of failed commands", example = "0")
+    private final long failures;
+    @Schema(description = "Number of commands above the slow threshold", example = "3")
+    private final long slowCount;
+    @Schema(description = "Total duration of the commands in milliseconds", example = "3420.5")
+    private final double totalMillis;
+    @Schema(description = "Mean duration in milliseconds", example = "2.85")
+    private final double meanMillis;
+    @Schema(description = "Median duration in milliseconds", example = "1.9")
+    private final double p50Millis;
+    @Schema(description = "99th percentile duration in milliseconds", example = "24.1")
+    private final double p99Millis;
+    @Schema(description = "Maximum duration in milliseconds", example = "130.2")
+    private final double maxMillis;
+    @Schema(description = "Number of slow commands explained", example = "1")
+    private final long explains;
+    @Schema(description = "Documents examined by the explained commands", example = "50000")
+    private final long docsExamined;
+    @Schema(description = "Documents returned by the explained commands", example = "100")
+    private final long docsReturned;
+    @Schema(description = "Documents examined per document returned, null until a command is explained", example = "500.0")
+    private final Double docsExaminedRatio;
+    @Schema(description = "Stages of the last explained winning plan, from the root", example = "[\"FETCH\", \"IXSCAN\"]")
+    private final List<String> stages;
+    @Schema(description = "Indexes used by the last explained winning plan", example = "[\"birdId_dateTime_id\"]")
+    private final List<String> indexes;
+
+    public QueryShapeDto(String shape, String command, String collection, long count, long failures, long slowCount,
+                         double totalMillis, double meanMillis, double p50Millis, double p99Millis, double maxMillis,
+                         long explains, long docsExamined, long docsReturned, Double docsExaminedRatio,
+                         List<String> stages, List<String> indexes) {
+        this.shape = shape;
+        this.command = command;
+        this.collection = collection;
+        this.count = count;
+        this.failures = failures;
+        this.slowCount = slowCount;
+        this.totalMillis = totalMillis;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.explains = explains;
+        this.docsExamined = docsExamined;
+        this.docsReturned = docsReturned;
+        this.docsExaminedRatio = docsExaminedRatio;
+        this.stages = stages;
+        this.indexes = indexes;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getExplains() {
+        return explains;
+    }
+
+    public long getDocsExamined() {
+        return docsExamined;
+    }
+
+    public long getDocsReturned() {
+        return docsReturned;
+    }
+
+    public Double getDocsExaminedRatio() {
+        return docsExaminedRatio;
+    }
+
+    public List<String> getStages() {
+        return stages;
+    }
+
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QueryShapeDto)) return false;
+        QueryShapeDto that = (QueryShapeDto) o;
+        return getCount() == that.getCount() && getFailures() == that.getFailures()
+                && getSlowCount() == that.getSlowCount() && Double.compare(that.getTotalMillis(), getTotalMillis()) == 0
+                && Double.compare(that.getMeanMillis(), getMeanMillis()) == 0
+                && Double.compare(that.getP50Millis(), getP50Millis()) == 0
+                && Double.compare(that.getP99Millis(), getP99Millis()) == 0
+                && Double.compare(that.getMaxMillis(), getMaxMillis()) == 0 && getExplains() == that.getExplains()
+                && getDocsExamined() == that.getDocsExamined() && getDocsReturned() == that.getDocsReturned()
+                && Objects.equals(getShape(), that.getShape()) && Objects.equals(getCommand(), that.getCommand())
+                && Objects.equals(getCollection(), that.getCollection())
+                && Objects.equals(getDocsExaminedRatio(), that.getDocsExaminedRatio())
+                && Objects.equals(getStages(), that.getStages()) && Objects.equals(getIndexes(), that.getIndexes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getShape(), getCommand(), getCollection(), getCount(), getFailures(), getSlowCount(),
+                getTotalMillis(), getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis(), getExplains(),
+                getDocsExamined(), getDocsReturned(), getDocsExaminedRatio(), getStages(), getIndexes());
+    }
+}
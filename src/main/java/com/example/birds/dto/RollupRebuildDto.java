@@ -0,0 +1,43 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the outcome of a rebuild of the sighting rollups.
+ */
+@Schema(description = "Data Transfer Object for the outcome of a rebuild of the sighting rollups.")
+public class RollupRebuildDto {
+
+    @Schema(description = "Number of rollups written, one per bird, location and day having sightings", example = "1200")
+    private final long rollupCount;
+    @Schema(description = "Duration of the rebuild in milliseconds", example = "350")
+    private final long durationMillis;
+
+    public RollupRebuildDto(long rollupCount, long durationMillis) {
+        this.rollupCount = rollupCount;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getRollupCount() {
+        return rollupCount;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RollupRebuildDto)) return false;
+        RollupRebuildDto that = (RollupRebuildDto) o;
+        return getRollupCount() == that.getRollupCount() && getDurationMillis() == that.getDurationMillis();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getRollupCount(), getDurationMillis());
+    }
+}
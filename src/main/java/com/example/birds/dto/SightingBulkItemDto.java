@@ -0,0 +1,50 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the outcome of one sighting of a bulk creation.
+ */
+@Schema(description = "Data Transfer Object for the outcome of one sighting of a bulk creation.")
+public class SightingBulkItemDto {
+
+    @Schema(description = "Position of the sighting in the request array", example = "0")
+    private final int index;
+    @Schema(description = "ID of the created sighting, null if it failed", example = "60d5ec49f23e4d3b8c6a72f9")
+    private final String id;
+    @Schema(description = "Reason of the failure, null if the sighting was created", example = "Bird not found!")
+    private final String error;
+
+    public SightingBulkItemDto(int index, String id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingBulkItemDto)) return false;
+        SightingBulkItemDto that = (SightingBulkItemDto) o;
+        return getIndex() == that.getIndex() && Objects.equals(getId(), that.getId()) && Objects.equals(getError(), that.getError());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getIndex(), getId(), getError());
+    }
+}
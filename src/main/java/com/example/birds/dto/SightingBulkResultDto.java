@@ -0,0 +1,57 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the summary of a bulk creation of sightings.
+ */
+@Schema(description = "Data Transfer Object for the summary of a bulk creation of sightings.")
+public class SightingBulkResultDto {
+
+    @Schema(description = "Number of created sightings", example = "2")
+    private final int succeeded;
+    @Schema(description = "Number of failed sightings", example = "1")
+    private final int failed;
+    @Schema(description = "Outcome of each sighting, in request order")
+    private final List<SightingBulkItemDto> items;
+
+    public SightingBulkResultDto(List<SightingBulkItemDto> items) {
+        int failedItems = 0;
+        for (SightingBulkItemDto item : items) {
+            if (item.getError() != null) {
+                failedItems++;
+            }
+        }
+        this.succeeded = items.size() - failedItems;
+        this.failed = failedItems;
+        this.items = items;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<SightingBulkItemDto> getItems() {
+        return items;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingBulkResultDto)) return false;
+        SightingBulkResultDto that = (SightingBulkResultDto) o;
+        return getSucceeded() == that.getSucceeded() && getFailed() == that.getFailed() && Objects.equals(getItems(), that.getItems());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getSucceeded(), getFailed(), getItems());
+    }
+}
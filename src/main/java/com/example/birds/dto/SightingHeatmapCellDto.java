@@ -0,0 +1,50 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the number of sightings of a heatmap grid cell.
+ */
+@Schema(description = "Data Transfer Object for the number of sightings of a heatmap grid cell.")
+public class SightingHeatmapCellDto {
+
+    @Schema(description = "Column of the cell in its tile, from the west edge", example = "3")
+    private final int column;
+    @Schema(description = "Row of the cell in its tile, from the north edge", example = "12")
+    private final int row;
+    @Schema(description = "Number of sightings", example = "42")
+    private final long count;
+
+    public SightingHeatmapCellDto(int column, int row, long count) {
+        this.column = column;
+        this.row = row;
+        this.count = count;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingHeatmapCellDto)) return false;
+        SightingHeatmapCellDto that = (SightingHeatmapCellDto) o;
+        return getColumn() == that.getColumn() && getRow() == that.getRow() && getCount() == that.getCount();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getColumn(), getRow(), getCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the sighting density of a heatmap tile.
+ */
+@Schema(description = "Data Transfer Object for the sighting density of a heatmap tile.")
+public class SightingHeatmapTileDto {
+
+    @Schema(description = "Zoom level", example = "6")
+    private final int zoom;
+    @Schema(description = "Column of the tile, from longitude -180", example = "11")
+    private final int x;
+    @Schema(description = "Row of the tile, from latitude 90", example = "17")
+    private final int y;
+    @Schema(description = "Longitude of the west edge", example = "-118.125")
+    private final double west;
+    @Schema(description = "Latitude of the north edge", example = "37.96875")
+    private final double north;
+    @Schema(description = "Width of a cell, in degrees of longitude", example = "0.3515625")
+    private final double cellWidth;
+    @Schema(description = "Height of a cell, in degrees of latitude", example = "0.17578125")
+    private final double cellHeight;
+    @Schema(description = "Number of sightings of the tile", example = "1234")
+    private final long count;
+    @Schema(description = "Cells having sightings, sorted by row then column")
+    private final List<SightingHeatmapCellDto> cells;
+
+    public SightingHeatmapTileDto(int zoom, int x, int y, double west, double north, double cellWidth,
+                                  double cellHeight, long count, List<SightingHeatmapCellDto> cells) {
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+        this.west = west;
+        this.north = north;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.count = count;
+        this.cells = cells;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public double getWest() {
+        return west;
+    }
+
+    public double getNorth() {
+        return north;
+    }
+
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    public double getCellHeight() {
+        return cellHeight;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<SightingHeatmapCellDto> getCells() {
+        return cells;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingHeatmapTileDto)) return false;
+        SightingHeatmapTileDto that = (SightingHeatmapTileDto) o;
+        return getZoom() == that.getZoom() && getX() == that.getX() && getY() == that.getY()
+                && Double.compare(that.getWest(), getWest()) == 0 && Double.compare(that.getNorth(), getNorth()) == 0
+                && Double.compare(that.getCellWidth(), getCellWidth()) == 0
+                && Double.compare(that.getCellHeight(), getCellHeight()) == 0
+                && getCount() == that.getCount() && Objects.equals(getCells(), that.getCells());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getZoom(), getX(), getY(), getWest(), getNorth(), getCellWidth(), getCellHeight(),
+                getCount(), getCells());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.birds.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -25,11 +26,16 @@ public class SightingResponseDto {
     @Schema(description = "Date and time", example = "2024-07-18T15:30:00")
     private final LocalDateTime dateTime;
 
-    public SightingResponseDto(String id, BirdResponseDto birdResponseDto, String location, LocalDateTime dateTime) {
+    @Schema(description = "GeoJSON position: longitude then latitude, null if unknown", example = "[-118.4912, 34.0195]")
+    private final List<Double> coordinates;
+
+    public SightingResponseDto(String id, BirdResponseDto birdResponseDto, String location, LocalDateTime dateTime,
+                               List<Double> coordinates) {
         this.id = id;
         this.birdResponseDto = birdResponseDto;
         this.location = location;
         this.dateTime = dateTime;
+        this.coordinates = coordinates;
     }
 
     public String getId() {
@@ -48,16 +54,20 @@ public class SightingResponseDto {
         return dateTime;
     }
 
+    public List<Double> getCoordinates() {
+        return coordinates;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof SightingResponseDto)) return false;
         SightingResponseDto that = (SightingResponseDto) o;
-        return Objects.equals(getId(), that.getId()) && Objects.equals(getBirdResponseDto(), that.getBirdResponseDto()) && Objects.equals(getLocation(), that.getLocation()) && Objects.equals(getDateTime(), that.getDateTime());
+        return Objects.equals(getId(), that.getId()) && Objects.equals(getBirdResponseDto(), that.getBirdResponseDto()) && Objects.equals(getLocation(), that.getLocation()) && Objects.equals(getDateTime(), that.getDateTime()) && Objects.equals(getCoordinates(), that.getCoordinates());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getBirdResponseDto(), getLocation(), getDateTime());
+        return Objects.hash(getId(), getBirdResponseDto(), getLocation(), getDateTime(), getCoordinates());
     }
 }
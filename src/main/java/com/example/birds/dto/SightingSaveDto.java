@@ -2,6 +2,7 @@ package com.example.birds.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -16,11 +17,14 @@ public class SightingSaveDto {
     private final String location;
     @Schema(description = "Date and time", example = "2024-07-18T15:30:00")
     private final String dateTime;
+    @Schema(description = "Optional GeoJSON position: longitude then latitude", example = "[-118.4912, 34.0195]")
+    private final List<Double> coordinates;
 
-    public SightingSaveDto(String birdId, String location, String dateTime) {
+    public SightingSaveDto(String birdId, String location, String dateTime, List<Double> coordinates) {
         this.birdId = birdId;
         this.location = location;
         this.dateTime = dateTime;
+        this.coordinates = coordinates;
     }
 
     public String getBirdId() {
@@ -35,16 +39,20 @@ public class SightingSaveDto {
         return dateTime;
     }
 
+    public List<Double> getCoordinates() {
+        return coordinates;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof SightingSaveDto)) return false;
         SightingSaveDto that = (SightingSaveDto) o;
-        return Objects.equals(getBirdId(), that.getBirdId()) && Objects.equals(getLocation(), that.getLocation()) && Objects.equals(getDateTime(), that.getDateTime());
+        return Objects.equals(getBirdId(), that.getBirdId()) && Objects.equals(getLocation(), that.getLocation()) && Objects.equals(getDateTime(), that.getDateTime()) && Objects.equals(getCoordinates(), that.getCoordinates());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getBirdId(), getLocation(), getDateTime());
+        return Objects.hash(getBirdId(), getLocation(), getDateTime(), getCoordinates());
     }
 }
@@ -0,0 +1,58 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the number of sightings of a time bucket.
+ */
+@Schema(description = "Data Transfer Object for the number of sightings of a time bucket.")
+public class SightingStatsDto {
+
+    @Schema(description = "Bird of the sightings, null when not grouped by bird", example = "64b6c0e5e4b0a1f0c8a1b2c3")
+    private final String birdId;
+    @Schema(description = "Location of the sightings, null when not grouped by location", example = "Forest")
+    private final String location;
+    @Schema(description = "Day, month or year of the sightings", example = "2023-07")
+    private final String bucket;
+    @Schema(description = "Number of sightings", example = "42")
+    private final long count;
+
+    public SightingStatsDto(String birdId, String location, String bucket, long count) {
+        this.birdId = birdId;
+        this.location = location;
+        this.bucket = bucket;
+        this.count = count;
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingStatsDto)) return false;
+        SightingStatsDto that = (SightingStatsDto) o;
+        return getCount() == that.getCount() && Objects.equals(getBirdId(), that.getBirdId())
+                && Objects.equals(getLocation(), that.getLocation()) && Objects.equals(getBucket(), that.getBucket());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getBirdId(), getLocation(), getBucket(), getCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.birds.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+
+/**
+ * DTO used for REST API operations, the state of the in-memory index of sightings by date-time.
+ */
+@Schema(description = "Data Transfer Object for the sighting time index statistics.")
+public class SightingTimeIndexStatsDto {
+
+    @Schema(description = "Whether the index is loaded and serves searches", example = "true")
+    private final boolean ready;
+    @Schema(description = "Number of sightings held", example = "120000")
+    private final long size;
+    @Schema(description = "Estimated memory used, in bytes", example = "25000000")
+    private final long estimatedBytes;
+    @Schema(description = "Memory budget, in bytes", example = "67108864")
+    private final long memoryBudget;
+    @Schema(description = "Date-time after which all sightings are held, searches starting before are read "
+            + "from MongoDB", example = "2023-07-11T10:00:00")
+    private final String retainedAfter;
+    @Schema(description = "Number of searches and counts served from memory", example = "90")
+    private final long hitCount;
+    @Schema(description = "Number of date-time interval searches and counts read from MongoDB", example = "10")
+    private final long fallbackCount;
+
+    public SightingTimeIndexStatsDto(boolean ready, long size, long estimatedBytes, long memoryBudget,
+                                     String retainedAfter, long hitCount, long fallbackCount) {
+        this.ready = ready;
+        this.size = size;
+        this.estimatedBytes = estimatedBytes;
+        this.memoryBudget = memoryBudget;
+        this.retainedAfter = retainedAfter;
+        this.hitCount = hitCount;
+        this.fallbackCount = fallbackCount;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public String getRetainedAfter() {
+        return retainedAfter;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SightingTimeIndexStatsDto)) return false;
+        SightingTimeIndexStatsDto that = (SightingTimeIndexStatsDto) o;
+        return isReady() == that.isReady() && getSize() == that.getSize()
+                && getEstimatedBytes() == that.getEstimatedBytes() && getMemoryBudget() == that.getMemoryBudget()
+                && Objects.equals(getRetainedAfter(), that.getRetainedAfter())
+                && getHitCount() == that.getHitCount() && getFallbackCount() == that.getFallbackCount();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(isReady(), getSize(), getEstimatedBytes(), getMemoryBudget(), getRetainedAfter(),
+                getHitCount(), getFallbackCount());
+    }
+}
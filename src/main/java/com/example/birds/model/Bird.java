@@ -1,12 +1,25 @@
 package com.example.birds.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * 'MONGODB Entity' used for persisting Bird objects.
+ * </br>
+ * Searches by name, by color, and by weight or height range or sort have an index ending with the _id page order.
+ * Searches combining several fields are hinted one of them, see
+ * {@link com.example.birds.util.BirdSearch#getRecommendedIndex()} for the index serving a combination best.
+ * Indexes are created by {@link com.example.birds.repository.IndexManager}.
  */
 @Document(collection = "birds")
+@CompoundIndexes({
+        @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "color_id", def = "{'color': 1, '_id': 1}"),
+        @CompoundIndex(name = "weight_id", def = "{'weight': 1, '_id': 1}"),
+        @CompoundIndex(name = "height_id", def = "{'height': 1, '_id': 1}")
+})
 public class Bird {
     @Id
     private String id;
@@ -1,14 +1,34 @@
 package com.example.birds.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 /**
  * 'MONGODB Entity' used for persisting Sighting objects.
+ * </br>
+ * Each search (by bird, by location, by date-time interval) has an index starting with its filter field
+ * and ending with the (dateTime, _id) page order, so pages are read from the index without sorting.
+ * Proximity searches use a 2dsphere index on the optional coordinates, followed by birdId and dateTime,
+ * so the bird and the date-time interval are also bounds of the geo index. Sightings without coordinates
+ * are left out of it.
+ * Indexes are created by {@link com.example.birds.repository.IndexManager}.
+ * </br>
+ * The collection is a regular or a time-series collection depending on the storage mode,
+ * see {@link com.example.birds.repository.SightingStorageManager}.
  */
 @Document(collection = "sightings")
+@CompoundIndexes({
+        @CompoundIndex(name = "dateTime_id", def = "{'dateTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "birdId_dateTime_id", def = "{'birdId': 1, 'dateTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "location_dateTime_id", def = "{'location': 1, 'dateTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "coordinates_birdId_dateTime",
+                def = "{'coordinates': '2dsphere', 'birdId': 1, 'dateTime': 1}")
+})
 public class Sighting {
     @Id
     private String id;
@@ -16,6 +36,7 @@ public class Sighting {
     private String birdId;
     private String location;
     private LocalDateTime dateTime;
+    private GeoJsonPoint coordinates;
 
     public Sighting(String birdId, String location, LocalDateTime dateTime) {
         this.birdId = birdId;
@@ -56,4 +77,12 @@ public class Sighting {
     public void setDateTime(LocalDateTime dateTime) {
         this.dateTime = dateTime;
     }
-}
\ No newline at end of file
+
+    public GeoJsonPoint getCoordinates() {
+        return coordinates;
+    }
+
+    public void setCoordinates(GeoJsonPoint coordinates) {
+        this.coordinates = coordinates;
+    }
+}
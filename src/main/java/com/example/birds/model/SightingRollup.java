@@ -0,0 +1,61 @@
+package com.example.birds.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 'MONGODB Entity' used for persisting the number of sightings of a bird at a location on a day.
+ * </br>
+ * Rollups are maintained with "$inc" upserts on every sighting write, see
+ * {@link com.example.birds.repository.SightingRollupRepositoryCustom}, so sighting statistics never read the sightings.
+ * The day is kept as an ISO date string ("2023-07-18"), in the time zone of the application, so that months and years
+ * are its prefixes. The unique index makes concurrent upserts of the same rollup update a single document.
+ */
+@Document(collection = "sighting_rollups")
+@CompoundIndexes({
+        @CompoundIndex(name = "birdId_location_day", def = "{'birdId': 1, 'location': 1, 'day': 1}", unique = true),
+        @CompoundIndex(name = "location_day", def = "{'location': 1, 'day': 1}"),
+        @CompoundIndex(name = "day", def = "{'day': 1}")
+})
+public class SightingRollup {
+    @Id
+    private String id;
+
+    private String birdId;
+    private String location;
+    private String day;
+    private long count;
+
+    public SightingRollup(String birdId, String location, String day, long count) {
+        this.birdId = birdId;
+        this.location = location;
+        this.day = day;
+        this.count = count;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.Bird;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom Bird repository fragment, for queries that can't be expressed as derived queries.
+ */
+public interface BirdRepositoryCustom {
+
+    /**
+     * Finds the birds matching the provided search, sorted by its sort field when it has one.
+     * @param search {@link BirdSearch}
+     * @return List of {@link Bird} objects
+     */
+    List<Bird> search(BirdSearch search);
+
+    /**
+     * Finds a page of birds matching the provided search.
+     * Unsorted searches are paged by id: the page starts right after the provided cursor, using the "_id" index
+     * instead of skipping the previous pages. Sorted searches only have a first page, the cursor must be null.
+     * @param search {@link BirdSearch}
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return List of {@link Bird} objects
+     */
+    List<Bird> findPage(BirdSearch search, PageCursor after, int limit);
+
+    /**
+     * Streams the birds matching the provided search from a database cursor, without loading them all in memory.
+     * The returned stream must be closed in order to release the cursor.
+     * @param search {@link BirdSearch}
+     * @return Stream of {@link Bird} objects
+     */
+    Stream<Bird> stream(BirdSearch search);
+}
@@ -0,0 +1,117 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link BirdRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class BirdRepositoryCustomImpl implements BirdRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final IndexProperties indexProperties;
+
+    @Autowired
+    public BirdRepositoryCustomImpl(MongoTemplate mongoTemplate, IndexProperties indexProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexProperties = indexProperties;
+    }
+
+    @Override
+    public List<Bird> search(BirdSearch search) {
+        return mongoTemplate.find(withIndexHint(getSearchQuery(search), search, indexProperties.isHints()), Bird.class);
+    }
+
+    @Override
+    public List<Bird> findPage(BirdSearch search, PageCursor after, int limit) {
+        return mongoTemplate.find(withIndexHint(getPageQuery(search, after, limit), search, indexProperties.isHints()),
+                Bird.class);
+    }
+
+    @Override
+    public Stream<Bird> stream(BirdSearch search) {
+        return StreamUtils.createStreamFromIterator(mongoTemplate.stream(
+                withIndexHint(getSearchQuery(search), search, indexProperties.isHints()), Bird.class));
+    }
+
+    /**
+     * Hints the index selected for the provided search, unless hints are disabled.
+     * @param query {@link Query} built for the search
+     * @param search {@link BirdSearch}
+     * @param hints boolean, whether hints are enabled
+     * @return the provided {@link Query}
+     */
+    static Query withIndexHint(Query query, BirdSearch search, boolean hints) {
+        final Document hint = hints ? getIndexHint(search) : null;
+        if (Objects.nonNull(hint)) {
+            query.withHint(hint);
+        }
+        return query;
+    }
+
+    /**
+     * Builds the query of the birds matching the provided search, sorted only if the search has a sort field.
+     * @param search {@link BirdSearch}
+     * @return a {@link Query} object
+     */
+    static Query getSearchQuery(BirdSearch search) {
+        return new Query(search.getCriteria()).with(search.getSort());
+    }
+
+    /**
+     * Builds the query of a page of birds. Sorted searches read the first limit birds in their sort order,
+     * the others are sorted by id and start right after the provided cursor.
+     * @param search {@link BirdSearch}
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return a {@link Query} object
+     */
+    static Query getPageQuery(BirdSearch search, PageCursor after, int limit) {
+        if (search.isSorted()) {
+            return getSearchQuery(search).limit(limit);
+        }
+        final Criteria criteria = Objects.isNull(after)
+                ? search.getCriteria()
+                : new Criteria().andOperator(search.getCriteria(), Criteria.where("_id").gt(after.getIdValue()));
+        return new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+    }
+
+    /**
+     * Selects the declared index serving the provided search best: an equality field first (name, then color),
+     * then the sort field, which avoids sorting in memory, then a range field (weight, then height).
+     * The other criteria are checked on the documents read from the index.
+     * @param search {@link BirdSearch}
+     * @return the keys of the index as a {@link Document}, null if the whole collection is read anyway
+     */
+    static Document getIndexHint(BirdSearch search) {
+        final String field;
+        if (Objects.nonNull(search.getName())) {
+            field = "name";
+        } else if (Objects.nonNull(search.getColor())) {
+            field = "color";
+        } else if (search.isSorted()) {
+            field = search.getSortField();
+        } else if (search.hasWeightRange()) {
+            field = "weight";
+        } else if (search.hasHeightRange()) {
+            field = "height";
+        } else {
+            return null;
+        }
+        return new Document(field, 1).append("_id", 1);
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.dto.IndexRecommendationDto;
+import com.example.birds.dto.IndexReportDto;
+import com.example.birds.dto.QueryPlanDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the MongoDB indexes in line with the ones declared on the entities
+ * ({@link org.springframework.data.mongodb.core.index.CompoundIndex} annotations).
+ * </br>
+ * Once the application started, a background thread compares the declared and the existing indexes,
+ * logs every difference (drift) and creates the missing indexes, so that startup never waits for an index build.
+ * Existing indexes are never dropped or changed. It then explains each repository query and logs the ones
+ * that scan the whole collection.
+ */
+@Component
+public class IndexManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexManager.class);
+
+    static final List<Class<?>> ENTITIES = List.of(Bird.class, Sighting.class, SightingRollup.class);
+
+    static final String ID_INDEX = "_id_";
+
+    static final String COLLECTION_SCAN = "COLLSCAN";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final IndexProperties indexProperties;
+
+    @Autowired
+    public IndexManager(MongoTemplate mongoTemplate, IndexProperties indexProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexProperties = indexProperties;
+    }
+
+    /**
+     * Starts the background verification of the indexes, unless disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (indexProperties.isVerifyOnStartup()) {
+            final Thread thread = new Thread(this::verify, "index-verifier");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Verifies the indexes, creating the missing ones when enabled, then the query plans, logging the problems found.
+     */
+    void verify() {
+        try {
+            for (String drift : verifyIndexes(indexProperties.isCreateMissing())) {
+                LOGGER.warn(drift);
+            }
+            for (QueryPlanDto queryPlan : explainQueries()) {
+                if (!queryPlan.isIndexed()) {
+                    LOGGER.warn("Query {} is not served by an index, plan: {}", queryPlan.getQuery(), queryPlan.getStages());
+                }
+            }
+            LOGGER.info("Index verification completed");
+        } catch (RuntimeException exception) {
+            LOGGER.error("Index verification failed", exception);
+        }
+    }
+
+    /**
+     * Gets the differences between the declared and the existing indexes, and the plan of each repository query.
+     * Nothing is created.
+     * @return a {@link IndexReportDto} object
+     */
+    public IndexReportDto getReport() {
+        return new IndexReportDto(verifyIndexes(false), explainQueries());
+    }
+
+    /**
+     * Recommends the index serving a bird search best, and tells whether a declared index provides it.
+     * @param search {@link BirdSearch}
+     * @return a {@link IndexRecommendationDto} object
+     */
+    public IndexRecommendationDto getBirdIndexRecommendation(BirdSearch search) {
+        final Map<String, Document> declaredIndexes = new LinkedHashMap<>();
+        for (IndexDefinition index : IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Bird.class)) {
+            declaredIndexes.put(index.getIndexOptions().getString("name"), index.getIndexKeys());
+        }
+        final Document hint = indexProperties.isHints() ? BirdRepositoryCustomImpl.getIndexHint(search) : null;
+        final List<String> recommendedKeys = new ArrayList<>(search.getRecommendedIndex().keySet());
+
+        String hintedIndex = null;
+        // searches without criteria nor sort are served by the index MongoDB creates on "_id"
+        String declaredIndex = recommendedKeys.equals(List.of("_id")) ? ID_INDEX : null;
+        for (Map.Entry<String, Document> index : declaredIndexes.entrySet()) {
+            final List<String> keys = new ArrayList<>(index.getValue().keySet());
+            if (Objects.nonNull(hint) && getKeySpec(hint).equals(getKeySpec(index.getValue()))) {
+                hintedIndex = index.getKey();
+            }
+            // an index also serves the searches on its leading keys
+            if (Objects.isNull(declaredIndex) && keys.size() >= recommendedKeys.size()
+                    && keys.subList(0, recommendedKeys.size()).equals(recommendedKeys)) {
+                declaredIndex = index.getKey();
+            }
+        }
+        return new IndexRecommendationDto(search.getCriteria().getCriteriaObject().toJson(),
+                new Query().with(search.getSort()).getSortObject().toJson(), hintedIndex,
+                search.getRecommendedIndex().toJson(), declaredIndex);
+    }
+
+    /**
+     * Compares the indexes declared on the entities with the existing ones.
+     * @param createMissing boolean, whether the missing indexes are created
+     * @return List of {@link String} describing each difference, empty if there is none
+     */
+    List<String> verifyIndexes(boolean createMissing) {
+        final IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        final List<String> drift = new ArrayList<>();
+        for (Class<?> entity : ENTITIES) {
+            final String collection = mongoTemplate.getCollectionName(entity);
+            final Map<String, Document> existingIndexes = new LinkedHashMap<>();
+            for (Document index : mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>())) {
+                existingIndexes.put(index.getString("name"), index.get("key", Document.class));
+            }
+
+            for (IndexDefinition index : indexResolver.resolveIndexFor(entity)) {
+                final String name = index.getIndexOptions().getString("name");
+                final Document existingKeys = existingIndexes.remove(name);
+                if (existingKeys == null) {
+                    if (createMissing) {
+                        mongoTemplate.indexOps(entity).ensureIndex(index);
+                        drift.add(String.format("Created missing index %s on %s: %s", name, collection,
+                                index.getIndexKeys().toJson()));
+                    } else {
+                        drift.add(String.format("Missing index %s on %s: %s", name, collection,
+                                index.getIndexKeys().toJson()));
+                    }
+                } else if (!getKeySpec(existingKeys).equals(getKeySpec(index.getIndexKeys()))) {
+                    drift.add(String.format("Index %s on %s has keys %s instead of %s", name, collection,
+                            existingKeys.toJson(), index.getIndexKeys().toJson()));
+                }
+            }
+
+            existingIndexes.remove(ID_INDEX);
+            // time-series collections have no "_id" index, the storage manager creates one instead
+            existingIndexes.remove(SightingStorageManager.ID_INDEX);
+            for (Map.Entry<String, Document> index : existingIndexes.entrySet()) {
+                drift.add(String.format("Undeclared index %s on %s: %s", index.getKey(), collection,
+                        index.getValue().toJson()));
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Explains the query of each repository method and reports whether MongoDB serves it from an index.
+     * Listings without filter (findAll, streams) are left out, as they read the whole collection anyway.
+     * @return List of {@link QueryPlanDto} objects
+     */
+    List<QueryPlanDto> explainQueries() {
+        final QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        final List<QueryPlanDto> queryPlans = new ArrayList<>();
+        for (Map.Entry<String, QueryShape> entry : getQueryShapes(indexProperties.isHints()).entrySet()) {
+            final Class<?> entityClass = entry.getValue().entityClass;
+            final Query query = entry.getValue().query;
+            final MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                    .getRequiredPersistentEntity(entityClass);
+
+            final Document find = new Document("find", mongoTemplate.getCollectionName(entityClass))
+                    .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity));
+            if (!query.getSortObject().isEmpty()) {
+                find.append("sort", queryMapper.getMappedSort(query.getSortObject(), entity));
+            }
+            if (!query.getFieldsObject().isEmpty()) {
+                find.append("projection", queryMapper.getMappedFields(query.getFieldsObject(), entity));
+            }
+            if (query.getLimit() > 0) {
+                find.append("limit", query.getLimit());
+            }
+            if (Objects.nonNull(query.getHint())) {
+                // index keys are kept as JSON by the query, index names as is
+                find.append("hint", query.getHint().startsWith("{") ? Document.parse(query.getHint()) : query.getHint());
+            }
+            final Document explain = mongoTemplate.getDb()
+                    .runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+
+            final List<String> stages = new ArrayList<>();
+            final List<String> indexes = new ArrayList<>();
+            final Document queryPlanner = explain.get("queryPlanner", Document.class);
+            collectPlan(queryPlanner == null ? null : queryPlanner.get("winningPlan"), stages, indexes);
+            queryPlans.add(new QueryPlanDto(entry.getKey(), !stages.isEmpty() && !stages.contains(COLLECTION_SCAN),
+                    stages, indexes));
+        }
+        return queryPlans;
+    }
+
+    /**
+     * Builds a sample query for each repository method having a filter, with the same fields, operators and sort.
+     * Bird and sighting searches are sampled for each kind of criteria, as each kind selects its own index.
+     * @param hints boolean, whether searches hint their index
+     * @return Map of {@link QueryShape} by repository method
+     */
+    static Map<String, QueryShape> getQueryShapes(boolean hints) {
+        final String id = new ObjectId().toHexString();
+        final LocalDateTime dateTime = LocalDateTime.now();
+        final PageCursor birdCursor = new PageCursor(null, id);
+        final PageCursor sightingCursor = new PageCursor(dateTime, id);
+
+        final Map<String, QueryShape> shapes = new LinkedHashMap<>();
+        shapes.put("BirdRepository.findAllById", new QueryShape(Bird.class,
+                new Query(Criteria.where("_id").in(List.of(id)))));
+        final Map<String, BirdSearch> birdSearches = new LinkedHashMap<>();
+        birdSearches.put("", BirdSearch.ALL);
+        birdSearches.put("name", new BirdSearch("", null, null, null, null, null, null, null));
+        birdSearches.put("color", new BirdSearch(null, "", null, null, null, null, null, null));
+        birdSearches.put("weight, height", new BirdSearch(null, null, 0.0, 1.0, 0.0, null, null, null));
+        birdSearches.put("color, weight, sort", new BirdSearch(null, "", 0.0, null, null, null, "height",
+                Sort.Direction.DESC));
+        birdSearches.put("sort", new BirdSearch(null, null, null, null, null, null, "weight", Sort.Direction.DESC));
+        for (Map.Entry<String, BirdSearch> search : birdSearches.entrySet()) {
+            if (!search.getKey().isEmpty()) {
+                shapes.put("BirdRepositoryCustom.search(" + search.getKey() + ")", new QueryShape(Bird.class,
+                        BirdRepositoryCustomImpl.withIndexHint(
+                                BirdRepositoryCustomImpl.getSearchQuery(search.getValue()), search.getValue(), hints)));
+            }
+        }
+        for (Map.Entry<String, BirdSearch> search : birdSearches.entrySet()) {
+            // sorted searches only have a first page
+            final PageCursor after = search.getValue().isSorted() ? null : birdCursor;
+            final String page = search.getKey().isEmpty() ? "" : "(" + search.getKey() + ")";
+            shapes.put("BirdRepositoryCustom.findPage" + page, new QueryShape(Bird.class,
+                    BirdRepositoryCustomImpl.withIndexHint(BirdRepositoryCustomImpl.getPageQuery(
+                            search.getValue(), after, 100), search.getValue(), hints)));
+        }
+
+        shapes.put("SightingRepositoryCustom.deleteChunkByBirdId", new QueryShape(Sighting.class,
+                SightingRepositoryCustomImpl.getChunkQuery(id, 100)));
+        final Map<String, SightingSearch> searches = new LinkedHashMap<>();
+        searches.put("", SightingSearch.ALL);
+        searches.put("birdId", new SightingSearch(id, List.of(), null, null, null));
+        searches.put("birdId, location, dateTime", new SightingSearch(id, List.of(""), dateTime, dateTime, null));
+        searches.put("location", new SightingSearch(null, List.of(""), null, null, null));
+        searches.put("locations, dateTime", new SightingSearch(null, List.of("", " "), dateTime, null, null));
+        searches.put("dateTime", new SightingSearch(null, List.of(), dateTime, dateTime, null));
+        searches.put("sort", new SightingSearch(null, List.of(), null, null, Sort.Direction.DESC));
+        for (Map.Entry<String, SightingSearch> search : searches.entrySet()) {
+            if (!search.getKey().isEmpty()) {
+                shapes.put("SightingRepositoryCustom.search(" + search.getKey() + ")", new QueryShape(Sighting.class,
+                        SightingRepositoryCustomImpl.withIndexHint(
+                                SightingRepositoryCustomImpl.getSearchQuery(search.getValue()), search.getValue(), hints)));
+            }
+            final String page = search.getKey().isEmpty() ? "" : "(" + search.getKey() + ")";
+            shapes.put("SightingRepositoryCustom.findPage" + page, new QueryShape(Sighting.class,
+                    SightingRepositoryCustomImpl.withIndexHint(SightingRepositoryCustomImpl.getPageQuery(
+                            search.getValue(), sightingCursor, 100), search.getValue(), hints)));
+        }
+        final GeoJsonPoint point = new GeoJsonPoint(0, 0);
+        shapes.put("SightingRepositoryCustom.geoSearch(near, birdId, dateTime)", new QueryShape(Sighting.class,
+                SightingRepositoryCustomImpl.getGeoSearchQuery(
+                        SightingGeoSearch.near(id, dateTime, dateTime, point, 1000), hints)));
+        shapes.put("SightingRepositoryCustom.geoSearch(within, dateTime, sort)", new QueryShape(Sighting.class,
+                SightingRepositoryCustomImpl.getGeoSearchQuery(SightingGeoSearch.within(null, dateTime, null,
+                        new GeoJsonPolygon(point, new Point(1, 0), new Point(1, 1), point), Sort.Direction.ASC),
+                        hints)));
+        // the $match stage of the heatmap aggregation, the following stages don't read the collection
+        final Query heatmapQuery = new Query(new SightingHeatmapSearch(SightingHeatmapSearch.MAX_ZOOM, 0, 0, 16,
+                dateTime.toLocalDate(), null).getCriteria());
+        if (hints) {
+            heatmapQuery.withHint(SightingRepositoryCustomImpl.GEO_INDEX);
+        }
+        shapes.put("SightingRepositoryCustom.getHeatmapCells(tile, dateTime)", new QueryShape(Sighting.class,
+                heatmapQuery));
+        return shapes;
+    }
+
+    /**
+     * Collects the stages and the indexes of a winning plan, depth first from the root.
+     * Rejected plans, reported by sharded clusters next to each shard's winning plan, are skipped.
+     * @param node {@link Object} node of the explain output
+     * @param stages List of {@link String} stages found so far
+     * @param indexes List of {@link String} index names found so far
+     */
+    static void collectPlan(Object node, List<String> stages, List<String> indexes) {
+        if (node instanceof Document) {
+            final Document document = (Document) node;
+            if (document.get("stage") instanceof String) {
+                stages.add(document.getString("stage"));
+            }
+            if (document.get("indexName") instanceof String) {
+                indexes.add(document.getString("indexName"));
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (!"rejectedPlans".equals(entry.getKey())) {
+                    collectPlan(entry.getValue(), stages, indexes);
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object item : (List<?>) node) {
+                collectPlan(item, stages, indexes);
+            }
+        }
+    }
+
+    /**
+     * Builds a comparable representation of index keys, as servers may return the directions as doubles.
+     * @param keys {@link Document}
+     * @return a {@link String} object
+     */
+    private static String getKeySpec(Document keys) {
+        final StringBuilder keySpec = new StringBuilder();
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            final Object value = key.getValue() instanceof Number ? ((Number) key.getValue()).intValue() : key.getValue();
+            keySpec.append(key.getKey()).append(':').append(value).append(',');
+        }
+        return keySpec.toString();
+    }
+
+    /**
+     * The query run by a repository method, on the collection of an entity.
+     */
+    static final class QueryShape {
+
+        private final Class<?> entityClass;
+
+        private final Query query;
+
+        QueryShape(Class<?> entityClass, Query query) {
+            this.entityClass = entityClass;
+            this.query = query;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.QueryProfilerProperties;
+import com.example.birds.dto.QueryShapeDto;
+import com.example.birds.util.ErrorMessages;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Profiles the MongoDB commands by query shape, from the command events of the driver
+ * (registered on the blocking and the reactive client).
+ * </br>
+ * The shape of a command is its name, its collection and its filter, pipeline, sort, projection and hint,
+ * with the literal values replaced by ? (field names, operators, $ field paths and sort directions are kept),
+ * so that the commands of a repository method share their shape whatever their parameters.
+ * Each shape keeps a latency histogram. Commands above the slow threshold are logged, and slow reads are explained
+ * in the background, at most once per shape and explain interval, to count the documents they examine.
+ */
+@Component
+public class QueryProfiler implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryProfiler.class);
+
+    static final String PLACEHOLDER = "?";
+
+    static final Set<String> PROFILED_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "getMore", "insert",
+            "update", "delete", "findAndModify");
+
+    static final Set<String> EXPLAINED_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+
+    static final List<String> SORTS = List.of("total", "mean", "p99", "max", "count", "ratio");
+
+    // fields making the shape, the other ones being documents, options and session bookkeeping
+    private static final Set<String> SHAPE_FIELDS = Set.of("filter", "pipeline", "query", "key", "sort", "projection",
+            "fields", "hint", "updates", "deletes", "update", "remove");
+
+    // fields sent again by the explain
+    private static final Set<String> EXPLAIN_FIELDS = Set.of("filter", "pipeline", "query", "key", "sort", "projection",
+            "hint", "skip", "limit", "collation", "cursor", "allowDiskUse");
+
+    // fields whose values are part of the shape: sort directions, projected fields, hinted index, distinct key
+    private static final Set<String> VERBATIM_FIELDS = Set.of("sort", "$sort", "projection", "fields", "hint", "key");
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(5);
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final QueryProfilerProperties queryProfilerProperties;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+
+    private final Executor explainExecutor;
+
+    private final Ticker ticker;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+
+    private volatile boolean shapesFull;
+
+    @Autowired
+    public QueryProfiler(QueryProfilerProperties queryProfilerProperties,
+                         ObjectProvider<MongoTemplate> mongoTemplateProvider) {
+        this(queryProfilerProperties, mongoTemplateProvider, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY), runnable -> {
+                    final Thread thread = new Thread(runnable, "query-explainer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy()), Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a profiler explaining on the given executor, and reading the time from the given ticker.
+     * @param queryProfilerProperties {@link QueryProfilerProperties}
+     * @param mongoTemplateProvider {@link ObjectProvider} of the {@link MongoTemplate} running the explains
+     * @param explainExecutor {@link Executor}
+     * @param ticker {@link Ticker}
+     */
+    QueryProfiler(QueryProfilerProperties queryProfilerProperties, ObjectProvider<MongoTemplate> mongoTemplateProvider,
+                  Executor explainExecutor, Ticker ticker) {
+        this.queryProfilerProperties = queryProfilerProperties;
+        this.mongoTemplateProvider = mongoTemplateProvider;
+        this.explainExecutor = explainExecutor;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Registers the profiler on the MongoDB clients, unless disabled.
+     * @param builder {@link MongoClientSettings.Builder}
+     */
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        if (queryProfilerProperties.isEnabled()) {
+            builder.addCommandListener(this);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        final String commandName = event.getCommandName();
+        if (!PROFILED_COMMANDS.contains(commandName)) {
+            return;
+        }
+        final BsonDocument command = event.getCommand();
+        final String collection = getCollection(commandName, command);
+        final String shape = getShape(commandName, collection, command);
+        ShapeStats stats = shapes.get(shape);
+        if (Objects.isNull(stats)) {
+            if (shapes.size() >= queryProfilerProperties.getMaxShapes()) {
+                if (!shapesFull) {
+                    shapesFull = true;
+                    LOGGER.warn("{} query shapes profiled, the commands of new shapes are not profiled", shapes.size());
+                }
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, key -> new ShapeStats(key, commandName, collection));
+        }
+        // the event's command may be released once the listeners ran, the explained fields are copied
+        final BsonDocument explainCommand = queryProfilerProperties.isExplain()
+                && EXPLAINED_COMMANDS.contains(commandName) ? getExplainCommand(commandName, command) : null;
+        startedCommands.put(event.getRequestId(), new StartedCommand(stats, explainCommand));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        final StartedCommand startedCommand = startedCommands.remove(event.getRequestId());
+        if (Objects.nonNull(startedCommand)) {
+            record(startedCommand, event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        final StartedCommand startedCommand = startedCommands.remove(event.getRequestId());
+        if (Objects.nonNull(startedCommand)) {
+            record(startedCommand, event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        }
+    }
+
+    /**
+     * Gets the profiled query shapes, the top offenders first.
+     * @param sort {@link String}, total (default), mean, p99 or max duration, count of commands,
+     *             or ratio of documents examined per document returned
+     * @param limit int, maximum number of shapes
+     * @return List of {@link QueryShapeDto}
+     * @throws IllegalArgumentException if the sort is not one of the above
+     */
+    public List<QueryShapeDto> getTopShapes(String sort, int limit) {
+        final String order = Objects.isNull(sort) ? SORTS.get(0) : sort;
+        final Comparator<QueryShapeDto> comparator;
+        switch (order) {
+            case "total":
+                comparator = Comparator.comparingDouble(QueryShapeDto::getTotalMillis);
+                break;
+            case "mean":
+                comparator = Comparator.comparingDouble(QueryShapeDto::getMeanMillis);
+                break;
+            case "p99":
+                comparator = Comparator.comparingDouble(QueryShapeDto::getP99Millis);
+                break;
+            case "max":
+                comparator = Comparator.comparingDouble(QueryShapeDto::getMaxMillis);
+                break;
+            case "count":
+                comparator = Comparator.comparingLong(QueryShapeDto::getCount);
+                break;
+            case "ratio":
+                // shapes never explained last
+                comparator = Comparator.comparing(QueryShapeDto::getDocsExaminedRatio,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            default:
+                throw new IllegalArgumentException(ErrorMessages.INVALID_QUERY_SHAPE_SORT);
+        }
+        return shapes.values().stream()
+                .map(ShapeStats::toDto)
+                .sorted(comparator.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private void record(StartedCommand startedCommand, long elapsedNanos, boolean failed) {
+        final ShapeStats stats = startedCommand.stats;
+        final long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        stats.histogram.recordValue(Math.min(HIGHEST_LATENCY, Math.max(0, micros)));
+        stats.totalMicros.add(micros);
+        if (failed) {
+            stats.failures.increment();
+        }
+        if (elapsedNanos < queryProfilerProperties.getSlowThreshold().toNanos()) {
+            return;
+        }
+        stats.slowCount.increment();
+        LOGGER.warn("Slow MongoDB {} on {} took {} ms, shape: {}", stats.command, stats.collection,
+                micros / MICROS_PER_MILLI, stats.shape);
+        if (Objects.nonNull(startedCommand.explainCommand)
+                && stats.tryExplain(ticker.read(), queryProfilerProperties.getExplainInterval().toNanos())) {
+            explainExecutor.execute(() -> explain(stats, startedCommand.explainCommand));
+        }
+    }
+
+    /**
+     * Runs a slow read again with the executionStats verbosity, records the documents it examined and returned
+     * and logs its plan.
+     * @param stats {@link ShapeStats} of its shape
+     * @param explainCommand {@link BsonDocument} command to explain
+     */
+    void explain(ShapeStats stats, BsonDocument explainCommand) {
+        final MongoTemplate mongoTemplate = mongoTemplateProvider.getIfAvailable();
+        if (Objects.isNull(mongoTemplate)) {
+            return;
+        }
+        try {
+            final Document explain = mongoTemplate.getDb().runCommand(new BsonDocument("explain", explainCommand)
+                    .append("verbosity", new BsonString("executionStats")));
+            final List<String> stages = new ArrayList<>();
+            final List<String> indexes = new ArrayList<>();
+            IndexManager.collectPlan(find(explain, "winningPlan"), stages, indexes);
+            final Object executionStats = find(explain, "executionStats");
+            final long docsExamined = getLong(executionStats, "totalDocsExamined");
+            final long docsReturned = getLong(executionStats, "nReturned");
+            stats.recordExplain(docsExamined, docsReturned, stages, indexes);
+            LOGGER.warn("Slow query shape {} examined {} documents for {} returned, plan: {}, indexes: {}",
+                    stats.shape, docsExamined, docsReturned, stages, indexes);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Explain of query shape {} failed", stats.shape, exception);
+        }
+    }
+
+    /**
+     * Gets the collection a command runs on.
+     * @param commandName {@link String}
+     * @param command {@link BsonDocument}
+     * @return a {@link String} object, empty for database commands
+     */
+    static String getCollection(String commandName, BsonDocument command) {
+        final BsonValue collection = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        return Objects.nonNull(collection) && collection.isString() ? collection.asString().getValue() : "";
+    }
+
+    /**
+     * Gets the shape of a command: its name, collection and shape fields with their literal values replaced by ?.
+     * @param commandName {@link String}
+     * @param collection {@link String}
+     * @param command {@link BsonDocument}
+     * @return a {@link String} object
+     */
+    static String getShape(String commandName, String collection, BsonDocument command) {
+        final BsonDocument shape = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            if (!field.getKey().equals(commandName) && SHAPE_FIELDS.contains(field.getKey())) {
+                shape.append(field.getKey(), normalize(field.getKey(), field.getValue()));
+            }
+        }
+        return shape.isEmpty() ? commandName + " " + collection : commandName + " " + collection + " " + shape.toJson();
+    }
+
+    /**
+     * Replaces the literal values by ?, keeping the field names, the operators and the $ field paths.
+     * The items of an array are normalized and their duplicates removed, so that $in lists and
+     * bulk write statements have a single shape whatever their size.
+     * @param key {@link String} of the value
+     * @param value {@link BsonValue}
+     * @return a {@link BsonValue} object
+     */
+    static BsonValue normalize(String key, BsonValue value) {
+        if (VERBATIM_FIELDS.contains(key)) {
+            return value;
+        }
+        if (value.isDocument()) {
+            final BsonDocument shape = new BsonDocument();
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                shape.append(field.getKey(), normalize(field.getKey(), field.getValue()));
+            }
+            return shape;
+        }
+        if (value.isArray()) {
+            final Set<BsonValue> items = new LinkedHashSet<>();
+            for (BsonValue item : value.asArray()) {
+                items.add(normalize(key, item));
+            }
+            return new BsonArray(new ArrayList<>(items));
+        }
+        if (value.isString() && value.asString().getValue().startsWith("$")) {
+            return value;
+        }
+        return new BsonString(PLACEHOLDER);
+    }
+
+    /**
+     * Copies the fields of a read command sent again by its explain.
+     * @param commandName {@link String}
+     * @param command {@link BsonDocument}
+     * @return a {@link BsonDocument} object
+     */
+    static BsonDocument getExplainCommand(String commandName, BsonDocument command) {
+        final BsonDocument explainCommand = new BsonDocument(commandName, command.get(commandName));
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            if (EXPLAIN_FIELDS.contains(field.getKey())) {
+                explainCommand.append(field.getKey(), field.getValue());
+            }
+        }
+        return explainCommand.clone();
+    }
+
+    /**
+     * Finds the first value of a key in an explain output, depth first,
+     * e.g. the execution stats nested in the $cursor stage of an aggregation.
+     * @param node {@link Object} node of the explain output
+     * @param key {@link String}
+     * @return the value, null if not found
+     */
+    private static Object find(Object node, String key) {
+        if (node instanceof Document) {
+            final Document document = (Document) node;
+            if (document.containsKey(key)) {
+                return document.get(key);
+            }
+            for (Object value : document.values()) {
+                final Object found = find(value, key);
+                if (Objects.nonNull(found)) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object item : (List<?>) node) {
+                final Object found = find(item, key);
+                if (Objects.nonNull(found)) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long getLong(Object node, String key) {
+        return node instanceof Document && ((Document) node).get(key) instanceof Number
+                ? ((Number) ((Document) node).get(key)).longValue() : 0;
+    }
+
+    private static final class StartedCommand {
+
+        private final ShapeStats stats;
+
+        private final BsonDocument explainCommand;
+
+        private StartedCommand(ShapeStats stats, BsonDocument explainCommand) {
+            this.stats = stats;
+            this.explainCommand = explainCommand;
+        }
+    }
+
+    /**
+     * Latencies, in microseconds, and explained cost of the commands of a query shape.
+     */
+    static final class ShapeStats {
+
+        private static final long NEVER = Long.MIN_VALUE;
+
+        private final String shape;
+
+        private final String command;
+
+        private final String collection;
+
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, SIGNIFICANT_DIGITS);
+
+        private final LongAdder totalMicros = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder slowCount = new LongAdder();
+
+        private final AtomicLong lastExplainNanos = new AtomicLong(NEVER);
+
+        private final LongAdder explains = new LongAdder();
+
+        private final LongAdder docsExamined = new LongAdder();
+
+        private final LongAdder docsReturned = new LongAdder();
+
+        private volatile List<String> stages = List.of();
+
+        private volatile List<String> indexes = List.of();
+
+        private ShapeStats(String shape, String command, String collection) {
+            this.shape = shape;
+            this.command = command;
+            this.collection = collection;
+        }
+
+        /**
+         * Claims the explain of the shape, unless explained during the interval.
+         * @param now long, nanoseconds
+         * @param interval long, nanoseconds
+         * @return boolean, whether the caller explains the shape
+         */
+        private boolean tryExplain(long now, long interval) {
+            final long last = lastExplainNanos.get();
+            return (last == NEVER || now - last >= interval) && lastExplainNanos.compareAndSet(last, now);
+        }
+
+        private void recordExplain(long examined, long returned, List<String> stages, List<String> indexes) {
+            explains.increment();
+            docsExamined.add(examined);
+            docsReturned.add(returned);
+            this.stages = List.copyOf(stages);
+            this.indexes = List.copyOf(indexes);
+        }
+
+        private QueryShapeDto toDto() {
+            final long count = histogram.getTotalCount();
+            final long examined = docsExamined.sum();
+            final long returned = docsReturned.sum();
+            // counts return a single document whatever they match
+            final Double ratio = explains.sum() == 0 ? null : examined / (double) Math.max(1, returned);
+            return new QueryShapeDto(shape, command, collection, count, failures.sum(), slowCount.sum(),
+                    totalMicros.sum() / MICROS_PER_MILLI, count == 0 ? 0 : histogram.getMean() / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / MICROS_PER_MILLI, histogram.getMaxValue() / MICROS_PER_MILLI,
+                    explains.sum(), examined, returned, ratio, stages, indexes);
+        }
+    }
+}
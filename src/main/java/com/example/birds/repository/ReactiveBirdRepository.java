@@ -0,0 +1,11 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.Bird;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Reactive Bird repository class, used by the "reactive" profile.
+ * Searches are composed in {@link ReactiveBirdRepositoryCustom}.
+ */
+public interface ReactiveBirdRepository extends ReactiveMongoRepository<Bird, String>, ReactiveBirdRepositoryCustom {
+}
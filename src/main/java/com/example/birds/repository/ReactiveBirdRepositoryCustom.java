@@ -0,0 +1,30 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.Bird;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Custom reactive Bird repository fragment, for queries that can't be expressed as derived queries.
+ */
+public interface ReactiveBirdRepositoryCustom {
+
+    /**
+     * Finds the birds matching the provided search.
+     * Same query as {@link BirdRepositoryCustom#search(BirdSearch)}.
+     * @param search {@link BirdSearch}
+     * @return Flux of {@link Bird} objects
+     */
+    Flux<Bird> search(BirdSearch search);
+
+    /**
+     * Finds a page of birds matching the provided search.
+     * Same query as {@link BirdRepositoryCustom#findPage(BirdSearch, PageCursor, int)}.
+     * @param search {@link BirdSearch}
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return Flux of {@link Bird} objects
+     */
+    Flux<Bird> findPage(BirdSearch search, PageCursor after, int limit);
+}
@@ -0,0 +1,39 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementation of {@link ReactiveBirdRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class ReactiveBirdRepositoryCustomImpl implements ReactiveBirdRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final IndexProperties indexProperties;
+
+    @Autowired
+    public ReactiveBirdRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                            IndexProperties indexProperties) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.indexProperties = indexProperties;
+    }
+
+    @Override
+    public Flux<Bird> search(BirdSearch search) {
+        return reactiveMongoTemplate.find(BirdRepositoryCustomImpl.withIndexHint(
+                BirdRepositoryCustomImpl.getSearchQuery(search), search, indexProperties.isHints()), Bird.class);
+    }
+
+    @Override
+    public Flux<Bird> findPage(BirdSearch search, PageCursor after, int limit) {
+        return reactiveMongoTemplate.find(BirdRepositoryCustomImpl.withIndexHint(
+                BirdRepositoryCustomImpl.getPageQuery(search, after, limit), search, indexProperties.isHints()),
+                Bird.class);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.Sighting;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Sighting repository class, used by the "reactive" profile.
+ */
+public interface ReactiveSightingRepository extends ReactiveMongoRepository<Sighting, String>,
+        ReactiveSightingRepositoryCustom {
+
+    /**
+     * Deletes all the {@link Sighting} objects of a {@link com.example.birds.model.Bird} with a single query.
+     * @param birdId {@link String}
+     * @return Mono of the number of deleted sightings
+     */
+    Mono<Long> deleteByBirdId(String birdId);
+}
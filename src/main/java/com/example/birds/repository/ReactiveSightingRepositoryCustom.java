@@ -0,0 +1,58 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom reactive Sighting repository fragment, for queries that can't be expressed as derived queries.
+ */
+public interface ReactiveSightingRepositoryCustom {
+
+    /**
+     * Finds the sightings matching the provided search.
+     * Same query as {@link SightingRepositoryCustom#search(SightingSearch)}.
+     * @param search {@link SightingSearch}
+     * @return Flux of {@link Sighting} objects
+     */
+    Flux<Sighting> search(SightingSearch search);
+
+    /**
+     * Finds the sightings near a point or inside a polygon.
+     * Same query as {@link SightingRepositoryCustom#geoSearch(SightingGeoSearch)}.
+     * @param search {@link SightingGeoSearch}
+     * @return Flux of {@link Sighting} objects
+     */
+    Flux<Sighting> geoSearch(SightingGeoSearch search);
+
+    /**
+     * Counts the sightings of a heatmap tile by grid cell.
+     * Same aggregation as {@link SightingRepositoryCustom#getHeatmapCells(SightingHeatmapSearch)}.
+     * @param search {@link SightingHeatmapSearch}
+     * @return Flux of {@link SightingHeatmapCellDto} objects
+     */
+    Flux<SightingHeatmapCellDto> getHeatmapCells(SightingHeatmapSearch search);
+
+    /**
+     * Counts the sightings matching the provided search.
+     * Same query as {@link SightingRepositoryCustom#count(SightingSearch)}.
+     * @param search {@link SightingSearch}
+     * @return Mono of the number of sightings
+     */
+    Mono<Long> count(SightingSearch search);
+
+    /**
+     * Finds a page of sightings matching the provided search, sorted by dateTime then id.
+     * Same query as {@link SightingRepositoryCustom#findPage(SightingSearch, PageCursor, int)}.
+     * @param search {@link SightingSearch}
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return Flux of {@link Sighting} objects
+     */
+    Flux<Sighting> findPage(SightingSearch search, PageCursor after, int limit);
+}
@@ -0,0 +1,64 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link ReactiveSightingRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class ReactiveSightingRepositoryCustomImpl implements ReactiveSightingRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final IndexProperties indexProperties;
+
+    @Autowired
+    public ReactiveSightingRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                                IndexProperties indexProperties) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.indexProperties = indexProperties;
+    }
+
+    @Override
+    public Flux<Sighting> search(SightingSearch search) {
+        final Query query = SightingRepositoryCustomImpl.withIndexHint(SightingRepositoryCustomImpl.getSearchQuery(search),
+                search, indexProperties.isHints());
+        return reactiveMongoTemplate.find(query, Sighting.class);
+    }
+
+    @Override
+    public Flux<Sighting> geoSearch(SightingGeoSearch search) {
+        return reactiveMongoTemplate.find(SightingRepositoryCustomImpl.getGeoSearchQuery(search,
+                indexProperties.isHints()), Sighting.class);
+    }
+
+    @Override
+    public Flux<SightingHeatmapCellDto> getHeatmapCells(SightingHeatmapSearch search) {
+        return reactiveMongoTemplate.aggregate(SightingRepositoryCustomImpl.getHeatmapAggregation(search,
+                indexProperties.isHints()), Sighting.class, SightingHeatmapCellDto.class);
+    }
+
+    @Override
+    public Mono<Long> count(SightingSearch search) {
+        final Query query = SightingRepositoryCustomImpl.withIndexHint(new Query(search.getCriteria()), search,
+                indexProperties.isHints());
+        return reactiveMongoTemplate.count(query, Sighting.class);
+    }
+
+    @Override
+    public Flux<Sighting> findPage(SightingSearch search, PageCursor after, int limit) {
+        final Query query = SightingRepositoryCustomImpl.withIndexHint(
+                SightingRepositoryCustomImpl.getPageQuery(search, after, limit), search, indexProperties.isHints());
+        return reactiveMongoTemplate.find(query, Sighting.class);
+    }
+}
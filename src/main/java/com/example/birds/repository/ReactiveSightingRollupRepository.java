@@ -0,0 +1,19 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.SightingRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Sighting rollup repository class, used by the "reactive" profile.
+ */
+public interface ReactiveSightingRollupRepository extends ReactiveMongoRepository<SightingRollup, String>,
+        ReactiveSightingRollupRepositoryCustom {
+
+    /**
+     * Deletes all the {@link SightingRollup} objects of a {@link com.example.birds.model.Bird} with a single query.
+     * @param birdId {@link String}
+     * @return Mono of the number of deleted rollups
+     */
+    Mono<Long> deleteByBirdId(String birdId);
+}
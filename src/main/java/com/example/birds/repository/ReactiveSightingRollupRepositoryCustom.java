@@ -0,0 +1,31 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.SightingStatsSearch;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link SightingRollupRepositoryCustom}.
+ * The rollups are rebuilt through {@link SightingRollupRepositoryCustom#rebuild()} in both profiles.
+ */
+public interface ReactiveSightingRollupRepositoryCustom {
+
+    /**
+     * Applies written sightings to the rollups, with one "$inc" upsert per bird, location and day whose count changes.
+     * @param removed List of {@link Sighting} deleted, or replaced by an update
+     * @param added List of {@link Sighting} created, or replacing others by an update
+     * @return a Mono completing once the rollups are written
+     */
+    Mono<Void> updateCounts(List<Sighting> removed, List<Sighting> added);
+
+    /**
+     * Sums the rollups matching the provided search, see {@link SightingRollupRepositoryCustom#getStats}.
+     * @param search {@link SightingStatsSearch}
+     * @return Flux of {@link SightingStatsDto}, sorted by bucket, bird id then location
+     */
+    Flux<SightingStatsDto> getStats(SightingStatsSearch search);
+}
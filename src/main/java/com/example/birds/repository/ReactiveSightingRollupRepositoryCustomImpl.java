@@ -0,0 +1,41 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
+import com.example.birds.util.SightingStatsSearch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link ReactiveSightingRollupRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class ReactiveSightingRollupRepositoryCustomImpl implements ReactiveSightingRollupRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    public ReactiveSightingRollupRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> updateCounts(List<Sighting> removed, List<Sighting> added) {
+        return Flux.fromIterable(SightingRollupRepositoryCustomImpl.getDeltas(removed, added).entrySet())
+                .concatMap(delta -> reactiveMongoTemplate.upsert(
+                        SightingRollupRepositoryCustomImpl.getRollupQuery(delta.getKey()),
+                        new Update().inc("count", delta.getValue()), SightingRollup.class))
+                .then();
+    }
+
+    @Override
+    public Flux<SightingStatsDto> getStats(SightingStatsSearch search) {
+        return reactiveMongoTemplate.aggregate(SightingRollupRepositoryCustomImpl.getStatsAggregation(search),
+                reactiveMongoTemplate.getCollectionName(SightingRollup.class), SightingStatsDto.class);
+    }
+}
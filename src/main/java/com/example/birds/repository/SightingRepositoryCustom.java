@@ -0,0 +1,95 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Custom Sighting repository fragment, for queries that can't be expressed as derived queries.
+ */
+public interface SightingRepositoryCustom {
+
+    /**
+     * Finds the sightings matching the provided search, joined with their birds by the database.
+     * </br>
+     * Runs a single aggregation ($match, $sort, $lookup, $project) instead of reading sightings and birds separately
+     * and joining them in the application. A sighting whose bird is missing is returned with a null bird.
+     * @param search {@link SightingSearch}
+     * @return List of {@link SightingResponseDto} objects
+     */
+    List<SightingResponseDto> findSightingResponseDTOs(SightingSearch search);
+
+    /**
+     * Finds the sightings matching the provided search, with a single query on the index selected for it.
+     * @param search {@link SightingSearch}
+     * @return List of {@link Sighting} objects
+     */
+    List<Sighting> search(SightingSearch search);
+
+    /**
+     * Finds the sightings near a point or inside a polygon, matching the bird and date-time criteria of the search,
+     * with a single query on the 2dsphere index. Sightings near a point are sorted by distance, the nearest first.
+     * @param search {@link SightingGeoSearch}
+     * @return List of {@link Sighting} objects
+     */
+    List<Sighting> geoSearch(SightingGeoSearch search);
+
+    /**
+     * Counts the sightings of a heatmap tile by grid cell, with a single aggregation on the 2dsphere index.
+     * @param search {@link SightingHeatmapSearch}
+     * @return List of {@link SightingHeatmapCellDto} objects, the cells having sightings sorted by row then column
+     */
+    List<SightingHeatmapCellDto> getHeatmapCells(SightingHeatmapSearch search);
+
+    /**
+     * Counts the sightings matching the provided search, with the index hint of the search.
+     * @param search {@link SightingSearch}
+     * @return long
+     */
+    long count(SightingSearch search);
+
+    /**
+     * Finds a page of sightings matching the provided search, sorted by dateTime then id,
+     * in the direction of the search (ascending if none).
+     * The page starts right after the provided cursor, seeking on the (dateTime, _id) index
+     * instead of skipping the previous pages.
+     * @param search {@link SightingSearch}
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return List of {@link Sighting} objects
+     */
+    List<Sighting> findPage(SightingSearch search, PageCursor after, int limit);
+
+    /**
+     * Streams the sightings matching the provided search from a database cursor, without loading them all in memory.
+     * The returned stream must be closed in order to release the cursor.
+     * @param search {@link SightingSearch}
+     * @return Stream of {@link Sighting} objects
+     */
+    Stream<Sighting> stream(SightingSearch search);
+
+    /**
+     * Inserts the provided sightings with a single unordered bulk write.
+     * A failed insert doesn't stop the others, its error is returned instead of being thrown.
+     * @param sightings List of {@link Sighting}, not empty
+     * @return Map of write error messages by position in the provided list, empty if all sightings were inserted
+     */
+    Map<Integer, String> bulkInsert(List<Sighting> sightings);
+
+    /**
+     * Deletes at most limit of the sightings having the provided bird id, with a single "deleteMany" on their ids.
+     * Used for deleting very large numbers of sightings in steps that each complete quickly.
+     * @param birdId {@link String}
+     * @param limit int
+     * @return the number of deleted sightings, 0 once there are none left
+     */
+    long deleteChunkByBirdId(String birdId, int limit);
+}
@@ -0,0 +1,370 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link SightingRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class SightingRepositoryCustomImpl implements SightingRepositoryCustom {
+
+    static final String BIRD_OBJECT_ID_FIELD = "birdObjectId";
+    static final String BIRD_FIELD = "bird";
+    static final String BIRD_RESPONSE_DTO_FIELD = "birdResponseDto";
+    static final String COORDINATES_FIELD = "coordinates";
+
+    /**
+     * Keys of the 2dsphere index serving the geo searches.
+     */
+    static final Document GEO_INDEX = new Document(COORDINATES_FIELD, "2dsphere").append("birdId", 1).append("dateTime", 1);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final IndexProperties indexProperties;
+
+    @Autowired
+    public SightingRepositoryCustomImpl(MongoTemplate mongoTemplate, IndexProperties indexProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexProperties = indexProperties;
+    }
+
+    /**
+     * {@inheritDoc}
+     * </br>
+     * sighting.birdId is persisted as a string while bird._id is an ObjectId,
+     * so the id is converted ($convert) before the $lookup. A bird id that isn't an ObjectId, or is missing,
+     * is converted to null, so that the $lookup misses and the orphan is reported as by the in-JVM join.
+     */
+    @Override
+    public List<SightingResponseDto> findSightingResponseDTOs(SightingSearch search) {
+        final List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(search.getCriteria()));
+        if (Objects.nonNull(search.getDirection())) {
+            operations.add(Aggregation.sort(getSort(search.getDirection())));
+        }
+        operations.add(Aggregation.addFields()
+                .addFieldWithValue(BIRD_OBJECT_ID_FIELD, getBirdObjectIdExpression())
+                .build());
+        operations.add(Aggregation.lookup(mongoTemplate.getCollectionName(Bird.class), BIRD_OBJECT_ID_FIELD, "_id",
+                BIRD_FIELD));
+        operations.add(Aggregation.unwind(BIRD_FIELD, true));
+        // the GeoJSON point is returned as its position, null without coordinates
+        operations.add(Aggregation.project("location", "dateTime").and(BIRD_FIELD).as(BIRD_RESPONSE_DTO_FIELD)
+                .and(context -> new Document("$ifNull", Arrays.asList("$coordinates.coordinates", null)))
+                .as(COORDINATES_FIELD));
+
+        Aggregation aggregation = Aggregation.newAggregation(operations);
+        final Document hint = indexProperties.isHints()
+                ? getIndexHint(search, Objects.nonNull(search.getDirection()))
+                : null;
+        if (Objects.nonNull(hint)) {
+            aggregation = aggregation.withOptions(AggregationOptions.builder().hint(hint).build());
+        }
+        return mongoTemplate.aggregate(aggregation, Sighting.class, SightingResponseDto.class).getMappedResults();
+    }
+
+    /**
+     * Builds the expression converting sighting.birdId to an ObjectId, null when it can't be converted,
+     * where $toObjectId would fail the whole aggregation.
+     * @return an {@link AggregationExpression} object
+     */
+    static AggregationExpression getBirdObjectIdExpression() {
+        return context -> new Document("$convert", new Document("input", "$birdId")
+                .append("to", "objectId")
+                .append("onError", null)
+                .append("onNull", null));
+    }
+
+    @Override
+    public List<Sighting> search(SightingSearch search) {
+        final Query query = withIndexHint(getSearchQuery(search), search, indexProperties.isHints());
+        return mongoTemplate.find(query, Sighting.class);
+    }
+
+    @Override
+    public List<Sighting> geoSearch(SightingGeoSearch search) {
+        return mongoTemplate.find(getGeoSearchQuery(search, indexProperties.isHints()), Sighting.class);
+    }
+
+    @Override
+    public List<SightingHeatmapCellDto> getHeatmapCells(SightingHeatmapSearch search) {
+        return mongoTemplate.aggregate(getHeatmapAggregation(search, indexProperties.isHints()), Sighting.class,
+                SightingHeatmapCellDto.class).getMappedResults();
+    }
+
+    @Override
+    public long count(SightingSearch search) {
+        final Query query = withIndexHint(new Query(search.getCriteria()), search, indexProperties.isHints());
+        return mongoTemplate.count(query, Sighting.class);
+    }
+
+    @Override
+    public List<Sighting> findPage(SightingSearch search, PageCursor after, int limit) {
+        final Query query = withIndexHint(getPageQuery(search, after, limit), search, indexProperties.isHints());
+        return mongoTemplate.find(query, Sighting.class);
+    }
+
+    @Override
+    public Stream<Sighting> stream(SightingSearch search) {
+        final Query query = withIndexHint(getSearchQuery(search), search, indexProperties.isHints());
+        return StreamUtils.createStreamFromIterator(mongoTemplate.stream(query, Sighting.class));
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Sighting> sightings) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Sighting.class).insert(sightings).execute();
+            return Map.of();
+        } catch (BulkOperationException exception) {
+            final Map<Integer, String> errors = new HashMap<>();
+            for (BulkWriteError error : exception.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+            return errors;
+        }
+    }
+
+    @Override
+    public long deleteChunkByBirdId(String birdId, int limit) {
+        final List<Object> ids = new ArrayList<>(limit);
+        for (Document sighting : mongoTemplate.find(getChunkQuery(birdId, limit), Document.class,
+                mongoTemplate.getCollectionName(Sighting.class))) {
+            ids.add(sighting.get("_id"));
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), Sighting.class).getDeletedCount();
+    }
+
+    /**
+     * Builds the query of the ids of at most limit sightings having the provided bird id.
+     * Only the ids are read, from the birdId index.
+     * @param birdId {@link String}
+     * @param limit int
+     * @return a {@link Query} object
+     */
+    static Query getChunkQuery(String birdId, int limit) {
+        final Query query = new Query(Criteria.where("birdId").is(birdId)).limit(limit);
+        query.fields().include("_id");
+        return query;
+    }
+
+    /**
+     * Hints the index selected for the provided search, unless hints are disabled.
+     * @param query {@link Query} built for the search
+     * @param search {@link SightingSearch}
+     * @param hints boolean, whether hints are enabled
+     * @return the provided {@link Query}
+     */
+    static Query withIndexHint(Query query, SightingSearch search, boolean hints) {
+        final Document hint = hints ? getIndexHint(search, query.isSorted()) : null;
+        if (Objects.nonNull(hint)) {
+            query.withHint(hint);
+        }
+        return query;
+    }
+
+    /**
+     * Builds the query of the sightings matching the provided search, sorted only if the search has a direction.
+     * @param search {@link SightingSearch}
+     * @return a {@link Query} object
+     */
+    static Query getSearchQuery(SightingSearch search) {
+        final Query query = new Query(search.getCriteria());
+        if (Objects.nonNull(search.getDirection())) {
+            query.with(getSort(search.getDirection()));
+        }
+        return query;
+    }
+
+    /**
+     * Builds the query of a geo search. Searches within a polygon hint the 2dsphere index when hints are enabled,
+     * proximity searches always use it, as $nearSphere requires it.
+     * @param search {@link SightingGeoSearch}
+     * @param hints boolean, whether hints are enabled
+     * @return a {@link Query} object
+     */
+    static Query getGeoSearchQuery(SightingGeoSearch search, boolean hints) {
+        final Query query = new Query(search.getCriteria());
+        if (!search.isNear()) {
+            if (Objects.nonNull(search.getDirection())) {
+                query.with(getSort(search.getDirection()));
+            }
+            if (hints) {
+                query.withHint(GEO_INDEX);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Builds the aggregation counting the sightings of a heatmap tile by grid cell: $match on the tile and the window,
+     * $project of the cell column and row, $match of the cells of the tile, $group by cell, $project and $sort.
+     * </br>
+     * A cell is [west + column * cellWidth, west + (column + 1) * cellWidth) by
+     * (north - (row + 1) * cellHeight, north - row * cellHeight], the east-most and south-most cells of the grid
+     * also hold the sightings on longitude 180 and latitude -90, as {@link SightingHeatmapSearch#getTileX(int, double)}
+     * and {@link SightingHeatmapSearch#getTileY(int, double)} do. Tiles of zoom 2 and more hint the 2dsphere index
+     * when hints are enabled, the larger ones read all the sightings having coordinates.
+     * @param search {@link SightingHeatmapSearch}
+     * @param hints boolean, whether hints are enabled
+     * @return a {@link Aggregation} object
+     */
+    static Aggregation getHeatmapAggregation(SightingHeatmapSearch search, boolean hints) {
+        final int lastTile = SightingHeatmapSearch.getTileCount(search.getZoom()) - 1;
+        final Document longitude = new Document("$arrayElemAt", List.of("$coordinates.coordinates", 0));
+        final Document latitude = new Document("$arrayElemAt", List.of("$coordinates.coordinates", 1));
+        final Document column = getCellIndex(new Document("$subtract", List.of(longitude, search.getWest())),
+                search.getCellWidth(), search.getX() == lastTile ? search.getCells() - 1 : null);
+        final Document row = getCellIndex(new Document("$subtract", List.of(search.getNorth(), latitude)),
+                search.getCellHeight(), search.getY() == lastTile ? search.getCells() - 1 : null);
+        final Document project = new Document("$project", new Document("_id", 0)
+                .append("column", column)
+                .append("row", row));
+        final Document matchCells = new Document("$match", new Document("column", getCellRange(search.getCells()))
+                .append("row", getCellRange(search.getCells())));
+        final Document group = new Document("$group", new Document("_id", new Document("column", "$column")
+                .append("row", "$row"))
+                .append("count", new Document("$sum", 1)));
+        final Document projectCells = new Document("$project", new Document("_id", 0)
+                .append("column", "$_id.column")
+                .append("row", "$_id.row")
+                .append("count", 1));
+        final Document sort = new Document("$sort", new Document("row", 1).append("column", 1));
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(search.getCriteria()),
+                context -> project, context -> matchCells, context -> group, context -> projectCells, context -> sort);
+        if (hints && search.getZoom() >= 2) {
+            aggregation = aggregation.withOptions(AggregationOptions.builder().hint(GEO_INDEX).build());
+        }
+        return aggregation;
+    }
+
+    /**
+     * Builds the expression of the grid index of an offset from the edge of a tile, as an int.
+     * @param offset {@link Document} expression of the offset, in degrees
+     * @param size double, size of a cell in degrees
+     * @param max {@link Integer}, bound of the index on the last tile of the grid, not bounded if null
+     * @return a {@link Document} expression
+     */
+    private static Document getCellIndex(Document offset, double size, Integer max) {
+        final Document index = new Document("$floor", new Document("$divide", List.of(offset, size)));
+        return new Document("$toInt", Objects.isNull(max) ? index : new Document("$min", List.of(index, max)));
+    }
+
+    /**
+     * Builds the condition of a grid index inside a tile.
+     * @param cells int, number of cells of a tile side
+     * @return a {@link Document} condition
+     */
+    private static Document getCellRange(int cells) {
+        return new Document("$gte", 0).append("$lt", cells);
+    }
+
+    /**
+     * Builds the query of a page of sightings sorted by dateTime then id, starting right after the provided cursor.
+     * @param search {@link SightingSearch}, sorted ascending if it has no direction
+     * @param after {@link PageCursor} of the previous page, null for the first page
+     * @param limit int
+     * @return a {@link Query} object
+     */
+    static Query getPageQuery(SightingSearch search, PageCursor after, int limit) {
+        final Sort.Direction direction = Objects.isNull(search.getDirection())
+                ? Sort.Direction.ASC
+                : search.getDirection();
+        final Criteria criteria = Objects.isNull(after)
+                ? search.getCriteria()
+                : new Criteria().andOperator(search.getCriteria(), getCriteriaAfter(after, direction));
+        return new Query(criteria)
+                .with(getSort(direction))
+                .limit(limit);
+    }
+
+    /**
+     * Selects the declared index serving the provided search best: the equality fields first,
+     * then dateTime, which serves both the sort and the date-time interval.
+     * </br>
+     * A bird id is preferred over the locations, as it is a single value while locations may be several,
+     * the other criteria are checked on the documents read from the index.
+     * @param search {@link SightingSearch}
+     * @param sorted boolean, whether the results are sorted by dateTime then id
+     * @return the keys of the index as a {@link Document}, null if the whole collection is read anyway
+     */
+    static Document getIndexHint(SightingSearch search, boolean sorted) {
+        if (Objects.nonNull(search.getBirdId())) {
+            return new Document("birdId", 1).append("dateTime", 1).append("_id", 1);
+        }
+        if (!search.getLocations().isEmpty()) {
+            return new Document("location", 1).append("dateTime", 1).append("_id", 1);
+        }
+        if (search.hasDateTimeInterval() || sorted) {
+            return new Document("dateTime", 1).append("_id", 1);
+        }
+        return null;
+    }
+
+    /**
+     * Builds the sort of the sightings, by dateTime then id.
+     * @param direction {@link Sort.Direction}
+     * @return a {@link Sort} object
+     */
+    private static Sort getSort(Sort.Direction direction) {
+        return Sort.by(direction, "dateTime", "_id");
+    }
+
+    /**
+     * Builds the criteria matching the sightings sorted after the provided cursor.
+     * Null date-times are sorted first in ascending order and last in descending order.
+     * @param after {@link PageCursor}
+     * @param direction {@link Sort.Direction}
+     * @return a {@link Criteria} object
+     */
+    private static Criteria getCriteriaAfter(PageCursor after, Sort.Direction direction) {
+        if (direction.isDescending()) {
+            if (Objects.isNull(after.getDateTime())) {
+                return Criteria.where("dateTime").is(null).and("_id").lt(after.getIdValue());
+            }
+            return new Criteria().orOperator(
+                    Criteria.where("dateTime").lt(after.getDateTime()),
+                    Criteria.where("dateTime").is(after.getDateTime()).and("_id").lt(after.getIdValue()),
+                    Criteria.where("dateTime").is(null));
+        }
+        if (Objects.isNull(after.getDateTime())) {
+            return new Criteria().orOperator(
+                    Criteria.where("dateTime").is(null).and("_id").gt(after.getIdValue()),
+                    Criteria.where("dateTime").ne(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("dateTime").gt(after.getDateTime()),
+                Criteria.where("dateTime").is(after.getDateTime()).and("_id").gt(after.getIdValue()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.birds.repository;
+
+import com.example.birds.model.SightingRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Sighting rollup repository class.
+ */
+public interface SightingRollupRepository extends MongoRepository<SightingRollup, String>,
+        SightingRollupRepositoryCustom {
+
+    /**
+     * Deletes all the {@link SightingRollup} objects of a {@link com.example.birds.model.Bird} with a single query.
+     * @param birdId {@link String}
+     * @return the number of deleted rollups
+     */
+    long deleteByBirdId(String birdId);
+}
@@ -0,0 +1,37 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.SightingStatsSearch;
+
+import java.util.List;
+
+/**
+ * Custom Sighting rollup repository fragment, maintaining the number of sightings per bird, location and day.
+ */
+public interface SightingRollupRepositoryCustom {
+
+    /**
+     * Applies written sightings to the rollups, with one unordered bulk write of "$inc" upserts,
+     * one per bird, location and day whose count changes.
+     * A sighting both removed and added on the same bird, location and day doesn't write anything.
+     * @param removed List of {@link Sighting} deleted, or replaced by an update
+     * @param added List of {@link Sighting} created, or replacing others by an update
+     */
+    void updateCounts(List<Sighting> removed, List<Sighting> added);
+
+    /**
+     * Sums the rollups matching the provided search by time bucket, and by bird and location when grouped by them.
+     * @param search {@link SightingStatsSearch}
+     * @return List of {@link SightingStatsDto} objects, sorted by bucket, bird id then location
+     */
+    List<SightingStatsDto> getStats(SightingStatsSearch search);
+
+    /**
+     * Regenerates all the rollups from the sightings, with a single aggregation replacing the rollups collection
+     * ($out) once complete, so statistics read the previous rollups until then.
+     * Writes received while the aggregation runs may be missing from the new rollups.
+     * @return the number of rollups written
+     */
+    long rebuild();
+}
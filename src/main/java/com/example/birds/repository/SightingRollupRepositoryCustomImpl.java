@@ -0,0 +1,157 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
+import com.example.birds.util.SightingStatsSearch;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+
+/**
+ * Implementation of {@link SightingRollupRepositoryCustom}, picked up by Spring Data through the "Impl" suffix.
+ */
+public class SightingRollupRepositoryCustomImpl implements SightingRollupRepositoryCustom {
+
+    static final String DAY_FORMAT = "%Y-%m-%d";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public SightingRollupRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void updateCounts(List<Sighting> removed, List<Sighting> added) {
+        final Map<List<String>, Long> deltas = getDeltas(removed, added);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        final BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                SightingRollup.class);
+        for (Map.Entry<List<String>, Long> delta : deltas.entrySet()) {
+            bulkOperations.upsert(getRollupQuery(delta.getKey()), new Update().inc("count", delta.getValue()));
+        }
+        bulkOperations.execute();
+    }
+
+    @Override
+    public List<SightingStatsDto> getStats(SightingStatsSearch search) {
+        return mongoTemplate.aggregate(getStatsAggregation(search), mongoTemplate.getCollectionName(SightingRollup.class),
+                SightingStatsDto.class).getMappedResults();
+    }
+
+    @Override
+    public long rebuild() {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Sighting.class))
+                .aggregate(getRebuildPipeline(mongoTemplate.getCollectionName(SightingRollup.class),
+                        TimeZone.getDefault().getID()))
+                .allowDiskUse(true)
+                .toCollection();
+        return mongoTemplate.estimatedCount(SightingRollup.class);
+    }
+
+    /**
+     * Sums the count changes of the provided sightings by rollup, leaving out the rollups left unchanged.
+     * @param removed List of {@link Sighting}, each counting -1
+     * @param added List of {@link Sighting}, each counting +1
+     * @return Map of count changes by rollup key, see {@link #getRollupKey(Sighting)}
+     */
+    static Map<List<String>, Long> getDeltas(List<Sighting> removed, List<Sighting> added) {
+        final Map<List<String>, Long> deltas = new LinkedHashMap<>();
+        for (Sighting sighting : removed) {
+            deltas.merge(getRollupKey(sighting), -1L, Long::sum);
+        }
+        for (Sighting sighting : added) {
+            deltas.merge(getRollupKey(sighting), 1L, Long::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    /**
+     * Builds the key of the rollup counting a sighting: its bird id, its location and the ISO date of its date-time.
+     * A sighting without date-time is counted with a null day, as {@link #rebuild()} does.
+     * @param sighting {@link Sighting}
+     * @return List of {@link String}, the location and the day may be null
+     */
+    static List<String> getRollupKey(Sighting sighting) {
+        final LocalDateTime dateTime = sighting.getDateTime();
+        return Arrays.asList(sighting.getBirdId(), sighting.getLocation(),
+                Objects.isNull(dateTime) ? null : dateTime.toLocalDate().toString());
+    }
+
+    /**
+     * Builds the query of the rollup having the provided key, served by the unique index.
+     * @param key List of {@link String}, see {@link #getRollupKey(Sighting)}
+     * @return a {@link Query} object
+     */
+    static Query getRollupQuery(List<String> key) {
+        return new Query(Criteria.where("birdId").is(key.get(0)).and("location").is(key.get(1)).and("day").is(key.get(2)));
+    }
+
+    /**
+     * Builds the aggregation summing the rollups matching a search: $match, $group by the bucket prefix of the day
+     * and the grouped fields, $project and $sort.
+     * @param search {@link SightingStatsSearch}
+     * @return a {@link Aggregation} object
+     */
+    static Aggregation getStatsAggregation(SightingStatsSearch search) {
+        final Document groupId = new Document();
+        if (search.isGroupByBird()) {
+            groupId.append("birdId", "$birdId");
+        }
+        if (search.isGroupByLocation()) {
+            groupId.append("location", "$location");
+        }
+        groupId.append("bucket", new Document("$substrBytes", List.of("$day", 0, search.getBucket().getLength())));
+        final Document group = new Document("$group", new Document("_id", groupId)
+                .append("count", new Document("$sum", "$count")));
+        final Document project = new Document("$project", new Document("_id", 0)
+                .append("birdId", "$_id.birdId")
+                .append("location", "$_id.location")
+                .append("bucket", "$_id.bucket")
+                .append("count", 1));
+        final Document sort = new Document("$sort", new Document("bucket", 1).append("birdId", 1).append("location", 1));
+        return Aggregation.newAggregation(Aggregation.match(search.getCriteria()), context -> group,
+                context -> project, context -> sort);
+    }
+
+    /**
+     * Builds the pipeline regenerating the rollups from the sightings: $group by bird, location and day,
+     * $project to the rollup fields and $out to the rollups collection, keeping its indexes.
+     * @param rollupCollection {@link String} name of the rollups collection
+     * @param timeZone {@link String} time zone the days are computed in, the one date-times are converted from
+     * @return List of {@link Document} stages
+     */
+    static List<Document> getRebuildPipeline(String rollupCollection, String timeZone) {
+        final Document day = new Document("$dateToString", new Document("format", DAY_FORMAT)
+                .append("date", "$dateTime")
+                .append("timezone", timeZone));
+        return List.of(
+                new Document("$group", new Document("_id", new Document("birdId", "$birdId")
+                        .append("location", "$location")
+                        .append("day", day))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$project", new Document("_id", 0)
+                        .append("birdId", "$_id.birdId")
+                        .append("location", "$_id.location")
+                        .append("day", "$_id.day")
+                        .append("count", 1)),
+                new Document("$out", rollupCollection));
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.SightingStorageProperties;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.ErrorMessages;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the sightings collection in line with the configured
+ * {@link com.example.birds.config.SightingStorageMode}, and migrates it to a time-series collection.
+ * </br>
+ * In time-series mode, the collection is created as a time-series collection at startup when it doesn't exist yet,
+ * with "dateTime" as time field and "birdId" as meta field: MongoDB buckets the sightings of a bird by date-time,
+ * and compresses each bucket. An existing regular collection is left as is until migrated.
+ * </br>
+ * The migration, started with the {@link #MIGRATE_OPTION} command line option, renames the regular collection
+ * with the {@link #BACKUP_SUFFIX}, creates the time-series collection, copies the sightings with their ids,
+ * verifies the counts and creates the declared indexes. The former collection is kept, and restored under its name
+ * when the migration fails.
+ */
+@Component
+public class SightingStorageManager implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SightingStorageManager.class);
+
+    /**
+     * Command line option migrating the sightings to a time-series collection, the application then exits.
+     */
+    public static final String MIGRATE_OPTION = "migrate-sightings-to-time-series";
+
+    static final String BACKUP_SUFFIX = "_backup";
+
+    static final String TIME_SERIES_TYPE = "timeseries";
+
+    static final String TIME_FIELD = "dateTime";
+
+    static final String META_FIELD = "birdId";
+
+    /**
+     * Index on "_id" of the time-series collection, which MongoDB doesn't create for time-series collections.
+     */
+    static final String ID_INDEX = "id";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final SightingStorageProperties sightingStorageProperties;
+
+    private final IndexManager indexManager;
+
+    @Autowired
+    public SightingStorageManager(MongoTemplate mongoTemplate, SightingStorageProperties sightingStorageProperties,
+                                  IndexManager indexManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.sightingStorageProperties = sightingStorageProperties;
+        this.indexManager = indexManager;
+    }
+
+    /**
+     * Creates the time-series collection in time-series mode, before any sighting is written,
+     * as MongoDB would otherwise create a regular collection on the first insert.
+     */
+    @PostConstruct
+    public void ensureCollection() {
+        if (!sightingStorageProperties.isTimeSeries()) {
+            return;
+        }
+        final String collectionName = mongoTemplate.getCollectionName(Sighting.class);
+        final Document collection = getCollectionInfo(collectionName);
+        if (Objects.isNull(collection)) {
+            createTimeSeriesCollection(collectionName);
+            LOGGER.info("Created time-series collection {}", collectionName);
+        } else if (!TIME_SERIES_TYPE.equals(collection.getString("type"))) {
+            LOGGER.warn("Collection {} is a regular collection, migrate it with the --{} option", collectionName,
+                    MIGRATE_OPTION);
+        }
+    }
+
+    /**
+     * Migrates the sightings when started with the {@link #MIGRATE_OPTION} option.
+     * @param args {@link ApplicationArguments}
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(MIGRATE_OPTION)) {
+            migrate();
+        }
+    }
+
+    /**
+     * Migrates the regular sightings collection to a time-series collection with the same name.
+     * Fails when the sightings are already stored in a time-series collection or when the backup collection exists,
+     * so that a previous backup is never overwritten, and when sightings have no date-time, which a time-series
+     * collection can't store. When the copy fails, the time-series collection is dropped and the former collection
+     * renamed back.
+     * @return the number of sightings copied
+     */
+    public long migrate() {
+        final String collectionName = mongoTemplate.getCollectionName(Sighting.class);
+        final String backupName = collectionName + BACKUP_SUFFIX;
+        final Document collection = getCollectionInfo(collectionName);
+        if (Objects.nonNull(collection) && TIME_SERIES_TYPE.equals(collection.getString("type"))) {
+            throw new IllegalStateException(ErrorMessages.SIGHTINGS_ALREADY_TIME_SERIES);
+        }
+        if (Objects.nonNull(getCollectionInfo(backupName))) {
+            throw new IllegalStateException(String.format(ErrorMessages.SIGHTINGS_BACKUP_EXISTS, backupName));
+        }
+
+        final MongoDatabase database = mongoTemplate.getDb();
+        if (Objects.isNull(collection)) {
+            createTimeSeriesCollection(collectionName);
+            LOGGER.info("No sightings to migrate, created time-series collection {}", collectionName);
+            return 0;
+        }
+        final long undated = database.getCollection(collectionName).countDocuments(new Document(TIME_FIELD, null));
+        if (undated > 0) {
+            throw new IllegalStateException(String.format(ErrorMessages.SIGHTINGS_WITHOUT_DATETIME, undated));
+        }
+        database.getCollection(collectionName).renameCollection(new MongoNamespace(database.getName(), backupName));
+
+        final long copied;
+        try {
+            copied = copySightings(backupName, collectionName);
+        } catch (RuntimeException exception) {
+            rollback(backupName, collectionName, exception);
+            throw exception;
+        }
+
+        for (String drift : indexManager.verifyIndexes(true)) {
+            LOGGER.info(drift);
+        }
+        LOGGER.info("Migrated {} sightings to time-series collection {}, the former collection is kept as {}",
+                copied, collectionName, backupName);
+        return copied;
+    }
+
+    /**
+     * Creates the time-series collection and copies the sightings of the backup collection in batches.
+     * @param backupName {@link String}
+     * @param collectionName {@link String}
+     * @return the number of sightings copied
+     */
+    private long copySightings(String backupName, String collectionName) {
+        createTimeSeriesCollection(collectionName);
+
+        final MongoDatabase database = mongoTemplate.getDb();
+        final MongoCollection<Document> backup = database.getCollection(backupName);
+        final MongoCollection<Document> target = database.getCollection(collectionName);
+        final int batchSize = sightingStorageProperties.getMigrationBatchSize();
+        final List<Document> batch = new ArrayList<>(batchSize);
+        long copied = 0;
+        try (MongoCursor<Document> cursor = backup.find().batchSize(batchSize).iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == batchSize) {
+                    copied += insertBatch(target, batch);
+                }
+            }
+        }
+        copied += insertBatch(target, batch);
+
+        final long expected = backup.countDocuments();
+        if (copied != expected || target.countDocuments() != expected) {
+            throw new IllegalStateException(String.format(ErrorMessages.SIGHTINGS_MIGRATION_INCOMPLETE, copied,
+                    expected));
+        }
+        return copied;
+    }
+
+    /**
+     * Drops the partly filled time-series collection and renames the backup collection back,
+     * any failure doing so is added to the migration failure.
+     * @param backupName {@link String}
+     * @param collectionName {@link String}
+     * @param exception the migration failure
+     */
+    private void rollback(String backupName, String collectionName, RuntimeException exception) {
+        final MongoDatabase database = mongoTemplate.getDb();
+        try {
+            if (Objects.nonNull(getCollectionInfo(collectionName))) {
+                database.getCollection(collectionName).drop();
+            }
+            database.getCollection(backupName).renameCollection(new MongoNamespace(database.getName(), collectionName));
+            LOGGER.warn("Sightings migration failed, restored collection {}", collectionName);
+        } catch (RuntimeException rollbackException) {
+            exception.addSuppressed(rollbackException);
+        }
+    }
+
+    /**
+     * Inserts a batch of sightings unordered, so MongoDB can write them to their buckets in parallel, then clears it.
+     * @param target {@link MongoCollection}
+     * @param batch List of {@link Document}
+     * @return the number of sightings inserted
+     */
+    private static int insertBatch(MongoCollection<Document> target, List<Document> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final int inserted = target.insertMany(batch, new InsertManyOptions().ordered(false)).getInsertedIds().size();
+        batch.clear();
+        return inserted;
+    }
+
+    /**
+     * Creates a time-series collection for the sightings, with an index on "_id" for the reads by id.
+     * The command is sent as is, as the driver used has no time-series options.
+     * @param collectionName {@link String}
+     */
+    private void createTimeSeriesCollection(String collectionName) {
+        final MongoDatabase database = mongoTemplate.getDb();
+        database.runCommand(new Document("create", collectionName)
+                .append("timeseries", new Document("timeField", TIME_FIELD)
+                        .append("metaField", META_FIELD)
+                        .append("granularity", sightingStorageProperties.getGranularity())));
+        database.getCollection(collectionName).createIndex(new Document("_id", 1),
+                new IndexOptions().name(ID_INDEX));
+    }
+
+    /**
+     * Reads the description of a collection, including its type ("collection" or "timeseries").
+     * @param collectionName {@link String}
+     * @return a {@link Document} object, null if the collection doesn't exist
+     */
+    private Document getCollectionInfo(String collectionName) {
+        return mongoTemplate.getDb().listCollections().filter(new Document("name", collectionName)).first();
+    }
+}
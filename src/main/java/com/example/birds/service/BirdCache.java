@@ -0,0 +1,87 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdCacheProperties;
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.model.Bird;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the {@link Bird} entities read by id, in front of MongoDB.
+ * </br>
+ * Entries are evicted when the cache exceeds {@link BirdCacheProperties#getMaximumSize()} and expire
+ * {@link BirdCacheProperties#getExpireAfterWrite()} after being loaded. Writers must invalidate the birds they change.
+ * Cached entities are shared between callers and must not be modified.
+ */
+@Component
+public class BirdCache {
+
+    private final Cache<String, Bird> cache;
+
+    @Autowired
+    public BirdCache(BirdCacheProperties birdCacheProperties) {
+        this(birdCacheProperties, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor with a custom time source, used for testing expiration.
+     * @param birdCacheProperties {@link BirdCacheProperties}
+     * @param ticker {@link Ticker}
+     */
+    BirdCache(BirdCacheProperties birdCacheProperties, Ticker ticker) {
+        this.cache = birdCacheProperties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(birdCacheProperties.getMaximumSize())
+                        .expireAfterWrite(birdCacheProperties.getExpireAfterWrite())
+                        .ticker(ticker)
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    /**
+     * Gets a bird from the cache, loading and caching it on a miss.
+     * Exceptions thrown by the loader are propagated and nothing is cached.
+     * @param id {@link String}
+     * @param loader Function reading the {@link Bird} from MongoDB
+     * @return a {@link Bird} object
+     */
+    public Bird get(String id, Function<String, Bird> loader) {
+        if (Objects.isNull(cache) || Objects.isNull(id)) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Removes a bird from the cache, so that it is read again from MongoDB.
+     * @param id {@link String}
+     */
+    public void invalidate(String id) {
+        if (Objects.nonNull(cache) && Objects.nonNull(id)) {
+            cache.invalidate(id);
+        }
+    }
+
+    /**
+     * Gets the statistics of the cache since the application started.
+     * @return a {@link CacheStatsDto} object
+     */
+    public CacheStatsDto getStats() {
+        if (Objects.isNull(cache)) {
+            return new CacheStatsDto(0, 0, 1, 0, 0);
+        }
+        // runs the pending maintenance, so that expired entries are counted as evicted
+        cache.cleanUp();
+        final CacheStats stats = cache.stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                cache.estimatedSize());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdDeletionProperties;
+import com.example.birds.dto.BirdDeletionDto;
+import com.example.birds.repository.BirdRepository;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.ErrorMessages;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bird Deletion Service responsible for deleting birds having very large numbers of sightings in the background.
+ * </br>
+ * Sightings are deleted in chunks of {@link BirdDeletionProperties#getChunkSize()}, each with one "deleteMany",
+ * then the bird, so a failed deletion never leaves sightings without their bird. The sightings created meanwhile
+ * are deleted once the bird is gone, as no sighting can be created for it anymore.
+ * The progress is updated after each chunk.
+ * Deletions run one at a time, in order, to bound the load they put on MongoDB, and at most
+ * {@link BirdDeletionProperties#getQueueCapacity()} wait, further deletions are rejected until the queue drains.
+ * A deletion interrupted by a shutdown leaves the bird with part of its sightings, deleting it again completes it.
+ */
+@Service
+public class BirdDeletionService {
+
+    /**
+     * Maximum number of deletions whose progress is kept.
+     */
+    static final int MAXIMUM_DELETIONS = 10_000;
+
+    private final BirdRepository birdRepository;
+
+    private final SightingRepository sightingRepository;
+
+    private final SightingRollupRepository sightingRollupRepository;
+
+    private final BirdCache birdCache;
+
+    private final SightingTimeIndex sightingTimeIndex;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    private final BirdRequestCoalescer birdRequestCoalescer;
+
+    private final BirdDeletionProperties birdDeletionProperties;
+
+    private final Executor executor;
+
+    private final Cache<String, BirdDeletionDto> deletions;
+
+    @Autowired
+    public BirdDeletionService(BirdRepository birdRepository, SightingRepository sightingRepository,
+                               SightingRollupRepository sightingRollupRepository, BirdCache birdCache,
+                               SightingTimeIndex sightingTimeIndex, SightingHeatmapCache sightingHeatmapCache,
+                               BirdRequestCoalescer birdRequestCoalescer, BirdDeletionProperties birdDeletionProperties) {
+        this(birdRepository, sightingRepository, sightingRollupRepository, birdCache, sightingTimeIndex,
+                sightingHeatmapCache, birdRequestCoalescer, birdDeletionProperties,
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(birdDeletionProperties.getQueueCapacity()), runnable -> {
+                            final Thread thread = new Thread(runnable, "bird-deletion");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    /**
+     * Constructor with a custom executor, used for testing.
+     * @param birdRepository {@link BirdRepository}
+     * @param sightingRepository {@link SightingRepository}
+     * @param sightingRollupRepository {@link SightingRollupRepository}
+     * @param birdCache {@link BirdCache}
+     * @param sightingTimeIndex {@link SightingTimeIndex}
+     * @param sightingHeatmapCache {@link SightingHeatmapCache}
+     * @param birdRequestCoalescer {@link BirdRequestCoalescer}
+     * @param birdDeletionProperties {@link BirdDeletionProperties}
+     * @param executor {@link Executor} running the deletions
+     */
+    BirdDeletionService(BirdRepository birdRepository, SightingRepository sightingRepository,
+                        SightingRollupRepository sightingRollupRepository, BirdCache birdCache,
+                        SightingTimeIndex sightingTimeIndex, SightingHeatmapCache sightingHeatmapCache,
+                        BirdRequestCoalescer birdRequestCoalescer, BirdDeletionProperties birdDeletionProperties,
+                        Executor executor) {
+        this.birdRepository = birdRepository;
+        this.sightingRepository = sightingRepository;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.birdCache = birdCache;
+        this.sightingTimeIndex = sightingTimeIndex;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+        this.birdRequestCoalescer = birdRequestCoalescer;
+        this.birdDeletionProperties = birdDeletionProperties;
+        this.executor = executor;
+        this.deletions = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_DELETIONS)
+                .expireAfterWrite(birdDeletionProperties.getRetention())
+                .build();
+    }
+
+    /**
+     * Starts deleting a bird and its sightings in the background.
+     * Throws a {@link RejectedExecutionException} when too many deletions are waiting.
+     * @param birdId {@link String}
+     * @return a {@link BirdDeletionDto} object, the initial progress of the deletion
+     */
+    public BirdDeletionDto startDeletion(String birdId) {
+        if (Objects.isNull(birdId) || !birdRepository.existsById(birdId)) {
+            throw new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND);
+        }
+        final BirdDeletionDto deletion = new BirdDeletionDto(UUID.randomUUID().toString(), birdId,
+                BirdDeletionDto.Status.PENDING, sightingRepository.countByBirdId(birdId), 0, null);
+        deletions.put(deletion.getId(), deletion);
+        try {
+            executor.execute(() -> delete(deletion));
+        } catch (RejectedExecutionException exception) {
+            deletions.invalidate(deletion.getId());
+            throw new RejectedExecutionException(ErrorMessages.DELETION_QUEUE_FULL, exception);
+        }
+        return deletion;
+    }
+
+    /**
+     * Gets the progress of a deletion.
+     * @param id {@link String} deletion id
+     * @return a {@link BirdDeletionDto} object
+     */
+    public BirdDeletionDto getDeletion(String id) {
+        final BirdDeletionDto deletion = Objects.isNull(id) ? null : deletions.getIfPresent(id);
+        if (Objects.isNull(deletion)) {
+            throw new IllegalStateException(ErrorMessages.DELETION_NOT_FOUND);
+        }
+        return deletion;
+    }
+
+    /**
+     * Deletes the sightings of the bird chunk by chunk, then the bird and the sightings created meanwhile,
+     * publishing the progress after each step.
+     * @param deletion {@link BirdDeletionDto} initial progress
+     */
+    private void delete(BirdDeletionDto deletion) {
+        final String birdId = deletion.getBirdId();
+        final int chunkSize = birdDeletionProperties.getChunkSize();
+        long deletedSightings = 0;
+        try {
+            update(deletion, BirdDeletionDto.Status.RUNNING, deletedSightings, null);
+            // sightings created meanwhile are deleted too, as chunks are read until none is left
+            for (long deleted = sightingRepository.deleteChunkByBirdId(birdId, chunkSize); deleted > 0;
+                 deleted = sightingRepository.deleteChunkByBirdId(birdId, chunkSize)) {
+                deletedSightings += deleted;
+                update(deletion, BirdDeletionDto.Status.RUNNING, deletedSightings, null);
+            }
+            birdRepository.deleteById(birdId);
+            birdCache.invalidate(birdId);
+            birdRequestCoalescer.invalidate(birdId);
+            // sightings created between the last chunk and the bird deletion, none can be created from now on
+            deletedSightings += sightingRepository.deleteByBirdId(birdId);
+            // the rollups, the time index and the heatmap tiles still count the deleted sightings until then
+            sightingRollupRepository.deleteByBirdId(birdId);
+            sightingTimeIndex.removeByBirdId(birdId);
+            sightingHeatmapCache.invalidateAll();
+            update(deletion, BirdDeletionDto.Status.COMPLETED, deletedSightings, null);
+        } catch (RuntimeException exception) {
+            update(deletion, BirdDeletionDto.Status.FAILED, deletedSightings, exception.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the progress of a deletion.
+     * @param deletion {@link BirdDeletionDto} initial progress
+     * @param status {@link BirdDeletionDto.Status}
+     * @param deletedSightings long
+     * @param error {@link String}
+     */
+    private void update(BirdDeletionDto deletion, BirdDeletionDto.Status status, long deletedSightings, String error) {
+        deletions.put(deletion.getId(), new BirdDeletionDto(deletion.getId(), deletion.getBirdId(), status,
+                deletion.getTotalSightings(), deletedSightings, error));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdCoalescingProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the concurrent identical bird reads into a single MongoDB query, see {@link SingleFlight}:
+ * the reads of the same bird id, such as the lookups of a popular bird by a burst of sighting creations
+ * missing the {@link BirdCache}, and the searches with the same {@link BirdSearch} criteria.
+ * </br>
+ * Records {@value #CALLS} in the provided {@link MeterRegistry}, counting the queries run (outcome executed)
+ * and the reads served by a query in flight (outcome deduplicated), tagged by read (id or search).
+ * Writers must invalidate the birds they change, so that the reads arriving after a write don't get
+ * the result of a query started before it. Results are shared between callers and must not be modified.
+ */
+@Component
+public class BirdRequestCoalescer {
+
+    public static final String CALLS = "birds.coalescing.calls";
+
+    private final SingleFlight<String, Bird> lookups = new SingleFlight<>();
+
+    private final SingleFlight<BirdSearch, List<Bird>> searches = new SingleFlight<>();
+
+    private final boolean enabled;
+
+    @Autowired
+    public BirdRequestCoalescer(BirdCoalescingProperties birdCoalescingProperties, MeterRegistry meterRegistry) {
+        this.enabled = birdCoalescingProperties.isEnabled();
+        register(meterRegistry, "id", lookups);
+        register(meterRegistry, "search", searches);
+    }
+
+    /**
+     * Reads a bird by id, or waits for the read of the same id in flight.
+     * @param id {@link String}
+     * @param loader Function reading the {@link Bird} from MongoDB
+     * @return a {@link Bird} object
+     */
+    public Bird getBird(String id, Function<String, Bird> loader) {
+        if (!enabled || Objects.isNull(id)) {
+            return loader.apply(id);
+        }
+        return lookups.execute(id, () -> loader.apply(id));
+    }
+
+    /**
+     * Runs a bird search, or waits for the search with the same criteria in flight.
+     * @param search {@link BirdSearch}
+     * @param loader Supplier reading the matching {@link Bird} entities from MongoDB
+     * @return a list of {@link Bird} objects
+     */
+    public List<Bird> search(BirdSearch search, Supplier<List<Bird>> loader) {
+        if (!enabled || Objects.isNull(search)) {
+            return loader.get();
+        }
+        return searches.execute(search, loader);
+    }
+
+    /**
+     * Stops sharing the reads in flight of a bird and all the searches in flight, which may have read it.
+     * @param id {@link String}, null when a bird was created
+     */
+    public void invalidate(String id) {
+        if (Objects.nonNull(id)) {
+            lookups.forget(id);
+        }
+        searches.forgetAll();
+    }
+
+    private static void register(MeterRegistry meterRegistry, String read, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder(CALLS, singleFlight, SingleFlight::getExecuted)
+                .tags("read", read, "outcome", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder(CALLS, singleFlight, SingleFlight::getDeduplicated)
+                .tags("read", read, "outcome", "deduplicated")
+                .register(meterRegistry);
+    }
+}
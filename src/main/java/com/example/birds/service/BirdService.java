@@ -1,17 +1,26 @@
 package com.example.birds.service;
 
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.CursorPageDto;
 import com.example.birds.dto.BirdSaveDto;
 import com.example.birds.model.Bird;
 import com.example.birds.repository.BirdRepository;
 import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.BirdSearch;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Bird Service responsible for CRUD and GET operations regarding birds.
@@ -19,17 +28,40 @@ import java.util.Objects;
 @Service
 public class BirdService {
 
+    /**
+     * Maximum number of ids sent in a single "$in" query when resolving birds by ids.
+     */
+    static final int FIND_BY_IDS_CHUNK_SIZE = 1000;
+
     private final BirdRepository birdRepository;
 
     private final ModelService modelService;
 
     private final SightingRepository sightingRepository;
 
+    private final BirdCache birdCache;
+
+    private final SightingRollupRepository sightingRollupRepository;
+
+    private final SightingTimeIndex sightingTimeIndex;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    private final BirdRequestCoalescer birdRequestCoalescer;
+
     @Autowired
-    public BirdService(BirdRepository birdRepository, ModelService modelService, SightingRepository sightingRepository) {
+    public BirdService(BirdRepository birdRepository, ModelService modelService, SightingRepository sightingRepository,
+                       BirdCache birdCache, SightingRollupRepository sightingRollupRepository,
+                       SightingTimeIndex sightingTimeIndex, SightingHeatmapCache sightingHeatmapCache,
+                       BirdRequestCoalescer birdRequestCoalescer) {
         this.birdRepository = birdRepository;
         this.modelService = modelService;
         this.sightingRepository = sightingRepository;
+        this.birdCache = birdCache;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingTimeIndex = sightingTimeIndex;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+        this.birdRequestCoalescer = birdRequestCoalescer;
     }
 
     /**
@@ -41,15 +73,27 @@ public class BirdService {
     public BirdResponseDto saveBird(BirdSaveDto birdSaveDto) {
         final Bird bird = modelService.getBird(birdSaveDto);
         final Bird createdBird = birdRepository.save(bird);
+        birdRequestCoalescer.invalidate(null);
         return modelService.getBirdResponseDto(createdBird);
     }
 
     /**
-     * Finds a {@link Bird} entity by the provided parameter.
+     * Finds a {@link Bird} entity by the provided parameter, served from the {@link BirdCache} when possible.
+     * On a miss, concurrent reads of the same bird share a single query, see {@link BirdRequestCoalescer}.
+     * The returned entity is shared with the cache and must not be modified.
      * @param id {@link String}
      * @return a {@link Bird} object
      */
     public Bird getBirdEntityById(String id) {
+        return birdCache.get(id, key -> birdRequestCoalescer.getBird(key, this::findBirdEntityById));
+    }
+
+    /**
+     * Reads a {@link Bird} entity from MongoDB, bypassing the cache.
+     * @param id {@link String}
+     * @return a {@link Bird} object
+     */
+    private Bird findBirdEntityById(String id) {
         final Bird bird = birdRepository.findById(id).orElse(null);
         if (Objects.isNull(bird)) {
             throw new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND);
@@ -65,27 +109,35 @@ public class BirdService {
      */
     @Transactional
     public BirdResponseDto updateBird(String id, BirdSaveDto birdSaveDto) {
-        // obtain the bird by the provided id
-        final Bird bird = getBirdEntityById(id);
+        // obtain the bird by the provided id, a fresh copy as the cached one must not be modified
+        final Bird bird = findBirdEntityById(id);
         bird.setColor(birdSaveDto.getColor());
         bird.setName(birdSaveDto.getName());
         bird.setWeight(birdSaveDto.getWeight());
         bird.setHeight(birdSaveDto.getHeight());
         Bird updatedBird = birdRepository.save(bird);
+        birdCache.invalidate(id);
+        birdRequestCoalescer.invalidate(id);
         return modelService.getBirdResponseDto(updatedBird);
     }
 
     /**
-     * Deletes a {@link Bird} object and its children ({@link com.example.birds.model.Sighting} objects).
+     * Deletes a {@link Bird} object and its children ({@link com.example.birds.model.Sighting} objects and rollups).
+     * The children are deleted with a single "deleteMany", see {@link BirdDeletionService} for very large cascades.
      * @param id {@link String}
      */
     @Transactional
     public void deleteBird(String id) {
         // we delete children first
-        List<String> ids = sightingRepository.findSightingIdsByBirdId(id);
-        sightingRepository.deleteAllById(ids);
+        sightingRepository.deleteByBirdId(id);
+        sightingRollupRepository.deleteByBirdId(id);
+        sightingTimeIndex.removeByBirdId(id);
+        // the deleted sightings aren't read, every tile is computed again
+        sightingHeatmapCache.invalidateAll();
 
         birdRepository.deleteById(id);
+        birdCache.invalidate(id);
+        birdRequestCoalescer.invalidate(id);
     }
 
     /**
@@ -99,47 +151,118 @@ public class BirdService {
     }
 
     /**
-     * Finds all {@link Bird} objects.
+     * Finds all {@link Bird} objects, concurrent calls sharing a single query.
      * @return a list of {@link BirdResponseDto} objects
      */
     public List<BirdResponseDto> getAllBirds() {
-        final List<Bird> birds = birdRepository.findAll();
+        final List<Bird> birds = birdRequestCoalescer.search(BirdSearch.ALL, birdRepository::findAll);
         return modelService.getBirdResponseDTOs(birds);
     }
 
     /**
-     * Finds all {@link Bird} objects by provided criteria.
+     * Finds the {@link Bird} objects having the provided ids.
+     * Birds are fetched with one "$in" query per chunk of {@link #FIND_BY_IDS_CHUNK_SIZE} ids,
+     * so only the birds actually referenced are read. Ids not matching any bird are ignored.
+     * @param ids Collection of {@link String}
+     * @return a list of {@link BirdResponseDto} objects
+     */
+    public List<BirdResponseDto> getBirdsByIds(Collection<String> ids) {
+        final List<String> idList = new ArrayList<>(ids);
+        final List<Bird> birds = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += FIND_BY_IDS_CHUNK_SIZE) {
+            final int to = Math.min(from + FIND_BY_IDS_CHUNK_SIZE, idList.size());
+            for (Bird bird : birdRepository.findAllById(idList.subList(from, to))) {
+                birds.add(bird);
+            }
+        }
+        return modelService.getBirdResponseDTOs(birds);
+    }
+
+    /**
+     * Finds all {@link Bird} objects matching all the provided criteria, see {@link BirdSearch}.
+     * Concurrent searches with the same criteria share a single query, see {@link BirdRequestCoalescer}.
      * @param name {@link String}
      * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String} sort field, optionally followed by ",asc" or ",desc"
      * @return a list of {@link BirdResponseDto} objects
      */
-    public List<BirdResponseDto> getBirdsByCriteria(String name, String color) {
-        if (name != null) {
-            return getBirdsByName(name);
-        } else if (color != null) {
-            return getBirdsByColor(color);
-        } else {
+    public List<BirdResponseDto> getBirdsByCriteria(String name, String color, Double minWeight, Double maxWeight,
+                                                    Double minHeight, Double maxHeight, String sort) {
+        final BirdSearch search = modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight,
+                sort);
+        if (BirdSearch.ALL.equals(search)) {
             return getAllBirds();
         }
+        final List<Bird> birds = birdRequestCoalescer.search(search, () -> birdRepository.search(search));
+        return modelService.getBirdResponseDTOs(birds);
     }
 
     /**
-     * Finds all {@link Bird} objects having the same name.
+     * Finds a page of {@link Bird} objects by provided criteria, applied as in
+     * {@link #getBirdsByCriteria(String, String, Double, Double, Double, Double, String)}.
+     * Without a sort the birds are sorted by id and paged with cursors. With a sort a single page is returned,
+     * the first limit birds in the sort order, read from the index serving the sort.
      * @param name {@link String}
-     * @return a list of {@link BirdResponseDto} objects
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String} sort field, optionally followed by ",asc" or ",desc"
+     * @param cursor {@link String} returned with the previous page, null for the first page
+     * @param limit {@link Integer} page size
+     * @return a {@link CursorPageDto} of {@link BirdResponseDto} objects
      */
-    private List<BirdResponseDto> getBirdsByName(String name) {
-        final List<Bird> birds = birdRepository.findByName(name);
-        return modelService.getBirdResponseDTOs(birds);
+    public CursorPageDto<BirdResponseDto> getBirdsPage(String name, String color, Double minWeight, Double maxWeight,
+                                                       Double minHeight, Double maxHeight, String sort,
+                                                       String cursor, Integer limit) {
+        final BirdSearch search = modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight,
+                sort);
+        final PageCursor after = modelService.getPageCursor(cursor);
+        final int pageLimit = modelService.getPageLimit(limit);
+        if (search.isSorted()) {
+            if (Objects.nonNull(after)) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_SORTED_CURSOR);
+            }
+            final List<Bird> birds = birdRepository.findPage(search, null, pageLimit);
+            return new CursorPageDto<>(modelService.getBirdResponseDTOs(birds), null);
+        }
+
+        // one extra bird is read to know if there is a next page
+        final List<Bird> birds = birdRepository.findPage(search, after, pageLimit + 1);
+        if (birds.size() <= pageLimit) {
+            return new CursorPageDto<>(modelService.getBirdResponseDTOs(birds), null);
+        }
+        final List<Bird> page = birds.subList(0, pageLimit);
+        return new CursorPageDto<>(modelService.getBirdResponseDTOs(page), modelService.getCursor(page.get(pageLimit - 1)));
     }
 
     /**
-     * Finds all {@link Bird} objects having the same color.
+     * Streams the {@link Bird} objects matching the provided criteria to the provided consumer, one by one,
+     * straight from a database cursor, so memory use doesn't depend on the number of birds.
+     * Criteria are applied as in {@link #getBirdsByCriteria(String, String, Double, Double, Double, Double, String)}.
+     * @param name {@link String}
      * @param color {@link String}
-     * @return a list of {@link BirdResponseDto} objects
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String} sort field, optionally followed by ",asc" or ",desc"
+     * @param consumer {@link Consumer} of {@link BirdResponseDto}
      */
-    private List<BirdResponseDto> getBirdsByColor(String color) {
-        final List<Bird> birds = birdRepository.findByColor(color);
-        return modelService.getBirdResponseDTOs(birds);
+    public void streamBirdsByCriteria(String name, String color, Double minWeight, Double maxWeight, Double minHeight,
+                                      Double maxHeight, String sort, Consumer<BirdResponseDto> consumer) {
+        final BirdSearch search = modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight,
+                sort);
+        try (Stream<Bird> birds = birdRepository.stream(search)) {
+            final Iterator<Bird> iterator = birds.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(modelService.getBirdResponseDto(iterator.next()));
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,17 +2,37 @@ package com.example.birds.service;
 
 import com.example.birds.dto.BirdResponseDto;
 import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
 import com.example.birds.model.Bird;
 import com.example.birds.model.Sighting;
+import com.example.birds.util.BirdIndex;
+import com.example.birds.util.BirdSearch;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingStatsSearch;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Class used for handling conversion.
@@ -21,6 +41,18 @@ import java.util.List;
 @Service
 public class ModelService {
 
+    /**
+     * Page size used when a cursor is provided without a limit.
+     */
+    static final int DEFAULT_PAGE_LIMIT = 100;
+
+    /**
+     * Largest accepted page size.
+     */
+    static final int MAX_PAGE_LIMIT = 1000;
+
+    private static final String CURSOR_SEPARATOR = "|";
+
     /**
      * Constructs a {@link Bird} object from the provided parameter.
      * @param birdSaveDto {@link BirdSaveDto}
@@ -47,7 +79,7 @@ public class ModelService {
      * @return List of {@link BirdResponseDto}
      */
     public List<BirdResponseDto> getBirdResponseDTOs(List<Bird> birds) {
-        final List<BirdResponseDto> result = new ArrayList<>();
+        final List<BirdResponseDto> result = new ArrayList<>(birds.size());
         for (Bird bird : birds) {
             result.add(getBirdResponseDto(bird));
         }
@@ -60,7 +92,26 @@ public class ModelService {
      * @return a {@link Sighting} object
      */
     public Sighting getSighting(SightingSaveDto sightingSaveDto) {
-        return new Sighting(sightingSaveDto.getBirdId(), sightingSaveDto.getLocation(), getDateTime(sightingSaveDto.getDateTime()));
+        final Sighting sighting = new Sighting(sightingSaveDto.getBirdId(), sightingSaveDto.getLocation(),
+                getDateTime(sightingSaveDto.getDateTime()));
+        sighting.setCoordinates(getCoordinates(sightingSaveDto.getCoordinates()));
+        return sighting;
+    }
+
+    /**
+     * Constructs a {@link SightingHeatmapTileDto} from the provided parameters.
+     * @param search {@link SightingHeatmapSearch} of the tile
+     * @param cells List of {@link SightingHeatmapCellDto}, the cells having sightings
+     * @return a {@link SightingHeatmapTileDto} object
+     */
+    public SightingHeatmapTileDto getSightingHeatmapTileDto(SightingHeatmapSearch search,
+                                                            List<SightingHeatmapCellDto> cells) {
+        long count = 0;
+        for (SightingHeatmapCellDto cell : cells) {
+            count += cell.getCount();
+        }
+        return new SightingHeatmapTileDto(search.getZoom(), search.getX(), search.getY(), search.getWest(),
+                search.getNorth(), search.getCellWidth(), search.getCellHeight(), count, cells);
     }
 
     /**
@@ -70,7 +121,9 @@ public class ModelService {
      * @return a {@link SightingResponseDto} object
      */
     public SightingResponseDto getSightingResponseDto(Sighting sighting, BirdResponseDto birdResponseDto) {
-        return new SightingResponseDto(sighting.getId(), birdResponseDto, sighting.getLocation(), sighting.getDateTime());
+        final GeoJsonPoint coordinates = sighting.getCoordinates();
+        return new SightingResponseDto(sighting.getId(), birdResponseDto, sighting.getLocation(), sighting.getDateTime(),
+                Objects.isNull(coordinates) ? null : coordinates.getCoordinates());
     }
 
     /**
@@ -86,6 +139,207 @@ public class ModelService {
         }
     }
 
+    /**
+     * Constructs a {@link SightingSearch} from the provided search parameters, all optional.
+     * Example of a valid LocalDateTime string "2023-07-18T10:00:00".
+     * @param birdId {@link String}
+     * @param locations List of {@link String}, duplicates are ignored
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String} "asc" or "desc", the direction of the dateTime sort
+     * @return a {@link SightingSearch} object if no errors,
+     * an {@link IllegalArgumentException} if a dateTime or the sort can't be parsed.
+     */
+    public SightingSearch getSightingSearch(String birdId, List<String> locations, String startDateTime,
+                                            String endDateTime, String sort) {
+        final Sort.Direction direction = getDirection(sort);
+        final List<String> distinctLocations = Objects.isNull(locations) ? List.of()
+                : new ArrayList<>(new LinkedHashSet<>(locations));
+        return new SightingSearch(birdId, distinctLocations, getDateTime(startDateTime), getDateTime(endDateTime),
+                direction);
+    }
+
+    /**
+     * Constructs a {@link GeoJsonPoint} from a GeoJSON position.
+     * @param coordinates List of {@link Double}, the longitude then the latitude
+     * @return a {@link GeoJsonPoint} object, null if no coordinates are provided,
+     * an {@link IllegalArgumentException} if they are not a valid longitude and latitude.
+     */
+    public GeoJsonPoint getCoordinates(List<Double> coordinates) {
+        if (Objects.isNull(coordinates)) {
+            return null;
+        }
+        if (coordinates.size() != 2 || !isInRange(coordinates.get(0), 180) || !isInRange(coordinates.get(1), 90)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_COORDINATES);
+        }
+        return new GeoJsonPoint(coordinates.get(0), coordinates.get(1));
+    }
+
+    /**
+     * Constructs a {@link SightingGeoSearch} of the sightings at most radius meters away from a point.
+     * The bird and the date-time interval are optional, as in {@link #getSightingSearch}.
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param longitude {@link Double}
+     * @param latitude {@link Double}
+     * @param radius {@link Double} meters
+     * @return a {@link SightingGeoSearch} object if no errors,
+     * an {@link IllegalArgumentException} if a dateTime, the point or the radius is invalid.
+     */
+    public SightingGeoSearch getSightingNearSearch(String birdId, String startDateTime, String endDateTime,
+                                                   Double longitude, Double latitude, Double radius) {
+        final GeoJsonPoint center = getCoordinates(Arrays.asList(longitude, latitude));
+        if (Objects.isNull(radius) || !(radius > 0) || radius.isInfinite()) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_RADIUS);
+        }
+        return SightingGeoSearch.near(birdId, getDateTime(startDateTime), getDateTime(endDateTime), center, radius);
+    }
+
+    /**
+     * Constructs a {@link SightingGeoSearch} of the sightings inside a polygon.
+     * The polygon is a list of "longitude,latitude" positions separated by ";", closed if its last position
+     * differs from the first one. Example: "-118.5,34.0;-118.4,34.0;-118.4,34.1;-118.5,34.1".
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param polygon {@link String}
+     * @param sort {@link String} "asc" or "desc", the direction of the dateTime sort
+     * @return a {@link SightingGeoSearch} object if no errors,
+     * an {@link IllegalArgumentException} if a dateTime, the polygon or the sort can't be parsed.
+     */
+    public SightingGeoSearch getSightingWithinSearch(String birdId, String startDateTime, String endDateTime,
+                                                     String polygon, String sort) {
+        if (Objects.isNull(polygon)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_POLYGON);
+        }
+        final List<Point> points = new ArrayList<>();
+        for (String position : polygon.split(";")) {
+            final String[] coordinates = position.split(",", -1);
+            if (coordinates.length != 2) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_POLYGON);
+            }
+            try {
+                points.add(getCoordinates(List.of(Double.valueOf(coordinates[0].trim()),
+                        Double.valueOf(coordinates[1].trim()))));
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_POLYGON, exception);
+            }
+        }
+        if (!points.get(0).equals(points.get(points.size() - 1))) {
+            points.add(points.get(0));
+        }
+        // a closed ring of 3 positions at least
+        if (points.size() < 4) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_POLYGON);
+        }
+        return SightingGeoSearch.within(birdId, getDateTime(startDateTime), getDateTime(endDateTime),
+                new GeoJsonPolygon(points), getDirection(sort));
+    }
+
+    /**
+     * Constructs a {@link SightingHeatmapSearch} of a tile, see {@link SightingHeatmapSearch} for the tile grid.
+     * Example of a valid date string "2023-07-18".
+     * @param zoom int between 0 and {@link SightingHeatmapSearch#MAX_ZOOM}
+     * @param x int column of the tile, from longitude -180
+     * @param y int row of the tile, from latitude 90
+     * @param startDate {@link String} inclusive, no lower bound if null
+     * @param endDate {@link String} inclusive, no upper bound if null
+     * @param cells int number of grid cells of a tile side
+     * @return a {@link SightingHeatmapSearch} object if no errors,
+     * an {@link IllegalArgumentException} if the tile or a date is invalid, or the window is empty.
+     */
+    public SightingHeatmapSearch getSightingHeatmapSearch(int zoom, int x, int y, String startDate, String endDate,
+                                                          int cells) {
+        if (zoom < 0 || zoom > SightingHeatmapSearch.MAX_ZOOM) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_ZOOM);
+        }
+        final int tiles = SightingHeatmapSearch.getTileCount(zoom);
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_TILE);
+        }
+        final LocalDate start = getDate(startDate);
+        final LocalDate end = getDate(endDate);
+        if (Objects.nonNull(start) && Objects.nonNull(end) && start.isAfter(end)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_RANGE);
+        }
+        return new SightingHeatmapSearch(zoom, x, y, cells, start, end);
+    }
+
+    /**
+     * Constructs a {@link SightingStatsSearch} from the provided parameters, all optional.
+     * Example of a valid date string "2023-07-18".
+     * @param birdId {@link String}
+     * @param location {@link String}
+     * @param startDate {@link String} inclusive
+     * @param endDate {@link String} inclusive
+     * @param bucket {@link String} "day" (default), "month" or "year"
+     * @param groupBy List of {@link String}, "bird" and/or "location", both when null
+     * @return a {@link SightingStatsSearch} object if no errors,
+     * an {@link IllegalArgumentException} if a date, the bucket or the grouping can't be parsed, or the interval is empty.
+     */
+    public SightingStatsSearch getSightingStatsSearch(String birdId, String location, String startDate,
+                                                      String endDate, String bucket, List<String> groupBy) {
+        final LocalDate start = getDate(startDate);
+        final LocalDate end = getDate(endDate);
+        if (Objects.nonNull(start) && Objects.nonNull(end) && start.isAfter(end)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_RANGE);
+        }
+        final SightingStatsSearch.Bucket timeBucket;
+        try {
+            timeBucket = Objects.isNull(bucket) ? SightingStatsSearch.Bucket.DAY
+                    : SightingStatsSearch.Bucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_BUCKET, exception);
+        }
+        if (Objects.isNull(groupBy)) {
+            return new SightingStatsSearch(birdId, location, start, end, timeBucket, true, true);
+        }
+        boolean groupByBird = false;
+        boolean groupByLocation = false;
+        for (String field : groupBy) {
+            if ("bird".equals(field)) {
+                groupByBird = true;
+            } else if ("location".equals(field)) {
+                groupByLocation = true;
+            } else if (!field.isEmpty()) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_GROUP_BY);
+            }
+        }
+        return new SightingStatsSearch(birdId, location, start, end, timeBucket, groupByBird, groupByLocation);
+    }
+
+    /**
+     * Constructs a {@link BirdSearch} from the provided search parameters, all optional.
+     * Example of a valid sort "weight,desc".
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double} inclusive
+     * @param maxWeight {@link Double} inclusive
+     * @param minHeight {@link Double} inclusive
+     * @param maxHeight {@link Double} inclusive
+     * @param sort {@link String} one of {@link BirdSearch#SORT_FIELDS}, optionally followed by ",asc" or ",desc"
+     * @return a {@link BirdSearch} object if no errors,
+     * an {@link IllegalArgumentException} if the sort can't be parsed or a range is empty.
+     */
+    public BirdSearch getBirdSearch(String name, String color, Double minWeight, Double maxWeight, Double minHeight,
+                                    Double maxHeight, String sort) {
+        if (isEmptyRange(minWeight, maxWeight) || isEmptyRange(minHeight, maxHeight)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_RANGE);
+        }
+        if (Objects.isNull(sort)) {
+            return new BirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight, null, null);
+        }
+        final String[] sortParts = sort.split(",", -1);
+        if (sortParts.length > 2 || !BirdSearch.SORT_FIELDS.contains(sortParts[0])) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_BIRD_SORT);
+        }
+        final Sort.Direction direction = sortParts.length == 1 ? Sort.Direction.ASC
+                : Sort.Direction.fromOptionalString(sortParts[1])
+                        .orElseThrow(() -> new IllegalArgumentException(ErrorMessages.INVALID_BIRD_SORT));
+        return new BirdSearch(name, color, minWeight, maxWeight, minHeight, maxHeight, sortParts[0], direction);
+    }
+
     /**
      * Constructs a list of SightingResponseDto from the provided parameters.
      * @param sightings List of {@link Sighting}
@@ -93,16 +347,139 @@ public class ModelService {
      * @return a List of {@link SightingResponseDto} objects.
      */
     public List<SightingResponseDto> getSightingResponseDTOs(List<Sighting> sightings, List<BirdResponseDto> birdResponseDTOs) {
-        final List<SightingResponseDto> result = new ArrayList<>();
+        return getSightingResponseDTOs(sightings, BirdIndex.of(birdResponseDTOs));
+    }
+
+    /**
+     * Constructs a list of SightingResponseDto from the provided parameters.
+     * Each sighting is matched with its bird through a single {@link BirdIndex} lookup,
+     * so the cost of the join grows linearly with the number of sightings and birds.
+     * If a sighting references a bird missing from the index an {@link IllegalStateException} will be thrown.
+     * @param sightings List of {@link Sighting}
+     * @param birdIndex {@link BirdIndex}
+     * @return a List of {@link SightingResponseDto} objects.
+     */
+    public List<SightingResponseDto> getSightingResponseDTOs(List<Sighting> sightings, BirdIndex birdIndex) {
+        final List<SightingResponseDto> result = new ArrayList<>(sightings.size());
         for (Sighting sighting : sightings) {
-            BirdResponseDto birdResponseDto = birdResponseDTOs.get(0);
-            for (BirdResponseDto dto : birdResponseDTOs) {
-                if (dto.getId().equals(sighting.getBirdId())) {
-                    birdResponseDto = dto;
-                }
+            final BirdResponseDto birdResponseDto = birdIndex.get(sighting.getBirdId());
+            if (Objects.isNull(birdResponseDto)) {
+                throw new IllegalStateException(ErrorMessages.ORPHAN_RECORDS_ERROR);
             }
             result.add(getSightingResponseDto(sighting, birdResponseDto));
         }
         return result;
     }
+
+    /**
+     * Validates the requested page size.
+     * @param limit {@link Integer}
+     * @return the provided limit, or {@link #DEFAULT_PAGE_LIMIT} if no limit is provided,
+     * an {@link IllegalArgumentException} if the limit is not between 1 and {@link #MAX_PAGE_LIMIT}.
+     */
+    public int getPageLimit(Integer limit) {
+        if (Objects.isNull(limit)) {
+            return DEFAULT_PAGE_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #getCursor(Bird)} or {@link #getCursor(Sighting)}.
+     * @param cursor {@link String}
+     * @return a {@link PageCursor} object, null if the cursor is null,
+     * an {@link IllegalArgumentException} if the cursor can't be decoded.
+     */
+    public PageCursor getPageCursor(String cursor) {
+        if (Objects.isNull(cursor)) {
+            return null;
+        }
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = decoded.lastIndexOf(CURSOR_SEPARATOR);
+            final String dateTime = decoded.substring(0, separator);
+            final String id = decoded.substring(separator + 1);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_CURSOR);
+            }
+            return new PageCursor(dateTime.isEmpty() ? null : LocalDateTime.parse(dateTime), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException exception) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CURSOR, exception);
+        }
+    }
+
+    /**
+     * Encodes the opaque cursor of the page ending with the provided bird.
+     * @param bird {@link Bird}
+     * @return a {@link String}
+     */
+    public String getCursor(Bird bird) {
+        return encodeCursor(null, bird.getId());
+    }
+
+    /**
+     * Encodes the opaque cursor of the page ending with the provided sighting.
+     * @param sighting {@link Sighting}
+     * @return a {@link String}
+     */
+    public String getCursor(Sighting sighting) {
+        return encodeCursor(sighting.getDateTime(), sighting.getId());
+    }
+
+    /**
+     * Parses an ISO date string ("2023-07-18").
+     * @param dateString {@link String}
+     * @return a {@link LocalDate} object, null if the string is null
+     */
+    private static LocalDate getDate(String dateString) {
+        try {
+            return dateString != null ? LocalDate.parse(dateString) : null;
+        } catch (DateTimeParseException exception) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_DATE, exception);
+        }
+    }
+
+    /**
+     * Parses the direction of a dateTime sort.
+     * @param sort {@link String} "asc" or "desc"
+     * @return a {@link Sort.Direction}, null if the sort is null
+     */
+    private static Sort.Direction getDirection(String sort) {
+        return Objects.isNull(sort) ? null : Sort.Direction.fromOptionalString(sort)
+                .orElseThrow(() -> new IllegalArgumentException(ErrorMessages.INVALID_SORT));
+    }
+
+    /**
+     * Checks whether a coordinate is provided and its absolute value doesn't exceed the provided bound.
+     * @param coordinate {@link Double}
+     * @param bound double degrees
+     * @return boolean
+     */
+    private static boolean isInRange(Double coordinate, double bound) {
+        return Objects.nonNull(coordinate) && coordinate >= -bound && coordinate <= bound;
+    }
+
+    /**
+     * Checks whether a range with both bounds provided can't match anything.
+     * @param min {@link Double}
+     * @param max {@link Double}
+     * @return boolean
+     */
+    private static boolean isEmptyRange(Double min, Double max) {
+        return Objects.nonNull(min) && Objects.nonNull(max) && min > max;
+    }
+
+    /**
+     * Encodes a cursor as url safe base64 of "dateTime|id", where dateTime is empty when not used.
+     * @param dateTime {@link LocalDateTime}
+     * @param id {@link String}
+     * @return a {@link String}
+     */
+    private static String encodeCursor(LocalDateTime dateTime, String id) {
+        final String value = (Objects.isNull(dateTime) ? "" : dateTime.toString()) + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
 }
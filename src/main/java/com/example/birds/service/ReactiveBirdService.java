@@ -0,0 +1,212 @@
+package com.example.birds.service;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.model.Bird;
+import com.example.birds.repository.ReactiveBirdRepository;
+import com.example.birds.repository.ReactiveSightingRepository;
+import com.example.birds.repository.ReactiveSightingRollupRepository;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reactive counterpart of {@link BirdService}, used by the "reactive" profile.
+ * </br>
+ * Same validations, errors and criteria as {@link BirdService}, but nothing blocks:
+ * results are emitted as they are read from MongoDB, at the pace requested by the subscriber.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBirdService {
+
+    private final ReactiveBirdRepository birdRepository;
+
+    private final ModelService modelService;
+
+    private final ReactiveSightingRepository sightingRepository;
+
+    private final ReactiveSightingRollupRepository sightingRollupRepository;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    @Autowired
+    public ReactiveBirdService(ReactiveBirdRepository birdRepository, ModelService modelService,
+                               ReactiveSightingRepository sightingRepository,
+                               ReactiveSightingRollupRepository sightingRollupRepository,
+                               SightingHeatmapCache sightingHeatmapCache) {
+        this.birdRepository = birdRepository;
+        this.modelService = modelService;
+        this.sightingRepository = sightingRepository;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+    }
+
+    /**
+     * Saves a bird.
+     * @param birdSaveDto {@link BirdSaveDto}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    public Mono<BirdResponseDto> saveBird(BirdSaveDto birdSaveDto) {
+        return Mono.fromSupplier(() -> modelService.getBird(birdSaveDto))
+                .flatMap(birdRepository::save)
+                .map(modelService::getBirdResponseDto);
+    }
+
+    /**
+     * Finds a {@link Bird} entity by the provided parameter.
+     * @param id {@link String}
+     * @return a Mono of {@link Bird}, failing with {@link IllegalStateException} if the bird doesn't exist
+     */
+    public Mono<Bird> getBirdEntityById(String id) {
+        return birdRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND)));
+    }
+
+    /**
+     * Updates a {@link Bird} object.
+     * @param id {@link String}
+     * @param birdSaveDto {@link BirdSaveDto}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    public Mono<BirdResponseDto> updateBird(String id, BirdSaveDto birdSaveDto) {
+        return getBirdEntityById(id)
+                .map(bird -> {
+                    bird.setColor(birdSaveDto.getColor());
+                    bird.setName(birdSaveDto.getName());
+                    bird.setWeight(birdSaveDto.getWeight());
+                    bird.setHeight(birdSaveDto.getHeight());
+                    return bird;
+                })
+                .flatMap(birdRepository::save)
+                .map(modelService::getBirdResponseDto);
+    }
+
+    /**
+     * Deletes a {@link Bird} object and its children ({@link com.example.birds.model.Sighting} objects).
+     * @param id {@link String}
+     * @return a Mono completing once the bird is deleted
+     */
+    public Mono<Void> deleteBird(String id) {
+        // we delete children first
+        return sightingRepository.deleteByBirdId(id)
+                .then(sightingRollupRepository.deleteByBirdId(id))
+                .then(Mono.fromRunnable(sightingHeatmapCache::invalidateAll))
+                .then(birdRepository.deleteById(id));
+    }
+
+    /**
+     * Finds a {@link Bird} object by the provided parameter.
+     * @param id {@link String}
+     * @return a Mono of {@link BirdResponseDto}
+     */
+    public Mono<BirdResponseDto> getBirdById(String id) {
+        return getBirdEntityById(id).map(modelService::getBirdResponseDto);
+    }
+
+    /**
+     * Finds all {@link Bird} objects.
+     * @return a Flux of {@link BirdResponseDto} objects
+     */
+    public Flux<BirdResponseDto> getAllBirds() {
+        return birdRepository.findAll().map(modelService::getBirdResponseDto);
+    }
+
+    /**
+     * Finds the {@link Bird} objects having the provided ids.
+     * Birds are fetched with one "$in" query per chunk of {@link BirdService#FIND_BY_IDS_CHUNK_SIZE} ids,
+     * one chunk at a time. Ids not matching any bird are ignored.
+     * @param ids Collection of {@link String}
+     * @return a Flux of {@link BirdResponseDto} objects
+     */
+    public Flux<BirdResponseDto> getBirdsByIds(Collection<String> ids) {
+        final List<String> idList = new ArrayList<>(ids);
+        final List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += BirdService.FIND_BY_IDS_CHUNK_SIZE) {
+            chunks.add(idList.subList(from, Math.min(from + BirdService.FIND_BY_IDS_CHUNK_SIZE, idList.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(birdRepository::findAllById)
+                .map(modelService::getBirdResponseDto);
+    }
+
+    /**
+     * Finds all {@link Bird} objects by provided criteria, applied as in
+     * {@link BirdService#getBirdsByCriteria(String, String, Double, Double, Double, Double, String)}.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String} sort field, optionally followed by ",asc" or ",desc"
+     * @return a Flux of {@link BirdResponseDto} objects
+     */
+    public Flux<BirdResponseDto> getBirdsByCriteria(String name, String color, Double minWeight, Double maxWeight,
+                                                    Double minHeight, Double maxHeight, String sort) {
+        return Flux.defer(() -> {
+            final BirdSearch search = modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight,
+                    maxHeight, sort);
+            if (BirdSearch.ALL.equals(search)) {
+                return getAllBirds();
+            }
+            return birdRepository.search(search).map(modelService::getBirdResponseDto);
+        });
+    }
+
+    /**
+     * Finds a page of {@link Bird} objects by provided criteria. Same pages and cursors as
+     * {@link BirdService#getBirdsPage(String, String, Double, Double, Double, Double, String, String, Integer)}.
+     * @param name {@link String}
+     * @param color {@link String}
+     * @param minWeight {@link Double}
+     * @param maxWeight {@link Double}
+     * @param minHeight {@link Double}
+     * @param maxHeight {@link Double}
+     * @param sort {@link String} sort field, optionally followed by ",asc" or ",desc"
+     * @param cursor {@link String} returned with the previous page, null for the first page
+     * @param limit {@link Integer} page size
+     * @return a Mono of {@link CursorPageDto} of {@link BirdResponseDto} objects
+     */
+    public Mono<CursorPageDto<BirdResponseDto>> getBirdsPage(String name, String color, Double minWeight,
+                                                             Double maxWeight, Double minHeight, Double maxHeight,
+                                                             String sort, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            final BirdSearch search = modelService.getBirdSearch(name, color, minWeight, maxWeight, minHeight,
+                    maxHeight, sort);
+            final PageCursor after = modelService.getPageCursor(cursor);
+            final int pageLimit = modelService.getPageLimit(limit);
+            if (search.isSorted()) {
+                if (Objects.nonNull(after)) {
+                    return Mono.error(new IllegalArgumentException(ErrorMessages.INVALID_SORTED_CURSOR));
+                }
+                return birdRepository.findPage(search, null, pageLimit)
+                        .collectList()
+                        .map(birds -> new CursorPageDto<>(modelService.getBirdResponseDTOs(birds), null));
+            }
+
+            // one extra bird is read to know if there is a next page
+            return birdRepository.findPage(search, after, pageLimit + 1)
+                    .collectList()
+                    .map(birds -> {
+                        if (birds.size() <= pageLimit) {
+                            return new CursorPageDto<>(modelService.getBirdResponseDTOs(birds), null);
+                        }
+                        final List<Bird> page = birds.subList(0, pageLimit);
+                        return new CursorPageDto<>(modelService.getBirdResponseDTOs(page),
+                                modelService.getCursor(page.get(pageLimit - 1)));
+                    });
+        });
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.config.SightingStorageProperties;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.ReactiveSightingRepository;
+import com.example.birds.repository.ReactiveSightingRollupRepository;
+import com.example.birds.util.BirdIndex;
+import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingSearch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reactive counterpart of {@link SightingService}, used by the "reactive" profile.
+ * </br>
+ * Sightings are joined with their birds in the JVM, in batches of {@link SightingService#STREAM_BATCH_SIZE}:
+ * a batch is only read from MongoDB once the subscriber requested it, so slow clients hold neither
+ * a thread nor the whole result.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSightingService {
+
+    private final ReactiveSightingRepository sightingRepository;
+
+    private final ModelService modelService;
+
+    private final ReactiveBirdService birdService;
+
+    private final ValidationService validationService;
+
+    private final SightingStorageProperties sightingStorageProperties;
+
+    private final ReactiveSightingRollupRepository sightingRollupRepository;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    private final SightingHeatmapProperties sightingHeatmapProperties;
+
+    @Autowired
+    public ReactiveSightingService(ReactiveSightingRepository sightingRepository, ModelService modelService,
+                                   ReactiveBirdService birdService, ValidationService validationService,
+                                   SightingStorageProperties sightingStorageProperties,
+                                   ReactiveSightingRollupRepository sightingRollupRepository,
+                                   SightingHeatmapCache sightingHeatmapCache,
+                                   SightingHeatmapProperties sightingHeatmapProperties) {
+        this.sightingRepository = sightingRepository;
+        this.modelService = modelService;
+        this.birdService = birdService;
+        this.validationService = validationService;
+        this.sightingStorageProperties = sightingStorageProperties;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+        this.sightingHeatmapProperties = sightingHeatmapProperties;
+    }
+
+    /**
+     * Saves a sighting.
+     * @param sightingSaveDto {@link SightingSaveDto}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    public Mono<SightingResponseDto> saveSighting(SightingSaveDto sightingSaveDto) {
+        // bird must be persisted in order to create sighting
+        return birdService.getBirdById(sightingSaveDto.getBirdId())
+                .flatMap(birdResponseDto -> sightingRepository.save(getSighting(sightingSaveDto))
+                        .flatMap(savedSighting -> sightingRollupRepository.updateCounts(List.of(), List.of(savedSighting))
+                                .doOnSuccess(ignored -> sightingHeatmapCache.invalidate(List.of(savedSighting)))
+                                .thenReturn(modelService.getSightingResponseDto(savedSighting, birdResponseDto))));
+    }
+
+    /**
+     * Updates a sighting, deleted and inserted again in a time-series collection, see {@link SightingService}:
+     * the sighting is validated before the deletion, and the replaced sighting inserted back when the insert fails.
+     * @param sightingSaveDto {@link SightingSaveDto}
+     * @param sightingId {@link String}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    public Mono<SightingResponseDto> updateSighting(SightingSaveDto sightingSaveDto, String sightingId) {
+        // bird must be persisted in order to update sighting
+        return birdService.getBirdById(sightingSaveDto.getBirdId())
+                .flatMap(birdResponseDto -> {
+                    final Sighting sighting = getSighting(sightingSaveDto);
+                    sighting.setId(sightingId);
+                    // the replaced sighting is read for removing it from the rollups, absent if the update creates it
+                    return sightingRepository.findById(sightingId)
+                            .map(List::of)
+                            .defaultIfEmpty(List.of())
+                            .flatMap(previousSightings -> getUpdate(sighting, previousSightings).flatMap(updatedSighting -> sightingRollupRepository
+                                    .updateCounts(previousSightings, List.of(updatedSighting))
+                                    .doOnSuccess(ignored -> {
+                                        sightingHeatmapCache.invalidate(previousSightings);
+                                        sightingHeatmapCache.invalidate(List.of(updatedSighting));
+                                    })
+                                    .thenReturn(modelService.getSightingResponseDto(updatedSighting, birdResponseDto))));
+                });
+    }
+
+    /**
+     * Builds the sighting to write, validated when stored in a time-series collection.
+     * @param sightingSaveDto {@link SightingSaveDto}
+     * @return a {@link Sighting} object
+     */
+    private Sighting getSighting(SightingSaveDto sightingSaveDto) {
+        final Sighting sighting = modelService.getSighting(sightingSaveDto);
+        if (sightingStorageProperties.isTimeSeries()) {
+            validationService.verifyTimeSeriesSighting(sighting);
+        }
+        return sighting;
+    }
+
+    /**
+     * Replaces a sighting: saved, or deleted then inserted in a time-series collection, the replaced sighting
+     * being inserted back when the insert fails, since no transaction spans both writes.
+     * @param sighting {@link Sighting}
+     * @param previousSightings List of {@link Sighting}, the replaced sighting if any
+     * @return a Mono of the updated {@link Sighting}
+     */
+    private Mono<Sighting> getUpdate(Sighting sighting, List<Sighting> previousSightings) {
+        if (!sightingStorageProperties.isTimeSeries()) {
+            return sightingRepository.save(sighting);
+        }
+        return sightingRepository.deleteById(sighting.getId())
+                .then(sightingRepository.insert(sighting))
+                .onErrorResume(exception -> Flux.fromIterable(previousSightings)
+                        .concatMap(sightingRepository::insert)
+                        .onErrorResume(restoreException -> {
+                            exception.addSuppressed(restoreException);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(exception)));
+    }
+
+    /**
+     * Deletes a sighting.
+     * @param id {@link String}
+     * @return a Mono completing once the sighting is deleted
+     */
+    public Mono<Void> deleteSighting(String id) {
+        // the deleted sighting is read for removing it from the rollups
+        return sightingRepository.findById(id)
+                .map(List::of)
+                .defaultIfEmpty(List.of())
+                .flatMap(deletedSightings -> sightingRepository.deleteById(id)
+                        .then(sightingRollupRepository.updateCounts(deletedSightings, List.of()))
+                        .doOnSuccess(ignored -> sightingHeatmapCache.invalidate(deletedSightings)));
+    }
+
+    /**
+     * Gets a sighting by id.
+     * @param id {@link String}
+     * @return a Mono of {@link SightingResponseDto}
+     */
+    public Mono<SightingResponseDto> getSightingById(String id) {
+        return sightingRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(ErrorMessages.SIGHTING_NOT_FOUND)))
+                .flatMap(sighting -> birdService.getBirdById(sighting.getBirdId())
+                        .map(birdResponseDto -> modelService.getSightingResponseDto(sighting, birdResponseDto)));
+    }
+
+    /**
+     * Gets all sightings.
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    public Flux<SightingResponseDto> getAllSightings() {
+        return getSightingResponseDTOs(sightingRepository.findAll());
+    }
+
+    /**
+     * Gets all sightings matching all the provided criteria, applied as in
+     * {@link SightingService#getSightingsByCriteria(String, List, String, String, String)}.
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    public Flux<SightingResponseDto> getSightingsByCriteria(String birdId, List<String> locations, String startDateTime,
+                                                            String endDateTime, String sort) {
+        return Flux.defer(() -> {
+            final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime,
+                    endDateTime, sort);
+            if (SightingSearch.ALL.equals(search)) {
+                return getAllSightings();
+            }
+            if (Objects.nonNull(search.getBirdId())) {
+                // the bird must exist, as for the blocking service
+                return birdService.getBirdById(search.getBirdId())
+                        .flatMapMany(birdResponseDto -> getSightingResponseDTOs(sightingRepository.search(search)));
+            }
+            return getSightingResponseDTOs(sightingRepository.search(search));
+        });
+    }
+
+    /**
+     * Gets a page of sightings matching all the provided criteria, sorted by dateTime then id.
+     * Same pages and cursors as
+     * {@link SightingService#getSightingsPage(String, List, String, String, String, String, Integer)}.
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param cursor {@link String} returned with the previous page, null for the first page
+     * @param limit {@link Integer} page size
+     * @return a Mono of {@link CursorPageDto} of {@link SightingResponseDto} objects
+     */
+    public Mono<CursorPageDto<SightingResponseDto>> getSightingsPage(String birdId, List<String> locations,
+                                                                     String startDateTime, String endDateTime,
+                                                                     String sort, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            final PageCursor after = modelService.getPageCursor(cursor);
+            final int pageLimit = modelService.getPageLimit(limit);
+            final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime,
+                    endDateTime, sort);
+
+            // one extra sighting is read to know if there is a next page
+            return sightingRepository.findPage(search, after, pageLimit + 1)
+                    .collectList()
+                    .flatMap(sightings -> {
+                        if (sightings.size() <= pageLimit) {
+                            return getSightingResponseDTOs(sightings)
+                                    .map(sightingResponseDTOs -> new CursorPageDto<>(sightingResponseDTOs, null));
+                        }
+                        final List<Sighting> page = sightings.subList(0, pageLimit);
+                        final String nextCursor = modelService.getCursor(page.get(pageLimit - 1));
+                        return getSightingResponseDTOs(page)
+                                .map(sightingResponseDTOs -> new CursorPageDto<>(sightingResponseDTOs, nextCursor));
+                    });
+        });
+    }
+
+    /**
+     * Gets the sightings near a point, the nearest first, see
+     * {@link SightingService#getSightingsNear(String, String, String, Double, Double, Double)}.
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param longitude {@link Double}
+     * @param latitude {@link Double}
+     * @param radius {@link Double} meters
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    public Flux<SightingResponseDto> getSightingsNear(String birdId, String startDateTime, String endDateTime,
+                                                      Double longitude, Double latitude, Double radius) {
+        return Flux.defer(() -> getSightingResponseDTOs(modelService.getSightingNearSearch(birdId, startDateTime,
+                endDateTime, longitude, latitude, radius)));
+    }
+
+    /**
+     * Gets the sightings inside a polygon, see
+     * {@link SightingService#getSightingsWithin(String, String, String, String, String)}.
+     * @param birdId {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param polygon {@link String}
+     * @param sort {@link String}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    public Flux<SightingResponseDto> getSightingsWithin(String birdId, String startDateTime, String endDateTime,
+                                                        String polygon, String sort) {
+        return Flux.defer(() -> getSightingResponseDTOs(modelService.getSightingWithinSearch(birdId, startDateTime,
+                endDateTime, polygon, sort)));
+    }
+
+    /**
+     * Counts the sightings matching all the provided criteria, read from MongoDB, see
+     * {@link SightingService#countSightingsByCriteria(String, List, String, String)}.
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return a Mono of the number of sightings
+     */
+    public Mono<Long> countSightingsByCriteria(String birdId, List<String> locations, String startDateTime,
+                                               String endDateTime) {
+        return Mono.defer(() -> sightingRepository.count(
+                modelService.getSightingSearch(birdId, locations, startDateTime, endDateTime, null)));
+    }
+
+    /**
+     * Gets the number of sightings per time bucket, read from the sighting rollups, see
+     * {@link SightingService#getSightingStats(String, String, String, String, String, List)}.
+     * @param birdId {@link String}
+     * @param location {@link String}
+     * @param startDate {@link String} inclusive
+     * @param endDate {@link String} inclusive
+     * @param bucket {@link String} "day" (default), "month" or "year"
+     * @param groupBy List of {@link String}, "bird" and/or "location", both when null
+     * @return a Flux of {@link SightingStatsDto} objects, sorted by bucket, bird id then location
+     */
+    public Flux<SightingStatsDto> getSightingStats(String birdId, String location, String startDate, String endDate,
+                                                   String bucket, List<String> groupBy) {
+        return Flux.defer(() -> sightingRollupRepository.getStats(
+                modelService.getSightingStatsSearch(birdId, location, startDate, endDate, bucket, groupBy)));
+    }
+
+    /**
+     * Gets the number of sightings per grid cell of a heatmap tile, computed with a single aggregation and served
+     * from the {@link SightingHeatmapCache} afterwards, see {@link SightingService#getHeatmapTile}.
+     * @param zoom int between 0 and {@link com.example.birds.util.SightingHeatmapSearch#MAX_ZOOM}
+     * @param x int column of the tile
+     * @param y int row of the tile
+     * @param startDate {@link String} inclusive
+     * @param endDate {@link String} inclusive
+     * @return a Mono of {@link SightingHeatmapTileDto}
+     */
+    public Mono<SightingHeatmapTileDto> getHeatmapTile(int zoom, int x, int y, String startDate, String endDate) {
+        return Mono.defer(() -> sightingHeatmapCache.getAsync(
+                modelService.getSightingHeatmapSearch(zoom, x, y, startDate, endDate,
+                        sightingHeatmapProperties.getCells()),
+                key -> sightingRepository.getHeatmapCells(key).collectList()
+                        .map(cells -> modelService.getSightingHeatmapTileDto(key, cells))));
+    }
+
+    /**
+     * Gets the sightings matching the provided geo search, joined with their birds.
+     * The bird must exist when one is searched for, as for the blocking service.
+     * @param search {@link SightingGeoSearch}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    private Flux<SightingResponseDto> getSightingResponseDTOs(SightingGeoSearch search) {
+        if (Objects.nonNull(search.getBirdId())) {
+            return birdService.getBirdById(search.getBirdId())
+                    .flatMapMany(birdResponseDto -> getSightingResponseDTOs(sightingRepository.geoSearch(search)));
+        }
+        return getSightingResponseDTOs(sightingRepository.geoSearch(search));
+    }
+
+    /**
+     * Joins the provided sightings with their birds, one batch at a time, preserving their order.
+     * @param sightings Flux of {@link Sighting}
+     * @return a Flux of {@link SightingResponseDto} objects
+     */
+    private Flux<SightingResponseDto> getSightingResponseDTOs(Flux<Sighting> sightings) {
+        return sightings.buffer(SightingService.STREAM_BATCH_SIZE)
+                .concatMap(this::getSightingResponseDTOs)
+                .flatMapIterable(sightingResponseDTOs -> sightingResponseDTOs);
+    }
+
+    /**
+     * Joins the provided sightings with their birds, reading only the birds they reference.
+     * Same join and consistency check as the blocking {@link SightingService}.
+     * @param sightings List of {@link Sighting}
+     * @return a Mono of List of {@link SightingResponseDto} objects
+     */
+    private Mono<List<SightingResponseDto>> getSightingResponseDTOs(List<Sighting> sightings) {
+        return birdService.getBirdsByIds(SightingService.getBirdIds(sightings))
+                .collectList()
+                .map(birdResponseDTOs -> {
+                    final BirdIndex birdIndex = validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
+                    return modelService.getSightingResponseDTOs(sightings, birdIndex);
+                });
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.birds.service;
+
+import com.example.birds.config.FanOutMode;
+import com.example.birds.config.SightingFanOutProperties;
+import com.example.birds.config.ThreadMode;
+import com.example.birds.config.ThreadingProperties;
+import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent MongoDB reads of a request at the same time, so that it waits for the slowest read
+ * instead of the sum of the reads.
+ * </br>
+ * Forked reads run on a bounded pool of {@link SightingFanOutProperties#getThreads()} daemon I/O threads, and
+ * on the request thread once {@link SightingFanOutProperties#getQueueCapacity()} reads are waiting, so a burst
+ * slows the requests down instead of queueing without bound. A request waits for its forked reads until
+ * {@link SightingFanOutProperties#getTimeout()} after forking them, then cancels them and fails with a
+ * {@link QueryTimeoutException}; a failed or interrupted request cancels them too. A cancelled read that
+ * has not started is skipped, a started one is interrupted, which the MongoDB driver may only notice once the
+ * query returned.
+ * </br>
+ * With {@link FanOutMode#SEQUENTIAL}, reads run one after the other on the request thread, in fork order.
+ * With threads.mode=virtual, see {@link ThreadingProperties}, every forked read runs on a new virtual thread:
+ * the thread and queue settings don't apply, the connection pool of the MongoDB driver bounds the concurrent reads.
+ */
+@Component
+public class ReadFanOut {
+
+    private final SightingFanOutProperties sightingFanOutProperties;
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ReadFanOut(SightingFanOutProperties sightingFanOutProperties, ThreadingProperties threadingProperties) {
+        this(sightingFanOutProperties, newExecutor(sightingFanOutProperties, threadingProperties));
+    }
+
+    /**
+     * Constructor with a custom executor, used for testing.
+     * @param sightingFanOutProperties {@link SightingFanOutProperties}
+     * @param executor {@link ExecutorService} running the forked reads, null for running them sequentially
+     */
+    ReadFanOut(SightingFanOutProperties sightingFanOutProperties, ExecutorService executor) {
+        this.sightingFanOutProperties = sightingFanOutProperties;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a read on an I/O thread, or runs it at once when sequential.
+     * The caller must {@link Fork#join()} or {@link Fork#cancel()} it.
+     * @param read Supplier of the result
+     * @param <T> type of the result
+     * @return a {@link Fork} object
+     */
+    public <T> Fork<T> fork(Supplier<T> read) {
+        if (Objects.isNull(executor)) {
+            return new Fork<>(null, read.get(), 0);
+        }
+        final long deadline = System.nanoTime() + sightingFanOutProperties.getTimeout().toNanos();
+        return new Fork<>(executor.submit(read::get), null, deadline);
+    }
+
+    /**
+     * Runs reads at the same time, the first one on the calling thread, and gets their results in order.
+     * When a read fails, the others are cancelled and its exception is thrown.
+     * @param reads List of Supplier of the results
+     * @param <T> type of the results
+     * @return a List of the results
+     */
+    public <T> List<T> readAll(List<Supplier<T>> reads) {
+        final List<T> results = new ArrayList<>(reads.size());
+        if (Objects.isNull(executor) || reads.size() < 2) {
+            for (Supplier<T> read : reads) {
+                results.add(read.get());
+            }
+            return results;
+        }
+        final List<Fork<T>> forks = new ArrayList<>(reads.size() - 1);
+        try {
+            for (Supplier<T> read : reads.subList(1, reads.size())) {
+                forks.add(fork(read));
+            }
+            results.add(reads.get(0).get());
+            for (Fork<T> fork : forks) {
+                results.add(fork.join());
+            }
+            return results;
+        } finally {
+            // no-op for the completed reads
+            forks.forEach(Fork::cancel);
+        }
+    }
+
+    private static ExecutorService newExecutor(SightingFanOutProperties sightingFanOutProperties,
+                                               ThreadingProperties threadingProperties) {
+        if (sightingFanOutProperties.getMode() == FanOutMode.SEQUENTIAL) {
+            return null;
+        }
+        if (threadingProperties.getMode() == ThreadMode.VIRTUAL) {
+            return VirtualThreads.newThreadPerTaskExecutor("sighting-read-");
+        }
+        final int threads = sightingFanOutProperties.getThreads();
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(sightingFanOutProperties.getQueueCapacity()), runnable -> {
+                    final Thread thread = new Thread(runnable, "sighting-read-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A read started by {@link #fork(Supplier)}.
+     * @param <T> type of the result
+     */
+    public static final class Fork<T> {
+
+        private final Future<T> future;
+
+        private final T result;
+
+        private final long deadline;
+
+        private Fork(Future<T> future, T result, long deadline) {
+            this.future = future;
+            this.result = result;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Waits for the read until the deadline, cancelling it when exceeded or when the caller is interrupted.
+         * @return the result of the read
+         * @throws QueryTimeoutException when the deadline is exceeded
+         * @throws CancellationException when the caller is interrupted, its interrupt status being kept
+         */
+        public T join() {
+            if (Objects.isNull(future)) {
+                return result;
+            }
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException exception) {
+                future.cancel(true);
+                throw new QueryTimeoutException(ErrorMessages.READ_TIMEOUT);
+            } catch (InterruptedException exception) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new CancellationException(ErrorMessages.READ_CANCELLED);
+            } catch (ExecutionException exception) {
+                // reads are suppliers, they only throw unchecked exceptions
+                if (exception.getCause() instanceof Error) {
+                    throw (Error) exception.getCause();
+                }
+                throw (RuntimeException) exception.getCause();
+            }
+        }
+
+        /**
+         * Cancels the read, unless completed.
+         */
+        public void cancel() {
+            if (Objects.nonNull(future)) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingBulkProperties;
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingBulkItemDto;
+import com.example.birds.dto.SightingBulkResultDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.ErrorMessages;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sighting Bulk Service responsible for creating many sightings with one request.
+ * </br>
+ * The JSON array is read one sighting at a time and processed in chunks of {@link SightingBulkProperties#getChunkSize()}:
+ * the birds of a chunk are checked with one batched lookup, each bird being read once per request,
+ * then the valid sightings are inserted with one unordered bulk write.
+ * A sighting that can't be created is reported in the result without failing the others.
+ */
+@Service
+public class SightingBulkService {
+
+    private final SightingRepository sightingRepository;
+
+    private final ModelService modelService;
+
+    private final BirdService birdService;
+
+    private final ObjectMapper objectMapper;
+
+    private final SightingBulkProperties sightingBulkProperties;
+
+    private final SightingRollupRepository sightingRollupRepository;
+
+    private final SightingTimeIndex sightingTimeIndex;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    @Autowired
+    public SightingBulkService(SightingRepository sightingRepository, ModelService modelService,
+                               BirdService birdService, ObjectMapper objectMapper,
+                               SightingBulkProperties sightingBulkProperties,
+                               SightingRollupRepository sightingRollupRepository,
+                               SightingTimeIndex sightingTimeIndex, SightingHeatmapCache sightingHeatmapCache) {
+        this.sightingRepository = sightingRepository;
+        this.modelService = modelService;
+        this.birdService = birdService;
+        this.objectMapper = objectMapper;
+        this.sightingBulkProperties = sightingBulkProperties;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingTimeIndex = sightingTimeIndex;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+    }
+
+    /**
+     * Saves the sightings of the provided JSON array.
+     * </br>
+     * Chunks are written as soon as they are read, so when the JSON becomes malformed the sightings read
+     * before are kept and the rest of the array is reported as one failed item.
+     * @param inputStream {@link InputStream} of a JSON array of {@link SightingSaveDto}
+     * @return a {@link SightingBulkResultDto} object with the outcome of each sighting, in request order
+     */
+    public SightingBulkResultDto saveSightings(InputStream inputStream) {
+        final int chunkSize = sightingBulkProperties.getChunkSize();
+        final List<SightingBulkItemDto> items = new ArrayList<>();
+        final Set<String> existingBirdIds = new HashSet<>();
+        final Set<String> checkedBirdIds = new HashSet<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException(ErrorMessages.INVALID_BULK_REQUEST);
+            }
+
+            List<SightingSaveDto> chunk = new ArrayList<>(chunkSize);
+            boolean complete = false;
+            try {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token == JsonToken.END_ARRAY) {
+                        complete = true;
+                        break;
+                    }
+                    chunk.add(getSightingSaveDto(parser.readValueAsTree()));
+                    if (chunk.size() == chunkSize) {
+                        saveChunk(chunk, items, existingBirdIds, checkedBirdIds);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            } catch (JsonProcessingException exception) {
+                // the position of the next sighting is unknown, nothing more can be read
+            }
+            saveChunk(chunk, items, existingBirdIds, checkedBirdIds);
+
+            if (!complete) {
+                items.add(new SightingBulkItemDto(items.size(), null, ErrorMessages.MALFORMED_BULK_REQUEST));
+            }
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_BULK_REQUEST, exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return new SightingBulkResultDto(items);
+    }
+
+    /**
+     * Validates and inserts a chunk of sightings, adding their outcomes to the provided items.
+     * @param chunk List of {@link SightingSaveDto}, null for an element that isn't a sighting
+     * @param items List of {@link SightingBulkItemDto} of the previous chunks
+     * @param existingBirdIds Set of bird ids already found by previous chunks
+     * @param checkedBirdIds Set of bird ids already looked up by previous chunks, found or not
+     */
+    private void saveChunk(List<SightingSaveDto> chunk, List<SightingBulkItemDto> items,
+                           Set<String> existingBirdIds, Set<String> checkedBirdIds) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        checkBirds(chunk, existingBirdIds, checkedBirdIds);
+
+        final String[] errors = new String[chunk.size()];
+        final List<Sighting> sightings = new ArrayList<>(chunk.size());
+        final List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            final SightingSaveDto sightingSaveDto = chunk.get(i);
+            if (sightingSaveDto == null) {
+                errors[i] = ErrorMessages.INVALID_BULK_ITEM;
+            } else if (!existingBirdIds.contains(sightingSaveDto.getBirdId())) {
+                errors[i] = ErrorMessages.BIRD_NOT_FOUND;
+            } else {
+                try {
+                    final Sighting sighting = modelService.getSighting(sightingSaveDto);
+                    // ids are assigned here, as bulk inserts don't report the generated ones
+                    sighting.setId(new ObjectId().toHexString());
+                    sightings.add(sighting);
+                    positions.add(i);
+                } catch (IllegalArgumentException exception) {
+                    errors[i] = exception.getMessage();
+                }
+            }
+        }
+
+        final String[] ids = new String[chunk.size()];
+        final Map<Integer, String> writeErrors = sightings.isEmpty() ? Map.of() : sightingRepository.bulkInsert(sightings);
+        final List<Sighting> insertedSightings = new ArrayList<>(sightings.size());
+        for (int j = 0; j < sightings.size(); j++) {
+            final int i = positions.get(j);
+            if (writeErrors.containsKey(j)) {
+                errors[i] = writeErrors.get(j);
+            } else {
+                ids[i] = sightings.get(j).getId();
+                insertedSightings.add(sightings.get(j));
+            }
+        }
+        if (!insertedSightings.isEmpty()) {
+            // one rollup upsert per bird, location and day of the chunk
+            sightingRollupRepository.updateCounts(List.of(), insertedSightings);
+            sightingTimeIndex.addAll(insertedSightings);
+            sightingHeatmapCache.invalidate(insertedSightings);
+        }
+
+        final int firstIndex = items.size();
+        for (int i = 0; i < chunk.size(); i++) {
+            items.add(new SightingBulkItemDto(firstIndex + i, ids[i], errors[i]));
+        }
+    }
+
+    /**
+     * Looks up, with one batched query, the birds of the chunk not checked by previous chunks.
+     * @param chunk List of {@link SightingSaveDto}
+     * @param existingBirdIds Set of bird ids found so far, completed with the ones found now
+     * @param checkedBirdIds Set of bird ids looked up so far, completed with the ones looked up now
+     */
+    private void checkBirds(List<SightingSaveDto> chunk, Set<String> existingBirdIds, Set<String> checkedBirdIds) {
+        final Set<String> birdIds = new HashSet<>();
+        for (SightingSaveDto sightingSaveDto : chunk) {
+            if (sightingSaveDto != null && sightingSaveDto.getBirdId() != null
+                    && !checkedBirdIds.contains(sightingSaveDto.getBirdId())) {
+                birdIds.add(sightingSaveDto.getBirdId());
+            }
+        }
+        if (birdIds.isEmpty()) {
+            return;
+        }
+        for (BirdResponseDto birdResponseDto : birdService.getBirdsByIds(birdIds)) {
+            existingBirdIds.add(birdResponseDto.getId());
+        }
+        checkedBirdIds.addAll(birdIds);
+    }
+
+    /**
+     * Converts an element of the JSON array into a {@link SightingSaveDto}.
+     * @param node {@link JsonNode}
+     * @return a {@link SightingSaveDto} object, or null if the element isn't a sighting
+     */
+    private SightingSaveDto getSightingSaveDto(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(node, SightingSaveDto.class);
+        } catch (JsonProcessingException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+}
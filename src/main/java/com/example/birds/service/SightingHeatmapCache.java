@@ -0,0 +1,167 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the computed heatmap tiles, in front of the heatmap aggregation.
+ * </br>
+ * Entries are evicted when the cache exceeds {@link SightingHeatmapProperties#getCacheMaximumSize()} and expire
+ * {@link SightingHeatmapProperties#getCacheExpireAfterWrite()} after being computed. Sighting writers invalidate
+ * the tiles holding the sightings they write, at every zoom level, whose time window holds the sighting day.
+ * Concurrent requests of a tile share a single computation, and a tile invalidated while being computed is not cached.
+ * With several instances, sightings written through another instance are missing until the tiles expire.
+ */
+@Component
+public class SightingHeatmapCache {
+
+    private final AsyncCache<SightingHeatmapSearch, SightingHeatmapTileDto> cache;
+
+    @Autowired
+    public SightingHeatmapCache(SightingHeatmapProperties sightingHeatmapProperties) {
+        this(sightingHeatmapProperties, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor with a custom time source, used for testing expiration.
+     * @param sightingHeatmapProperties {@link SightingHeatmapProperties}
+     * @param ticker {@link Ticker}
+     */
+    SightingHeatmapCache(SightingHeatmapProperties sightingHeatmapProperties, Ticker ticker) {
+        // tiles are computed on the calling thread, or by the reactive MongoDB driver
+        this.cache = sightingHeatmapProperties.isCacheEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(sightingHeatmapProperties.getCacheMaximumSize())
+                        .expireAfterWrite(sightingHeatmapProperties.getCacheExpireAfterWrite())
+                        .ticker(ticker)
+                        .executor(Runnable::run)
+                        .recordStats()
+                        .<SightingHeatmapSearch, SightingHeatmapTileDto>buildAsync()
+                : null;
+    }
+
+    /**
+     * Gets a tile from the cache, computing and caching it on a miss.
+     * Exceptions thrown by the loader are propagated and nothing is cached.
+     * @param search {@link SightingHeatmapSearch}
+     * @param loader Function computing the {@link SightingHeatmapTileDto}
+     * @return a {@link SightingHeatmapTileDto} object
+     */
+    public SightingHeatmapTileDto get(SightingHeatmapSearch search,
+                                      Function<SightingHeatmapSearch, SightingHeatmapTileDto> loader) {
+        if (Objects.isNull(cache)) {
+            return loader.apply(search);
+        }
+        try {
+            return cache.get(search, loader).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets a tile from the cache, computing and caching it on a miss, without blocking.
+     * Errors emitted by the loader are propagated and nothing is cached.
+     * @param search {@link SightingHeatmapSearch}
+     * @param loader Function computing the {@link SightingHeatmapTileDto}
+     * @return Mono of the {@link SightingHeatmapTileDto}
+     */
+    public Mono<SightingHeatmapTileDto> getAsync(SightingHeatmapSearch search,
+                                                 Function<SightingHeatmapSearch, Mono<SightingHeatmapTileDto>> loader) {
+        if (Objects.isNull(cache)) {
+            return loader.apply(search);
+        }
+        // a dependent future is returned, so that a cancelled request doesn't cancel the computation it shares
+        return Mono.defer(() -> Mono.fromFuture(cache.get(search, (key, executor) -> loader.apply(key).toFuture())
+                .thenApply(Function.identity())));
+    }
+
+    /**
+     * Removes the tiles holding the provided sightings, at every zoom level, whose time window holds their day.
+     * Sightings without coordinates are in no tile.
+     * @param sightings Collection of written or deleted {@link Sighting}
+     */
+    public void invalidate(Collection<Sighting> sightings) {
+        if (Objects.isNull(cache) || sightings.isEmpty()) {
+            return;
+        }
+        final Map<Long, Set<LocalDate>> datesByTile = getDatesByTile(sightings);
+        if (datesByTile.isEmpty()) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(search -> {
+            final Set<LocalDate> dates = datesByTile.get(search.getTileId());
+            return Objects.nonNull(dates) && dates.stream().anyMatch(search::isInWindow);
+        });
+    }
+
+    /**
+     * Removes all the tiles, when sightings are deleted without being read.
+     */
+    public void invalidateAll() {
+        if (Objects.nonNull(cache)) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    /**
+     * Gets the statistics of the cache since the application started.
+     * @return a {@link CacheStatsDto} object
+     */
+    public CacheStatsDto getStats() {
+        if (Objects.isNull(cache)) {
+            return new CacheStatsDto(0, 0, 1, 0, 0);
+        }
+        // runs the pending maintenance, so that expired entries are counted as evicted
+        cache.synchronous().cleanUp();
+        final CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                cache.synchronous().estimatedSize());
+    }
+
+    /**
+     * Collects the days of the provided sightings by tile holding them, at every zoom level.
+     * @param sightings Collection of {@link Sighting}
+     * @return Map of the days, null if unknown, by tile id, see {@link SightingHeatmapSearch#getTileId()}
+     */
+    static Map<Long, Set<LocalDate>> getDatesByTile(Collection<Sighting> sightings) {
+        final Map<Long, Set<LocalDate>> result = new HashMap<>();
+        for (Sighting sighting : sightings) {
+            if (Objects.isNull(sighting.getCoordinates())) {
+                continue;
+            }
+            final double longitude = sighting.getCoordinates().getX();
+            final double latitude = sighting.getCoordinates().getY();
+            final LocalDate date = Objects.isNull(sighting.getDateTime()) ? null : sighting.getDateTime().toLocalDate();
+            for (int zoom = 0; zoom <= SightingHeatmapSearch.MAX_ZOOM; zoom++) {
+                final long tileId = SightingHeatmapSearch.getTileId(zoom, SightingHeatmapSearch.getTileX(zoom, longitude),
+                        SightingHeatmapSearch.getTileY(zoom, latitude));
+                result.computeIfAbsent(tileId, key -> new HashSet<>()).add(date);
+            }
+        }
+        return result;
+    }
+}
@@ -1,25 +1,58 @@
 package com.example.birds.service;
 
+import com.example.birds.config.JoinMode;
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.config.SightingJoinProperties;
+import com.example.birds.config.SightingStorageProperties;
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.RollupRebuildDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
 import com.example.birds.model.Sighting;
 import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.BirdIndex;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingStatsSearch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Sighting Service responsible for CRUD and GET operations regarding sightings.
+ * </br>
+ * Every sighting write also updates the sighting rollups (number of sightings per bird, location and day)
+ * that serve the sighting statistics. The rollups are written after the sighting, outside of any transaction:
+ * a failure in between, or concurrent updates of the same sighting, leave them off until rebuilt.
  */
 @Service
 public class SightingService {
 
+    /**
+     * Number of sightings joined with their birds at once while streaming.
+     */
+    static final int STREAM_BATCH_SIZE = 500;
+
     private final SightingRepository sightingRepository;
 
     private final ModelService modelService;
@@ -28,13 +61,39 @@ public class SightingService {
 
     private final ValidationService validationService;
 
+    private final SightingJoinProperties sightingJoinProperties;
+
+    private final SightingStorageProperties sightingStorageProperties;
+
+    private final SightingRollupRepository sightingRollupRepository;
+
+    private final SightingTimeIndex sightingTimeIndex;
+
+    private final SightingHeatmapCache sightingHeatmapCache;
+
+    private final SightingHeatmapProperties sightingHeatmapProperties;
+
+    private final ReadFanOut readFanOut;
+
     @Autowired
     public SightingService(SightingRepository sightingRepository, ModelService modelService,
-                           BirdService birdService, ValidationService validationService) {
+                           BirdService birdService, ValidationService validationService,
+                           SightingJoinProperties sightingJoinProperties,
+                           SightingStorageProperties sightingStorageProperties,
+                           SightingRollupRepository sightingRollupRepository,
+                           SightingTimeIndex sightingTimeIndex, SightingHeatmapCache sightingHeatmapCache,
+                           SightingHeatmapProperties sightingHeatmapProperties, ReadFanOut readFanOut) {
         this.sightingRepository = sightingRepository;
         this.modelService = modelService;
         this.birdService = birdService;
         this.validationService = validationService;
+        this.sightingJoinProperties = sightingJoinProperties;
+        this.sightingStorageProperties = sightingStorageProperties;
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingTimeIndex = sightingTimeIndex;
+        this.sightingHeatmapCache = sightingHeatmapCache;
+        this.sightingHeatmapProperties = sightingHeatmapProperties;
+        this.readFanOut = readFanOut;
     }
 
     /**
@@ -48,12 +107,21 @@ public class SightingService {
         final BirdResponseDto birdResponseDto = birdService.getBirdById(sightingSaveDto.getBirdId());
 
         final Sighting sighting = modelService.getSighting(sightingSaveDto);
+        if (sightingStorageProperties.isTimeSeries()) {
+            validationService.verifyTimeSeriesSighting(sighting);
+        }
         final Sighting savedSighting = sightingRepository.save(sighting);
+        sightingRollupRepository.updateCounts(List.of(), List.of(savedSighting));
+        sightingTimeIndex.addAll(List.of(savedSighting));
+        sightingHeatmapCache.invalidate(List.of(savedSighting));
         return modelService.getSightingResponseDto(savedSighting, birdResponseDto);
     }
 
     /**
      * Updates a sighting.
+     * </br>
+     * Time-series collections don't support replacing a document, the sighting is deleted and inserted again instead:
+     * the sighting is validated before the deletion, and the replaced sighting inserted back when the insert fails.
      * @param sightingSaveDto {@link SightingSaveDto}
      * @param sightingId {@link String}
      * @return a {@link SightingResponseDto} object
@@ -65,17 +133,59 @@ public class SightingService {
 
         final Sighting sighting = modelService.getSighting(sightingSaveDto);
         sighting.setId(sightingId);
-        final Sighting updatedSighting = sightingRepository.save(sighting);
+        if (sightingStorageProperties.isTimeSeries()) {
+            validationService.verifyTimeSeriesSighting(sighting);
+        }
+        // the replaced sighting is read for removing it from the rollups, absent if the update creates it
+        final Optional<Sighting> previousSighting = sightingRepository.findById(sightingId);
+        final Sighting updatedSighting;
+        if (sightingStorageProperties.isTimeSeries()) {
+            sightingRepository.deleteById(sightingId);
+            try {
+                updatedSighting = sightingRepository.insert(sighting);
+            } catch (RuntimeException exception) {
+                // no transaction spans the deletion and the insert, the replaced sighting is restored instead
+                previousSighting.ifPresent(replacedSighting -> restore(replacedSighting, exception));
+                throw exception;
+            }
+        } else {
+            updatedSighting = sightingRepository.save(sighting);
+        }
+        sightingRollupRepository.updateCounts(previousSighting.map(List::of).orElse(List.of()),
+                List.of(updatedSighting));
+        previousSighting.ifPresent(sightingTimeIndex::remove);
+        sightingTimeIndex.addAll(List.of(updatedSighting));
+        previousSighting.ifPresent(replacedSighting -> sightingHeatmapCache.invalidate(List.of(replacedSighting)));
+        sightingHeatmapCache.invalidate(List.of(updatedSighting));
         return modelService.getSightingResponseDto(updatedSighting, birdResponseDto);
     }
 
+    /**
+     * Inserts back a sighting deleted by a failed time-series update.
+     * @param sighting {@link Sighting}
+     * @param exception {@link RuntimeException} failing the update, a failed restore being added to it as suppressed
+     */
+    private void restore(Sighting sighting, RuntimeException exception) {
+        try {
+            sightingRepository.insert(sighting);
+        } catch (RuntimeException restoreException) {
+            exception.addSuppressed(restoreException);
+        }
+    }
+
     /**
      * Deletes a sighting.
      * @param id {@link String}
      */
     @Transactional
     public void deleteSighting(String id) {
+        final Optional<Sighting> sighting = sightingRepository.findById(id);
         sightingRepository.deleteById(id);
+        sighting.ifPresent(deletedSighting -> {
+            sightingRollupRepository.updateCounts(List.of(deletedSighting), List.of());
+            sightingTimeIndex.remove(deletedSighting);
+            sightingHeatmapCache.invalidate(List.of(deletedSighting));
+        });
     }
 
     /**
@@ -97,81 +207,318 @@ public class SightingService {
      * @return a List of {@link SightingResponseDto} objects
      */
     public List<SightingResponseDto> getAllSightings() {
-
-        // rather than performing multiple queries and possible to get the same bird
-        // over and over again for its multiple sighting, we:
-        // 1. get all birds.
-        // 2. we match the birds with the sightings
-        final List<BirdResponseDto> birdResponseDTOs = birdService.getAllBirds();
+        if (sightingJoinProperties.getAll() == JoinMode.AGGREGATION) {
+            return getSightingResponseDTOs(SightingSearch.ALL);
+        }
         final List<Sighting> sightings = sightingRepository.findAll();
-
-        // this is code is not intended for production. it exists here as POC.
-        // this exists here as proof as I considered checking the consistency of the app.
-        // if the database is not consistent the application will fail returning sightings.
-        validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
-
-        return modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+        return getSightingResponseDTOs(sightings);
     }
 
     /**
-     * Gets all sighting filtered by provided criteria.
+     * Gets all sightings matching all the provided criteria, with a single query.
      * If no criteria is provided, all sightings will be returned.
      * Example of a valid LocalDateTime string "2023-07-18T10:00:00".
      * @param birdId {@link String}
-     * @param location {@link String}
-     * @param startDateTime {@link String}
-     * @param endDateTime {@link String}
+     * @param locations List of {@link String}, a sighting matches any of them
+     * @param startDateTime {@link String} exclusive, no lower bound if null
+     * @param endDateTime {@link String} exclusive, no upper bound if null
+     * @param sort {@link String} "asc" or "desc" for sorting by dateTime then id, unsorted if null
      * @return a List of {@link SightingResponseDto} objects
      */
-    public List<SightingResponseDto> getSightingsByCriteria(String birdId, String location, String startDateTime, String endDateTime) {
-        if (birdId != null) {
-            return getSightingsByBirdId(birdId);
-        } else if (location != null) {
-            return getSightingsByLocation(location);
-        } else if (startDateTime != null && endDateTime != null) {
-            return getSightingsByDateTimeInterval(startDateTime, endDateTime);
-        } else {
+    public List<SightingResponseDto> getSightingsByCriteria(String birdId, List<String> locations, String startDateTime,
+                                                            String endDateTime, String sort) {
+        final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime, endDateTime, sort);
+        if (SightingSearch.ALL.equals(search)) {
             return getAllSightings();
         }
+        // recent date-time intervals are read from memory when the time index is enabled
+        final Optional<List<Sighting>> indexedSightings = sightingTimeIndex.find(search);
+        if (indexedSightings.isPresent()) {
+            return getSightingResponseDTOs(indexedSightings.get());
+        }
+        if (Objects.nonNull(search.getBirdId())) {
+            return getSightingResponseDTOs(search.getBirdId(), () -> sightingRepository.search(search));
+        }
+        if (getJoinMode(search) == JoinMode.AGGREGATION) {
+            return getSightingResponseDTOs(search);
+        }
+        final List<Sighting> sightings = sightingRepository.search(search);
+        return getSightingResponseDTOs(sightings);
+    }
+
+    /**
+     * Gets the sightings at most radius meters away from a point, the nearest first,
+     * optionally of a single bird and inside a date-time interval.
+     * The criteria are all bounds of the 2dsphere index, so MongoDB only reads the matching sightings.
+     * @param birdId {@link String}
+     * @param startDateTime {@link String} exclusive, no lower bound if null
+     * @param endDateTime {@link String} exclusive, no upper bound if null
+     * @param longitude {@link Double}
+     * @param latitude {@link Double}
+     * @param radius {@link Double} meters
+     * @return a List of {@link SightingResponseDto} objects
+     */
+    public List<SightingResponseDto> getSightingsNear(String birdId, String startDateTime, String endDateTime,
+                                                      Double longitude, Double latitude, Double radius) {
+        return getSightingResponseDTOs(modelService.getSightingNearSearch(birdId, startDateTime, endDateTime,
+                longitude, latitude, radius));
     }
 
     /**
-     * Gets all sightings of a bird.
+     * Gets the sightings inside a polygon, optionally of a single bird and inside a date-time interval.
+     * The criteria are all bounds of the 2dsphere index, so MongoDB only reads the matching sightings.
      * @param birdId {@link String}
+     * @param startDateTime {@link String} exclusive, no lower bound if null
+     * @param endDateTime {@link String} exclusive, no upper bound if null
+     * @param polygon {@link String} "longitude,latitude" positions separated by ";"
+     * @param sort {@link String} "asc" or "desc" for sorting by dateTime then id, unsorted if null
      * @return a List of {@link SightingResponseDto} objects
      */
-    private List<SightingResponseDto> getSightingsByBirdId(String birdId) {
-        final List<BirdResponseDto> birdResponseDTOs = List.of(birdService.getBirdById(birdId));
-        final List<Sighting> sightings = sightingRepository.findByBirdId(birdId);
-        validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
-        return modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+    public List<SightingResponseDto> getSightingsWithin(String birdId, String startDateTime, String endDateTime,
+                                                        String polygon, String sort) {
+        return getSightingResponseDTOs(modelService.getSightingWithinSearch(birdId, startDateTime, endDateTime,
+                polygon, sort));
+    }
+
+    /**
+     * Counts the sightings matching all the provided criteria, applied as in
+     * {@link #getSightingsByCriteria(String, List, String, String, String)}.
+     * Recent date-time intervals are counted in memory when the time index is enabled, without reading MongoDB.
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @return long
+     */
+    public long countSightingsByCriteria(String birdId, List<String> locations, String startDateTime,
+                                         String endDateTime) {
+        final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime, endDateTime,
+                null);
+        final OptionalLong indexedCount = sightingTimeIndex.count(search);
+        return indexedCount.isPresent() ? indexedCount.getAsLong() : sightingRepository.count(search);
+    }
+
+    /**
+     * Gets a page of sightings matching all the provided criteria, sorted by dateTime then id.
+     * Criteria are applied as in {@link #getSightingsByCriteria(String, List, String, String, String)},
+     * pages are sorted ascending unless sort is "desc".
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param cursor {@link String} returned with the previous page, null for the first page
+     * @param limit {@link Integer} page size
+     * @return a {@link CursorPageDto} of {@link SightingResponseDto} objects
+     */
+    public CursorPageDto<SightingResponseDto> getSightingsPage(String birdId, List<String> locations,
+                                                               String startDateTime, String endDateTime, String sort,
+                                                               String cursor, Integer limit) {
+        final PageCursor after = modelService.getPageCursor(cursor);
+        final int pageLimit = modelService.getPageLimit(limit);
+        final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime, endDateTime, sort);
+
+        // one extra sighting is read to know if there is a next page
+        final List<Sighting> sightings = sightingRepository.findPage(search, after, pageLimit + 1);
+        if (sightings.size() <= pageLimit) {
+            return new CursorPageDto<>(getSightingResponseDTOs(sightings), null);
+        }
+        final List<Sighting> page = sightings.subList(0, pageLimit);
+        return new CursorPageDto<>(getSightingResponseDTOs(page), modelService.getCursor(page.get(pageLimit - 1)));
     }
 
     /**
-     * Gets all sightings for a location.
+     * Streams the sightings matching all the provided criteria to the provided consumer, straight from a database cursor.
+     * Sightings are joined with their birds in batches of {@link #STREAM_BATCH_SIZE},
+     * so memory use doesn't depend on the number of sightings.
+     * Criteria are applied as in {@link #getSightingsByCriteria(String, List, String, String, String)}.
+     * @param birdId {@link String}
+     * @param locations List of {@link String}
+     * @param startDateTime {@link String}
+     * @param endDateTime {@link String}
+     * @param sort {@link String}
+     * @param consumer {@link Consumer} of {@link SightingResponseDto}
+     */
+    public void streamSightingsByCriteria(String birdId, List<String> locations, String startDateTime,
+                                          String endDateTime, String sort, Consumer<SightingResponseDto> consumer) {
+        final SightingSearch search = modelService.getSightingSearch(birdId, locations, startDateTime, endDateTime, sort);
+        try (Stream<Sighting> sightings = sightingRepository.stream(search)) {
+            List<Sighting> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            final Iterator<Sighting> iterator = sightings.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+                    for (SightingResponseDto sightingResponseDto : getSightingResponseDTOs(batch)) {
+                        consumer.accept(sightingResponseDto);
+                    }
+                    batch = new ArrayList<>(STREAM_BATCH_SIZE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of sightings per time bucket, and per bird and location when grouped by them,
+     * read from the sighting rollups instead of the sightings.
+     * Example of a valid date string "2023-07-18".
+     * @param birdId {@link String}
      * @param location {@link String}
+     * @param startDate {@link String} inclusive
+     * @param endDate {@link String} inclusive
+     * @param bucket {@link String} "day" (default), "month" or "year"
+     * @param groupBy List of {@link String}, "bird" and/or "location", both when null
+     * @return a List of {@link SightingStatsDto} objects, sorted by bucket, bird id then location
+     */
+    public List<SightingStatsDto> getSightingStats(String birdId, String location, String startDate, String endDate,
+                                                   String bucket, List<String> groupBy) {
+        final SightingStatsSearch search = modelService.getSightingStatsSearch(birdId, location, startDate, endDate,
+                bucket, groupBy);
+        return sightingRollupRepository.getStats(search);
+    }
+
+    /**
+     * Gets the number of sightings per grid cell of a heatmap tile, see {@link SightingHeatmapSearch} for the grid.
+     * Tiles are computed with a single aggregation and served from the {@link SightingHeatmapCache} afterwards.
+     * Example of a valid date string "2023-07-18".
+     * @param zoom int between 0 and {@link SightingHeatmapSearch#MAX_ZOOM}
+     * @param x int column of the tile
+     * @param y int row of the tile
+     * @param startDate {@link String} inclusive
+     * @param endDate {@link String} inclusive
+     * @return a {@link SightingHeatmapTileDto} object
+     */
+    public SightingHeatmapTileDto getHeatmapTile(int zoom, int x, int y, String startDate, String endDate) {
+        final SightingHeatmapSearch search = modelService.getSightingHeatmapSearch(zoom, x, y, startDate, endDate,
+                sightingHeatmapProperties.getCells());
+        return sightingHeatmapCache.get(search,
+                key -> modelService.getSightingHeatmapTileDto(key, sightingRepository.getHeatmapCells(key)));
+    }
+
+    /**
+     * Regenerates the sighting rollups from the sightings, fixing any drift.
+     * @return a {@link RollupRebuildDto} object
+     */
+    public RollupRebuildDto rebuildSightingRollups() {
+        final long start = System.nanoTime();
+        final long rollupCount = sightingRollupRepository.rebuild();
+        return new RollupRebuildDto(rollupCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Selects the join mode configured for the most selective criteria of the provided search:
+     * the locations, then the date-time interval.
+     * @param search {@link SightingSearch}
+     * @return a {@link JoinMode}
+     */
+    private JoinMode getJoinMode(SightingSearch search) {
+        if (!search.getLocations().isEmpty()) {
+            return sightingJoinProperties.getLocation();
+        } else if (search.hasDateTimeInterval()) {
+            return sightingJoinProperties.getDateTime();
+        }
+        return sightingJoinProperties.getAll();
+    }
+
+    /**
+     * Joins the provided sightings with their birds.
+     * Rather than loading all birds, or performing one query per sighting and getting the same bird
+     * over and over again for its multiple sightings, we:
+     * 1. collect the distinct bird ids referenced by the sightings.
+     * 2. fetch only those birds with batched "$in" queries, the batches at the same time, see {@link ReadFanOut}.
+     * 3. match the birds with the sightings.
+     * @param sightings List of {@link Sighting}
      * @return a List of {@link SightingResponseDto} objects
      */
-    private List<SightingResponseDto> getSightingsByLocation(String location) {
-        final List<BirdResponseDto> birdResponseDTOs = birdService.getAllBirds();
-        final List<Sighting> sightings = sightingRepository.findByLocation(location);
-        validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
-        return modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+    private List<SightingResponseDto> getSightingResponseDTOs(List<Sighting> sightings) {
+        final List<BirdResponseDto> birdResponseDTOs = getBirdsByIds(getBirdIds(sightings));
+
+        // this is code is not intended for production. it exists here as POC.
+        // this exists here as proof as I considered checking the consistency of the app.
+        // if the database is not consistent the application will fail returning sightings.
+        // the index built while validating is reused for the join, so bird ids are hashed once per request.
+        final BirdIndex birdIndex = validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
+
+        return modelService.getSightingResponseDTOs(sightings, birdIndex);
     }
 
     /**
-     * Gets all sightings for an interval of LocalDateTime strings.
-     * Example of a valid LocalDateTime string "2023-07-18T10:00:00".
-     * @param startDateTimeString {@link String}
-     * @param endDateTimeString {@link String}
+     * Gets the sightings matching the provided geo search, joined with their birds.
+     * As for the other searches, an unknown bird is reported rather than matching no sighting.
+     * @param search {@link SightingGeoSearch}
+     * @return a List of {@link SightingResponseDto} objects
+     */
+    private List<SightingResponseDto> getSightingResponseDTOs(SightingGeoSearch search) {
+        if (Objects.nonNull(search.getBirdId())) {
+            return getSightingResponseDTOs(search.getBirdId(), () -> sightingRepository.geoSearch(search));
+        }
+        return getSightingResponseDTOs(sightingRepository.geoSearch(search));
+    }
+
+    /**
+     * Gets the sightings of a single bird, joined with it.
+     * The bird is read while the sightings are, see {@link ReadFanOut}, and an unknown bird is reported
+     * rather than matching no sighting.
+     * @param birdId {@link String}
+     * @param sightingsRead Supplier reading the sightings of the bird
      * @return a List of {@link SightingResponseDto} objects
      */
-    private List<SightingResponseDto> getSightingsByDateTimeInterval(String startDateTimeString, String endDateTimeString) {
-        final LocalDateTime startDateTime = modelService.getDateTime(startDateTimeString);
-        final LocalDateTime endDateTime = modelService.getDateTime(endDateTimeString);
-        final List<BirdResponseDto> birdResponseDTOs = birdService.getAllBirds();
-        final List<Sighting> sightings = sightingRepository.findByDateTimeBetween(startDateTime, endDateTime);
-        validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
-        return modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+    private List<SightingResponseDto> getSightingResponseDTOs(String birdId, Supplier<List<Sighting>> sightingsRead) {
+        final ReadFanOut.Fork<BirdResponseDto> birdRead = readFanOut.fork(() -> birdService.getBirdById(birdId));
+        final List<Sighting> sightings;
+        try {
+            sightings = sightingsRead.get();
+        } catch (RuntimeException exception) {
+            birdRead.cancel();
+            throw exception;
+        }
+        final List<BirdResponseDto> birdResponseDTOs = List.of(birdRead.join());
+        final BirdIndex birdIndex = validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
+        return modelService.getSightingResponseDTOs(sightings, birdIndex);
+    }
+
+    /**
+     * Reads the birds having the provided ids, with one read per {@link BirdService#FIND_BY_IDS_CHUNK_SIZE} ids,
+     * at the same time.
+     * @param birdIds Set of {@link String}
+     * @return a List of {@link BirdResponseDto} objects
+     */
+    private List<BirdResponseDto> getBirdsByIds(Set<String> birdIds) {
+        if (birdIds.size() <= BirdService.FIND_BY_IDS_CHUNK_SIZE) {
+            return birdService.getBirdsByIds(birdIds);
+        }
+        final List<String> idList = new ArrayList<>(birdIds);
+        final List<Supplier<List<BirdResponseDto>>> reads = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += BirdService.FIND_BY_IDS_CHUNK_SIZE) {
+            final List<String> chunk = idList.subList(from, Math.min(from + BirdService.FIND_BY_IDS_CHUNK_SIZE,
+                    idList.size()));
+            reads.add(() -> birdService.getBirdsByIds(chunk));
+        }
+        final List<BirdResponseDto> birdResponseDTOs = new ArrayList<>(birdIds.size());
+        readFanOut.readAll(reads).forEach(birdResponseDTOs::addAll);
+        return birdResponseDTOs;
+    }
+
+    /**
+     * Gets the sightings matching the provided search, joined with their birds by MongoDB.
+     * @param search {@link SightingSearch}
+     * @return a List of {@link SightingResponseDto} objects
+     */
+    private List<SightingResponseDto> getSightingResponseDTOs(SightingSearch search) {
+        final List<SightingResponseDto> sightingResponseDTOs = sightingRepository.findSightingResponseDTOs(search);
+        validationService.verifyOrphanRecords(sightingResponseDTOs);
+        return sightingResponseDTOs;
+    }
+
+    /**
+     * Collects the distinct bird ids referenced by the provided sightings, in encounter order.
+     * @param sightings List of {@link Sighting}
+     * @return a Set of {@link String}
+     */
+    static Set<String> getBirdIds(List<Sighting> sightings) {
+        final Set<String> result = new LinkedHashSet<>();
+        for (Sighting sighting : sightings) {
+            result.add(sighting.getBirdId());
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
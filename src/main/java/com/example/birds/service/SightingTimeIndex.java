@@ -0,0 +1,337 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingTimeIndexProperties;
+import com.example.birds.dto.SightingTimeIndexStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingTimeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the recent sightings by date-time, serving date-time interval searches and counts
+ * without reading MongoDB, see {@link SightingTimeline}.
+ * </br>
+ * Once the application started, the sightings of the last {@link SightingTimeIndexProperties#getRetention()} are
+ * loaded in the background; searches are read from MongoDB until then. Sighting writers keep the index current.
+ * When the index exceeds {@link SightingTimeIndexProperties#getMemoryBudget()}, its oldest sightings are dropped:
+ * the index then holds every sighting after its retained date-time, and serves the searches starting after it.
+ * Searches by bird or location, and searches starting earlier, are read from MongoDB.
+ * </br>
+ * With several instances, sightings written through another instance are missing until the next startup.
+ */
+@Component
+public class SightingTimeIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SightingTimeIndex.class);
+
+    /**
+     * Number of loaded sightings added to the index at once, between two writes.
+     */
+    static final int LOAD_BATCH_SIZE = 1000;
+
+    private final SightingRepository sightingRepository;
+
+    private final SightingTimeIndexProperties sightingTimeIndexProperties;
+
+    private final Clock clock;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong fallbackCount = new AtomicLong();
+
+    // guarded by lock
+    private SightingTimeline timeline = new SightingTimeline();
+
+    // guarded by lock, the key after which all the sightings are held
+    private long retainedAfter = Long.MAX_VALUE;
+
+    // guarded by lock, sightings and birds written while loading, the writes already applied their latest state
+    private Set<String> writtenSightingIds;
+
+    private Set<String> deletedBirdIds;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public SightingTimeIndex(SightingRepository sightingRepository,
+                             SightingTimeIndexProperties sightingTimeIndexProperties) {
+        this(sightingRepository, sightingTimeIndexProperties, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor with a custom clock, used for testing the retention.
+     * @param sightingRepository {@link SightingRepository}
+     * @param sightingTimeIndexProperties {@link SightingTimeIndexProperties}
+     * @param clock {@link Clock}
+     */
+    SightingTimeIndex(SightingRepository sightingRepository, SightingTimeIndexProperties sightingTimeIndexProperties,
+                      Clock clock) {
+        this.sightingRepository = sightingRepository;
+        this.sightingTimeIndexProperties = sightingTimeIndexProperties;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts loading the index in the background, when enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (sightingTimeIndexProperties.isEnabled()) {
+            final Thread thread = new Thread(this::load, "sighting-time-index");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Loads the sightings of the retention window, in date-time order, so that the memory budget drops the oldest.
+     * Writes received meanwhile are applied right away, and the loaded state of the sightings they wrote is skipped.
+     */
+    void load() {
+        final LocalDateTime start = LocalDateTime.now(clock).minus(sightingTimeIndexProperties.getRetention())
+                .truncatedTo(ChronoUnit.MILLIS);
+        withWriteLock(() -> {
+            retainedAfter = SightingTimeline.toEpochMilli(start);
+            writtenSightingIds = new HashSet<>();
+            deletedBirdIds = new HashSet<>();
+            return null;
+        });
+        try (Stream<Sighting> sightings = sightingRepository.stream(
+                new SightingSearch(null, null, start, null, Sort.Direction.ASC))) {
+            final Iterator<Sighting> iterator = sightings.iterator();
+            final List<Sighting> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == LOAD_BATCH_SIZE || !iterator.hasNext()) {
+                    withWriteLock(() -> {
+                        for (Sighting sighting : batch) {
+                            if (!writtenSightingIds.contains(sighting.getId())
+                                    && !deletedBirdIds.contains(sighting.getBirdId())) {
+                                addLocked(sighting);
+                            }
+                        }
+                        return null;
+                    });
+                    batch.clear();
+                }
+            }
+            final SightingTimeIndexStatsDto stats = withWriteLock(() -> {
+                writtenSightingIds = null;
+                deletedBirdIds = null;
+                ready = true;
+                return getStatsLocked();
+            });
+            LOGGER.info("Sighting time index loaded, {} sightings after {}, {} bytes", stats.getSize(),
+                    stats.getRetainedAfter(), stats.getEstimatedBytes());
+        } catch (RuntimeException exception) {
+            withWriteLock(() -> {
+                timeline = new SightingTimeline();
+                writtenSightingIds = null;
+                deletedBirdIds = null;
+                return null;
+            });
+            LOGGER.warn("Sighting time index failed to load, searches are read from MongoDB", exception);
+        }
+    }
+
+    /**
+     * Adds written sightings, or their new state.
+     * @param sightings List of {@link Sighting}
+     */
+    public void addAll(List<Sighting> sightings) {
+        if (!sightingTimeIndexProperties.isEnabled() || sightings.isEmpty()) {
+            return;
+        }
+        withWriteLock(() -> {
+            for (Sighting sighting : sightings) {
+                if (Objects.nonNull(writtenSightingIds)) {
+                    writtenSightingIds.add(sighting.getId());
+                }
+                addLocked(sighting);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Removes a deleted sighting, or the former state of an updated sighting.
+     * Sightings without date-time are not indexed, no date-time interval matches them.
+     * @param sighting {@link Sighting}
+     */
+    public void remove(Sighting sighting) {
+        if (!sightingTimeIndexProperties.isEnabled()) {
+            return;
+        }
+        withWriteLock(() -> {
+            if (Objects.nonNull(writtenSightingIds)) {
+                writtenSightingIds.add(sighting.getId());
+            }
+            return Objects.nonNull(sighting.getDateTime()) && timeline.remove(sighting.getId(), sighting.getDateTime());
+        });
+    }
+
+    /**
+     * Removes the sightings of a deleted bird.
+     * @param birdId {@link String}
+     */
+    public void removeByBirdId(String birdId) {
+        if (!sightingTimeIndexProperties.isEnabled()) {
+            return;
+        }
+        withWriteLock(() -> {
+            if (Objects.nonNull(deletedBirdIds)) {
+                deletedBirdIds.add(birdId);
+            }
+            return timeline.removeByBirdId(birdId);
+        });
+    }
+
+    /**
+     * Finds the sightings of a search from memory, when the index holds all of them.
+     * @param search {@link SightingSearch}
+     * @return Optional List of {@link Sighting}, sorted by date-time then id, empty when read from MongoDB
+     */
+    public Optional<List<Sighting>> find(SightingSearch search) {
+        if (!isCandidate(search)) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!isServedLocked(search)) {
+                fallbackCount.incrementAndGet();
+                return Optional.empty();
+            }
+            hitCount.incrementAndGet();
+            return Optional.of(timeline.find(getFromKey(search), getToKey(search),
+                    search.getDirection() == Sort.Direction.DESC));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the sightings of a search from memory, when the index holds all of them.
+     * @param search {@link SightingSearch}
+     * @return OptionalLong, empty when counted by MongoDB
+     */
+    public OptionalLong count(SightingSearch search) {
+        if (!isCandidate(search)) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!isServedLocked(search)) {
+                fallbackCount.incrementAndGet();
+                return OptionalLong.empty();
+            }
+            hitCount.incrementAndGet();
+            return OptionalLong.of(timeline.count(getFromKey(search), getToKey(search)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the state of the index.
+     * @return a {@link SightingTimeIndexStatsDto} object
+     */
+    public SightingTimeIndexStatsDto getStats() {
+        lock.readLock().lock();
+        try {
+            return getStatsLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index could serve the search: enabled, and a date-time interval only, with a start.
+     * @param search {@link SightingSearch}
+     * @return boolean
+     */
+    private boolean isCandidate(SightingSearch search) {
+        return sightingTimeIndexProperties.isEnabled() && Objects.isNull(search.getBirdId())
+                && search.getLocations().isEmpty() && Objects.nonNull(search.getStartDateTime());
+    }
+
+    private boolean isServedLocked(SightingSearch search) {
+        return ready && getFromKey(search) >= retainedAfter;
+    }
+
+    /**
+     * Adds a sighting when it comes after the retained date-time, then drops the oldest sightings over the budget.
+     * Sightings without date-time are skipped, no date-time interval matches them.
+     * @param sighting {@link Sighting}
+     */
+    private void addLocked(Sighting sighting) {
+        if (Objects.isNull(sighting.getDateTime())
+                || SightingTimeline.toEpochMilli(sighting.getDateTime()) <= retainedAfter) {
+            return;
+        }
+        timeline.add(sighting);
+        final long memoryBudget = sightingTimeIndexProperties.getMemoryBudget().toBytes();
+        while (!timeline.isEmpty() && timeline.getEstimatedBytes() > memoryBudget) {
+            retainedAfter = Math.max(retainedAfter, timeline.removeOldestChunk());
+        }
+    }
+
+    private SightingTimeIndexStatsDto getStatsLocked() {
+        final String retained = ready || Objects.nonNull(writtenSightingIds)
+                ? SightingTimeline.toDateTime(retainedAfter).toString()
+                : null;
+        return new SightingTimeIndexStatsDto(ready, timeline.size(), timeline.getEstimatedBytes(),
+                sightingTimeIndexProperties.getMemoryBudget().toBytes(), retained, hitCount.get(),
+                fallbackCount.get());
+    }
+
+    /**
+     * Gets the exclusive lower key of a search, truncated to milliseconds as MongoDB does.
+     */
+    private static long getFromKey(SightingSearch search) {
+        return SightingTimeline.toEpochMilli(search.getStartDateTime());
+    }
+
+    /**
+     * Gets the exclusive upper key of a search, truncated to milliseconds as MongoDB does.
+     */
+    private static long getToKey(SightingSearch search) {
+        return Objects.isNull(search.getEndDateTime())
+                ? Long.MAX_VALUE
+                : SightingTimeline.toEpochMilli(search.getEndDateTime());
+    }
+
+    private <T> T withWriteLock(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.birds.service;
 
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.model.Sighting;
+import com.example.birds.util.BirdIndex;
 import com.example.birds.util.ErrorMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -15,30 +20,96 @@ import java.util.Objects;
 @Service
 public class ValidationService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidationService.class);
+
+    /**
+     * Maximum number of orphan sighting ids listed in the error message, the full list is logged.
+     */
+    static final int MAX_REPORTED_ORPHAN_IDS = 10;
+
     /**
      * This method verifies the integrity of sightings by attempting to match sighting.birdId with bird.id(s).
-     * If we don't have a match an {@link IllegalStateException} will be thrown.
+     * The bird ids are hashed once into a {@link BirdIndex}, then every sighting is checked with a single lookup.
+     * If we don't have a match an {@link IllegalStateException} listing the orphan sighting ids will be thrown.
      * If we call this method with null parameters an {@link RuntimeException} will be thrown.
      * @param sightings List of {@link Sighting}
      * @param birdResponseDTOs list of {@link BirdResponseDto}
+     * @return the {@link BirdIndex} of the provided birds, to be reused when joining the sightings with their birds
      */
-    public void verifyOrphanRecords(List<Sighting> sightings, List<BirdResponseDto> birdResponseDTOs) {
+    public BirdIndex verifyOrphanRecords(List<Sighting> sightings, List<BirdResponseDto> birdResponseDTOs) {
         if (Objects.isNull(sightings) || Objects.isNull(birdResponseDTOs)) {
             throw new RuntimeException(ErrorMessages.NULL_PARAMETER_ERROR);
         }
 
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<String> orphanIds = findOrphanRecords(sightings, birdIndex);
+        if (!orphanIds.isEmpty()) {
+            throw new IllegalStateException(getOrphanRecordsError(orphanIds));
+        }
+        return birdIndex;
+    }
+
+    /**
+     * Verifies that a sighting can be stored in a time-series collection, which rejects documents without date-time.
+     * Called before any write, so that a rejected sighting doesn't leave a partial update behind.
+     * @param sighting {@link Sighting}
+     */
+    public void verifyTimeSeriesSighting(Sighting sighting) {
+        if (Objects.isNull(sighting.getDateTime())) {
+            throw new IllegalArgumentException(ErrorMessages.MISSING_DATETIME);
+        }
+    }
+
+    /**
+     * Finds, in one pass, all the sightings whose bird is missing from the provided index.
+     * @param sightings List of {@link Sighting}
+     * @param birdIndex {@link BirdIndex}
+     * @return List of orphan sighting ids, empty if there are no orphan records
+     */
+    public List<String> findOrphanRecords(List<Sighting> sightings, BirdIndex birdIndex) {
+        final List<String> result = new ArrayList<>();
         for (Sighting sighting : sightings) {
-            boolean found = false;
-            for (BirdResponseDto birdResponseDto : birdResponseDTOs) {
-                if (sighting.getBirdId().equals(birdResponseDto.getId())) {
-                    found = true;
-                    break;
-                }
+            if (!birdIndex.contains(sighting.getBirdId())) {
+                result.add(sighting.getId());
             }
+        }
+        return result;
+    }
+
+    /**
+     * This method verifies the integrity of sightings already joined with their birds (for example by MongoDB),
+     * where an orphan sighting is a sighting without a bird.
+     * If orphan sightings are found an {@link IllegalStateException} listing their ids will be thrown.
+     * @param sightingResponseDTOs List of {@link SightingResponseDto}
+     */
+    public void verifyOrphanRecords(List<SightingResponseDto> sightingResponseDTOs) {
+        if (Objects.isNull(sightingResponseDTOs)) {
+            throw new RuntimeException(ErrorMessages.NULL_PARAMETER_ERROR);
+        }
 
-            if (!found) {
-                throw new IllegalStateException(ErrorMessages.ORPHAN_RECORDS_ERROR);
+        final List<String> orphanIds = new ArrayList<>();
+        for (SightingResponseDto sightingResponseDto : sightingResponseDTOs) {
+            if (Objects.isNull(sightingResponseDto.getBirdResponseDto())) {
+                orphanIds.add(sightingResponseDto.getId());
             }
         }
+        if (!orphanIds.isEmpty()) {
+            throw new IllegalStateException(getOrphanRecordsError(orphanIds));
+        }
+    }
+
+    /**
+     * Builds the orphan records error message, listing at most {@link #MAX_REPORTED_ORPHAN_IDS} ids so that
+     * the message stays small however many sightings are orphans. The full list is logged when it is cut.
+     * @param orphanIds List of orphan sighting ids
+     * @return {@link String}
+     */
+    private static String getOrphanRecordsError(List<String> orphanIds) {
+        if (orphanIds.size() <= MAX_REPORTED_ORPHAN_IDS) {
+            return String.format(ErrorMessages.ORPHAN_RECORDS_IDS_ERROR, orphanIds);
+        }
+        LOGGER.warn("{} orphan sightings detected, ids: {}", orphanIds.size(), orphanIds);
+        return String.format(ErrorMessages.ORPHAN_RECORDS_MORE_IDS_ERROR, orphanIds.subList(0, MAX_REPORTED_ORPHAN_IDS),
+                orphanIds.size() - MAX_REPORTED_ORPHAN_IDS);
     }
 }
@@ -0,0 +1,130 @@
+package com.example.birds.util;
+
+import com.example.birds.dto.BirdResponseDto;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Open addressing hash index of {@link BirdResponseDto} objects keyed by bird id.
+ * </br>
+ * Used for joining sightings with their birds in linear time: the index is built once per request
+ * and every sighting is then matched with a single probe instead of a scan over all birds.
+ * </br>
+ * Keys and values are kept in two parallel arrays (linear probing, power of two capacity),
+ * which avoids the entry objects and boxing of a {@link java.util.HashMap}.
+ * This class is not thread safe, instances are meant to be confined to one request.
+ */
+public final class BirdIndex {
+
+    private static final int MIN_CAPACITY = 2;
+
+    private final String[] keys;
+
+    private final BirdResponseDto[] values;
+
+    private final int mask;
+
+    private int size;
+
+    /**
+     * Creates an empty index able to hold the expected number of birds without resizing.
+     * @param expectedSize int
+     */
+    public BirdIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(ErrorMessages.NEGATIVE_SIZE_ERROR);
+        }
+        // keep the load factor at or below 0.5 so that probe sequences stay short
+        final int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        this.keys = new String[capacity];
+        this.values = new BirdResponseDto[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Builds an index containing all the provided birds.
+     * @param birdResponseDTOs List of {@link BirdResponseDto}
+     * @return a {@link BirdIndex} object
+     */
+    public static BirdIndex of(List<BirdResponseDto> birdResponseDTOs) {
+        if (Objects.isNull(birdResponseDTOs)) {
+            throw new RuntimeException(ErrorMessages.NULL_PARAMETER_ERROR);
+        }
+        final BirdIndex result = new BirdIndex(birdResponseDTOs.size());
+        for (BirdResponseDto birdResponseDto : birdResponseDTOs) {
+            result.put(birdResponseDto);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a bird to the index. A bird having the same id as an indexed bird replaces it.
+     * @param birdResponseDto {@link BirdResponseDto}
+     */
+    public void put(BirdResponseDto birdResponseDto) {
+        final String key = birdResponseDto.getId();
+        int slot = slot(key);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                values[slot] = birdResponseDto;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == mask) {
+            throw new IllegalStateException(ErrorMessages.INDEX_FULL_ERROR);
+        }
+        keys[slot] = key;
+        values[slot] = birdResponseDto;
+        size++;
+    }
+
+    /**
+     * Finds the bird having the provided id.
+     * @param birdId {@link String}
+     * @return a {@link BirdResponseDto} object or null if the bird is not indexed
+     */
+    public BirdResponseDto get(String birdId) {
+        if (birdId == null) {
+            return null;
+        }
+        int slot = slot(birdId);
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.equals(birdId)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a bird having the provided id is indexed.
+     * @param birdId {@link String}
+     * @return true if the bird is indexed
+     */
+    public boolean contains(String birdId) {
+        return get(birdId) != null;
+    }
+
+    /**
+     * Number of indexed birds.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Computes the first slot probed for a key.
+     * The hash code is mixed so that ids sharing a common prefix do not cluster in neighbouring slots.
+     * @param key {@link String}
+     * @return int
+     */
+    private int slot(String key) {
+        final int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.birds.util;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria of a bird search, all optional and combined with AND.
+ * </br>
+ * A bird matches when it has the name, the color, and a weight and a height inside the ranges.
+ * The range bounds are inclusive and either one can be left open.
+ * Results are sorted by the sort field then id when one is provided, and left in natural order otherwise.
+ */
+public final class BirdSearch {
+
+    /**
+     * Fields the birds can be sorted by.
+     */
+    public static final List<String> SORT_FIELDS = List.of("name", "color", "weight", "height");
+
+    /**
+     * Search matching all the birds, in natural order.
+     */
+    public static final BirdSearch ALL = new BirdSearch(null, null, null, null, null, null, null, null);
+
+    private final String name;
+
+    private final String color;
+
+    private final Double minWeight;
+
+    private final Double maxWeight;
+
+    private final Double minHeight;
+
+    private final Double maxHeight;
+
+    private final String sortField;
+
+    private final Sort.Direction direction;
+
+    public BirdSearch(String name, String color, Double minWeight, Double maxWeight, Double minHeight,
+                      Double maxHeight, String sortField, Sort.Direction direction) {
+        this.name = name;
+        this.color = color;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.sortField = sortField;
+        this.direction = Objects.isNull(sortField) ? null : Objects.requireNonNullElse(direction, Sort.Direction.ASC);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Double getMinWeight() {
+        return minWeight;
+    }
+
+    public Double getMaxWeight() {
+        return maxWeight;
+    }
+
+    public Double getMinHeight() {
+        return minHeight;
+    }
+
+    public Double getMaxHeight() {
+        return maxHeight;
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Whether the search restricts the weight of the birds.
+     * @return boolean
+     */
+    public boolean hasWeightRange() {
+        return Objects.nonNull(minWeight) || Objects.nonNull(maxWeight);
+    }
+
+    /**
+     * Whether the search restricts the height of the birds.
+     * @return boolean
+     */
+    public boolean hasHeightRange() {
+        return Objects.nonNull(minHeight) || Objects.nonNull(maxHeight);
+    }
+
+    /**
+     * Whether the results are sorted by a field instead of the natural or the id order.
+     * @return boolean
+     */
+    public boolean isSorted() {
+        return Objects.nonNull(sortField);
+    }
+
+    /**
+     * Builds the query criteria, a single document with one condition per provided field.
+     * @return a {@link Criteria} object, matching all the birds when no field is provided
+     */
+    public Criteria getCriteria() {
+        final Criteria criteria = new Criteria();
+        if (Objects.nonNull(name)) {
+            criteria.and("name").is(name);
+        }
+        if (Objects.nonNull(color)) {
+            criteria.and("color").is(color);
+        }
+        if (hasWeightRange()) {
+            addRange(criteria.and("weight"), minWeight, maxWeight);
+        }
+        if (hasHeightRange()) {
+            addRange(criteria.and("height"), minHeight, maxHeight);
+        }
+        return criteria;
+    }
+
+    /**
+     * Builds the sort of the results, by the sort field then id so that equal values keep a stable order.
+     * @return a {@link Sort} object, unsorted if the search has no sort field
+     */
+    public Sort getSort() {
+        return isSorted() ? Sort.by(direction, sortField, "_id") : Sort.unsorted();
+    }
+
+    /**
+     * Recommends the compound index serving this search best, following the equality, sort, range rule:
+     * the fields compared for equality first, then the sort field, then the range fields, then the id.
+     * </br>
+     * Equality fields narrow the index scan to one value, the sort field then reads the matches already sorted
+     * and the range fields are checked on the index keys, without reading the documents.
+     * @return the keys of the index as a {@link Document}, all ascending as the index can be read both ways
+     */
+    public Document getRecommendedIndex() {
+        final Document keys = new Document();
+        if (Objects.nonNull(name)) {
+            keys.append("name", 1);
+        }
+        if (Objects.nonNull(color)) {
+            keys.append("color", 1);
+        }
+        if (isSorted()) {
+            keys.putIfAbsent(sortField, 1);
+        }
+        if (hasWeightRange()) {
+            keys.putIfAbsent("weight", 1);
+        }
+        if (hasHeightRange()) {
+            keys.putIfAbsent("height", 1);
+        }
+        keys.append("_id", 1);
+        return keys;
+    }
+
+    /**
+     * Adds the inclusive bounds of a range, the missing ones being left open.
+     * @param field {@link Criteria} of the field
+     * @param min {@link Double}
+     * @param max {@link Double}
+     */
+    private static void addRange(Criteria field, Double min, Double max) {
+        if (Objects.nonNull(min)) {
+            field.gte(min);
+        }
+        if (Objects.nonNull(max)) {
+            field.lte(max);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BirdSearch that = (BirdSearch) o;
+        return Objects.equals(name, that.name) && Objects.equals(color, that.color)
+                && Objects.equals(minWeight, that.minWeight) && Objects.equals(maxWeight, that.maxWeight)
+                && Objects.equals(minHeight, that.minHeight) && Objects.equals(maxHeight, that.maxHeight)
+                && Objects.equals(sortField, that.sortField) && direction == that.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, color, minWeight, maxWeight, minHeight, maxHeight, sortField, direction);
+    }
+}
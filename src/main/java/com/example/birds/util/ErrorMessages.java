@@ -10,8 +10,59 @@ public final class ErrorMessages {
 
     public static final String NULL_PARAMETER_ERROR = "Method doesn't accept null parameters!";
     public static final String ORPHAN_RECORDS_ERROR = "Orphan sightings record detected!";
+    public static final String ORPHAN_RECORDS_IDS_ERROR = "Orphan sightings record detected! Sighting ids: %s";
+    public static final String ORPHAN_RECORDS_MORE_IDS_ERROR =
+            "Orphan sightings record detected! Sighting ids: %s and %d more";
 
     public static final String INVALID_DATETIME = "Invalid dateTime provided!";
+    public static final String MISSING_DATETIME = "Missing dateTime, time-series sightings require it!";
+    public static final String INVALID_DATE = "Invalid date provided, the expected format is 2023-07-18!";
+    public static final String INVALID_BUCKET = "Invalid bucket provided, it must be day, month or year!";
+    public static final String INVALID_GROUP_BY = "Invalid groupBy provided, it must be bird and/or location!";
+    public static final String INVALID_CURSOR = "Invalid cursor provided!";
+    public static final String INVALID_LIMIT = "Invalid limit provided, it must be between 1 and 1000!";
+    public static final String INVALID_SORT = "Invalid sort provided, it must be asc or desc!";
+    public static final String INVALID_BIRD_SORT =
+            "Invalid sort provided, it must be name, color, weight or height, optionally followed by ,asc or ,desc!";
+    public static final String INVALID_QUERY_SHAPE_SORT =
+            "Invalid sort provided, it must be total, mean, p99, max, count or ratio!";
+    public static final String INVALID_RANGE = "Invalid range provided, the minimum must not exceed the maximum!";
+    public static final String INVALID_SORTED_CURSOR = "Invalid cursor provided, sorted searches have a single page!";
+    public static final String INVALID_COORDINATES =
+            "Invalid coordinates provided, a longitude between -180 and 180 then a latitude between -90 and 90 are expected!";
+    public static final String INVALID_RADIUS = "Invalid radius provided, it must be a positive number of meters!";
+    public static final String INVALID_POLYGON =
+            "Invalid polygon provided, at least 3 longitude,latitude positions separated by ; are expected!";
+    public static final String INVALID_ZOOM = "Invalid zoom provided, it must be between 0 and 20!";
+    public static final String INVALID_TILE = "Invalid tile provided, x and y must be between 0 and 2^zoom - 1!";
+
+    public static final String NEGATIVE_SIZE_ERROR = "Size must not be negative!";
+    public static final String INDEX_FULL_ERROR = "Index capacity exceeded!";
+
+    public static final String INVALID_BULK_REQUEST = "Invalid bulk request, a JSON array of sightings is expected!";
+    public static final String INVALID_BULK_ITEM = "Invalid sighting provided!";
+    public static final String MALFORMED_BULK_REQUEST = "Malformed JSON, the remaining sightings were not read!";
+    public static final String INVALID_CHUNK_SIZE = "Chunk size must be positive!";
+
+    public static final String DELETION_NOT_FOUND = "Bird deletion not found!";
+    public static final String INVALID_QUEUE_CAPACITY = "Queue capacity must be positive!";
+    public static final String DELETION_QUEUE_FULL = "Too many bird deletions waiting, try again later!";
+
+    public static final String INVALID_GRANULARITY = "Invalid granularity provided, it must be seconds, minutes or hours!";
+    public static final String SIGHTINGS_ALREADY_TIME_SERIES = "Sightings are already stored in a time-series collection!";
+    public static final String SIGHTINGS_BACKUP_EXISTS = "Backup collection %s already exists, drop it or rename it first!";
+    public static final String SIGHTINGS_MIGRATION_INCOMPLETE =
+            "Sightings migration incomplete, %d of %d sightings copied, the former collection was restored!";
+    public static final String SIGHTINGS_WITHOUT_DATETIME =
+            "%d sightings have no dateTime, set it or delete them before migrating to a time-series collection!";
+
+    public static final String READ_TIMEOUT = "Reads did not complete in time, they were cancelled!";
+    public static final String READ_CANCELLED = "Reads cancelled, the request was interrupted!";
+    public static final String VIRTUAL_THREADS_UNSUPPORTED =
+            "Virtual threads require Java 21 or later, run with threads.mode=platform on Java %s!";
+
+    public static final String INVALID_MEMORY_BUDGET = "Memory budget must be positive!";
+    public static final String INVALID_RETENTION = "Retention must be positive!";
 
     /**
      * private constructor that throws exception in order to prevent instantiating through reflexion.
@@ -0,0 +1,53 @@
+package com.example.birds.util;
+
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Position of the last element of a page, used for keyset (cursor) pagination.
+ * </br>
+ * Birds are paged by id, sightings by (dateTime, id), which matches the sort order of the page queries,
+ * so the next page is read with an index seek after the cursor instead of skipping the previous pages.
+ */
+public final class PageCursor {
+
+    private final LocalDateTime dateTime;
+
+    private final String id;
+
+    public PageCursor(LocalDateTime dateTime, String id) {
+        this.dateTime = dateTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The id as persisted in the "_id" field: an {@link ObjectId} for generated ids, the raw string otherwise.
+     * @return an {@link Object}
+     */
+    public Object getIdValue() {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PageCursor)) return false;
+        PageCursor that = (PageCursor) o;
+        return Objects.equals(getDateTime(), that.getDateTime()) && Objects.equals(getId(), that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getDateTime(), getId());
+    }
+}
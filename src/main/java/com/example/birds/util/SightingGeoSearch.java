@@ -0,0 +1,142 @@
+package com.example.birds.util;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Criteria of a sighting proximity search: the sightings near a point, or within a polygon,
+ * optionally of a single bird and inside a date-time interval, all combined with AND.
+ * </br>
+ * The geometry, the bird and the date-time interval are all bounds of the same 2dsphere index
+ * (coordinates, birdId, dateTime), so the index prunes the sightings on every criteria.
+ * Sightings without coordinates never match.
+ * Sightings near a point are sorted by distance, the nearest first, sightings within a polygon are sorted
+ * by dateTime then id when a direction is provided, and left in natural order otherwise.
+ */
+public final class SightingGeoSearch {
+
+    private final String birdId;
+
+    private final LocalDateTime startDateTime;
+
+    private final LocalDateTime endDateTime;
+
+    private final GeoJsonPoint center;
+
+    private final Double radius;
+
+    private final GeoJsonPolygon polygon;
+
+    private final Sort.Direction direction;
+
+    private SightingGeoSearch(String birdId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                              GeoJsonPoint center, Double radius, GeoJsonPolygon polygon, Sort.Direction direction) {
+        this.birdId = birdId;
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.center = center;
+        this.radius = radius;
+        this.polygon = polygon;
+        this.direction = direction;
+    }
+
+    /**
+     * Search of the sightings at most radius meters away from the center, the nearest first.
+     * @param birdId {@link String}, null for all the birds
+     * @param startDateTime {@link LocalDateTime} exclusive, null for no lower bound
+     * @param endDateTime {@link LocalDateTime} exclusive, null for no upper bound
+     * @param center {@link GeoJsonPoint}
+     * @param radius double meters
+     * @return a {@link SightingGeoSearch} object
+     */
+    public static SightingGeoSearch near(String birdId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                         GeoJsonPoint center, double radius) {
+        return new SightingGeoSearch(birdId, startDateTime, endDateTime, center, radius, null, null);
+    }
+
+    /**
+     * Search of the sightings inside the polygon.
+     * @param birdId {@link String}, null for all the birds
+     * @param startDateTime {@link LocalDateTime} exclusive, null for no lower bound
+     * @param endDateTime {@link LocalDateTime} exclusive, null for no upper bound
+     * @param polygon {@link GeoJsonPolygon}
+     * @param direction {@link Sort.Direction} of the dateTime sort, null for the natural order
+     * @return a {@link SightingGeoSearch} object
+     */
+    public static SightingGeoSearch within(String birdId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                           GeoJsonPolygon polygon, Sort.Direction direction) {
+        return new SightingGeoSearch(birdId, startDateTime, endDateTime, null, null, polygon, direction);
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public GeoJsonPoint getCenter() {
+        return center;
+    }
+
+    public Double getRadius() {
+        return radius;
+    }
+
+    public GeoJsonPolygon getPolygon() {
+        return polygon;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Whether the search is a proximity search, sorted by distance.
+     * @return boolean
+     */
+    public boolean isNear() {
+        return Objects.nonNull(center);
+    }
+
+    /**
+     * Builds the query criteria: the bird and date-time conditions of a {@link SightingSearch},
+     * and a $nearSphere or a $geoWithin condition on the coordinates.
+     * @return a {@link Criteria} object
+     */
+    public Criteria getCriteria() {
+        final Criteria criteria = new SightingSearch(birdId, null, startDateTime, endDateTime, null).getCriteria();
+        if (isNear()) {
+            criteria.and("coordinates").nearSphere(center).maxDistance(radius);
+        } else {
+            criteria.and("coordinates").within(polygon);
+        }
+        return criteria;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SightingGeoSearch that = (SightingGeoSearch) o;
+        return Objects.equals(birdId, that.birdId) && Objects.equals(startDateTime, that.startDateTime)
+                && Objects.equals(endDateTime, that.endDateTime) && Objects.equals(center, that.center)
+                && Objects.equals(radius, that.radius) && Objects.equals(polygon, that.polygon)
+                && direction == that.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(birdId, startDateTime, endDateTime, center, radius, polygon, direction);
+    }
+}
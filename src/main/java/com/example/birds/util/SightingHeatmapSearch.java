@@ -0,0 +1,220 @@
+package com.example.birds.util;
+
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A heatmap tile: the sightings with coordinates inside a tile, during a time window, counted by grid cell.
+ * </br>
+ * Tiles follow a longitude/latitude grid: at zoom z the world is split in 2^z columns of 360/2^z degrees
+ * from longitude -180 eastward and 2^z rows of 180/2^z degrees from latitude 90 southward, so that every tile
+ * (and cell) is a longitude/latitude rectangle. Each tile is split again in cells x cells grid cells.
+ * The window days are inclusive and either one can be left open.
+ */
+public final class SightingHeatmapSearch {
+
+    /**
+     * Deepest zoom level, where a tile spans about 0.0003 degrees of longitude.
+     */
+    public static final int MAX_ZOOM = 20;
+
+    /**
+     * Maximum longitude step between two vertices of the top and bottom edges of a tile polygon.
+     * GeoJSON edges are geodesics, short steps keep them within centimeters of the parallels.
+     */
+    static final double MAX_EDGE_DEGREES = 1;
+
+    private final int zoom;
+
+    private final int x;
+
+    private final int y;
+
+    private final int cells;
+
+    private final LocalDate startDate;
+
+    private final LocalDate endDate;
+
+    public SightingHeatmapSearch(int zoom, int x, int y, int cells, LocalDate startDate, LocalDate endDate) {
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+        this.cells = cells;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Gets the number of tile columns, and rows, at a zoom level.
+     * @param zoom int
+     * @return int
+     */
+    public static int getTileCount(int zoom) {
+        return 1 << zoom;
+    }
+
+    /**
+     * Gets the column of the tile holding a longitude at a zoom level.
+     * @param zoom int
+     * @param longitude double
+     * @return int, the last column for longitude 180
+     */
+    public static int getTileX(int zoom, double longitude) {
+        final int tiles = getTileCount(zoom);
+        return Math.min((int) Math.floor((longitude + 180) / 360 * tiles), tiles - 1);
+    }
+
+    /**
+     * Gets the row of the tile holding a latitude at a zoom level.
+     * @param zoom int
+     * @param latitude double
+     * @return int, the last row for latitude -90
+     */
+    public static int getTileY(int zoom, double latitude) {
+        final int tiles = getTileCount(zoom);
+        return Math.min((int) Math.floor((90 - latitude) / 180 * tiles), tiles - 1);
+    }
+
+    /**
+     * Gets the identifier of a tile, unique across the zoom levels.
+     * @param zoom int
+     * @param x int
+     * @param y int
+     * @return long
+     */
+    public static long getTileId(int zoom, int x, int y) {
+        return ((long) zoom << 42) | ((long) x << 21) | y;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long getTileId() {
+        return getTileId(zoom, x, y);
+    }
+
+    public double getWest() {
+        return -180 + x * getTileWidth();
+    }
+
+    public double getEast() {
+        return getWest() + getTileWidth();
+    }
+
+    public double getNorth() {
+        return 90 - y * getTileHeight();
+    }
+
+    public double getSouth() {
+        return getNorth() - getTileHeight();
+    }
+
+    public double getCellWidth() {
+        return getTileWidth() / cells;
+    }
+
+    public double getCellHeight() {
+        return getTileHeight() / cells;
+    }
+
+    /**
+     * Whether the time window holds a day.
+     * @param date {@link LocalDate}, null when unknown
+     * @return boolean, true for an unknown day
+     */
+    public boolean isInWindow(LocalDate date) {
+        return Objects.isNull(date) || ((Objects.isNull(startDate) || !date.isBefore(startDate))
+                && (Objects.isNull(endDate) || !date.isAfter(endDate)));
+    }
+
+    /**
+     * Builds the query criteria: the sightings with coordinates inside the tile, and a date-time inside the window.
+     * Tiles of a hemisphere or more (zoom 0 and 1) are not valid GeoJSON polygons, their sightings are
+     * only required to have coordinates; the grid cells then leave out the ones outside the tile.
+     * @return a {@link Criteria} object
+     */
+    public Criteria getCriteria() {
+        final Criteria criteria = zoom < 2
+                ? Criteria.where("coordinates").exists(true)
+                : Criteria.where("coordinates").within(getPolygon());
+        if (Objects.nonNull(startDate) || Objects.nonNull(endDate)) {
+            final Criteria dateTime = criteria.and("dateTime");
+            if (Objects.nonNull(startDate)) {
+                dateTime.gte(startDate.atStartOfDay());
+            }
+            if (Objects.nonNull(endDate)) {
+                dateTime.lt(endDate.plusDays(1).atStartOfDay());
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * Builds the polygon of the tile, counterclockwise from the south west corner.
+     * @return a {@link GeoJsonPolygon} object
+     */
+    GeoJsonPolygon getPolygon() {
+        final int steps = (int) Math.ceil(getTileWidth() / MAX_EDGE_DEGREES);
+        final double step = getTileWidth() / steps;
+        final List<Point> points = new ArrayList<>(2 * steps + 3);
+        for (int i = 0; i <= steps; i++) {
+            points.add(new GeoJsonPoint(getWest() + i * step, getSouth()));
+        }
+        for (int i = steps; i >= 0; i--) {
+            points.add(new GeoJsonPoint(getWest() + i * step, getNorth()));
+        }
+        points.add(points.get(0));
+        return new GeoJsonPolygon(points);
+    }
+
+    private double getTileWidth() {
+        return 360.0 / getTileCount(zoom);
+    }
+
+    private double getTileHeight() {
+        return 180.0 / getTileCount(zoom);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SightingHeatmapSearch that = (SightingHeatmapSearch) o;
+        return zoom == that.zoom && x == that.x && y == that.y && cells == that.cells
+                && Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(zoom, x, y, cells, startDate, endDate);
+    }
+}
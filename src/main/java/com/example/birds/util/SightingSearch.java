@@ -0,0 +1,111 @@
+package com.example.birds.util;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria of a sighting search, all optional and combined with AND.
+ * </br>
+ * A sighting matches when it has the bird id, one of the locations and a date-time inside the interval.
+ * The interval bounds are exclusive, as for findByDateTimeBetween, and either one can be left open.
+ * Results are sorted by dateTime then id when a direction is provided, and left in natural order otherwise.
+ */
+public final class SightingSearch {
+
+    /**
+     * Search matching all the sightings, in natural order.
+     */
+    public static final SightingSearch ALL = new SightingSearch(null, List.of(), null, null, null);
+
+    private final String birdId;
+
+    private final List<String> locations;
+
+    private final LocalDateTime startDateTime;
+
+    private final LocalDateTime endDateTime;
+
+    private final Sort.Direction direction;
+
+    public SightingSearch(String birdId, List<String> locations, LocalDateTime startDateTime,
+                          LocalDateTime endDateTime, Sort.Direction direction) {
+        this.birdId = birdId;
+        this.locations = Objects.isNull(locations) ? List.of() : List.copyOf(locations);
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.direction = direction;
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Whether the search restricts the date-time of the sightings.
+     * @return boolean
+     */
+    public boolean hasDateTimeInterval() {
+        return Objects.nonNull(startDateTime) || Objects.nonNull(endDateTime);
+    }
+
+    /**
+     * Builds the query criteria, a single document with one condition per provided field.
+     * @return a {@link Criteria} object, matching all the sightings when no field is provided
+     */
+    public Criteria getCriteria() {
+        final Criteria criteria = new Criteria();
+        if (Objects.nonNull(birdId)) {
+            criteria.and("birdId").is(birdId);
+        }
+        if (locations.size() == 1) {
+            criteria.and("location").is(locations.get(0));
+        } else if (!locations.isEmpty()) {
+            criteria.and("location").in(locations);
+        }
+        if (hasDateTimeInterval()) {
+            final Criteria dateTime = criteria.and("dateTime");
+            if (Objects.nonNull(startDateTime)) {
+                dateTime.gt(startDateTime);
+            }
+            if (Objects.nonNull(endDateTime)) {
+                dateTime.lt(endDateTime);
+            }
+        }
+        return criteria;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SightingSearch that = (SightingSearch) o;
+        return Objects.equals(birdId, that.birdId) && Objects.equals(locations, that.locations)
+                && Objects.equals(startDateTime, that.startDateTime) && Objects.equals(endDateTime, that.endDateTime)
+                && direction == that.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(birdId, locations, startDateTime, endDateTime, direction);
+    }
+}
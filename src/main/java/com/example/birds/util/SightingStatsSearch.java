@@ -0,0 +1,128 @@
+package com.example.birds.util;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Criteria and grouping of sighting statistics, read from the sighting rollups.
+ * </br>
+ * A rollup matches when it has the bird id, the location and a day inside the interval, whose bounds are inclusive
+ * and can be left open. The matching counts are summed by time bucket, and by bird and location when grouped by them.
+ */
+public final class SightingStatsSearch {
+
+    /**
+     * Time span the counts are summed over, the length of the prefix of the ISO day ("2023-07-18") naming it.
+     */
+    public enum Bucket {
+        DAY(10),
+        MONTH(7),
+        YEAR(4);
+
+        private final int length;
+
+        Bucket(int length) {
+            this.length = length;
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    private final String birdId;
+
+    private final String location;
+
+    private final LocalDate startDate;
+
+    private final LocalDate endDate;
+
+    private final Bucket bucket;
+
+    private final boolean groupByBird;
+
+    private final boolean groupByLocation;
+
+    public SightingStatsSearch(String birdId, String location, LocalDate startDate, LocalDate endDate, Bucket bucket,
+                               boolean groupByBird, boolean groupByLocation) {
+        this.birdId = birdId;
+        this.location = location;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.bucket = Objects.requireNonNullElse(bucket, Bucket.DAY);
+        this.groupByBird = groupByBird;
+        this.groupByLocation = groupByLocation;
+    }
+
+    public String getBirdId() {
+        return birdId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    public boolean isGroupByBird() {
+        return groupByBird;
+    }
+
+    public boolean isGroupByLocation() {
+        return groupByLocation;
+    }
+
+    /**
+     * Builds the criteria of the rollups, a single document with one condition per provided field.
+     * Rollups whose count dropped to zero are left out.
+     * @return a {@link Criteria} object
+     */
+    public Criteria getCriteria() {
+        final Criteria criteria = new Criteria();
+        if (Objects.nonNull(birdId)) {
+            criteria.and("birdId").is(birdId);
+        }
+        if (Objects.nonNull(location)) {
+            criteria.and("location").is(location);
+        }
+        if (Objects.nonNull(startDate) || Objects.nonNull(endDate)) {
+            final Criteria day = criteria.and("day");
+            if (Objects.nonNull(startDate)) {
+                day.gte(startDate.toString());
+            }
+            if (Objects.nonNull(endDate)) {
+                day.lte(endDate.toString());
+            }
+        }
+        return criteria.and("count").gt(0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SightingStatsSearch that = (SightingStatsSearch) o;
+        return groupByBird == that.groupByBird && groupByLocation == that.groupByLocation
+                && Objects.equals(birdId, that.birdId) && Objects.equals(location, that.location)
+                && Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate)
+                && bucket == that.bucket;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(birdId, location, startDate, endDate, bucket, groupByBird, groupByLocation);
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.birds.util;
+
+import com.example.birds.model.Sighting;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sightings sorted by date-time then id, answering date-time interval searches and counts in logarithmic time.
+ * </br>
+ * Date-times are kept as epoch milliseconds in a primitive array, next to parallel arrays of ids, bird ids,
+ * locations, longitudes and latitudes (NaN without coordinates), so a sighting costs no object besides its strings. The arrays are split in chunks of at most
+ * {@link #CHUNK_CAPACITY} sightings: an insert or a removal only shifts one chunk, and a full chunk is split in two.
+ * Date-times are truncated to milliseconds, the precision MongoDB stores, and read as UTC so that their order
+ * is kept whatever the time zone.
+ * </br>
+ * This class is not thread safe, see {@link com.example.birds.service.SightingTimeIndex}.
+ */
+public final class SightingTimeline {
+
+    /**
+     * Maximum number of sightings of a chunk.
+     */
+    static final int CHUNK_CAPACITY = 1024;
+
+    /**
+     * Estimated size of a sighting slot of a chunk: the date-time, the coordinates and three references.
+     */
+    static final long ENTRY_BYTES = Long.BYTES + 2L * Double.BYTES + 3L * 8;
+
+    /**
+     * Estimated size of a string without its characters: the string and its byte array headers.
+     */
+    static final long STRING_BYTES = 40;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private int size;
+
+    private long stringBytes;
+
+    /**
+     * Converts a date-time to the key it is sorted by.
+     * @param dateTime {@link LocalDateTime}
+     * @return epoch milliseconds of the date-time read as UTC
+     */
+    public static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Converts a key back to a date-time.
+     * @param epochMilli long
+     * @return a {@link LocalDateTime} object
+     */
+    public static LocalDateTime toDateTime(long epochMilli) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMilli, 1000),
+                (int) Math.floorMod(epochMilli, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the estimated memory used by the sightings: the arrays of the chunks, allocated at full capacity,
+     * and the strings.
+     * @return long bytes
+     */
+    public long getEstimatedBytes() {
+        return (long) chunks.size() * CHUNK_CAPACITY * ENTRY_BYTES + stringBytes;
+    }
+
+    /**
+     * Adds a sighting, replacing the one with the same id and date-time if present.
+     * @param sighting {@link Sighting} with an id and a date-time
+     */
+    public void add(Sighting sighting) {
+        final long key = toEpochMilli(sighting.getDateTime());
+        final String id = sighting.getId();
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk());
+        }
+        final int chunkIndex = Math.min(findChunk(key, id), chunks.size() - 1);
+        Chunk chunk = chunks.get(chunkIndex);
+        int index = chunk.find(key, id);
+        if (index < chunk.size && chunk.keys[index] == key && chunk.ids[index].equals(id)) {
+            stringBytes -= estimateBytes(chunk.ids[index], chunk.birdIds[index], chunk.locations[index]);
+            chunk.set(index, key, id, sighting.getBirdId(), sighting.getLocation(), sighting.getCoordinates());
+            stringBytes += estimateBytes(id, sighting.getBirdId(), sighting.getLocation());
+            return;
+        }
+        if (chunk.size == CHUNK_CAPACITY) {
+            final Chunk upper = chunk.split();
+            chunks.add(chunkIndex + 1, upper);
+            if (index > chunk.size) {
+                index -= chunk.size;
+                chunk = upper;
+            }
+        }
+        chunk.insert(index, key, id, sighting.getBirdId(), sighting.getLocation(), sighting.getCoordinates());
+        size++;
+        stringBytes += estimateBytes(id, sighting.getBirdId(), sighting.getLocation());
+    }
+
+    /**
+     * Removes the sighting having the provided id and date-time.
+     * @param id {@link String}
+     * @param dateTime {@link LocalDateTime}
+     * @return whether the sighting was found
+     */
+    public boolean remove(String id, LocalDateTime dateTime) {
+        final long key = toEpochMilli(dateTime);
+        final int chunkIndex = findChunk(key, id);
+        if (chunkIndex == chunks.size()) {
+            return false;
+        }
+        final Chunk chunk = chunks.get(chunkIndex);
+        final int index = chunk.find(key, id);
+        if (index == chunk.size || chunk.keys[index] != key || !chunk.ids[index].equals(id)) {
+            return false;
+        }
+        stringBytes -= estimateBytes(chunk.ids[index], chunk.birdIds[index], chunk.locations[index]);
+        chunk.delete(index);
+        size--;
+        if (chunk.size == 0) {
+            chunks.remove(chunkIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the sightings of a bird, scanning every chunk.
+     * @param birdId {@link String}
+     * @return the number of sightings removed
+     */
+    public int removeByBirdId(String birdId) {
+        int removed = 0;
+        for (int c = chunks.size() - 1; c >= 0; c--) {
+            final Chunk chunk = chunks.get(c);
+            int kept = 0;
+            for (int i = 0; i < chunk.size; i++) {
+                if (Objects.equals(birdId, chunk.birdIds[i])) {
+                    stringBytes -= estimateBytes(chunk.ids[i], chunk.birdIds[i], chunk.locations[i]);
+                    removed++;
+                } else {
+                    chunk.move(i, kept++);
+                }
+            }
+            chunk.truncate(kept);
+            if (kept == 0) {
+                chunks.remove(c);
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Removes the chunk holding the oldest sightings.
+     * @return the key of the latest sighting removed, sightings after it are all kept
+     */
+    public long removeOldestChunk() {
+        final Chunk chunk = chunks.remove(0);
+        for (int i = 0; i < chunk.size; i++) {
+            stringBytes -= estimateBytes(chunk.ids[i], chunk.birdIds[i], chunk.locations[i]);
+        }
+        size -= chunk.size;
+        return chunk.keys[chunk.size - 1];
+    }
+
+    /**
+     * Finds the sightings whose date-time is strictly between the provided keys.
+     * @param fromKey long exclusive, {@link Long#MIN_VALUE} for no lower bound
+     * @param toKey long exclusive, {@link Long#MAX_VALUE} for no upper bound
+     * @param descending boolean sorted by date-time then id descending instead of ascending
+     * @return a List of {@link Sighting} objects, new instances
+     */
+    public List<Sighting> find(long fromKey, long toKey, boolean descending) {
+        final List<Sighting> result = new ArrayList<>();
+        for (int c = findFirstChunk(fromKey); c < chunks.size(); c++) {
+            final Chunk chunk = chunks.get(c);
+            if (chunk.keys[0] >= toKey) {
+                break;
+            }
+            final int end = chunk.lowerBound(toKey);
+            for (int i = chunk.upperBound(fromKey); i < end; i++) {
+                final Sighting sighting = new Sighting(chunk.birdIds[i], chunk.locations[i], toDateTime(chunk.keys[i]));
+                sighting.setId(chunk.ids[i]);
+                if (!Double.isNaN(chunk.longitudes[i])) {
+                    sighting.setCoordinates(new GeoJsonPoint(chunk.longitudes[i], chunk.latitudes[i]));
+                }
+                result.add(sighting);
+            }
+        }
+        if (descending) {
+            Collections.reverse(result);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the sightings whose date-time is strictly between the provided keys,
+     * without reading the chunks fully inside the interval.
+     * @param fromKey long exclusive
+     * @param toKey long exclusive
+     * @return long
+     */
+    public long count(long fromKey, long toKey) {
+        long result = 0;
+        for (int c = findFirstChunk(fromKey); c < chunks.size(); c++) {
+            final Chunk chunk = chunks.get(c);
+            if (chunk.keys[0] >= toKey) {
+                break;
+            }
+            final int start = chunk.keys[0] > fromKey ? 0 : chunk.upperBound(fromKey);
+            final int end = chunk.keys[chunk.size - 1] < toKey ? chunk.size : chunk.lowerBound(toKey);
+            result += end - start;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first chunk whose last sighting comes after the provided key, or the number of chunks.
+     * @param fromKey long
+     * @return int
+     */
+    private int findFirstChunk(long fromKey) {
+        int low = 0;
+        int high = chunks.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final Chunk chunk = chunks.get(middle);
+            if (chunk.keys[chunk.size - 1] > fromKey) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first chunk whose last sighting doesn't come before the provided sighting, or the number of chunks.
+     * @param key long
+     * @param id {@link String}
+     * @return int
+     */
+    private int findChunk(long key, String id) {
+        int low = 0;
+        int high = chunks.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final Chunk chunk = chunks.get(middle);
+            if (chunk.size > 0 && compare(chunk.keys[chunk.size - 1], chunk.ids[chunk.size - 1], key, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long key, String id, long otherKey, String otherId) {
+        final int result = Long.compare(key, otherKey);
+        return result != 0 ? result : id.compareTo(otherId);
+    }
+
+    private static long estimateBytes(String id, String birdId, String location) {
+        return estimateBytes(id) + estimateBytes(birdId) + estimateBytes(location);
+    }
+
+    private static long estimateBytes(String value) {
+        return Objects.isNull(value) ? 0 : STRING_BYTES + value.length();
+    }
+
+    /**
+     * Sightings of a chunk, sorted, in parallel arrays.
+     */
+    private static final class Chunk {
+
+        private final long[] keys = new long[CHUNK_CAPACITY];
+
+        private final String[] ids = new String[CHUNK_CAPACITY];
+
+        private final String[] birdIds = new String[CHUNK_CAPACITY];
+
+        private final String[] locations = new String[CHUNK_CAPACITY];
+
+        private final double[] longitudes = new double[CHUNK_CAPACITY];
+
+        private final double[] latitudes = new double[CHUNK_CAPACITY];
+
+        private int size;
+
+        /**
+         * Finds the position of the provided sighting, or the position it would be inserted at.
+         */
+        private int find(long key, String id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (compare(keys[middle], ids[middle], key, id) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Finds the position of the first sighting whose key is greater than the provided key.
+         */
+        private int upperBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Finds the position of the first sighting whose key is greater than or equal to the provided key.
+         */
+        private int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void set(int index, long key, String id, String birdId, String location, GeoJsonPoint coordinates) {
+            keys[index] = key;
+            ids[index] = id;
+            birdIds[index] = birdId;
+            locations[index] = location;
+            longitudes[index] = Objects.isNull(coordinates) ? Double.NaN : coordinates.getX();
+            latitudes[index] = Objects.isNull(coordinates) ? Double.NaN : coordinates.getY();
+        }
+
+        /**
+         * Copies a sighting to a lower position, over the one there.
+         */
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            ids[to] = ids[from];
+            birdIds[to] = birdIds[from];
+            locations[to] = locations[from];
+            longitudes[to] = longitudes[from];
+            latitudes[to] = latitudes[from];
+        }
+
+        private void insert(int index, long key, String id, String birdId, String location, GeoJsonPoint coordinates) {
+            final int moved = size - index;
+            System.arraycopy(keys, index, keys, index + 1, moved);
+            System.arraycopy(ids, index, ids, index + 1, moved);
+            System.arraycopy(birdIds, index, birdIds, index + 1, moved);
+            System.arraycopy(locations, index, locations, index + 1, moved);
+            System.arraycopy(longitudes, index, longitudes, index + 1, moved);
+            System.arraycopy(latitudes, index, latitudes, index + 1, moved);
+            set(index, key, id, birdId, location, coordinates);
+            size++;
+        }
+
+        private void delete(int index) {
+            final int moved = size - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(ids, index + 1, ids, index, moved);
+            System.arraycopy(birdIds, index + 1, birdIds, index, moved);
+            System.arraycopy(locations, index + 1, locations, index, moved);
+            System.arraycopy(longitudes, index + 1, longitudes, index, moved);
+            System.arraycopy(latitudes, index + 1, latitudes, index, moved);
+            truncate(size - 1);
+        }
+
+        /**
+         * Keeps the first sightings, releasing the strings of the others.
+         */
+        private void truncate(int newSize) {
+            Arrays.fill(ids, newSize, size, null);
+            Arrays.fill(birdIds, newSize, size, null);
+            Arrays.fill(locations, newSize, size, null);
+            size = newSize;
+        }
+
+        /**
+         * Moves the upper half of the sightings to a new chunk.
+         */
+        private Chunk split() {
+            final Chunk upper = new Chunk();
+            final int half = size / 2;
+            upper.size = size - half;
+            System.arraycopy(keys, half, upper.keys, 0, upper.size);
+            System.arraycopy(ids, half, upper.ids, 0, upper.size);
+            System.arraycopy(birdIds, half, upper.birdIds, 0, upper.size);
+            System.arraycopy(locations, half, upper.locations, 0, upper.size);
+            System.arraycopy(longitudes, half, upper.longitudes, 0, upper.size);
+            System.arraycopy(latitudes, half, upper.latitudes, 0, upper.size);
+            truncate(half);
+            return upper;
+        }
+    }
+}
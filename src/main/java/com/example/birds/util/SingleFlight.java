@@ -0,0 +1,101 @@
+package com.example.birds.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls having the same key into a single call.
+ * </br>
+ * The first caller of a key runs the call on its own thread, the callers arriving while it runs wait for it
+ * and get the same result, or the same exception, instead of running the call again. Nothing is kept once the
+ * call completed, so callers arriving later run it again: it is not a cache.
+ * Results are shared between callers and must not be modified. Waiting callers are not interruptible.
+ * @param <K> type of the keys, having equals and hashCode
+ * @param <V> type of the results
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * Runs the call of a key, or waits for the one in flight.
+     * @param key K, not null
+     * @param call Supplier of the result
+     * @return V, the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        final CompletableFuture<V> ownCall = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = calls.putIfAbsent(key, ownCall);
+        if (Objects.nonNull(inFlight)) {
+            deduplicated.increment();
+            return await(inFlight);
+        }
+        executed.increment();
+        try {
+            final V result = call.get();
+            ownCall.complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            ownCall.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            calls.remove(key, ownCall);
+        }
+    }
+
+    /**
+     * Stops sharing the call in flight for a key, so that the callers arriving next run it again,
+     * e.g. once the data it reads changed. Its current waiters still get its result.
+     * @param key K
+     */
+    public void forget(K key) {
+        calls.remove(key);
+    }
+
+    /**
+     * Stops sharing all the calls in flight, see {@link #forget(Object)}.
+     */
+    public void forgetAll() {
+        calls.clear();
+    }
+
+    /**
+     * Gets the number of calls run since creation.
+     * @return long
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Gets the number of calls served with the result of a call in flight since creation.
+     * @return long
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException exception) {
+            // the waiters get the exception of the call, as its first caller does
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+}
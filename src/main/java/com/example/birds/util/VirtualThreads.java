@@ -0,0 +1,63 @@
+package com.example.birds.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class creating virtual threads.
+ * </br>
+ * The application is compiled for Java 11, so the Java 21 API is looked up at runtime: virtual threads are only
+ * available when running on Java 21 or later.
+ */
+public final class VirtualThreads {
+
+    /**
+     * private constructor that throws exception in order to prevent instantiating through reflexion.
+     */
+    private VirtualThreads() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Whether the running JVM provides virtual threads.
+     * @return boolean
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread per task, the threads named prefix followed by a counter.
+     * Closing it is not required, it holds no thread.
+     * @param prefix {@link String} name of the threads, e.g. "request-"
+     * @return an {@link ExecutorService} object
+     * @throws IllegalStateException when the JVM doesn't provide virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(String.format(ErrorMessages.VIRTUAL_THREADS_UNSUPPORTED,
+                    Runtime.version().feature()));
+        }
+        try {
+            // Thread.ofVirtual().name(prefix, 0).factory(), through the public Thread.Builder interface
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            final Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                 | InvocationTargetException exception) {
+            throw new IllegalStateException(String.format(ErrorMessages.VIRTUAL_THREADS_UNSUPPORTED,
+                    Runtime.version().feature()), exception);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.birds.config;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -10,6 +11,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -47,6 +49,29 @@ public class CustomExceptionHandlingTest {
         assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
     }
 
+    @Test
+    public void handleException_QueryTimeoutException_should_succeed() {
+        // given
+        final Exception exception = new QueryTimeoutException(ERROR_MESSAGE);
+
+        // when
+        final ResponseEntity<String> result = customExceptionHandling.handleException(exception);
+
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+    }
+
+    @Test
+    public void handleException_RejectedExecutionException_should_succeed() {
+        // given
+        final Exception exception = new RejectedExecutionException(ERROR_MESSAGE);
+
+        // when
+        final ResponseEntity<String> result = customExceptionHandling.handleException(exception);
+
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+    }
 
     @Test
     public void handleException_Other_should_succeed() {
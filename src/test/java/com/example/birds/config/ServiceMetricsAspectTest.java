@@ -0,0 +1,166 @@
+package com.example.birds.config;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.repository.BirdRepository;
+import com.example.birds.repository.ReactiveBirdRepository;
+import com.example.birds.repository.ReactiveSightingRepository;
+import com.example.birds.repository.ReactiveSightingRollupRepository;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.service.BirdCache;
+import com.example.birds.service.BirdRequestCoalescer;
+import com.example.birds.service.BirdService;
+import com.example.birds.service.ModelService;
+import com.example.birds.service.ReactiveBirdService;
+import com.example.birds.service.SightingHeatmapCache;
+import com.example.birds.service.SightingTimeIndex;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.utdata.BirdResponseDtoDataProvider;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.util.BirdIndex;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ServiceMetricsAspect}, recording in a {@link SimpleMeterRegistry}.
+ */
+public class ServiceMetricsAspectTest implements BirdDataProvider, BirdResponseDtoDataProvider, SightingDataProvider {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BirdRepository birdRepository = Mockito.mock(BirdRepository.class);
+
+    private final ReactiveBirdRepository reactiveBirdRepository = Mockito.mock(ReactiveBirdRepository.class);
+
+    private final BirdService birdService = new BirdService(birdRepository, new ModelService(),
+            Mockito.mock(SightingRepository.class), Mockito.mock(BirdCache.class),
+            Mockito.mock(SightingRollupRepository.class), Mockito.mock(SightingTimeIndex.class),
+            Mockito.mock(SightingHeatmapCache.class),
+            new BirdRequestCoalescer(new BirdCoalescingProperties(), new SimpleMeterRegistry()));
+
+    private final ReactiveBirdService reactiveBirdService = new ReactiveBirdService(reactiveBirdRepository,
+            new ModelService(), Mockito.mock(ReactiveSightingRepository.class),
+            Mockito.mock(ReactiveSightingRollupRepository.class), Mockito.mock(SightingHeatmapCache.class));
+
+    @Test
+    void recordServiceCall_should_time_call_and_record_result_size() {
+        // given
+        final BirdService proxy = proxy(birdService);
+        when(birdRepository.findAll()).thenReturn(List.of(buildBird(), buildBird()));
+
+        // when
+        proxy.getAllBirds();
+
+        // then
+        final Timer timer = meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("service", "BirdService", "method", "getAllBirds", "outcome", "success", "exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+        final DistributionSummary results = meterRegistry.get(ServiceMetricsAspect.RESULTS)
+                .tags("service", "BirdService", "method", "getAllBirds").summary();
+        assertEquals(1, results.count());
+        assertEquals(2, results.totalAmount());
+    }
+
+    @Test
+    void recordServiceCall_withException_should_count_error() {
+        // given
+        final BirdService proxy = proxy(birdService);
+        when(birdRepository.findAll()).thenThrow(new IllegalStateException("failed"));
+
+        // when
+        assertThrows(IllegalStateException.class, proxy::getAllBirds);
+
+        // then
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("method", "getAllBirds", "outcome", "error", "exception", "IllegalStateException").timer().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.ERRORS)
+                .tags("service", "BirdService", "method", "getAllBirds", "exception", "IllegalStateException")
+                .counter().count());
+        assertNull(meterRegistry.find(ServiceMetricsAspect.RESULTS).summary());
+    }
+
+    @Test
+    void recordServiceCall_withFlux_should_record_when_subscribed() {
+        // given
+        final ReactiveBirdService proxy = proxy(reactiveBirdService);
+        when(reactiveBirdRepository.findAll()).thenReturn(Flux.just(buildBird(), buildBird()));
+
+        // when
+        final Flux<BirdResponseDto> result = proxy.getAllBirds();
+
+        // then
+        assertNull(meterRegistry.find(ServiceMetricsAspect.CALLS).timer());
+        assertEquals(2, result.collectList().block().size());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("service", "ReactiveBirdService", "method", "getAllBirds", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get(ServiceMetricsAspect.RESULTS).tag("method", "getAllBirds").summary()
+                .totalAmount());
+    }
+
+    @Test
+    void recordServiceCall_withFailingMono_should_count_error() {
+        // given
+        final ReactiveBirdService proxy = proxy(reactiveBirdService);
+        when(reactiveBirdRepository.findById("1")).thenReturn(Mono.error(new IllegalStateException("failed")));
+
+        // when
+        final Mono<BirdResponseDto> result = proxy.getBirdById("1");
+
+        // then
+        assertThrows(IllegalStateException.class, result::block);
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.CALLS)
+                .tags("method", "getBirdById", "outcome", "error", "exception", "IllegalStateException").timer().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.ERRORS).tag("method", "getBirdById").counter().count());
+    }
+
+    @Test
+    void recordJoin_should_record_birds_and_sightings() {
+        // given
+        final ModelService proxy = proxy(new ModelService());
+        final BirdIndex birdIndex = BirdIndex.of(List.of(buildBirdResponseDto()));
+
+        // when
+        final List<SightingResponseDto> result = proxy.getSightingResponseDTOs(List.of(buildSighting(), buildSighting()),
+                birdIndex);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.JOIN_BIRDS).summary().totalAmount());
+        assertEquals(2, meterRegistry.get(ServiceMetricsAspect.JOIN_SIGHTINGS).summary().totalAmount());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.JOIN).timer().count());
+    }
+
+    @Test
+    void recordServiceCall_should_skip_model_service() {
+        // given
+        final ModelService proxy = proxy(new ModelService());
+
+        // when
+        proxy.getDateTime("2023-07-18T10:00:00");
+
+        // then
+        assertNull(meterRegistry.find(ServiceMetricsAspect.CALLS).timer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        final AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        return (T) factory.getProxy();
+    }
+}
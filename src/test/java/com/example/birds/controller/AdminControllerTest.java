@@ -0,0 +1,191 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.dto.IndexRecommendationDto;
+import com.example.birds.dto.IndexReportDto;
+import com.example.birds.dto.QueryPlanDto;
+import com.example.birds.dto.QueryShapeDto;
+import com.example.birds.dto.RollupRebuildDto;
+import com.example.birds.dto.SightingTimeIndexStatsDto;
+import com.example.birds.repository.IndexManager;
+import com.example.birds.repository.QueryProfiler;
+import com.example.birds.service.BirdCache;
+import com.example.birds.service.ModelService;
+import com.example.birds.service.SightingHeatmapCache;
+import com.example.birds.service.SightingService;
+import com.example.birds.service.SightingTimeIndex;
+import com.example.birds.util.BirdSearch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AdminController}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AdminControllerTest {
+
+    @Mock
+    private final BirdCache birdCache = Mockito.mock(BirdCache.class);
+    @Mock
+    private final IndexManager indexManager = Mockito.mock(IndexManager.class);
+    @Mock
+    private final ModelService modelService = Mockito.mock(ModelService.class);
+    @Mock
+    private final SightingService sightingService = Mockito.mock(SightingService.class);
+    @Mock
+    private final SightingTimeIndex sightingTimeIndex = Mockito.mock(SightingTimeIndex.class);
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+    @Mock
+    private final QueryProfiler queryProfiler = Mockito.mock(QueryProfiler.class);
+
+    @InjectMocks
+    private AdminController adminController;
+
+    @Test
+    void getBirdCacheStats_should_succeed() {
+        // given
+        final CacheStatsDto cacheStatsDto = new CacheStatsDto(9, 1, 0.9, 0, 1);
+
+        when(birdCache.getStats()).thenReturn(cacheStatsDto);
+
+        // when
+        final CacheStatsDto result = adminController.getBirdCacheStats();
+
+        // then
+        verify(birdCache).getStats();
+        verifyNoMoreInteractions(birdCache);
+        verifyNoInteractions(indexManager, modelService, sightingService);
+
+        assertEquals(cacheStatsDto, result);
+    }
+
+    @Test
+    void getHeatmapCacheStats_should_succeed() {
+        // given
+        final CacheStatsDto cacheStatsDto = new CacheStatsDto(3, 1, 0.75, 0, 1);
+
+        when(sightingHeatmapCache.getStats()).thenReturn(cacheStatsDto);
+
+        // when
+        final CacheStatsDto result = adminController.getHeatmapCacheStats();
+
+        // then
+        verify(sightingHeatmapCache).getStats();
+        verifyNoMoreInteractions(sightingHeatmapCache);
+        verifyNoInteractions(birdCache, indexManager, modelService, sightingService);
+
+        assertEquals(cacheStatsDto, result);
+    }
+
+    @Test
+    void getIndexReport_should_succeed() {
+        // given
+        final IndexReportDto indexReportDto = new IndexReportDto(List.of(),
+                List.of(new QueryPlanDto("BirdRepository.findByName", true, List.of("FETCH", "IXSCAN"), List.of("name_id"))));
+
+        when(indexManager.getReport()).thenReturn(indexReportDto);
+
+        // when
+        final IndexReportDto result = adminController.getIndexReport();
+
+        // then
+        verify(indexManager).getReport();
+        verifyNoMoreInteractions(indexManager);
+        verifyNoInteractions(birdCache, modelService, sightingService);
+
+        assertEquals(indexReportDto, result);
+    }
+
+    @Test
+    void getQueryShapes_should_succeed() {
+        // given
+        final List<QueryShapeDto> queryShapes = List.of(new QueryShapeDto("find birds {\"filter\": {\"color\": \"?\"}}",
+                "find", "birds", 10, 0, 1, 250.0, 25.0, 2.0, 200.0, 200.0, 1, 5000, 10, 500.0,
+                List.of("FETCH", "IXSCAN"), List.of("color_id")));
+
+        when(modelService.getPageLimit(20)).thenReturn(20);
+        when(queryProfiler.getTopShapes("p99", 20)).thenReturn(queryShapes);
+
+        // when
+        final List<QueryShapeDto> result = adminController.getQueryShapes("p99", 20);
+
+        // then
+        verify(modelService).getPageLimit(20);
+        verify(queryProfiler).getTopShapes("p99", 20);
+        verifyNoMoreInteractions(modelService, queryProfiler);
+        verifyNoInteractions(birdCache, indexManager, sightingService);
+
+        assertEquals(queryShapes, result);
+    }
+
+    @Test
+    void getBirdIndexRecommendation_should_succeed() {
+        // given
+        final BirdSearch search = new BirdSearch(null, "red", 1.5, null, null, null, "height", Sort.Direction.DESC);
+        final IndexRecommendationDto indexRecommendationDto = new IndexRecommendationDto("{}", "{}", "color_id",
+                "{\"color\": 1, \"height\": 1, \"weight\": 1, \"_id\": 1}", null);
+
+        when(modelService.getBirdSearch(null, "red", 1.5, null, null, null, "height,desc")).thenReturn(search);
+        when(indexManager.getBirdIndexRecommendation(search)).thenReturn(indexRecommendationDto);
+
+        // when
+        final IndexRecommendationDto result = adminController.getBirdIndexRecommendation(null, "red", 1.5, null,
+                null, null, "height,desc");
+
+        // then
+        verify(modelService).getBirdSearch(null, "red", 1.5, null, null, null, "height,desc");
+        verify(indexManager).getBirdIndexRecommendation(search);
+        verifyNoMoreInteractions(modelService, indexManager);
+        verifyNoInteractions(birdCache, sightingService);
+
+        assertEquals(indexRecommendationDto, result);
+    }
+
+    @Test
+    void rebuildSightingRollups_should_succeed() {
+        // given
+        final RollupRebuildDto rollupRebuildDto = new RollupRebuildDto(12, 30);
+
+        when(sightingService.rebuildSightingRollups()).thenReturn(rollupRebuildDto);
+
+        // when
+        final RollupRebuildDto result = adminController.rebuildSightingRollups();
+
+        // then
+        verify(sightingService).rebuildSightingRollups();
+        verifyNoMoreInteractions(sightingService);
+        verifyNoInteractions(birdCache, indexManager, modelService);
+
+        assertEquals(rollupRebuildDto, result);
+    }
+
+    @Test
+    void getSightingTimeIndexStats_should_succeed() {
+        // given
+        final SightingTimeIndexStatsDto stats = new SightingTimeIndexStatsDto(true, 10, 4096, 67108864,
+                "2023-07-11T10:00:00", 9, 1);
+
+        when(sightingTimeIndex.getStats()).thenReturn(stats);
+
+        // when
+        final SightingTimeIndexStatsDto result = adminController.getSightingTimeIndexStats();
+
+        // then
+        verify(sightingTimeIndex).getStats();
+        verifyNoMoreInteractions(sightingTimeIndex);
+        verifyNoInteractions(birdCache, indexManager, modelService, sightingService);
+
+        assertEquals(stats, result);
+    }
+}
@@ -2,18 +2,32 @@ package com.example.birds.controller;
 
 import com.example.birds.utdata.BirdResponseDtoDataProvider;
 import com.example.birds.utdata.BirdSaveDtoDataProvider;
+import com.example.birds.dto.BirdDeletionDto;
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.CursorPageDto;
 import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.service.BirdDeletionService;
 import com.example.birds.service.BirdService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +39,11 @@ public class BirdControllerTest implements BirdSaveDtoDataProvider, BirdResponse
 
     @Mock
     private final BirdService birdService = Mockito.mock(BirdService.class);
+    @Mock
+    private final BirdDeletionService birdDeletionService = Mockito.mock(BirdDeletionService.class);
+
+    @Spy
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private BirdController birdController;
@@ -78,6 +97,44 @@ public class BirdControllerTest implements BirdSaveDtoDataProvider, BirdResponse
         verifyNoMoreInteractions(birdService);
     }
 
+    @Test
+    void deleteBirdAsync_should_succeed() {
+        // given
+        final String id = "1";
+        final BirdDeletionDto deletion = new BirdDeletionDto("3", id, BirdDeletionDto.Status.PENDING, 5, 0, null);
+
+        when(birdDeletionService.startDeletion(id)).thenReturn(deletion);
+
+        // when
+        final ResponseEntity<BirdDeletionDto> result = birdController.deleteBirdAsync(id, true);
+
+        // then
+        verify(birdDeletionService).startDeletion(id);
+        verifyNoMoreInteractions(birdDeletionService);
+        verifyNoInteractions(birdService);
+
+        assertEquals(202, result.getStatusCodeValue());
+        assertEquals("/api/birds/deletions/3", String.valueOf(result.getHeaders().getLocation()));
+        assertEquals(deletion, result.getBody());
+    }
+
+    @Test
+    void getBirdDeletion_should_succeed() {
+        // given
+        final BirdDeletionDto deletion = new BirdDeletionDto("3", "1", BirdDeletionDto.Status.COMPLETED, 5, 5, null);
+
+        when(birdDeletionService.getDeletion("3")).thenReturn(deletion);
+
+        // when
+        final BirdDeletionDto result = birdController.getBirdDeletion("3");
+
+        // then
+        verify(birdDeletionService).getDeletion("3");
+        verifyNoMoreInteractions(birdDeletionService);
+
+        assertEquals(deletion, result);
+    }
+
     @Test
     void getBirdById_should_succeed() {
         // given
@@ -104,13 +161,33 @@ public class BirdControllerTest implements BirdSaveDtoDataProvider, BirdResponse
         when(birdService.getAllBirds()).thenReturn(birdResponseDTOs);
 
         // when
-        final List<BirdResponseDto> result = birdController.getAllBirds();
+        final ResponseEntity<List<BirdResponseDto>> result = birdController.getAllBirds(null, null);
 
         // then
         verify(birdService).getAllBirds();
         verifyNoMoreInteractions(birdService);
 
-        assertEquals(birdResponseDTOs, result);
+        assertEquals(birdResponseDTOs, result.getBody());
+        assertFalse(result.getHeaders().containsKey(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllBirds_withLimit_should_succeed() {
+        // given
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final CursorPageDto<BirdResponseDto> page = new CursorPageDto<>(birdResponseDTOs, "next");
+
+        when(birdService.getBirdsPage(null, null, null, null, null, null, null, "cursor", 1)).thenReturn(page);
+
+        // when
+        final ResponseEntity<List<BirdResponseDto>> result = birdController.getAllBirds("cursor", 1);
+
+        // then
+        verify(birdService).getBirdsPage(null, null, null, null, null, null, null, "cursor", 1);
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(birdResponseDTOs, result.getBody());
+        assertEquals("next", result.getHeaders().getFirst(CursorPageDto.NEXT_CURSOR_HEADER));
     }
 
     @Test
@@ -120,15 +197,113 @@ public class BirdControllerTest implements BirdSaveDtoDataProvider, BirdResponse
         final String color = "color";
         final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
 
-        when(birdService.getBirdsByCriteria(name, color)).thenReturn(birdResponseDTOs);
+        when(birdService.getBirdsByCriteria(name, color, 1.0, 2.0, null, 3.0, "weight,desc"))
+                .thenReturn(birdResponseDTOs);
+
+        // when
+        final ResponseEntity<List<BirdResponseDto>> result = birdController.getBirdsByCriteria(name, color, 1.0, 2.0,
+                null, 3.0, "weight,desc", null, null);
+
+        // then
+        verify(birdService).getBirdsByCriteria(name, color, 1.0, 2.0, null, 3.0, "weight,desc");
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(birdResponseDTOs, result.getBody());
+    }
+
+    @Test
+    void getBirdsByCriteria_withCursor_should_succeed() {
+        // given
+        final String name = "name";
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final CursorPageDto<BirdResponseDto> page = new CursorPageDto<>(birdResponseDTOs, null);
+
+        when(birdService.getBirdsPage(name, null, null, null, null, null, null, "cursor", null)).thenReturn(page);
+
+        // when
+        final ResponseEntity<List<BirdResponseDto>> result = birdController.getBirdsByCriteria(name, null, null, null, null,
+                null, null, "cursor", null);
+
+        // then
+        verify(birdService).getBirdsPage(name, null, null, null, null, null, null, "cursor", null);
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(birdResponseDTOs, result.getBody());
+        assertFalse(result.getHeaders().containsKey(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void streamAllBirds_should_write_ndjson() throws IOException {
+        // given
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(), buildBirdResponseDto());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            final Consumer<BirdResponseDto> consumer = invocation.getArgument(7);
+            birdResponseDTOs.forEach(consumer);
+            return null;
+        }).when(birdService).streamBirdsByCriteria(eq(null), eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), any());
+
+        // when
+        final ResponseEntity<StreamingResponseBody> result =
+                birdController.streamAllBirds();
+        result.getBody().writeTo(outputStream);
+
+        // then
+        verify(birdService).streamBirdsByCriteria(eq(null), eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), any());
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        final String line = objectMapper.writeValueAsString(buildBirdResponseDto());
+        assertEquals(line + "\n" + line + "\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamBirdsByCriteriaAsArray_should_write_json_array() throws IOException {
+        // given
+        final String name = "name";
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(), buildBirdResponseDto());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            final Consumer<BirdResponseDto> consumer = invocation.getArgument(7);
+            birdResponseDTOs.forEach(consumer);
+            return null;
+        }).when(birdService).streamBirdsByCriteria(eq(name), eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), any());
+
+        // when
+        final ResponseEntity<StreamingResponseBody> result =
+                birdController.streamBirdsByCriteriaAsArray(name, null, null, null, null, null, null, true);
+        result.getBody().writeTo(outputStream);
+
+        // then
+        verify(birdService).streamBirdsByCriteria(eq(name), eq(null), eq(null), eq(null), eq(null),
+                eq(null), eq(null), any());
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertEquals(objectMapper.writeValueAsString(birdResponseDTOs), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamBirdsByCriteria_withNoBirds_should_write_empty_body() throws IOException {
+        // given
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         // when
-        final List<BirdResponseDto> result = birdController.getBirdsByCriteria(name, color);
+        final ResponseEntity<StreamingResponseBody> result =
+                birdController.streamBirdsByCriteria(null, "color", null, null, null, null, null);
+        result.getBody().writeTo(outputStream);
 
         // then
-        verify(birdService).getBirdsByCriteria(name, color);
+        verify(birdService).streamBirdsByCriteria(eq(null), eq("color"), eq(null), eq(null), eq(null),
+                eq(null), eq(null), any());
         verifyNoMoreInteractions(birdService);
 
-        assertEquals(birdResponseDTOs, result);
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        assertEquals("\n", outputStream.toString(StandardCharsets.UTF_8));
     }
 }
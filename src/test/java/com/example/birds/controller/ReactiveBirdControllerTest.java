@@ -0,0 +1,111 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.service.ReactiveBirdService;
+import com.example.birds.utdata.BirdResponseDtoDataProvider;
+import com.example.birds.utdata.BirdSaveDtoDataProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveBirdController}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveBirdControllerTest implements BirdSaveDtoDataProvider, BirdResponseDtoDataProvider {
+
+    @Mock
+    private final ReactiveBirdService birdService = Mockito.mock(ReactiveBirdService.class);
+
+    @InjectMocks
+    private ReactiveBirdController birdController;
+
+    @Test
+    void createBird_should_succeed() {
+        // given
+        final BirdSaveDto birdSaveDto = buildBirdSaveDto();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+
+        when(birdService.saveBird(birdSaveDto)).thenReturn(Mono.just(birdResponseDto));
+
+        // when
+        final BirdResponseDto result = birdController.createBird(birdSaveDto).block();
+
+        // then
+        verify(birdService).saveBird(birdSaveDto);
+        verifyNoMoreInteractions(birdService);
+
+        assertEquals(birdResponseDto, result);
+    }
+
+    @Test
+    void getAllBirds_should_succeed() {
+        // given
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+
+        when(birdService.getBirdsByCriteria(null, null, null, null, null, null, null))
+                .thenReturn(Flux.fromIterable(birdResponseDTOs));
+
+        // when
+        final ResponseEntity<Flux<BirdResponseDto>> result = birdController.getAllBirds(null, null).block();
+
+        // then
+        verify(birdService).getBirdsByCriteria(null, null, null, null, null, null, null);
+        verifyNoMoreInteractions(birdService);
+
+        assertNotNull(result);
+        assertEquals(birdResponseDTOs, result.getBody().collectList().block());
+        assertNull(result.getHeaders().getFirst(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getBirdsByCriteria_withLimit_should_succeed() {
+        // given
+        final String color = "color";
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final CursorPageDto<BirdResponseDto> page = new CursorPageDto<>(birdResponseDTOs, "next");
+
+        when(birdService.getBirdsPage(null, color, null, null, null, null, null, null, 1))
+                .thenReturn(Mono.just(page));
+
+        // when
+        final ResponseEntity<Flux<BirdResponseDto>> result = birdController.getBirdsByCriteria(null, color,
+                null, null, null, null, null, null, 1).block();
+
+        // then
+        verify(birdService).getBirdsPage(null, color, null, null, null, null, null, null, 1);
+        verifyNoMoreInteractions(birdService);
+
+        assertNotNull(result);
+        assertEquals(birdResponseDTOs, result.getBody().collectList().block());
+        assertEquals("next", result.getHeaders().getFirst(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void deleteBird_should_succeed() {
+        // given
+        final String id = "1";
+
+        when(birdService.deleteBird(id)).thenReturn(Mono.empty());
+
+        // when
+        birdController.deleteBird(id).block();
+
+        // then
+        verify(birdService).deleteBird(id);
+        verifyNoMoreInteractions(birdService);
+    }
+}
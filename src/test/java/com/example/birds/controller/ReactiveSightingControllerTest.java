@@ -0,0 +1,131 @@
+package com.example.birds.controller;
+
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.service.ReactiveSightingService;
+import com.example.birds.utdata.SightingResponseDtoDataProvider;
+import com.example.birds.utdata.SightingSaveDtoDataProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveSightingController}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveSightingControllerTest implements SightingSaveDtoDataProvider, SightingResponseDtoDataProvider {
+
+    @Mock
+    private final ReactiveSightingService sightingService = Mockito.mock(ReactiveSightingService.class);
+
+    @InjectMocks
+    private ReactiveSightingController sightingController;
+
+    @Test
+    void updateSighting_should_succeed() {
+        // given
+        final String id = "2";
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+        final SightingResponseDto sightingResponseDto = buildSightingResponseDto();
+
+        when(sightingService.updateSighting(sightingSaveDto, id)).thenReturn(Mono.just(sightingResponseDto));
+
+        // when
+        final SightingResponseDto result = sightingController.updateSighting(id, sightingSaveDto).block();
+
+        // then
+        verify(sightingService).updateSighting(sightingSaveDto, id);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingResponseDto, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_should_succeed() {
+        // given
+        final List<String> location = List.of("location");
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(sightingService.getSightingsByCriteria(null, location, null, null, "asc"))
+                .thenReturn(Flux.fromIterable(sightingResponseDTOs));
+
+        // when
+        final ResponseEntity<Flux<SightingResponseDto>> result = sightingController.getSightingsByCriteria(null,
+                location, null, null, "asc", null, null).block();
+
+        // then
+        verify(sightingService).getSightingsByCriteria(null, location, null, null, "asc");
+        verifyNoMoreInteractions(sightingService);
+
+        assertNotNull(result);
+        assertEquals(sightingResponseDTOs, result.getBody().collectList().block());
+    }
+
+    @Test
+    void getAllSightings_withCursor_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+        final CursorPageDto<SightingResponseDto> page = new CursorPageDto<>(sightingResponseDTOs, null);
+
+        when(sightingService.getSightingsPage(null, null, null, null, null, "cursor", null)).thenReturn(Mono.just(page));
+
+        // when
+        final ResponseEntity<Flux<SightingResponseDto>> result = sightingController.getAllSightings("cursor", null)
+                .block();
+
+        // then
+        verify(sightingService).getSightingsPage(null, null, null, null, null, "cursor", null);
+        verifyNoMoreInteractions(sightingService);
+
+        assertNotNull(result);
+        assertEquals(sightingResponseDTOs, result.getBody().collectList().block());
+        assertFalse(result.getHeaders().containsKey(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void countSightingsByCriteria_should_succeed() {
+        // given
+        when(sightingService.countSightingsByCriteria("1", null, null, null)).thenReturn(Mono.just(4L));
+
+        // when
+        final Long result = sightingController.countSightingsByCriteria("1", null, null, null).block();
+
+        // then
+        verify(sightingService).countSightingsByCriteria("1", null, null, null);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(4L, result);
+    }
+
+    @Test
+    void getSightingStats_should_succeed() {
+        // given
+        final List<SightingStatsDto> sightingStatsDTOs = List.of(new SightingStatsDto(null, "location", "2023", 5));
+
+        when(sightingService.getSightingStats(null, null, null, null, "year", List.of("location")))
+                .thenReturn(Flux.fromIterable(sightingStatsDTOs));
+
+        // when
+        final List<SightingStatsDto> result = sightingController.getSightingStats(null, null, null, null, "year",
+                List.of("location")).collectList().block();
+
+        // then
+        verify(sightingService).getSightingStats(null, null, null, null, "year", List.of("location"));
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingStatsDTOs, result);
+    }
+}
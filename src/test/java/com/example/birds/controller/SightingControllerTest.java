@@ -2,18 +2,38 @@ package com.example.birds.controller;
 
 import com.example.birds.utdata.SightingResponseDtoDataProvider;
 import com.example.birds.utdata.SightingSaveDtoDataProvider;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.SightingBulkItemDto;
+import com.example.birds.dto.SightingBulkResultDto;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.service.SightingBulkService;
 import com.example.birds.service.SightingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +46,12 @@ public class SightingControllerTest implements SightingSaveDtoDataProvider, Sigh
     @Mock
     private final SightingService sightingService = Mockito.mock(SightingService.class);
 
+    @Mock
+    private final SightingBulkService sightingBulkService = Mockito.mock(SightingBulkService.class);
+
+    @Spy
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private SightingController sightingController;
 
@@ -48,6 +74,26 @@ public class SightingControllerTest implements SightingSaveDtoDataProvider, Sigh
         assertEquals(sightingResponseDto, result);
     }
 
+    @Test
+    void createSightings_should_succeed() {
+        // given
+        final InputStream body = new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8));
+        final SightingBulkResultDto sightingBulkResultDto = new SightingBulkResultDto(List.of(
+                new SightingBulkItemDto(0, "2", null)));
+
+        when(sightingBulkService.saveSightings(body)).thenReturn(sightingBulkResultDto);
+
+        // when
+        final SightingBulkResultDto result = sightingController.createSightings(body);
+
+        // then
+        verify(sightingBulkService).saveSightings(body);
+        verifyNoMoreInteractions(sightingBulkService);
+        verifyNoInteractions(sightingService);
+
+        assertEquals(sightingBulkResultDto, result);
+    }
+
     @Test
     void updateSighting_should_succeed() {
         // given
@@ -106,13 +152,32 @@ public class SightingControllerTest implements SightingSaveDtoDataProvider, Sigh
         when(sightingService.getAllSightings()).thenReturn(sightingResponseDTOs);
 
         // when
-        final List<SightingResponseDto> result = sightingController.getAllSightings();
+        final ResponseEntity<List<SightingResponseDto>> result = sightingController.getAllSightings(null, null);
 
         // then
         verify(sightingService).getAllSightings();
         verifyNoMoreInteractions(sightingService);
 
-        assertEquals(sightingResponseDTOs, result);
+        assertEquals(sightingResponseDTOs, result.getBody());
+    }
+
+    @Test
+    void getAllSightings_withLimit_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+        final CursorPageDto<SightingResponseDto> page = new CursorPageDto<>(sightingResponseDTOs, "next");
+
+        when(sightingService.getSightingsPage(null, null, null, null, null, null, 1)).thenReturn(page);
+
+        // when
+        final ResponseEntity<List<SightingResponseDto>> result = sightingController.getAllSightings(null, 1);
+
+        // then
+        verify(sightingService).getSightingsPage(null, null, null, null, null, null, 1);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingResponseDTOs, result.getBody());
+        assertEquals("next", result.getHeaders().getFirst(CursorPageDto.NEXT_CURSOR_HEADER));
     }
 
     @Test
@@ -120,21 +185,190 @@ public class SightingControllerTest implements SightingSaveDtoDataProvider, Sigh
         // given
         final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
         final String birdId = "1";
-        final String location = "location";
+        final List<String> locations = List.of("location", "other location");
         final String startDateTime = "2023-07-18T10:00:00";
         final String endDateTime = "2023-07-18T15:00:00";
 
-        when(sightingService.getSightingsByCriteria(birdId, location, startDateTime, endDateTime))
+        when(sightingService.getSightingsByCriteria(birdId, locations, startDateTime, endDateTime, "desc"))
+                .thenReturn(sightingResponseDTOs);
+
+        // when
+        final ResponseEntity<List<SightingResponseDto>> result = sightingController.getSightingsByCriteria(birdId,
+                locations, startDateTime, endDateTime, "desc", null, null);
+
+        // then
+        verify(sightingService).getSightingsByCriteria(birdId, locations, startDateTime, endDateTime, "desc");
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingResponseDTOs, result.getBody());
+    }
+
+    @Test
+    void countSightingsByCriteria_should_succeed() {
+        // given
+        final List<String> locations = List.of("location");
+
+        when(sightingService.countSightingsByCriteria(null, locations, "2023-07-18T10:00:00", null)).thenReturn(4L);
+
+        // when
+        final long result = sightingController.countSightingsByCriteria(null, locations, "2023-07-18T10:00:00", null);
+
+        // then
+        verify(sightingService).countSightingsByCriteria(null, locations, "2023-07-18T10:00:00", null);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(4, result);
+    }
+
+    @Test
+    void getSightingsNear_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(sightingService.getSightingsNear("1", null, null, -118.5, 34.0, 500.0)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingController.getSightingsNear(-118.5, 34.0, 500.0, "1",
+                null, null);
+
+        // then
+        verify(sightingService).getSightingsNear("1", null, null, -118.5, 34.0, 500.0);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsWithin_should_succeed() {
+        // given
+        final String polygon = "0,0;1,0;1,1";
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(sightingService.getSightingsWithin(null, "2023-07-18T10:00:00", null, polygon, "asc"))
                 .thenReturn(sightingResponseDTOs);
 
         // when
-        final List<SightingResponseDto> result = sightingController.getSightingsByCriteria(birdId,
-                location,startDateTime, endDateTime);
+        final List<SightingResponseDto> result = sightingController.getSightingsWithin(polygon, null,
+                "2023-07-18T10:00:00", null, "asc");
 
         // then
-        verify(sightingService).getSightingsByCriteria(birdId, location, startDateTime, endDateTime);
+        verify(sightingService).getSightingsWithin(null, "2023-07-18T10:00:00", null, polygon, "asc");
         verifyNoMoreInteractions(sightingService);
 
         assertEquals(sightingResponseDTOs, result);
     }
+
+    @Test
+    void getHeatmapTile_should_succeed() {
+        // given
+        final SightingHeatmapTileDto tile = new SightingHeatmapTileDto(6, 11, 17, -118.125, 42.1875, 0.3515625,
+                0.17578125, 2, List.of(new SightingHeatmapCellDto(3, 5, 2)));
+
+        when(sightingService.getHeatmapTile(6, 11, 17, "2023-07-01", null)).thenReturn(tile);
+
+        // when
+        final SightingHeatmapTileDto result = sightingController.getHeatmapTile(6, 11, 17, "2023-07-01", null);
+
+        // then
+        verify(sightingService).getHeatmapTile(6, 11, 17, "2023-07-01", null);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(tile, result);
+    }
+
+    @Test
+    void getSightingStats_should_succeed() {
+        // given
+        final List<SightingStatsDto> sightingStatsDTOs = List.of(new SightingStatsDto("1", null, "2023-07", 3));
+        final List<String> groupBy = List.of("bird");
+
+        when(sightingService.getSightingStats("1", null, "2023-07-01", null, "month", groupBy))
+                .thenReturn(sightingStatsDTOs);
+
+        // when
+        final List<SightingStatsDto> result = sightingController.getSightingStats("1", null, "2023-07-01", null,
+                "month", groupBy);
+
+        // then
+        verify(sightingService).getSightingStats("1", null, "2023-07-01", null, "month", groupBy);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingStatsDTOs, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withCursorAndLimit_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+        final CursorPageDto<SightingResponseDto> page = new CursorPageDto<>(sightingResponseDTOs, "next");
+        final List<String> location = List.of("location");
+
+        when(sightingService.getSightingsPage(null, location, null, null, null, "cursor", 10)).thenReturn(page);
+
+        // when
+        final ResponseEntity<List<SightingResponseDto>> result = sightingController.getSightingsByCriteria(null,
+                location, null, null, null, "cursor", 10);
+
+        // then
+        verify(sightingService).getSightingsPage(null, location, null, null, null, "cursor", 10);
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(sightingResponseDTOs, result.getBody());
+        assertEquals("next", result.getHeaders().getFirst(CursorPageDto.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void streamSightingsByCriteria_should_write_ndjson() throws IOException {
+        // given
+        final List<String> location = List.of("location");
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto(),
+                buildSightingResponseDto());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            final Consumer<SightingResponseDto> consumer = invocation.getArgument(5);
+            sightingResponseDTOs.forEach(consumer);
+            return null;
+        }).when(sightingService).streamSightingsByCriteria(eq(null), eq(location), eq(null), eq(null), eq(null), any());
+
+        // when
+        final ResponseEntity<StreamingResponseBody> result =
+                sightingController.streamSightingsByCriteria(null, location, null, null, null);
+        result.getBody().writeTo(outputStream);
+
+        // then
+        verify(sightingService).streamSightingsByCriteria(eq(null), eq(location), eq(null), eq(null), eq(null), any());
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        final String line = objectMapper.writeValueAsString(buildSightingResponseDto());
+        assertEquals(line + "\n" + line + "\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamAllSightingsAsArray_should_write_json_array() throws IOException {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto(),
+                buildSightingResponseDto());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            final Consumer<SightingResponseDto> consumer = invocation.getArgument(5);
+            sightingResponseDTOs.forEach(consumer);
+            return null;
+        }).when(sightingService).streamSightingsByCriteria(eq(null), eq(null), eq(null), eq(null), eq(null), any());
+
+        // when
+        final ResponseEntity<StreamingResponseBody> result =
+                sightingController.streamAllSightingsAsArray(true);
+        result.getBody().writeTo(outputStream);
+
+        // then
+        verify(sightingService).streamSightingsByCriteria(eq(null), eq(null), eq(null), eq(null), eq(null), any());
+        verifyNoMoreInteractions(sightingService);
+
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertEquals(objectMapper.writeValueAsString(sightingResponseDTOs),
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,189 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.PageCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link BirdRepositoryCustomImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BirdRepositoryCustomImplTest implements BirdDataProvider {
+
+    private static final String OBJECT_ID = "60d5ec49f23e4d3b8c6a72f8";
+
+    @Mock
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    @Mock
+    private final IndexProperties indexProperties = Mockito.mock(IndexProperties.class);
+
+    @InjectMocks
+    private BirdRepositoryCustomImpl birdRepositoryCustom;
+
+    @Test
+    void findPage_withoutCursor_should_succeed() {
+        // given
+        final BirdSearch search = new BirdSearch("name", null, null, null, null, null, null, null);
+        final List<Bird> birds = List.of(buildBird());
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Bird.class))).thenReturn(birds);
+
+        // when
+        final List<Bird> result = birdRepositoryCustom.findPage(search, null, 10);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Bird.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("name", "name"), query.getQueryObject());
+        assertEquals(new Document("_id", 1), query.getSortObject());
+        assertEquals(10, query.getLimit());
+        assertEquals(new Document("name", 1).append("_id", 1).toJson(), query.getHint());
+        assertEquals(birds, result);
+    }
+
+    @Test
+    void findPage_withCursor_should_seek_after_cursor() {
+        // given
+        final PageCursor after = new PageCursor(null, OBJECT_ID);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Bird.class))).thenReturn(List.of());
+
+        // when
+        final List<Bird> result = birdRepositoryCustom.findPage(BirdSearch.ALL, after, 10);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Bird.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Document expected = new Document("$and", List.of(new Document(),
+                new Document("_id", new Document("$gt", new ObjectId(OBJECT_ID)))));
+        assertEquals(expected, queryCaptor.getValue().getQueryObject());
+        assertNull(queryCaptor.getValue().getHint());
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findPage_withSort_should_read_first_birds_in_sort_order() {
+        // given
+        final BirdSearch search = new BirdSearch(null, null, 1.5, null, null, 3.0, "weight", Sort.Direction.DESC);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Bird.class))).thenReturn(List.of());
+
+        // when
+        birdRepositoryCustom.findPage(search, null, 10);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Bird.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("weight", new Document("$gte", 1.5))
+                .append("height", new Document("$lte", 3.0)), query.getQueryObject());
+        assertEquals(new Document("weight", -1).append("_id", -1), query.getSortObject());
+        assertEquals(10, query.getLimit());
+        assertEquals(new Document("weight", 1).append("_id", 1).toJson(), query.getHint());
+    }
+
+    @Test
+    void search_should_combine_all_criteria() {
+        // given
+        final BirdSearch search = new BirdSearch("name", "color", 1.0, 2.0, 3.0, 4.0, null, null);
+        final List<Bird> birds = List.of(buildBird());
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(false);
+        when(mongoTemplate.find(any(Query.class), eq(Bird.class))).thenReturn(birds);
+
+        // when
+        final List<Bird> result = birdRepositoryCustom.search(search);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Bird.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("name", "name").append("color", "color")
+                .append("weight", new Document("$gte", 1.0).append("$lte", 2.0))
+                .append("height", new Document("$gte", 3.0).append("$lte", 4.0)), query.getQueryObject());
+        assertTrue(query.getSortObject().isEmpty());
+        assertNull(query.getHint());
+        assertEquals(birds, result);
+    }
+
+    @Test
+    void getIndexHint_should_select_index_by_criteria() {
+        // given
+        final BirdSearch all = new BirdSearch("name", "color", 1.0, null, 1.0, null, "height", null);
+        final BirdSearch colorSorted = new BirdSearch(null, "color", null, null, null, null, "weight", null);
+        final BirdSearch heightSorted = new BirdSearch(null, null, 1.0, null, null, null, "height", null);
+        final BirdSearch ranges = new BirdSearch(null, null, null, 2.0, 1.0, null, null, null);
+        final BirdSearch height = new BirdSearch(null, null, null, null, null, 1.0, null, null);
+
+        // when / then
+        assertEquals(new Document("name", 1).append("_id", 1), BirdRepositoryCustomImpl.getIndexHint(all));
+        assertEquals(new Document("color", 1).append("_id", 1), BirdRepositoryCustomImpl.getIndexHint(colorSorted));
+        assertEquals(new Document("height", 1).append("_id", 1), BirdRepositoryCustomImpl.getIndexHint(heightSorted));
+        assertEquals(new Document("weight", 1).append("_id", 1), BirdRepositoryCustomImpl.getIndexHint(ranges));
+        assertEquals(new Document("height", 1).append("_id", 1), BirdRepositoryCustomImpl.getIndexHint(height));
+        assertNull(BirdRepositoryCustomImpl.getIndexHint(BirdSearch.ALL));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_should_close_cursor() {
+        // given
+        final BirdSearch search = new BirdSearch(null, "color", null, null, null, null, null, null);
+        final Bird bird = buildBird();
+        final CloseableIterator<Bird> cursor = Mockito.mock(CloseableIterator.class, CALLS_REAL_METHODS);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.stream(any(Query.class), eq(Bird.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(bird);
+
+        // when
+        final List<Bird> result;
+        try (Stream<Bird> stream = birdRepositoryCustom.stream(search)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        verify(mongoTemplate).stream(queryCaptor.capture(), eq(Bird.class));
+        verify(cursor).close();
+        verifyNoMoreInteractions(mongoTemplate);
+
+        assertEquals(new Document("color", "color"), queryCaptor.getValue().getQueryObject());
+        assertEquals(List.of(bird), result);
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.dto.IndexRecommendationDto;
+import com.example.birds.dto.QueryPlanDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
+import com.example.birds.util.BirdSearch;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link IndexManager}.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IndexManagerTest {
+
+    @Mock
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    @Mock
+    private final IndexProperties indexProperties = Mockito.mock(IndexProperties.class);
+
+    @InjectMocks
+    private IndexManager indexManager;
+
+    private final IndexOperations birdIndexOperations = Mockito.mock(IndexOperations.class);
+
+    private final IndexOperations sightingIndexOperations = Mockito.mock(IndexOperations.class);
+
+    private final IndexOperations sightingRollupIndexOperations = Mockito.mock(IndexOperations.class);
+
+    @BeforeEach
+    void setUp() {
+        // same simple types as the application context, so that LocalDateTime is not mapped as an entity
+        final MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Bird.class)).thenReturn("birds");
+        when(mongoTemplate.getCollectionName(Sighting.class)).thenReturn("sightings");
+        when(mongoTemplate.indexOps(Bird.class)).thenReturn(birdIndexOperations);
+        when(mongoTemplate.getCollectionName(SightingRollup.class)).thenReturn("sighting_rollups");
+        when(mongoTemplate.indexOps(Sighting.class)).thenReturn(sightingIndexOperations);
+        when(mongoTemplate.indexOps(SightingRollup.class)).thenReturn(sightingRollupIndexOperations);
+    }
+
+    @Test
+    void verifyIndexes_should_create_missing_indexes_and_report_drift() {
+        // given
+        mockIndexes("birds", List.of(
+                getIndex("_id_", new Document("_id", 1)),
+                // servers may report directions as doubles
+                getIndex("name_id", new Document("name", 1.0).append("_id", 1.0)),
+                getIndex("old", new Document("weight", 1))));
+        mockIndexes("sightings", List.of(
+                getIndex("_id_", new Document("_id", 1)),
+                getIndex("dateTime_id", new Document("dateTime", -1).append("_id", 1))));
+        mockIndexes("sighting_rollups", List.of(
+                getIndex("_id_", new Document("_id", 1)),
+                getIndex("birdId_location_day", new Document("birdId", 1).append("location", 1).append("day", 1)),
+                getIndex("location_day", new Document("location", 1).append("day", 1)),
+                getIndex("day", new Document("day", 1))));
+
+        // when
+        final List<String> result = indexManager.verifyIndexes(true);
+
+        // then
+        final ArgumentCaptor<IndexDefinition> birdIndexCaptor = ArgumentCaptor.forClass(IndexDefinition.class);
+        final ArgumentCaptor<IndexDefinition> sightingIndexCaptor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(birdIndexOperations, times(3)).ensureIndex(birdIndexCaptor.capture());
+        verify(sightingIndexOperations, times(3)).ensureIndex(sightingIndexCaptor.capture());
+        verifyNoMoreInteractions(birdIndexOperations, sightingIndexOperations, sightingRollupIndexOperations);
+
+        final List<String> birdIndexes = new ArrayList<>();
+        for (IndexDefinition index : birdIndexCaptor.getAllValues()) {
+            birdIndexes.add(index.getIndexOptions().getString("name"));
+        }
+        assertEquals(List.of("color_id", "weight_id", "height_id"), birdIndexes);
+        final List<String> sightingIndexes = new ArrayList<>();
+        for (IndexDefinition index : sightingIndexCaptor.getAllValues()) {
+            sightingIndexes.add(index.getIndexOptions().getString("name"));
+        }
+        assertTrue(sightingIndexes.containsAll(List.of("birdId_dateTime_id", "location_dateTime_id",
+                "coordinates_birdId_dateTime")));
+
+        assertEquals(8, result.size());
+        assertTrue(result.containsAll(List.of(
+                "Created missing index color_id on birds: {\"color\": 1, \"_id\": 1}",
+                "Created missing index weight_id on birds: {\"weight\": 1, \"_id\": 1}",
+                "Undeclared index old on birds: {\"weight\": 1}",
+                "Index dateTime_id on sightings has keys {\"dateTime\": -1, \"_id\": 1} instead of {\"dateTime\": 1, \"_id\": 1}",
+                "Created missing index birdId_dateTime_id on sightings: {\"birdId\": 1, \"dateTime\": 1, \"_id\": 1}",
+                "Created missing index location_dateTime_id on sightings: {\"location\": 1, \"dateTime\": 1, \"_id\": 1}",
+                "Created missing index coordinates_birdId_dateTime on sightings: "
+                        + "{\"coordinates\": \"2dsphere\", \"birdId\": 1, \"dateTime\": 1}")));
+    }
+
+    @Test
+    void verifyIndexes_withoutCreate_should_only_report() {
+        // given
+        mockIndexes("birds", List.of(
+                getIndex("_id_", new Document("_id", 1)),
+                getIndex("name_id", new Document("name", 1).append("_id", 1)),
+                getIndex("color_id", new Document("color", 1).append("_id", 1))));
+        mockIndexes("sightings", List.of(getIndex("_id_", new Document("_id", 1))));
+        mockIndexes("sighting_rollups", List.of(getIndex("_id_", new Document("_id", 1))));
+
+        // when
+        final List<String> result = indexManager.verifyIndexes(false);
+
+        // then
+        verifyNoInteractions(birdIndexOperations, sightingIndexOperations, sightingRollupIndexOperations);
+
+        assertEquals(9, result.size());
+        assertTrue(result.contains("Missing index height_id on birds: {\"height\": 1, \"_id\": 1}"));
+        assertTrue(result.contains("Missing index dateTime_id on sightings: {\"dateTime\": 1, \"_id\": 1}"));
+        assertTrue(result.contains("Missing index birdId_location_day on sighting_rollups: "
+                + "{\"birdId\": 1, \"location\": 1, \"day\": 1}"));
+    }
+
+    @Test
+    void explainQueries_should_report_index_usage() {
+        // given
+        final MongoDatabase database = Mockito.mock(MongoDatabase.class);
+        final Document indexedPlan = getExplain(new Document("stage", "LIMIT").append("inputStage",
+                new Document("stage", "FETCH").append("inputStage",
+                        new Document("stage", "IXSCAN").append("indexName", "name_id"))));
+        final Document collectionScanPlan = getExplain(new Document("stage", "COLLSCAN"));
+        final ArgumentCaptor<Document> commandCaptor = ArgumentCaptor.forClass(Document.class);
+
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.runCommand(any(Document.class))).thenAnswer(invocation -> {
+            final Document find = invocation.getArgument(0, Document.class).get("explain", Document.class);
+            return find.get("filter", Document.class).containsKey("color") ? collectionScanPlan : indexedPlan;
+        });
+
+        // when
+        final List<QueryPlanDto> result = indexManager.explainQueries();
+
+        // then
+        verify(database, times(IndexManager.getQueryShapes(false).size())).runCommand(commandCaptor.capture());
+
+        final Document findAllById = commandCaptor.getAllValues().get(0).get("explain", Document.class);
+        assertEquals("birds", findAllById.getString("find"));
+        final Document idFilter = findAllById.get("filter", Document.class).get("_id", Document.class);
+        assertTrue(((Collection<?>) idFilter.get("$in")).iterator().next() instanceof ObjectId);
+
+        assertEquals(new QueryPlanDto("BirdRepositoryCustom.search(name)", true, List.of("LIMIT", "FETCH", "IXSCAN"),
+                List.of("name_id")), result.get(1));
+        assertEquals(new QueryPlanDto("BirdRepositoryCustom.search(color)", false, List.of("COLLSCAN"), List.of()),
+                result.get(2));
+    }
+
+    @Test
+    void getBirdIndexRecommendation_should_compare_with_declared_indexes() {
+        // given
+        final BirdSearch sizeSearch = new BirdSearch(null, "red", 1.5, null, null, null, "height",
+                Sort.Direction.DESC);
+        final BirdSearch weightSearch = new BirdSearch(null, null, 1.5, 3.0, null, null, null, null);
+
+        when(indexProperties.isHints()).thenReturn(true);
+
+        // when
+        final IndexRecommendationDto sizeResult = indexManager.getBirdIndexRecommendation(sizeSearch);
+        final IndexRecommendationDto weightResult = indexManager.getBirdIndexRecommendation(weightSearch);
+
+        // then
+        assertEquals(new IndexRecommendationDto("{\"color\": \"red\", \"weight\": {\"$gte\": 1.5}}",
+                "{\"height\": -1, \"_id\": -1}", "color_id",
+                "{\"color\": 1, \"height\": 1, \"weight\": 1, \"_id\": 1}", null), sizeResult);
+        assertEquals("weight_id", weightResult.getHintedIndex());
+        assertEquals("weight_id", weightResult.getDeclaredIndex());
+    }
+
+    @Test
+    void verify_withFailure_should_not_throw() {
+        // given
+        when(mongoTemplate.getCollection("birds")).thenThrow(new IllegalStateException("unavailable"));
+
+        // when
+        indexManager.verify();
+
+        // then
+        verify(mongoTemplate, never()).getDb();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockIndexes(String collectionName, List<Document> indexes) {
+        final MongoCollection<Document> collection = Mockito.mock(MongoCollection.class);
+        final ListIndexesIterable<Document> listIndexes = Mockito.mock(ListIndexesIterable.class);
+        when(mongoTemplate.getCollection(collectionName)).thenReturn(collection);
+        when(collection.listIndexes()).thenReturn(listIndexes);
+        when(listIndexes.into(any())).thenAnswer(invocation -> {
+            final List<Document> target = invocation.getArgument(0);
+            target.addAll(indexes);
+            return target;
+        });
+    }
+
+    private static Document getIndex(String name, Document keys) {
+        return new Document("v", 2).append("key", keys).append("name", name);
+    }
+
+    private static Document getExplain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan)
+                .append("rejectedPlans", List.of(new Document("stage", "COLLSCAN"))));
+    }
+}
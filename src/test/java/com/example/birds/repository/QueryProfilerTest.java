@@ -0,0 +1,257 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.QueryProfilerProperties;
+import com.example.birds.dto.QueryShapeDto;
+import com.example.birds.util.ErrorMessages;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link QueryProfiler}, explaining on the calling thread.
+ */
+public class QueryProfilerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private static final String FIND = "{find: 'sightings', filter: {birdId: '%s', dateTime: {$gte: {$date: "
+            + "'2023-07-18T10:00:00Z'}}}, sort: {dateTime: 1, _id: 1}, limit: 100, lsid: {id: 'session'}, "
+            + "$db: 'birdservice'}";
+
+    private static final String FIND_SHAPE = "find sightings {\"filter\": {\"birdId\": \"?\", \"dateTime\": "
+            + "{\"$gte\": \"?\"}}, \"sort\": {\"dateTime\": 1, \"_id\": 1}}";
+
+    private final QueryProfilerProperties queryProfilerProperties = new QueryProfilerProperties();
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<MongoTemplate> mongoTemplateProvider = Mockito.mock(ObjectProvider.class);
+
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+
+    private final MongoDatabase mongoDatabase = Mockito.mock(MongoDatabase.class);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+
+    private QueryProfiler queryProfiler;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplateProvider.getIfAvailable()).thenReturn(mongoTemplate);
+        when(mongoTemplate.getDb()).thenReturn(mongoDatabase);
+        queryProfiler = new QueryProfiler(queryProfilerProperties, mongoTemplateProvider, Runnable::run, nanos::get);
+    }
+
+    @Test
+    void getShape_should_replace_literals() {
+        // given
+        final BsonDocument first = BsonDocument.parse(String.format(FIND, "1"));
+        final BsonDocument second = BsonDocument.parse(String.format(FIND, "2"));
+
+        // when
+        final String firstShape = QueryProfiler.getShape("find", "sightings", first);
+        final String secondShape = QueryProfiler.getShape("find", "sightings", second);
+
+        // then
+        assertEquals(FIND_SHAPE, firstShape);
+        assertEquals(firstShape, secondShape);
+    }
+
+    @Test
+    void getShape_should_collapse_arrays_and_keep_field_paths() {
+        // given
+        final BsonDocument aggregate = BsonDocument.parse("{aggregate: 'sightings', pipeline: ["
+                + "{$match: {birdId: {$in: ['1', '2', '3']}}}, {$group: {_id: '$birdId', count: {$sum: 1}}},"
+                + "{$sort: {count: -1}}, {$limit: 10}], cursor: {}}");
+        final BsonDocument update = BsonDocument.parse("{update: 'birds', updates: [{q: {_id: '1'}, u: {name: 'a'}},"
+                + "{q: {_id: '2'}, u: {name: 'b'}}], ordered: true}");
+        final BsonDocument insert = BsonDocument.parse("{insert: 'birds', documents: [{name: 'a'}]}");
+
+        // when & then
+        assertEquals("aggregate sightings {\"pipeline\": [{\"$match\": {\"birdId\": {\"$in\": [\"?\"]}}}, "
+                        + "{\"$group\": {\"_id\": \"$birdId\", \"count\": {\"$sum\": \"?\"}}}, "
+                        + "{\"$sort\": {\"count\": -1}}, {\"$limit\": \"?\"}]}",
+                QueryProfiler.getShape("aggregate", QueryProfiler.getCollection("aggregate", aggregate), aggregate));
+        assertEquals("update birds {\"updates\": [{\"q\": {\"_id\": \"?\"}, \"u\": {\"name\": \"?\"}}]}",
+                QueryProfiler.getShape("update", QueryProfiler.getCollection("update", update), update));
+        assertEquals("insert birds", QueryProfiler.getShape("insert", "birds", insert));
+    }
+
+    @Test
+    void commandSucceeded_should_record_latency_by_shape() {
+        // given
+        run("find", String.format(FIND, "1"), 1);
+        run("find", String.format(FIND, "2"), 3);
+        run("hello", "{hello: 1}", 500);
+
+        // when
+        final List<QueryShapeDto> result = queryProfiler.getTopShapes(null, 10);
+
+        // then
+        assertEquals(1, result.size());
+        final QueryShapeDto shape = result.get(0);
+        assertEquals(FIND_SHAPE, shape.getShape());
+        assertEquals("find", shape.getCommand());
+        assertEquals("sightings", shape.getCollection());
+        assertEquals(2, shape.getCount());
+        assertEquals(0, shape.getSlowCount());
+        assertEquals(4.0, shape.getTotalMillis());
+        assertEquals(2.0, shape.getMeanMillis(), 0.05);
+        assertEquals(3.0, shape.getMaxMillis(), 0.05);
+        assertNull(shape.getDocsExaminedRatio());
+        verifyNoInteractions(mongoTemplateProvider);
+    }
+
+    @Test
+    void commandSucceeded_withSlowRead_should_explain_once_per_interval() {
+        // given
+        final Document explain = Document.parse("{queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: "
+                + "{stage: 'IXSCAN', indexName: 'birdId_dateTime_id'}}}, "
+                + "executionStats: {nReturned: 10, totalDocsExamined: 5000}}");
+        when(mongoDatabase.runCommand(any(Bson.class))).thenReturn(explain);
+
+        // when
+        run("find", String.format(FIND, "1"), 150);
+        run("find", String.format(FIND, "2"), 200);
+        nanos.addAndGet(queryProfilerProperties.getExplainInterval().toNanos());
+        run("find", String.format(FIND, "3"), 120);
+
+        // then
+        final ArgumentCaptor<Bson> captor = ArgumentCaptor.forClass(Bson.class);
+        verify(mongoDatabase, times(2)).runCommand(captor.capture());
+        assertEquals(BsonDocument.parse("{explain: {find: 'sightings', filter: {birdId: '1', dateTime: {$gte: "
+                        + "{$date: '2023-07-18T10:00:00Z'}}}, sort: {dateTime: 1, _id: 1}, limit: 100}, "
+                        + "verbosity: 'executionStats'}"), captor.getAllValues().get(0));
+
+        final QueryShapeDto shape = queryProfiler.getTopShapes("ratio", 10).get(0);
+        assertEquals(3, shape.getSlowCount());
+        assertEquals(2, shape.getExplains());
+        assertEquals(10000, shape.getDocsExamined());
+        assertEquals(20, shape.getDocsReturned());
+        assertEquals(500.0, shape.getDocsExaminedRatio());
+        assertEquals(List.of("FETCH", "IXSCAN"), shape.getStages());
+        assertEquals(List.of("birdId_dateTime_id"), shape.getIndexes());
+    }
+
+    @Test
+    void commandSucceeded_withSlowWrite_should_not_explain() {
+        // when
+        run("insert", "{insert: 'birds', documents: [{name: 'a'}]}", 150);
+
+        // then
+        assertEquals(1, queryProfiler.getTopShapes("max", 10).get(0).getSlowCount());
+        verifyNoInteractions(mongoTemplateProvider);
+    }
+
+    @Test
+    void commandFailed_should_count_failure() {
+        // given
+        final int requestId = requestIds.incrementAndGet();
+        queryProfiler.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "birdservice", "count",
+                BsonDocument.parse("{count: 'birds', query: {color: 'red'}}")));
+
+        // when
+        queryProfiler.commandFailed(new CommandFailedEvent(requestId, CONNECTION, "count",
+                TimeUnit.MILLISECONDS.toNanos(2), new IllegalStateException("failed")));
+
+        // then
+        final QueryShapeDto shape = queryProfiler.getTopShapes("count", 10).get(0);
+        assertEquals("count birds {\"query\": {\"color\": \"?\"}}", shape.getShape());
+        assertEquals(1, shape.getCount());
+        assertEquals(1, shape.getFailures());
+    }
+
+    @Test
+    void commandStarted_beyondMaxShapes_should_not_profile_new_shapes() {
+        // given
+        queryProfilerProperties.setMaxShapes(1);
+
+        // when
+        run("find", String.format(FIND, "1"), 1);
+        run("count", "{count: 'birds', query: {color: 'red'}}", 1);
+        run("find", String.format(FIND, "2"), 1);
+
+        // then
+        final List<QueryShapeDto> result = queryProfiler.getTopShapes("count", 10);
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getCount());
+    }
+
+    @Test
+    void getTopShapes_should_sort_and_limit() {
+        // given
+        run("find", String.format(FIND, "1"), 1);
+        run("find", String.format(FIND, "2"), 1);
+        run("count", "{count: 'birds', query: {color: 'red'}}", 5);
+
+        // when
+        final List<QueryShapeDto> byCount = queryProfiler.getTopShapes("count", 10);
+        final List<QueryShapeDto> byMax = queryProfiler.getTopShapes("max", 1);
+
+        // then
+        assertEquals(List.of("find", "count"), List.of(byCount.get(0).getCommand(), byCount.get(1).getCommand()));
+        assertEquals(1, byMax.size());
+        assertEquals("count", byMax.get(0).getCommand());
+    }
+
+    @Test
+    void getTopShapes_withInvalidSort_should_throw_exception() {
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> queryProfiler.getTopShapes("slowest", 10));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_QUERY_SHAPE_SORT, exception.getMessage());
+    }
+
+    @Test
+    void customize_should_register_listener_unless_disabled() {
+        // given
+        final MongoClientSettings.Builder enabled = MongoClientSettings.builder();
+        final MongoClientSettings.Builder disabled = MongoClientSettings.builder();
+
+        // when
+        queryProfiler.customize(enabled);
+        queryProfilerProperties.setEnabled(false);
+        queryProfiler.customize(disabled);
+
+        // then
+        assertEquals(List.of(queryProfiler), enabled.build().getCommandListeners());
+        assertTrue(disabled.build().getCommandListeners().isEmpty());
+    }
+
+    private void run(String commandName, String command, long millis) {
+        final int requestId = requestIds.incrementAndGet();
+        queryProfiler.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "birdservice", commandName,
+                BsonDocument.parse(command)));
+        queryProfiler.commandSucceeded(new CommandSucceededEvent(requestId, CONNECTION, commandName,
+                new BsonDocument(), Duration.ofMillis(millis).toNanos()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.util.BirdSearch;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveBirdRepositoryCustomImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveBirdRepositoryCustomImplTest implements BirdDataProvider {
+
+    @Mock
+    private final ReactiveMongoTemplate reactiveMongoTemplate = Mockito.mock(ReactiveMongoTemplate.class);
+    @Mock
+    private final IndexProperties indexProperties = Mockito.mock(IndexProperties.class);
+
+    @InjectMocks
+    private ReactiveBirdRepositoryCustomImpl birdRepositoryCustom;
+
+    @Test
+    void findPage_withoutCursor_should_succeed() {
+        // given
+        final BirdSearch search = new BirdSearch("name", null, null, null, null, null, null, null);
+        final Bird bird = buildBird();
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Bird.class))).thenReturn(Flux.just(bird));
+
+        // when
+        final List<Bird> result = birdRepositoryCustom.findPage(search, null, 10).collectList().block();
+
+        // then
+        verify(reactiveMongoTemplate).find(queryCaptor.capture(), eq(Bird.class));
+        verifyNoMoreInteractions(reactiveMongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("name", "name"), query.getQueryObject());
+        assertEquals(new Document("_id", 1), query.getSortObject());
+        assertEquals(10, query.getLimit());
+        assertEquals(new Document("name", 1).append("_id", 1).toJson(), query.getHint());
+        assertEquals(List.of(bird), result);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.model.Sighting;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.util.SightingSearch;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveSightingRepositoryCustomImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveSightingRepositoryCustomImplTest implements SightingDataProvider {
+
+    @Mock
+    private final ReactiveMongoTemplate reactiveMongoTemplate = Mockito.mock(ReactiveMongoTemplate.class);
+    @Mock
+    private final IndexProperties indexProperties = Mockito.mock(IndexProperties.class);
+
+    @InjectMocks
+    private ReactiveSightingRepositoryCustomImpl sightingRepositoryCustom;
+
+    @Test
+    void findPage_withoutCursor_should_succeed() {
+        // given
+        final SightingSearch search = new SightingSearch(null, List.of("location"), null, null, null);
+        final Sighting sighting = buildSighting();
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(Flux.just(sighting));
+
+        // when
+        final List<Sighting> result = sightingRepositoryCustom.findPage(search, null, 10).collectList().block();
+
+        // then
+        verify(reactiveMongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(reactiveMongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("location", "location"), query.getQueryObject());
+        assertEquals(new Document("dateTime", 1).append("_id", 1), query.getSortObject());
+        assertEquals(10, query.getLimit());
+        assertEquals(List.of(sighting), result);
+    }
+
+    @Test
+    void search_should_hint_index() {
+        // given
+        final SightingSearch search = new SightingSearch("1", List.of(), null, null, null);
+        final Sighting sighting = buildSighting();
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(Flux.just(sighting));
+
+        // when
+        final List<Sighting> result = sightingRepositoryCustom.search(search).collectList().block();
+
+        // then
+        verify(reactiveMongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(reactiveMongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("birdId", "1"), query.getQueryObject());
+        assertFalse(query.isSorted());
+        assertEquals(new Document("birdId", 1).append("dateTime", 1).append("_id", 1).toJson(), query.getHint());
+        assertEquals(List.of(sighting), result);
+    }
+}
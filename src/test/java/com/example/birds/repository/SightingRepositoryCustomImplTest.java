@@ -0,0 +1,473 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.IndexProperties;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.model.Bird;
+import com.example.birds.model.Sighting;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.utdata.SightingResponseDtoDataProvider;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SightingRepositoryCustomImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SightingRepositoryCustomImplTest implements SightingResponseDtoDataProvider, SightingDataProvider {
+
+    @Mock
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    @Mock
+    private final IndexProperties indexProperties = Mockito.mock(IndexProperties.class);
+
+    @InjectMocks
+    private SightingRepositoryCustomImpl sightingRepositoryCustom;
+
+    @Test
+    void findSightingResponseDTOs_should_succeed() {
+        // given
+        final SightingSearch search = new SightingSearch(null, List.of("location"), null, null, Sort.Direction.DESC);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+        final ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.getCollectionName(Bird.class)).thenReturn("birds");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Sighting.class), eq(SightingResponseDto.class)))
+                .thenReturn(new AggregationResults<>(sightingResponseDTOs, new Document()));
+
+        // when
+        final List<SightingResponseDto> result = sightingRepositoryCustom.findSightingResponseDTOs(search);
+
+        // then
+        verify(mongoTemplate).getCollectionName(Bird.class);
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Sighting.class), eq(SightingResponseDto.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        final List<String> stages = new ArrayList<>();
+        for (Document stage : pipeline) {
+            stages.add(stage.keySet().iterator().next());
+        }
+        assertEquals(List.of("$match", "$sort", "$addFields", "$lookup", "$unwind", "$project"), stages);
+        assertEquals(new Document("location", "location"), pipeline.get(0).get("$match"));
+        assertEquals(new Document("dateTime", -1).append("_id", -1), pipeline.get(1).get("$sort"));
+        assertEquals(new Document(SightingRepositoryCustomImpl.BIRD_OBJECT_ID_FIELD,
+                SightingRepositoryCustomImpl.getBirdObjectIdExpression().toDocument(Aggregation.DEFAULT_CONTEXT)),
+                pipeline.get(2).get("$addFields"));
+        assertEquals("birds", pipeline.get(3).get("$lookup", Document.class).get("from"));
+        assertEquals(new Document("location", 1).append("dateTime", 1).append("_id", 1),
+                aggregationCaptor.getValue().getOptions().getHint().orElse(null));
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getBirdObjectIdExpression_should_convert_invalid_ids_to_null() {
+        // when
+        final Document result = SightingRepositoryCustomImpl.getBirdObjectIdExpression()
+                .toDocument(Aggregation.DEFAULT_CONTEXT);
+
+        // then
+        final Document convert = result.get("$convert", Document.class);
+        assertEquals("$birdId", convert.get("input"));
+        assertEquals("objectId", convert.get("to"));
+        // a sighting with an invalid bird id is then reported as an orphan instead of failing the aggregation
+        assertTrue(convert.containsKey("onError"));
+        assertNull(convert.get("onError"));
+        assertTrue(convert.containsKey("onNull"));
+        assertNull(convert.get("onNull"));
+    }
+
+    @Test
+    void findPage_withCursor_should_seek_after_cursor() {
+        // given
+        final SightingSearch search = new SightingSearch(null, List.of("location"), null, null, null);
+        final LocalDateTime dateTime = LocalDateTime.parse("2023-07-18T10:00:00");
+        final PageCursor after = new PageCursor(dateTime, "2");
+        final List<Sighting> sightings = List.of(buildSighting());
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(sightings);
+
+        // when
+        final List<Sighting> result = sightingRepositoryCustom.findPage(search, after, 5);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        final Document afterCursor = new Document("$or", List.of(
+                new Document("dateTime", new Document("$gt", dateTime)),
+                new Document("dateTime", dateTime).append("_id", new Document("$gt", "2"))));
+        assertEquals(new Document("$and", List.of(new Document("location", "location"), afterCursor)),
+                query.getQueryObject());
+        assertEquals(new Document("dateTime", 1).append("_id", 1), query.getSortObject());
+        assertEquals(5, query.getLimit());
+        assertNull(query.getHint());
+        assertEquals(sightings, result);
+    }
+
+    @Test
+    void findPage_descending_should_seek_before_cursor() {
+        // given
+        final SightingSearch search = new SightingSearch("1", List.of(), null, null, Sort.Direction.DESC);
+        final LocalDateTime dateTime = LocalDateTime.parse("2023-07-18T10:00:00");
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(List.of());
+
+        // when
+        sightingRepositoryCustom.findPage(search, new PageCursor(dateTime, "2"), 5);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+
+        final Query query = queryCaptor.getValue();
+        // null date-times are sorted last in descending order
+        final Document afterCursor = new Document("$or", List.of(
+                new Document("dateTime", new Document("$lt", dateTime)),
+                new Document("dateTime", dateTime).append("_id", new Document("$lt", "2")),
+                new Document("dateTime", null)));
+        assertEquals(new Document("$and", List.of(new Document("birdId", "1"), afterCursor)),
+                query.getQueryObject());
+        assertEquals(new Document("dateTime", -1).append("_id", -1), query.getSortObject());
+        assertEquals(new Document("birdId", 1).append("dateTime", 1).append("_id", 1).toJson(), query.getHint());
+    }
+
+    @Test
+    void search_should_combine_all_criteria() {
+        // given
+        final LocalDateTime startDateTime = LocalDateTime.parse("2023-07-18T10:00:00");
+        final SightingSearch search = new SightingSearch("1", List.of("location", "other location"),
+                startDateTime, null, Sort.Direction.ASC);
+        final List<Sighting> sightings = List.of(buildSighting());
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(sightings);
+
+        // when
+        final List<Sighting> result = sightingRepositoryCustom.search(search);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        assertEquals(new Document("birdId", "1")
+                .append("location", new Document("$in", List.of("location", "other location")))
+                .append("dateTime", new Document("$gt", startDateTime)), query.getQueryObject());
+        assertEquals(new Document("dateTime", 1).append("_id", 1), query.getSortObject());
+        assertEquals(new Document("birdId", 1).append("dateTime", 1).append("_id", 1).toJson(), query.getHint());
+        assertEquals(sightings, result);
+    }
+
+    @Test
+    void geoSearch_near_should_combine_criteria_without_sort() {
+        // given
+        final LocalDateTime dateTime = LocalDateTime.parse("2023-07-18T10:00:00");
+        final GeoJsonPoint center = new GeoJsonPoint(-118.5, 34.0);
+        final SightingGeoSearch search = SightingGeoSearch.near("1", dateTime, null, center, 500);
+        final List<Sighting> sightings = List.of(buildSighting());
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(sightings);
+
+        // when
+        final List<Sighting> result = sightingRepositoryCustom.geoSearch(search);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query query = queryCaptor.getValue();
+        final Document queryObject = query.getQueryObject();
+        assertEquals("1", queryObject.get("birdId"));
+        assertEquals(new Document("$gt", dateTime), queryObject.get("dateTime"));
+        final Document nearSphere = queryObject.get("coordinates", Document.class).get("$nearSphere", Document.class);
+        assertEquals(center, nearSphere.get("$geometry"));
+        assertEquals(500.0, nearSphere.get("$maxDistance"));
+        // $nearSphere sorts by distance and selects the 2dsphere index itself
+        assertTrue(query.getSortObject().isEmpty());
+        assertNull(query.getHint());
+        assertEquals(sightings, result);
+    }
+
+    @Test
+    void geoSearch_within_should_hint_geo_index() {
+        // given
+        final GeoJsonPoint origin = new GeoJsonPoint(0, 0);
+        final GeoJsonPolygon polygon = new GeoJsonPolygon(origin, new Point(1, 0), new Point(1, 1), origin);
+        final SightingGeoSearch search = SightingGeoSearch.within(null, null, null, polygon, Sort.Direction.DESC);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(List.of());
+
+        // when
+        sightingRepositoryCustom.geoSearch(search);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+
+        final Query query = queryCaptor.getValue();
+        assertTrue(query.getQueryObject().get("coordinates", Document.class).containsKey("$geoWithin"));
+        assertEquals(new Document("dateTime", -1).append("_id", -1), query.getSortObject());
+        assertEquals(SightingRepositoryCustomImpl.GEO_INDEX.toJson(), query.getHint());
+    }
+
+    @Test
+    void getHeatmapCells_should_count_sightings_by_cell() {
+        // given
+        final SightingHeatmapSearch search = new SightingHeatmapSearch(2, 3, 1, 16, LocalDate.parse("2023-07-18"),
+                null);
+        final List<SightingHeatmapCellDto> cells = List.of(new SightingHeatmapCellDto(15, 0, 2));
+        final ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+
+        when(indexProperties.isHints()).thenReturn(true);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Sighting.class), eq(SightingHeatmapCellDto.class)))
+                .thenReturn(new AggregationResults<>(cells, new Document()));
+
+        // when
+        final List<SightingHeatmapCellDto> result = sightingRepositoryCustom.getHeatmapCells(search);
+
+        // then
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Sighting.class),
+                eq(SightingHeatmapCellDto.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        final List<String> stages = new ArrayList<>();
+        for (Document stage : pipeline) {
+            stages.add(stage.keySet().iterator().next());
+        }
+        assertEquals(List.of("$match", "$project", "$match", "$group", "$project", "$sort"), stages);
+        assertTrue(pipeline.get(0).get("$match", Document.class).get("coordinates", Document.class)
+                .containsKey("$geoWithin"));
+        final Document project = pipeline.get(1).get("$project", Document.class);
+        // the east-most tile also holds longitude 180, the others leave their east edge to the next tile
+        assertTrue(project.get("column", Document.class).get("$toInt", Document.class).containsKey("$min"));
+        assertTrue(project.get("row", Document.class).get("$toInt", Document.class).containsKey("$floor"));
+        assertEquals(new Document("$gte", 0).append("$lt", 16),
+                pipeline.get(2).get("$match", Document.class).get("column"));
+        assertEquals(new Document("row", 1).append("column", 1), pipeline.get(5).get("$sort"));
+        assertEquals(SightingRepositoryCustomImpl.GEO_INDEX,
+                aggregationCaptor.getValue().getOptions().getHint().orElse(null));
+        assertEquals(cells, result);
+    }
+
+    @Test
+    void getHeatmapAggregation_withHemisphereTile_should_not_hint() {
+        // when
+        final Aggregation aggregation = SightingRepositoryCustomImpl.getHeatmapAggregation(
+                new SightingHeatmapSearch(1, 0, 0, 16, null, null), true);
+
+        // then
+        assertTrue(aggregation.getOptions().getHint().isEmpty());
+    }
+
+    @Test
+    void getIndexHint_should_select_index_by_criteria() {
+        // given
+        final LocalDateTime dateTime = LocalDateTime.parse("2023-07-18T10:00:00");
+        final Document birdIdIndex = new Document("birdId", 1).append("dateTime", 1).append("_id", 1);
+        final Document locationIndex = new Document("location", 1).append("dateTime", 1).append("_id", 1);
+        final Document dateTimeIndex = new Document("dateTime", 1).append("_id", 1);
+
+        // then
+        assertEquals(birdIdIndex, SightingRepositoryCustomImpl.getIndexHint(
+                new SightingSearch("1", List.of("location"), dateTime, dateTime, null), false));
+        assertEquals(locationIndex, SightingRepositoryCustomImpl.getIndexHint(
+                new SightingSearch(null, List.of("location"), null, dateTime, null), true));
+        assertEquals(dateTimeIndex, SightingRepositoryCustomImpl.getIndexHint(
+                new SightingSearch(null, List.of(), null, dateTime, null), false));
+        assertEquals(dateTimeIndex, SightingRepositoryCustomImpl.getIndexHint(SightingSearch.ALL, true));
+        assertNull(SightingRepositoryCustomImpl.getIndexHint(SightingSearch.ALL, false));
+    }
+
+    @Test
+    void findPage_withCursorWithoutDateTime_should_seek_after_cursor() {
+        // given
+        final PageCursor after = new PageCursor(null, "2");
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Sighting.class))).thenReturn(List.of());
+
+        // when
+        sightingRepositoryCustom.findPage(SightingSearch.ALL, after, 5);
+
+        // then
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Sighting.class));
+
+        final Document afterCursor = new Document("$or", List.of(
+                new Document("dateTime", null).append("_id", new Document("$gt", "2")),
+                new Document("dateTime", new Document("$ne", null))));
+        assertEquals(new Document("$and", List.of(new Document(), afterCursor)),
+                queryCaptor.getValue().getQueryObject());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_should_close_cursor() {
+        // given
+        final SightingSearch search = new SightingSearch(null, List.of("location"), null, null, null);
+        final Sighting sighting = buildSighting();
+        final CloseableIterator<Sighting> cursor = Mockito.mock(CloseableIterator.class, CALLS_REAL_METHODS);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.stream(any(Query.class), eq(Sighting.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(sighting);
+
+        // when
+        final List<Sighting> result;
+        try (Stream<Sighting> stream = sightingRepositoryCustom.stream(search)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        verify(mongoTemplate).stream(queryCaptor.capture(), eq(Sighting.class));
+        verify(cursor).close();
+        verifyNoMoreInteractions(mongoTemplate);
+
+        assertEquals(new Document("location", "location"), queryCaptor.getValue().getQueryObject());
+        assertEquals(List.of(sighting), result);
+    }
+
+    @Test
+    void bulkInsert_should_succeed() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting());
+        final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Sighting.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(sightings)).thenReturn(bulkOperations);
+
+        // when
+        final Map<Integer, String> result = sightingRepositoryCustom.bulkInsert(sightings);
+
+        // then
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, Sighting.class);
+        verify(bulkOperations).insert(sightings);
+        verify(bulkOperations).execute();
+        verifyNoMoreInteractions(mongoTemplate, bulkOperations);
+
+        assertEquals(Map.of(), result);
+    }
+
+    @Test
+    void bulkInsert_withWriteErrors_should_return_errors() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting(), buildSighting());
+        final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+        final BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        final MongoBulkWriteException source = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(error), null, new ServerAddress(), Set.of());
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Sighting.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(sightings)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("bulk write failed", source));
+
+        // when
+        final Map<Integer, String> result = sightingRepositoryCustom.bulkInsert(sightings);
+
+        // then
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, Sighting.class);
+        verify(bulkOperations).insert(sightings);
+        verify(bulkOperations).execute();
+        verifyNoMoreInteractions(mongoTemplate, bulkOperations);
+
+        assertEquals(Map.of(1, "duplicate key"), result);
+    }
+
+    @Test
+    void deleteChunkByBirdId_should_succeed() {
+        // given
+        final ObjectId id = new ObjectId();
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.getCollectionName(Sighting.class)).thenReturn("sightings");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("sightings")))
+                .thenReturn(List.of(new Document("_id", id)));
+        when(mongoTemplate.remove(any(Query.class), eq(Sighting.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        // when
+        final long result = sightingRepositoryCustom.deleteChunkByBirdId("1", 10);
+
+        // then
+        verify(mongoTemplate).getCollectionName(Sighting.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("sightings"));
+        verify(mongoTemplate).remove(queryCaptor.capture(), eq(Sighting.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final Query chunkQuery = queryCaptor.getAllValues().get(0);
+        assertEquals(new Document("birdId", "1"), chunkQuery.getQueryObject());
+        assertEquals(new Document("_id", 1), chunkQuery.getFieldsObject());
+        assertEquals(10, chunkQuery.getLimit());
+        assertEquals(new Document("_id", new Document("$in", List.of(id))),
+                queryCaptor.getAllValues().get(1).getQueryObject());
+        assertEquals(1, result);
+    }
+
+    @Test
+    void deleteChunkByBirdId_withoutSightings_should_not_delete() {
+        // given
+        when(mongoTemplate.getCollectionName(Sighting.class)).thenReturn("sightings");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("sightings"))).thenReturn(List.of());
+
+        // when
+        final long result = sightingRepositoryCustom.deleteChunkByBirdId("1", 10);
+
+        // then
+        verify(mongoTemplate).getCollectionName(Sighting.class);
+        verify(mongoTemplate).find(any(Query.class), eq(Document.class), eq("sightings"));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        assertEquals(0, result);
+    }
+}
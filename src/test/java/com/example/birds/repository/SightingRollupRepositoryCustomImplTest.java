@@ -0,0 +1,157 @@
+package com.example.birds.repository;
+
+import com.example.birds.dto.SightingStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.util.SightingStatsSearch;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SightingRollupRepositoryCustomImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SightingRollupRepositoryCustomImplTest implements SightingDataProvider {
+
+    @Mock
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+
+    @InjectMocks
+    private SightingRollupRepositoryCustomImpl sightingRollupRepositoryCustom;
+
+    @Test
+    void updateCounts_should_upsert_one_rollup_per_key() {
+        // given
+        final Sighting sighting = buildSighting();
+        final Sighting moved = new Sighting("1", "other location", LocalDateTime.parse("2023-07-18T11:00:00"));
+        final Sighting sameDay = new Sighting("1", "location", LocalDateTime.parse("2023-07-18T23:00:00"));
+        final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+        final ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        final ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SightingRollup.class)).thenReturn(bulkOperations);
+
+        // when
+        sightingRollupRepositoryCustom.updateCounts(List.of(sighting), List.of(moved, sameDay, sameDay));
+
+        // then
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, SightingRollup.class);
+        verify(bulkOperations, times(2)).upsert(queryCaptor.capture(), updateCaptor.capture());
+        verify(bulkOperations).execute();
+        verifyNoMoreInteractions(mongoTemplate, bulkOperations);
+
+        assertEquals(new Document("birdId", "1").append("location", "location").append("day", "2023-07-18"),
+                queryCaptor.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("$inc", new Document("count", 1L)), updateCaptor.getAllValues().get(0).getUpdateObject());
+        assertEquals("other location", queryCaptor.getAllValues().get(1).getQueryObject().getString("location"));
+        assertEquals(new Document("$inc", new Document("count", 1L)), updateCaptor.getAllValues().get(1).getUpdateObject());
+    }
+
+    @Test
+    void updateCounts_withUnchangedRollups_should_not_write() {
+        // given
+        final Sighting sighting = buildSighting();
+
+        // when
+        sightingRollupRepositoryCustom.updateCounts(List.of(sighting), List.of(sighting));
+
+        // then
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void getDeltas_should_sum_counts_by_rollup() {
+        // given
+        final Sighting sighting = buildSighting();
+        final Sighting nextDay = new Sighting("1", "location", LocalDateTime.parse("2023-07-19T00:00:00"));
+
+        // when
+        final Map<List<String>, Long> result = SightingRollupRepositoryCustomImpl.getDeltas(List.of(sighting, sighting),
+                List.of(nextDay));
+
+        // then
+        assertEquals(Map.of(List.of("1", "location", "2023-07-18"), -2L, List.of("1", "location", "2023-07-19"), 1L),
+                result);
+    }
+
+    @Test
+    void getDeltas_withoutDateTime_should_count_null_day() {
+        // given
+        final Sighting sighting = new Sighting("1", "location", null);
+
+        // when
+        final Map<List<String>, Long> result = SightingRollupRepositoryCustomImpl.getDeltas(List.of(),
+                List.of(sighting));
+
+        // then
+        assertEquals(Map.of(Arrays.asList("1", "location", null), 1L), result);
+    }
+
+    @Test
+    void getStats_should_aggregate_rollups() {
+        // given
+        final SightingStatsSearch search = new SightingStatsSearch("1", null, LocalDate.parse("2023-07-01"), null,
+                SightingStatsSearch.Bucket.MONTH, false, true);
+        final List<SightingStatsDto> sightingStatsDTOs = List.of(new SightingStatsDto(null, "location", "2023-07", 2));
+        final ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+
+        when(mongoTemplate.getCollectionName(SightingRollup.class)).thenReturn("sighting_rollups");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("sighting_rollups"), eq(SightingStatsDto.class)))
+                .thenReturn(new AggregationResults<>(sightingStatsDTOs, new Document()));
+
+        // when
+        final List<SightingStatsDto> result = sightingRollupRepositoryCustom.getStats(search);
+
+        // then
+        verify(mongoTemplate).getCollectionName(SightingRollup.class);
+        verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq("sighting_rollups"), eq(SightingStatsDto.class));
+        verifyNoMoreInteractions(mongoTemplate);
+
+        final List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("$match", new Document("birdId", "1")
+                .append("day", new Document("$gte", "2023-07-01"))
+                .append("count", new Document("$gt", 0))), pipeline.get(0));
+        assertEquals(new Document("$group", new Document("_id", new Document("location", "$location")
+                .append("bucket", new Document("$substrBytes", List.of("$day", 0, 7))))
+                .append("count", new Document("$sum", "$count"))), pipeline.get(1));
+        assertEquals(4, pipeline.size());
+        assertEquals(sightingStatsDTOs, result);
+    }
+
+    @Test
+    void getRebuildPipeline_should_group_sightings_by_day() {
+        // when
+        final List<Document> result = SightingRollupRepositoryCustomImpl.getRebuildPipeline("sighting_rollups",
+                "Europe/Bucharest");
+
+        // then
+        final Document groupId = result.get(0).get("$group", Document.class).get("_id", Document.class);
+        assertEquals(new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$dateTime")
+                .append("timezone", "Europe/Bucharest")), groupId.get("day"));
+        assertEquals(new Document("$out", "sighting_rollups"), result.get(2));
+    }
+}
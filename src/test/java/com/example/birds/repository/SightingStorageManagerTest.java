@@ -0,0 +1,278 @@
+package com.example.birds.repository;
+
+import com.example.birds.config.SightingStorageProperties;
+import com.example.birds.model.Sighting;
+import com.example.birds.util.ErrorMessages;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListCollectionsIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SightingStorageManager}.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SightingStorageManagerTest {
+
+    @Mock
+    private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+    @Mock
+    private final SightingStorageProperties sightingStorageProperties = Mockito.mock(SightingStorageProperties.class);
+    @Mock
+    private final IndexManager indexManager = Mockito.mock(IndexManager.class);
+
+    @InjectMocks
+    private SightingStorageManager sightingStorageManager;
+
+    private final MongoDatabase database = Mockito.mock(MongoDatabase.class);
+
+    private final Map<String, Document> collections = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final ListCollectionsIterable<Document> listCollections = Mockito.mock(ListCollectionsIterable.class);
+        final ArgumentCaptor<Document> filterCaptor = ArgumentCaptor.forClass(Document.class);
+
+        when(mongoTemplate.getCollectionName(Sighting.class)).thenReturn("sightings");
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.getName()).thenReturn("birdservice");
+        when(database.listCollections()).thenReturn(listCollections);
+        when(listCollections.filter(filterCaptor.capture())).thenReturn(listCollections);
+        when(listCollections.first()).thenAnswer(invocation ->
+                collections.get(filterCaptor.getValue().getString("name")));
+        when(sightingStorageProperties.getGranularity()).thenReturn("minutes");
+        when(sightingStorageProperties.getMigrationBatchSize()).thenReturn(2);
+    }
+
+    @Test
+    void ensureCollection_withRegularMode_should_do_nothing() {
+        // when
+        sightingStorageManager.ensureCollection();
+
+        // then
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void ensureCollection_withTimeSeriesMode_should_create_missing_collection() {
+        // given
+        final MongoCollection<Document> sightings = mockCollection("sightings");
+
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+
+        // when
+        sightingStorageManager.ensureCollection();
+
+        // then
+        verify(database).runCommand(new Document("create", "sightings").append("timeseries",
+                new Document("timeField", "dateTime").append("metaField", "birdId").append("granularity", "minutes")));
+        verify(sightings).createIndex(eq(new Document("_id", 1)), any(IndexOptions.class));
+    }
+
+    @Test
+    void ensureCollection_withRegularCollection_should_not_create() {
+        // given
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+
+        // when
+        sightingStorageManager.ensureCollection();
+
+        // then
+        verify(database, never()).runCommand(any(Document.class));
+    }
+
+    @Test
+    void migrate_should_copy_sightings_in_batches() {
+        // given
+        final List<Document> documents = List.of(new Document("_id", 1), new Document("_id", 2),
+                new Document("_id", 3));
+        final MongoCollection<Document> sightings = mockCollection("sightings");
+        final MongoCollection<Document> backup = mockCollection("sightings_backup");
+        final List<Integer> batchSizes = new ArrayList<>();
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+        mockFind(backup, documents);
+
+        when(sightings.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(invocation -> {
+            final List<Document> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            final Map<Integer, BsonValue> insertedIds = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                insertedIds.put(i, new BsonInt32(i));
+            }
+            return InsertManyResult.acknowledged(insertedIds);
+        });
+        when(sightings.countDocuments()).thenReturn(3L);
+        when(backup.countDocuments()).thenReturn(3L);
+        when(indexManager.verifyIndexes(true)).thenReturn(List.of());
+
+        // when
+        final long result = sightingStorageManager.migrate();
+
+        // then
+        verify(sightings).renameCollection(new MongoNamespace("birdservice", "sightings_backup"));
+        verify(database).runCommand(any(Document.class));
+        verify(indexManager).verifyIndexes(true);
+        verify(sightings, never()).drop();
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(3, result);
+    }
+
+    @Test
+    void migrate_withIncompleteCopy_should_restore_collection() {
+        // given
+        final MongoCollection<Document> sightings = mockCollection("sightings");
+        final MongoCollection<Document> backup = mockCollection("sightings_backup");
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+        mockFind(backup, List.of());
+
+        when(backup.countDocuments()).thenReturn(1L);
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingStorageManager.migrate());
+
+        // then
+        assertEquals(String.format(ErrorMessages.SIGHTINGS_MIGRATION_INCOMPLETE, 0, 1), exception.getMessage());
+        verify(sightings, never()).insertMany(anyList(), any(InsertManyOptions.class));
+        verify(sightings).drop();
+        verify(backup).renameCollection(new MongoNamespace("birdservice", "sightings"));
+        verifyNoInteractions(indexManager);
+    }
+
+    @Test
+    void migrate_withFailingInsert_should_restore_collection() {
+        // given
+        final MongoCollection<Document> sightings = mockCollection("sightings");
+        final MongoCollection<Document> backup = mockCollection("sightings_backup");
+        final MongoTimeoutException failure = new MongoTimeoutException("timeout");
+        final MongoException renameFailure = new MongoException("rename failed");
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+        mockFind(backup, List.of(new Document("_id", 1)));
+
+        when(sightings.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(failure);
+        doThrow(renameFailure).when(backup).renameCollection(any(MongoNamespace.class));
+
+        // when
+        final MongoTimeoutException exception = assertThrows(MongoTimeoutException.class,
+                () -> sightingStorageManager.migrate());
+
+        // then
+        assertSame(failure, exception);
+        assertArrayEquals(new Throwable[]{renameFailure}, exception.getSuppressed());
+        verify(sightings).drop();
+        verifyNoInteractions(indexManager);
+    }
+
+    @Test
+    void migrate_withSightingsWithoutDateTime_should_throw_before_renaming() {
+        // given
+        final MongoCollection<Document> sightings = mockCollection("sightings");
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+
+        when(sightings.countDocuments(new Document("dateTime", null))).thenReturn(2L);
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingStorageManager.migrate());
+
+        // then
+        assertEquals(String.format(ErrorMessages.SIGHTINGS_WITHOUT_DATETIME, 2), exception.getMessage());
+        verify(sightings, never()).renameCollection(any(MongoNamespace.class));
+        verify(database, never()).runCommand(any(Document.class));
+    }
+
+    @Test
+    void migrate_withExistingBackup_should_throw() {
+        // given
+        collections.put("sightings", new Document("name", "sightings").append("type", "collection"));
+        collections.put("sightings_backup", new Document("name", "sightings_backup").append("type", "collection"));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingStorageManager.migrate());
+
+        // then
+        assertEquals(String.format(ErrorMessages.SIGHTINGS_BACKUP_EXISTS, "sightings_backup"), exception.getMessage());
+        verify(database, never()).getCollection(anyString());
+        verify(database, never()).runCommand(any(Document.class));
+    }
+
+    @Test
+    void migrate_withTimeSeriesCollection_should_throw() {
+        // given
+        collections.put("sightings", new Document("name", "sightings").append("type", "timeseries"));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingStorageManager.migrate());
+
+        // then
+        assertEquals(ErrorMessages.SIGHTINGS_ALREADY_TIME_SERIES, exception.getMessage());
+        verify(database, never()).runCommand(any(Document.class));
+    }
+
+    @Test
+    void run_withoutMigrateOption_should_not_migrate() {
+        // when
+        sightingStorageManager.run(new DefaultApplicationArguments("--server.port=8081"));
+
+        // then
+        verifyNoInteractions(mongoTemplate, indexManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> mockCollection(String collectionName) {
+        final MongoCollection<Document> collection = Mockito.mock(MongoCollection.class);
+        when(database.getCollection(collectionName)).thenReturn(collection);
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void mockFind(MongoCollection<Document> collection, List<Document> documents) {
+        final FindIterable<Document> find = Mockito.mock(FindIterable.class);
+        final MongoCursor<Document> cursor = Mockito.mock(MongoCursor.class);
+        final Iterator<Document> iterator = documents.iterator();
+        when(collection.find()).thenReturn(find);
+        when(find.batchSize(anyInt())).thenReturn(find);
+        when(find.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+    }
+}
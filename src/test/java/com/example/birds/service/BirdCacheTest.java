@@ -0,0 +1,128 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdCacheProperties;
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.model.Bird;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.util.ErrorMessages;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BirdCache}.
+ */
+public class BirdCacheTest implements BirdDataProvider {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Bird> loader = id -> {
+        loads.incrementAndGet();
+        final Bird bird = buildBird();
+        bird.setId(id);
+        return bird;
+    };
+
+    @Test
+    void get_should_load_once() {
+        // given
+        final BirdCache birdCache = new BirdCache(new BirdCacheProperties(), nanos::get);
+
+        // when
+        final Bird first = birdCache.get("1", loader);
+        final Bird second = birdCache.get("1", loader);
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(new CacheStatsDto(1, 1, 0.5, 0, 1), birdCache.getStats());
+    }
+
+    @Test
+    void get_withFailingLoader_should_not_cache() {
+        // given
+        final BirdCache birdCache = new BirdCache(new BirdCacheProperties(), nanos::get);
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class, () -> birdCache.get("0", id -> {
+            throw new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND);
+        }));
+
+        // then
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+        assertEquals(0, birdCache.getStats().getSize());
+    }
+
+    @Test
+    void get_afterExpiration_should_load_again() {
+        // given
+        final BirdCacheProperties birdCacheProperties = new BirdCacheProperties();
+        birdCacheProperties.setExpireAfterWrite(Duration.ofMinutes(1));
+        final BirdCache birdCache = new BirdCache(birdCacheProperties, nanos::get);
+        birdCache.get("1", loader);
+
+        // when
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        birdCache.get("1", loader);
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(1, birdCache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void get_overMaximumSize_should_evict() {
+        // given
+        final BirdCacheProperties birdCacheProperties = new BirdCacheProperties();
+        birdCacheProperties.setMaximumSize(1);
+        final BirdCache birdCache = new BirdCache(birdCacheProperties, nanos::get);
+
+        // when
+        birdCache.get("1", loader);
+        birdCache.get("2", loader);
+
+        // then
+        final CacheStatsDto stats = birdCache.getStats();
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void invalidate_should_load_again() {
+        // given
+        final BirdCache birdCache = new BirdCache(new BirdCacheProperties(), nanos::get);
+        birdCache.get("1", loader);
+
+        // when
+        birdCache.invalidate("1");
+        birdCache.get("1", loader);
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(2, birdCache.getStats().getMissCount());
+    }
+
+    @Test
+    void get_whenDisabled_should_always_load() {
+        // given
+        final BirdCacheProperties birdCacheProperties = new BirdCacheProperties();
+        birdCacheProperties.setEnabled(false);
+        final BirdCache birdCache = new BirdCache(birdCacheProperties, nanos::get);
+
+        // when
+        birdCache.get("1", loader);
+        birdCache.get("1", loader);
+        birdCache.invalidate("1");
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(new CacheStatsDto(0, 0, 1, 0, 0), birdCache.getStats());
+    }
+}
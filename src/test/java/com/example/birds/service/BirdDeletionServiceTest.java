@@ -0,0 +1,195 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdCacheProperties;
+import com.example.birds.config.BirdDeletionProperties;
+import com.example.birds.dto.BirdDeletionDto;
+import com.example.birds.repository.BirdRepository;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.ErrorMessages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link BirdDeletionService}.
+ */
+public class BirdDeletionServiceTest {
+
+    private final BirdRepository birdRepository = Mockito.mock(BirdRepository.class);
+
+    private final SightingRepository sightingRepository = Mockito.mock(SightingRepository.class);
+
+    private final SightingRollupRepository sightingRollupRepository = Mockito.mock(SightingRollupRepository.class);
+
+    private final BirdCache birdCache = Mockito.spy(new BirdCache(new BirdCacheProperties()));
+
+    private final SightingTimeIndex sightingTimeIndex = Mockito.mock(SightingTimeIndex.class);
+
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+
+    private final BirdRequestCoalescer birdRequestCoalescer = Mockito.mock(BirdRequestCoalescer.class);
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private BirdDeletionService birdDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        final BirdDeletionProperties birdDeletionProperties = new BirdDeletionProperties();
+        birdDeletionProperties.setChunkSize(2);
+        // deletions are queued and run on demand by the tests
+        birdDeletionService = new BirdDeletionService(birdRepository, sightingRepository, sightingRollupRepository,
+                birdCache, sightingTimeIndex, sightingHeatmapCache, birdRequestCoalescer, birdDeletionProperties,
+                tasks::add);
+    }
+
+    @Test
+    void startDeletion_should_delete_sightings_by_chunks_then_bird() {
+        // given
+        final String birdId = "1";
+
+        when(birdRepository.existsById(birdId)).thenReturn(true);
+        when(sightingRepository.countByBirdId(birdId)).thenReturn(3L);
+        when(sightingRepository.deleteChunkByBirdId(birdId, 2)).thenReturn(2L, 1L, 0L);
+
+        // when
+        final BirdDeletionDto started = birdDeletionService.startDeletion(birdId);
+        final BirdDeletionDto pending = birdDeletionService.getDeletion(started.getId());
+        tasks.forEach(Runnable::run);
+        final BirdDeletionDto completed = birdDeletionService.getDeletion(started.getId());
+
+        // then
+        verify(birdRepository).existsById(birdId);
+        verify(sightingRepository).countByBirdId(birdId);
+        verify(sightingRepository, times(3)).deleteChunkByBirdId(birdId, 2);
+        verify(sightingRepository).deleteByBirdId(birdId);
+        verify(sightingRollupRepository).deleteByBirdId(birdId);
+        verify(sightingTimeIndex).removeByBirdId(birdId);
+        verify(sightingHeatmapCache).invalidateAll();
+        verify(birdRepository).deleteById(birdId);
+        verify(birdCache).invalidate(birdId);
+        verify(birdRequestCoalescer).invalidate(birdId);
+        verifyNoMoreInteractions(birdRepository, sightingRepository, sightingRollupRepository, birdCache,
+                sightingTimeIndex, sightingHeatmapCache);
+
+        assertEquals(1, tasks.size());
+        assertEquals(new BirdDeletionDto(started.getId(), birdId, BirdDeletionDto.Status.PENDING, 3, 0, null), started);
+        assertEquals(started, pending);
+        assertEquals(new BirdDeletionDto(started.getId(), birdId, BirdDeletionDto.Status.COMPLETED, 3, 3, null),
+                completed);
+    }
+
+    @Test
+    void startDeletion_should_delete_sightings_created_before_bird_deletion() {
+        // given
+        final String birdId = "1";
+
+        when(birdRepository.existsById(birdId)).thenReturn(true);
+        when(sightingRepository.countByBirdId(birdId)).thenReturn(2L);
+        when(sightingRepository.deleteChunkByBirdId(birdId, 2)).thenReturn(2L, 0L);
+        when(sightingRepository.deleteByBirdId(birdId)).thenReturn(1L);
+
+        // when
+        final BirdDeletionDto started = birdDeletionService.startDeletion(birdId);
+        tasks.forEach(Runnable::run);
+        final BirdDeletionDto completed = birdDeletionService.getDeletion(started.getId());
+
+        // then
+        final InOrder inOrder = inOrder(sightingRepository, birdRepository, birdCache);
+        inOrder.verify(sightingRepository, times(2)).deleteChunkByBirdId(birdId, 2);
+        inOrder.verify(birdRepository).deleteById(birdId);
+        inOrder.verify(birdCache).invalidate(birdId);
+        inOrder.verify(sightingRepository).deleteByBirdId(birdId);
+
+        assertEquals(new BirdDeletionDto(started.getId(), birdId, BirdDeletionDto.Status.COMPLETED, 2, 3, null),
+                completed);
+    }
+
+    @Test
+    void startDeletion_withFailure_should_keep_bird() {
+        // given
+        final String birdId = "1";
+
+        when(birdRepository.existsById(birdId)).thenReturn(true);
+        when(sightingRepository.countByBirdId(birdId)).thenReturn(3L);
+        when(sightingRepository.deleteChunkByBirdId(birdId, 2))
+                .thenReturn(2L)
+                .thenThrow(new IllegalStateException("Timed out"));
+
+        // when
+        final BirdDeletionDto started = birdDeletionService.startDeletion(birdId);
+        tasks.forEach(Runnable::run);
+        final BirdDeletionDto failed = birdDeletionService.getDeletion(started.getId());
+
+        // then
+        verify(birdRepository).existsById(birdId);
+        verify(sightingRepository).countByBirdId(birdId);
+        verify(sightingRepository, times(2)).deleteChunkByBirdId(birdId, 2);
+        verifyNoMoreInteractions(birdRepository, sightingRepository);
+        verifyNoInteractions(birdCache);
+
+        assertEquals(new BirdDeletionDto(started.getId(), birdId, BirdDeletionDto.Status.FAILED, 3, 2, "Timed out"),
+                failed);
+    }
+
+    @Test
+    void startDeletion_withFullQueue_should_reject() {
+        // given
+        final String birdId = "1";
+        final BirdDeletionService rejectingService = new BirdDeletionService(birdRepository, sightingRepository,
+                sightingRollupRepository, birdCache, sightingTimeIndex, sightingHeatmapCache, birdRequestCoalescer,
+                new BirdDeletionProperties(), runnable -> {
+                    throw new RejectedExecutionException();
+                });
+
+        when(birdRepository.existsById(birdId)).thenReturn(true);
+
+        // when
+        final Exception exception = assertThrows(RejectedExecutionException.class,
+                () -> rejectingService.startDeletion(birdId));
+
+        // then
+        verify(birdRepository, never()).deleteById(birdId);
+        verify(sightingRepository, never()).deleteChunkByBirdId(anyString(), anyInt());
+        assertEquals(ErrorMessages.DELETION_QUEUE_FULL, exception.getMessage());
+    }
+
+    @Test
+    void startDeletion_withUnknownBird_should_fail() {
+        // given
+        when(birdRepository.existsById("1")).thenReturn(false);
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> birdDeletionService.startDeletion("1"));
+
+        // then
+        verify(birdRepository).existsById("1");
+        verifyNoMoreInteractions(birdRepository);
+        verifyNoInteractions(sightingRepository, birdCache);
+
+        assertTrue(tasks.isEmpty());
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+    }
+
+    @Test
+    void getDeletion_withUnknownId_should_fail() {
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> birdDeletionService.getDeletion("unknown"));
+
+        // then
+        assertEquals(ErrorMessages.DELETION_NOT_FOUND, exception.getMessage());
+    }
+}
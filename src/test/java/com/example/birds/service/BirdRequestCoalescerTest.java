@@ -0,0 +1,138 @@
+package com.example.birds.service;
+
+import com.example.birds.config.BirdCoalescingProperties;
+import com.example.birds.model.Bird;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.util.BirdSearch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BirdRequestCoalescer}, recording in a {@link SimpleMeterRegistry}.
+ */
+public class BirdRequestCoalescerTest implements BirdDataProvider {
+
+    private static final BirdSearch SEARCH = new BirdSearch(null, "red", null, null, null, null, null,
+            Sort.Direction.ASC);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BirdCoalescingProperties birdCoalescingProperties = new BirdCoalescingProperties();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void search_concurrently_should_share_query_and_count_deduplicated() throws Exception {
+        // given
+        final BirdRequestCoalescer birdRequestCoalescer = new BirdRequestCoalescer(birdCoalescingProperties,
+                meterRegistry);
+        final List<Bird> birds = List.of(buildBird());
+        final Future<List<Bird>> first = executor.submit(() -> birdRequestCoalescer.search(SEARCH,
+                () -> blockingQuery(birds)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        final Thread releaser = new Thread(() -> {
+            awaitDeduplicated("search");
+            release.countDown();
+        });
+        releaser.start();
+        final List<Bird> second = birdRequestCoalescer.search(new BirdSearch(null, "red", null, null, null, null, null,
+                Sort.Direction.ASC), () -> blockingQuery(List.of()));
+        releaser.join();
+
+        // then
+        assertSame(birds, first.get(5, TimeUnit.SECONDS));
+        assertSame(birds, second);
+        assertEquals(1, queries.get());
+        assertEquals(1, count("search", "executed"));
+        assertEquals(1, count("search", "deduplicated"));
+        assertEquals(0, count("id", "deduplicated"));
+    }
+
+    @Test
+    void getBird_afterInvalidate_should_not_share_query_in_flight() throws Exception {
+        // given
+        final BirdRequestCoalescer birdRequestCoalescer = new BirdRequestCoalescer(birdCoalescingProperties,
+                meterRegistry);
+        final Bird stale = buildBird();
+        final Bird fresh = buildBird();
+        final Future<Bird> first = executor.submit(() -> birdRequestCoalescer.getBird("1",
+                id -> blockingQuery(stale)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        birdRequestCoalescer.invalidate("1");
+        final Bird second = birdRequestCoalescer.getBird("1", id -> fresh);
+        release.countDown();
+
+        // then
+        assertSame(stale, first.get(5, TimeUnit.SECONDS));
+        assertSame(fresh, second);
+        assertEquals(2, count("id", "executed"));
+        assertEquals(0, count("id", "deduplicated"));
+    }
+
+    @Test
+    void getBird_whenDisabled_should_query_directly() {
+        // given
+        birdCoalescingProperties.setEnabled(false);
+        final BirdRequestCoalescer birdRequestCoalescer = new BirdRequestCoalescer(birdCoalescingProperties,
+                meterRegistry);
+        final Bird bird = buildBird();
+
+        // when
+        final Bird result = birdRequestCoalescer.getBird("1", id -> bird);
+
+        // then
+        assertSame(bird, result);
+        assertEquals(0, count("id", "executed"));
+    }
+
+    private <T> T blockingQuery(T result) {
+        queries.incrementAndGet();
+        started.countDown();
+        try {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private void awaitDeduplicated(String read) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(read, "deduplicated") < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double count(String read, String outcome) {
+        return meterRegistry.get(BirdRequestCoalescer.CALLS).tags("read", read, "outcome", outcome)
+                .functionCounter().count();
+    }
+}
@@ -4,21 +4,34 @@ import com.example.birds.utdata.BirdDataProvider;
 import com.example.birds.utdata.BirdResponseDtoDataProvider;
 import com.example.birds.utdata.BirdSaveDtoDataProvider;
 import com.example.birds.utdata.BirdWithoutIdDataProvider;
+import com.example.birds.config.BirdCacheProperties;
+import com.example.birds.config.BirdCoalescingProperties;
 import com.example.birds.dto.BirdResponseDto;
 import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.CursorPageDto;
 import com.example.birds.model.Bird;
 import com.example.birds.repository.BirdRepository;
 import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.util.BirdSearch;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +48,17 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
     private final ModelService modelService = Mockito.mock(ModelService.class);
     @Mock
     private final SightingRepository sightingRepository = Mockito.mock(SightingRepository.class);
+    @Mock
+    private final SightingRollupRepository sightingRollupRepository = Mockito.mock(SightingRollupRepository.class);
+    @Mock
+    private final SightingTimeIndex sightingTimeIndex = Mockito.mock(SightingTimeIndex.class);
+    @Spy
+    private final BirdCache birdCache = new BirdCache(new BirdCacheProperties());
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+    @Spy
+    private final BirdRequestCoalescer birdRequestCoalescer = new BirdRequestCoalescer(new BirdCoalescingProperties(),
+            new SimpleMeterRegistry());
 
     @InjectMocks
     private BirdService birdService;
@@ -57,6 +81,7 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
         // then
         verify(modelService).getBird(birdSaveDto);
         verify(birdRepository).save(bird);
+        verify(birdRequestCoalescer).invalidate(null);
         verify(modelService).getBirdResponseDto(persistedBird);
         verifyNoMoreInteractions(modelService, birdRepository);
         verifyNoInteractions(sightingRepository);
@@ -117,29 +142,65 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
         // then
         verify(birdRepository).findById(id);
         verify(birdRepository).save(persistedBird);
+        verify(birdCache).invalidate(id);
+        verify(birdRequestCoalescer).invalidate(id);
         verify(modelService).getBirdResponseDto(persistedBird);
-        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoMoreInteractions(birdRepository, modelService, birdCache);
         verifyNoInteractions(sightingRepository);
 
         assertEquals(birdResponseDto, result);
     }
 
+    @Test
+    void updateBird_should_invalidate_cached_bird() {
+        // given
+        final String id = "1";
+        final Bird cachedBird = buildBird();
+        final Bird persistedBird = buildBird();
+        final Bird updatedBird = buildBird();
+
+        when(birdRepository.findById(id)).thenReturn(Optional.of(cachedBird))
+                .thenReturn(Optional.of(persistedBird))
+                .thenReturn(Optional.of(updatedBird));
+        when(birdRepository.save(persistedBird)).thenReturn(persistedBird);
+
+        // when
+        final Bird first = birdService.getBirdEntityById(id);
+        birdService.updateBird(id, new BirdSaveDto("other", "other", 1d, 2d));
+        final Bird second = birdService.getBirdEntityById(id);
+
+        // then
+        verify(birdRepository, times(3)).findById(id);
+        verify(birdRepository).save(persistedBird);
+        verifyNoMoreInteractions(birdRepository);
+        verifyNoInteractions(sightingRepository);
+
+        // the cached bird is never modified, the update works on a fresh copy
+        assertSame(cachedBird, first);
+        assertEquals("name", cachedBird.getName());
+        assertSame(updatedBird, second);
+    }
+
     @Test
     void deleteBird_should_succeed() {
         // given
         final String id = "1";
-        final List<String> ids = List.of("2", "3");
 
-        when(sightingRepository.findSightingIdsByBirdId(id)).thenReturn(ids);
+        when(sightingRepository.deleteByBirdId(id)).thenReturn(2L);
 
         // when
         birdService.deleteBird(id);
 
         // then
-        verify(sightingRepository).findSightingIdsByBirdId(id);
-        verify(sightingRepository).deleteAllById(ids);
+        verify(sightingRepository).deleteByBirdId(id);
+        verify(sightingRollupRepository).deleteByBirdId(id);
+        verify(sightingTimeIndex).removeByBirdId(id);
+        verify(sightingHeatmapCache).invalidateAll();
         verify(birdRepository).deleteById(id);
-        verifyNoMoreInteractions(sightingRepository, birdRepository);
+        verify(birdCache).invalidate(id);
+        verify(birdRequestCoalescer).invalidate(id);
+        verifyNoMoreInteractions(sightingRepository, sightingRollupRepository, sightingTimeIndex, birdRepository,
+                birdCache, sightingHeatmapCache, birdRequestCoalescer);
         verifyNoInteractions(modelService);
     }
 
@@ -165,6 +226,31 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
         assertEquals(birdResponseDto, result);
     }
 
+    @Test
+    void getBirdById_twice_should_read_bird_once() {
+        // given
+        final String id = "1";
+        final Bird bird = buildBird();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+
+        when(birdRepository.findById(id)).thenReturn(Optional.of(bird));
+        when(modelService.getBirdResponseDto(bird)).thenReturn(birdResponseDto);
+
+        // when
+        birdService.getBirdById(id);
+        final BirdResponseDto result = birdService.getBirdById(id);
+
+        // then
+        verify(birdRepository).findById(id);
+        verify(modelService, times(2)).getBirdResponseDto(bird);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(birdResponseDto, result);
+        assertEquals(1, birdCache.getStats().getHitCount());
+        assertEquals(1, birdCache.getStats().getMissCount());
+    }
+
     @Test
     void getAllBirds_should_succeed() {
         // given
@@ -186,17 +272,66 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
     }
 
     @Test
-    void getBirdsByCriteria_withNullNameAndColor_should_succeed() {
+    void getBirdsByIds_withEmptyIds_should_succeed() {
+        // given
+        final List<Bird> birds = List.of();
+
+        when(modelService.getBirdResponseDTOs(birds)).thenReturn(List.of());
+
+        // when
+        final List<BirdResponseDto> result = birdService.getBirdsByIds(Set.of());
+
+        // then
+        verify(modelService).getBirdResponseDTOs(birds);
+        verifyNoMoreInteractions(modelService);
+        verifyNoInteractions(birdRepository, sightingRepository);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getBirdsByIds_withManyIds_should_query_in_chunks() {
+        // given
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < BirdService.FIND_BY_IDS_CHUNK_SIZE + 1; i++) {
+            ids.add("" + i);
+        }
+        final List<String> firstChunk = ids.subList(0, BirdService.FIND_BY_IDS_CHUNK_SIZE);
+        final List<String> secondChunk = ids.subList(BirdService.FIND_BY_IDS_CHUNK_SIZE, ids.size());
+        final Bird bird = buildBird();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+
+        when(birdRepository.findAllById(firstChunk)).thenReturn(List.of(bird));
+        when(birdRepository.findAllById(secondChunk)).thenReturn(List.of());
+        when(modelService.getBirdResponseDTOs(List.of(bird))).thenReturn(birdResponseDTOs);
+
+        // when
+        final List<BirdResponseDto> result = birdService.getBirdsByIds(ids);
+
+        // then
+        verify(birdRepository).findAllById(firstChunk);
+        verify(birdRepository).findAllById(secondChunk);
+        verify(modelService).getBirdResponseDTOs(List.of(bird));
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(birdResponseDTOs, result);
+    }
+
+    @Test
+    void getBirdsByCriteria_withoutCriteria_should_succeed() {
         // given
         final List<Bird> birds = List.of();
 
+        when(modelService.getBirdSearch(null, null, null, null, null, null, null)).thenReturn(BirdSearch.ALL);
         when(birdRepository.findAll()).thenReturn(birds);
         when(modelService.getBirdResponseDTOs(birds)).thenReturn(List.of());
 
         // when
-        final List<BirdResponseDto> result = birdService.getBirdsByCriteria(null, null);
+        final List<BirdResponseDto> result = birdService.getBirdsByCriteria(null, null, null, null, null, null, null);
 
         // then
+        verify(modelService).getBirdSearch(null, null, null, null, null, null, null);
         verify(birdRepository).findAll();
         verify(modelService).getBirdResponseDTOs(birds);
         verifyNoMoreInteractions(birdRepository, modelService);
@@ -206,44 +341,177 @@ public class BirdServiceTest implements BirdDataProvider, BirdSaveDtoDataProvide
     }
 
     @Test
-    void getBirdsByCriteria_withName_should_succeed() {
+    void getBirdsByCriteria_withAllCriteria_should_search() {
+        // given
+        final BirdSearch search = new BirdSearch("name", "color", 1.0, 2.0, null, 3.0, "weight", Sort.Direction.DESC);
+        final List<Bird> birds = List.of(buildBird());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+
+        when(modelService.getBirdSearch("name", "color", 1.0, 2.0, null, 3.0, "weight,desc")).thenReturn(search);
+        when(birdRepository.search(search)).thenReturn(birds);
+        when(modelService.getBirdResponseDTOs(birds)).thenReturn(birdResponseDTOs);
+
+        // when
+        final List<BirdResponseDto> result = birdService.getBirdsByCriteria("name", "color", 1.0, 2.0, null, 3.0,
+                "weight,desc");
+
+        // then
+        verify(modelService).getBirdSearch("name", "color", 1.0, 2.0, null, 3.0, "weight,desc");
+        verify(birdRequestCoalescer).search(eq(search), any());
+        verify(birdRepository).search(search);
+        verify(modelService).getBirdResponseDTOs(birds);
+        verifyNoMoreInteractions(birdRepository, modelService, birdRequestCoalescer);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(birdResponseDTOs, result);
+    }
+
+    @Test
+    void getBirdsPage_withLastPage_should_succeed() {
         // given
         final String name = "name";
-        final List<Bird> birds = List.of();
+        final BirdSearch search = new BirdSearch(name, "color", null, null, null, null, null, null);
+        final List<Bird> birds = List.of(buildBird());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
 
-        when(birdRepository.findByName(name)).thenReturn(birds);
-        when(modelService.getBirdResponseDTOs(birds)).thenReturn(List.of());
+        when(modelService.getBirdSearch(name, "color", null, null, null, null, null)).thenReturn(search);
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(2)).thenReturn(2);
+        when(birdRepository.findPage(search, null, 3)).thenReturn(birds);
+        when(modelService.getBirdResponseDTOs(birds)).thenReturn(birdResponseDTOs);
 
         // when
-        final List<BirdResponseDto> result = birdService.getBirdsByCriteria(name, null);
+        final CursorPageDto<BirdResponseDto> result = birdService.getBirdsPage(name, "color", null, null, null, null,
+                null, null, 2);
 
         // then
-        verify(birdRepository).findByName(name);
+        verify(modelService).getBirdSearch(name, "color", null, null, null, null, null);
+        verify(modelService).getPageCursor(null);
+        verify(modelService).getPageLimit(2);
+        verify(birdRepository).findPage(search, null, 3);
         verify(modelService).getBirdResponseDTOs(birds);
         verifyNoMoreInteractions(birdRepository, modelService);
         verifyNoInteractions(sightingRepository);
 
-        assertTrue(result.isEmpty());
+        assertEquals(new CursorPageDto<>(birdResponseDTOs, null), result);
     }
 
     @Test
-    void getBirdsByCriteria_withColor_should_succeed() {
+    void getBirdsPage_withNextPage_should_succeed() {
         // given
         final String color = "color";
-        final List<Bird> birds = List.of();
+        final String cursor = "cursor";
+        final BirdSearch search = new BirdSearch(null, color, null, null, null, null, null, null);
+        final PageCursor after = new PageCursor(null, "0");
+        final Bird first = buildBird();
+        final Bird second = buildBirdWithoutId();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+
+        when(modelService.getBirdSearch(null, color, null, null, null, null, null)).thenReturn(search);
+        when(modelService.getPageCursor(cursor)).thenReturn(after);
+        when(modelService.getPageLimit(1)).thenReturn(1);
+        when(birdRepository.findPage(search, after, 2)).thenReturn(List.of(first, second));
+        when(modelService.getBirdResponseDTOs(List.of(first))).thenReturn(birdResponseDTOs);
+        when(modelService.getCursor(first)).thenReturn("next");
 
-        when(birdRepository.findByColor(color)).thenReturn(birds);
-        when(modelService.getBirdResponseDTOs(birds)).thenReturn(List.of());
+        // when
+        final CursorPageDto<BirdResponseDto> result = birdService.getBirdsPage(null, color, null, null, null, null,
+                null, cursor, 1);
+
+        // then
+        verify(modelService).getBirdSearch(null, color, null, null, null, null, null);
+        verify(modelService).getPageCursor(cursor);
+        verify(modelService).getPageLimit(1);
+        verify(birdRepository).findPage(search, after, 2);
+        verify(modelService).getBirdResponseDTOs(List.of(first));
+        verify(modelService).getCursor(first);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(new CursorPageDto<>(birdResponseDTOs, "next"), result);
+    }
+
+    @Test
+    void getBirdsPage_withSort_should_read_single_page() {
+        // given
+        final BirdSearch search = new BirdSearch(null, null, 1.0, null, null, null, "height", Sort.Direction.DESC);
+        final List<Bird> birds = List.of(buildBird(), buildBirdWithoutId());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(), buildBirdResponseDto());
+
+        when(modelService.getBirdSearch(null, null, 1.0, null, null, null, "height,desc")).thenReturn(search);
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(2)).thenReturn(2);
+        when(birdRepository.findPage(search, null, 2)).thenReturn(birds);
+        when(modelService.getBirdResponseDTOs(birds)).thenReturn(birdResponseDTOs);
 
         // when
-        final List<BirdResponseDto> result = birdService.getBirdsByCriteria(null, color);
+        final CursorPageDto<BirdResponseDto> result = birdService.getBirdsPage(null, null, 1.0, null, null, null,
+                "height,desc", null, 2);
 
         // then
-        verify(birdRepository).findByColor(color);
+        verify(modelService).getBirdSearch(null, null, 1.0, null, null, null, "height,desc");
+        verify(modelService).getPageCursor(null);
+        verify(modelService).getPageLimit(2);
+        verify(birdRepository).findPage(search, null, 2);
         verify(modelService).getBirdResponseDTOs(birds);
         verifyNoMoreInteractions(birdRepository, modelService);
         verifyNoInteractions(sightingRepository);
 
-        assertTrue(result.isEmpty());
+        assertEquals(new CursorPageDto<>(birdResponseDTOs, null), result);
+    }
+
+    @Test
+    void getBirdsPage_withSortAndCursor_should_fail() {
+        // given
+        final BirdSearch search = new BirdSearch(null, null, null, null, null, null, "name", null);
+
+        when(modelService.getBirdSearch(null, null, null, null, null, null, "name")).thenReturn(search);
+        when(modelService.getPageCursor("cursor")).thenReturn(new PageCursor(null, "0"));
+        when(modelService.getPageLimit(null)).thenReturn(100);
+
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> birdService.getBirdsPage(null, null, null, null, null, null, "name", "cursor", null));
+
+        // then
+        verify(modelService).getBirdSearch(null, null, null, null, null, null, "name");
+        verify(modelService).getPageCursor("cursor");
+        verify(modelService).getPageLimit(null);
+        verifyNoMoreInteractions(modelService);
+        verifyNoInteractions(birdRepository, sightingRepository);
+
+        assertEquals(ErrorMessages.INVALID_SORTED_CURSOR, exception.getMessage());
+    }
+
+    @Test
+    void streamBirdsByCriteria_withColor_should_succeed() {
+        // given
+        final String color = "color";
+        final BirdSearch search = new BirdSearch(null, color, null, null, null, null, null, null);
+        final Bird first = buildBird();
+        final Bird second = buildBirdWithoutId();
+        final BirdResponseDto firstResponseDto = buildBirdResponseDto();
+        final BirdResponseDto secondResponseDto = buildBirdResponseDto();
+        final List<BirdResponseDto> result = new ArrayList<>();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        when(modelService.getBirdSearch(null, color, null, null, null, null, null)).thenReturn(search);
+        when(birdRepository.stream(search)).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        when(modelService.getBirdResponseDto(first)).thenReturn(firstResponseDto);
+        when(modelService.getBirdResponseDto(second)).thenReturn(secondResponseDto);
+
+        // when
+        birdService.streamBirdsByCriteria(null, color, null, null, null, null, null, result::add);
+
+        // then
+        verify(modelService).getBirdSearch(null, color, null, null, null, null, null);
+        verify(birdRepository).stream(search);
+        verify(modelService).getBirdResponseDto(first);
+        verify(modelService).getBirdResponseDto(second);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(List.of(firstResponseDto, secondResponseDto), result);
+        assertTrue(closed.get());
     }
 }
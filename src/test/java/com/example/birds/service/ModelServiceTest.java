@@ -2,17 +2,35 @@ package com.example.birds.service;
 
 import com.example.birds.dto.BirdResponseDto;
 import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
 import com.example.birds.model.Bird;
 import com.example.birds.model.Sighting;
 import com.example.birds.utdata.*;
+import com.example.birds.util.BirdIndex;
+import com.example.birds.util.BirdSearch;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingStatsSearch;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,7 +39,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * Unit tests for {@link ModelService}.
  */
 @ExtendWith(MockitoExtension.class)
-public class ModelServiceTest implements BirdSaveDtoDataProvider, BirdDataProvider, BirdResponseDtoDataProvider, SightingDataProvider, SightingSaveDtoDataProvider {
+public class ModelServiceTest implements BirdSaveDtoDataProvider, BirdDataProvider, BirdResponseDtoDataProvider, SightingDataProvider, SightingSaveDtoDataProvider,
+        SightingWithKeyDataProvider, BirdResponseDtoWithKeyDataProvider {
 
     private final ModelService modelService = new ModelService();
 
@@ -77,6 +96,35 @@ public class ModelServiceTest implements BirdSaveDtoDataProvider, BirdDataProvid
         assertEquals(sightingSaveDto.getBirdId(), result.getBirdId());
     }
 
+    @Test
+    void getSighting_withCoordinates_should_succeed() {
+        // given
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("2", "location", "2023-07-18T10:00:00",
+                List.of(-118.4912, 34.0195));
+
+        // when
+        final Sighting result = modelService.getSighting(sightingSaveDto);
+        final SightingResponseDto response = modelService.getSightingResponseDto(result, buildBirdResponseDto());
+
+        // then
+        assertEquals(new GeoJsonPoint(-118.4912, 34.0195), result.getCoordinates());
+        assertEquals(List.of(-118.4912, 34.0195), response.getCoordinates());
+    }
+
+    @Test
+    void getCoordinates_withInvalidCoordinates_should_fail() {
+        for (List<Double> coordinates : List.of(List.of(1.0), List.of(181.0, 0.0), List.of(0.0, -90.5),
+                List.of(0.0, Double.NaN), List.of(1.0, 2.0, 3.0))) {
+            // when
+            final Exception exception = assertThrows(IllegalArgumentException.class,
+                    () -> modelService.getCoordinates(coordinates));
+
+            // then
+            assertEquals(ErrorMessages.INVALID_COORDINATES, exception.getMessage());
+        }
+        assertNull(modelService.getCoordinates(null));
+    }
+
     @Test
     void getSightingResponseDto_should_succeed() {
         // given
@@ -128,6 +176,233 @@ public class ModelServiceTest implements BirdSaveDtoDataProvider, BirdDataProvid
         assertNull(result);
     }
 
+    @Test
+    void getSightingSearch_should_succeed() {
+        // given
+        final List<String> locations = List.of("location", "other location", "location");
+
+        // when
+        final SightingSearch result = modelService.getSightingSearch("1", locations, "2023-07-18T10:00:00",
+                null, "DESC");
+
+        // then
+        assertEquals(new SightingSearch("1", List.of("location", "other location"),
+                LocalDateTime.parse("2023-07-18T10:00:00"), null, Sort.Direction.DESC), result);
+        assertEquals(new Document("birdId", "1")
+                        .append("location", new Document("$in", List.of("location", "other location")))
+                        .append("dateTime", new Document("$gt", LocalDateTime.parse("2023-07-18T10:00:00"))),
+                result.getCriteria().getCriteriaObject());
+    }
+
+    @Test
+    void getSightingSearch_withoutCriteria_should_match_all() {
+        // when
+        final SightingSearch result = modelService.getSightingSearch(null, null, null, null, null);
+
+        // then
+        assertEquals(SightingSearch.ALL, result);
+        assertEquals(new Document(), result.getCriteria().getCriteriaObject());
+    }
+
+    @Test
+    void getSightingSearch_withInvalidSort_should_fail() {
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingSearch(null, null, null, null, "up"));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_SORT, exception.getMessage());
+    }
+
+    @Test
+    void getSightingNearSearch_should_succeed() {
+        // when
+        final SightingGeoSearch result = modelService.getSightingNearSearch("1", "2023-07-18T10:00:00", null,
+                -118.5, 34.0, 500.0);
+
+        // then
+        assertEquals(SightingGeoSearch.near("1", LocalDateTime.parse("2023-07-18T10:00:00"), null,
+                new GeoJsonPoint(-118.5, 34.0), 500), result);
+        assertTrue(result.isNear());
+        final Document criteria = result.getCriteria().getCriteriaObject();
+        assertEquals("1", criteria.get("birdId"));
+        assertEquals(new Document("$gt", LocalDateTime.parse("2023-07-18T10:00:00")), criteria.get("dateTime"));
+        assertTrue(criteria.containsKey("coordinates"));
+    }
+
+    @Test
+    void getSightingNearSearch_withInvalidParameters_should_fail() {
+        // when
+        final Exception radiusException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingNearSearch(null, null, null, 0.0, 0.0, 0.0));
+        final Exception coordinatesException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingNearSearch(null, null, null, 0.0, null, 10.0));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_RADIUS, radiusException.getMessage());
+        assertEquals(ErrorMessages.INVALID_COORDINATES, coordinatesException.getMessage());
+    }
+
+    @Test
+    void getSightingWithinSearch_should_close_polygon() {
+        // when
+        final SightingGeoSearch result = modelService.getSightingWithinSearch(null, null, null,
+                "0,0; 1,0;1,1", "desc");
+
+        // then
+        final GeoJsonPoint origin = new GeoJsonPoint(0, 0);
+        assertEquals(SightingGeoSearch.within(null, null, null,
+                new GeoJsonPolygon(origin, new Point(1, 0), new Point(1, 1), origin), Sort.Direction.DESC), result);
+        assertFalse(result.isNear());
+    }
+
+    @Test
+    void getSightingWithinSearch_withInvalidPolygon_should_fail() {
+        for (String polygon : Arrays.asList(null, "0,0;1,0", "0,0;1,0;0,0", "0,0;1;1,1", "0,0;a,0;1,1")) {
+            // when
+            final Exception exception = assertThrows(IllegalArgumentException.class,
+                    () -> modelService.getSightingWithinSearch(null, null, null, polygon, null));
+
+            // then
+            assertEquals(ErrorMessages.INVALID_POLYGON, exception.getMessage());
+        }
+    }
+
+    @Test
+    void getBirdSearch_should_succeed() {
+        // when
+        final BirdSearch result = modelService.getBirdSearch("name", null, 1.0, 1.0, null, 2.5, "height,desc");
+
+        // then
+        assertEquals(new BirdSearch("name", null, 1.0, 1.0, null, 2.5, "height", Sort.Direction.DESC), result);
+        assertEquals(new Document("name", 1).append("height", 1).append("weight", 1).append("_id", 1),
+                result.getRecommendedIndex());
+        assertEquals(BirdSearch.ALL, modelService.getBirdSearch(null, null, null, null, null, null, null));
+        assertEquals(Sort.Direction.ASC,
+                modelService.getBirdSearch(null, null, null, null, null, null, "weight").getDirection());
+    }
+
+    @Test
+    void getBirdSearch_withInvalidSort_should_fail() {
+        for (String sort : List.of("size", "weight,up", "weight,asc,desc", "")) {
+            // when
+            final Exception exception = assertThrows(IllegalArgumentException.class,
+                    () -> modelService.getBirdSearch(null, null, null, null, null, null, sort));
+
+            // then
+            assertEquals(ErrorMessages.INVALID_BIRD_SORT, exception.getMessage());
+        }
+    }
+
+    @Test
+    void getBirdSearch_withEmptyRange_should_fail() {
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getBirdSearch(null, null, null, null, 2.0, 1.0, null));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_RANGE, exception.getMessage());
+    }
+
+    @Test
+    void getSightingHeatmapSearch_should_succeed() {
+        // when
+        final SightingHeatmapSearch result = modelService.getSightingHeatmapSearch(6, 11, 17, "2023-07-01",
+                "2023-07-31", 16);
+
+        // then
+        assertEquals(new SightingHeatmapSearch(6, 11, 17, 16, LocalDate.parse("2023-07-01"),
+                LocalDate.parse("2023-07-31")), result);
+        assertEquals(-118.125, result.getWest());
+        assertEquals(-112.5, result.getEast());
+        assertEquals(42.1875, result.getNorth());
+        assertEquals(39.375, result.getSouth());
+        assertEquals(0.3515625, result.getCellWidth());
+        assertEquals(0.17578125, result.getCellHeight());
+        final Document criteria = result.getCriteria().getCriteriaObject();
+        assertTrue(criteria.get("coordinates", Document.class).containsKey("$geoWithin"));
+        assertEquals(new Document("$gte", LocalDateTime.parse("2023-07-01T00:00:00"))
+                .append("$lt", LocalDateTime.parse("2023-08-01T00:00:00")), criteria.get("dateTime"));
+    }
+
+    @Test
+    void getSightingHeatmapSearch_withHemisphereTile_should_only_require_coordinates() {
+        // when
+        final SightingHeatmapSearch result = modelService.getSightingHeatmapSearch(1, 1, 0, null, null, 16);
+
+        // then
+        assertEquals(new Document("coordinates", new Document("$exists", true)),
+                result.getCriteria().getCriteriaObject());
+    }
+
+    @Test
+    void getSightingHeatmapSearch_withInvalidParameters_should_fail() {
+        // when
+        final Exception zoomException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingHeatmapSearch(21, 0, 0, null, null, 16));
+        final Exception xException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingHeatmapSearch(2, 4, 0, null, null, 16));
+        final Exception yException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingHeatmapSearch(2, 0, -1, null, null, 16));
+        final Exception dateException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingHeatmapSearch(2, 0, 0, "2023-07", null, 16));
+        final Exception rangeException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingHeatmapSearch(2, 0, 0, "2023-07-02", "2023-07-01", 16));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_ZOOM, zoomException.getMessage());
+        assertEquals(ErrorMessages.INVALID_TILE, xException.getMessage());
+        assertEquals(ErrorMessages.INVALID_TILE, yException.getMessage());
+        assertEquals(ErrorMessages.INVALID_DATE, dateException.getMessage());
+        assertEquals(ErrorMessages.INVALID_RANGE, rangeException.getMessage());
+    }
+
+    @Test
+    void getSightingHeatmapTileDto_should_sum_cells() {
+        // given
+        final SightingHeatmapSearch search = new SightingHeatmapSearch(0, 0, 0, 4, null, null);
+        final List<SightingHeatmapCellDto> cells = List.of(new SightingHeatmapCellDto(0, 1, 2),
+                new SightingHeatmapCellDto(3, 1, 5));
+
+        // when
+        final SightingHeatmapTileDto result = modelService.getSightingHeatmapTileDto(search, cells);
+
+        // then
+        assertEquals(new SightingHeatmapTileDto(0, 0, 0, -180, 90, 90, 45, 7, cells), result);
+    }
+
+    @Test
+    void getSightingStatsSearch_should_succeed() {
+        // when
+        final SightingStatsSearch result = modelService.getSightingStatsSearch("1", null, "2023-07-01", "2023-07-31",
+                "month", List.of("bird", ""));
+
+        // then
+        assertEquals(new SightingStatsSearch("1", null, LocalDate.parse("2023-07-01"), LocalDate.parse("2023-07-31"),
+                SightingStatsSearch.Bucket.MONTH, true, false), result);
+        assertEquals(new SightingStatsSearch(null, null, null, null, SightingStatsSearch.Bucket.DAY, true, true),
+                modelService.getSightingStatsSearch(null, null, null, null, null, null));
+    }
+
+    @Test
+    void getSightingStatsSearch_withInvalidParameters_should_fail() {
+        // when
+        final Exception dateException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingStatsSearch(null, null, "2023-07-18T10:00:00", null, null, null));
+        final Exception rangeException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingStatsSearch(null, null, "2023-07-02", "2023-07-01", null, null));
+        final Exception bucketException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingStatsSearch(null, null, null, null, "week", null));
+        final Exception groupByException = assertThrows(IllegalArgumentException.class,
+                () -> modelService.getSightingStatsSearch(null, null, null, null, null, List.of("color")));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_DATE, dateException.getMessage());
+        assertEquals(ErrorMessages.INVALID_RANGE, rangeException.getMessage());
+        assertEquals(ErrorMessages.INVALID_BUCKET, bucketException.getMessage());
+        assertEquals(ErrorMessages.INVALID_GROUP_BY, groupByException.getMessage());
+    }
+
     @Test
     void getSightingResponseDTOs_should_succeed() {
         // given
@@ -142,4 +417,127 @@ public class ModelServiceTest implements BirdSaveDtoDataProvider, BirdDataProvid
         assertEquals(sightings.get(0).getId(), result.get(0).getId());
         assertEquals(sightings.get(0).getBirdId(), result.get(0).getBirdResponseDto().getId());
     }
+
+    @Test
+    void getSightingResponseDTOs_withMultipleBirds_should_succeed() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting(2), buildSighting(1), buildSighting(2));
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(1), buildBirdResponseDto(2));
+
+        // when
+        final List<SightingResponseDto> result = modelService.getSightingResponseDTOs(sightings, birdResponseDTOs);
+
+        // then
+        assertEquals(sightings.size(), result.size());
+        assertEquals(birdResponseDTOs.get(1), result.get(0).getBirdResponseDto());
+        assertEquals(birdResponseDTOs.get(0), result.get(1).getBirdResponseDto());
+        assertEquals(birdResponseDTOs.get(1), result.get(2).getBirdResponseDto());
+    }
+
+    @Test
+    void getSightingResponseDTOs_withBirdIndex_should_succeed() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting());
+        final BirdIndex birdIndex = BirdIndex.of(List.of(buildBirdResponseDto()));
+
+        // when
+        final List<SightingResponseDto> result = modelService.getSightingResponseDTOs(sightings, birdIndex);
+
+        // then
+        assertEquals(sightings.size(), result.size());
+        assertEquals(sightings.get(0).getBirdId(), result.get(0).getBirdResponseDto().getId());
+    }
+
+    @Test
+    void getSightingResponseDTOs_withOrphanSighting_should_fail() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting(1), buildSighting(3));
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(1), buildBirdResponseDto(2));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> modelService.getSightingResponseDTOs(sightings, birdResponseDTOs));
+
+        // then
+        assertEquals(ErrorMessages.ORPHAN_RECORDS_ERROR, exception.getMessage());
+    }
+
+    @Test
+    void getPageLimit_should_succeed() {
+        // given
+
+        // when
+        // then
+        assertEquals(ModelService.DEFAULT_PAGE_LIMIT, modelService.getPageLimit(null));
+        assertEquals(1, modelService.getPageLimit(1));
+        assertEquals(ModelService.MAX_PAGE_LIMIT, modelService.getPageLimit(ModelService.MAX_PAGE_LIMIT));
+    }
+
+    @Test
+    void getPageLimit_withInvalidLimit_should_fail() {
+        // given
+        final int limit = ModelService.MAX_PAGE_LIMIT + 1;
+
+        // when
+        final Exception tooSmall = assertThrows(IllegalArgumentException.class, () -> modelService.getPageLimit(0));
+        final Exception tooLarge = assertThrows(IllegalArgumentException.class, () -> modelService.getPageLimit(limit));
+
+        // then
+        assertEquals(ErrorMessages.INVALID_LIMIT, tooSmall.getMessage());
+        assertEquals(ErrorMessages.INVALID_LIMIT, tooLarge.getMessage());
+    }
+
+    @Test
+    void getPageCursor_withBirdCursor_should_succeed() {
+        // given
+        final Bird bird = buildBird();
+        final String cursor = modelService.getCursor(bird);
+
+        // when
+        final PageCursor result = modelService.getPageCursor(cursor);
+
+        // then
+        assertEquals(new PageCursor(null, bird.getId()), result);
+    }
+
+    @Test
+    void getPageCursor_withSightingCursor_should_succeed() {
+        // given
+        final Sighting sighting = buildSighting();
+        final String cursor = modelService.getCursor(sighting);
+
+        // when
+        final PageCursor result = modelService.getPageCursor(cursor);
+
+        // then
+        assertEquals(new PageCursor(sighting.getDateTime(), sighting.getId()), result);
+    }
+
+    @Test
+    void getPageCursor_withNullCursor_should_succeed() {
+        // given
+
+        // when
+        final PageCursor result = modelService.getPageCursor(null);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    void getPageCursor_withInvalidCursor_should_fail() {
+        // given
+        final String notBase64 = "%%%";
+        final String withoutSeparator = Base64.getUrlEncoder().encodeToString("1".getBytes(StandardCharsets.UTF_8));
+        final String withoutId = Base64.getUrlEncoder().encodeToString("|".getBytes(StandardCharsets.UTF_8));
+        final String withInvalidDateTime = Base64.getUrlEncoder().encodeToString("aa|1".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        // then
+        for (String cursor : List.of(notBase64, withoutSeparator, withoutId, withInvalidDateTime)) {
+            final Exception exception = assertThrows(IllegalArgumentException.class,
+                    () -> modelService.getPageCursor(cursor));
+            assertEquals(ErrorMessages.INVALID_CURSOR, exception.getMessage());
+        }
+    }
 }
@@ -0,0 +1,287 @@
+package com.example.birds.service;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.BirdSaveDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.model.Bird;
+import com.example.birds.repository.ReactiveBirdRepository;
+import com.example.birds.repository.ReactiveSightingRepository;
+import com.example.birds.repository.ReactiveSightingRollupRepository;
+import com.example.birds.utdata.BirdDataProvider;
+import com.example.birds.utdata.BirdResponseDtoDataProvider;
+import com.example.birds.utdata.BirdSaveDtoDataProvider;
+import com.example.birds.utdata.BirdWithoutIdDataProvider;
+import com.example.birds.util.BirdSearch;
+import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveBirdService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveBirdServiceTest implements BirdSaveDtoDataProvider, BirdResponseDtoDataProvider, BirdDataProvider,
+        BirdWithoutIdDataProvider {
+
+    @Mock
+    private final ReactiveBirdRepository birdRepository = Mockito.mock(ReactiveBirdRepository.class);
+    @Mock
+    private final ModelService modelService = Mockito.mock(ModelService.class);
+    @Mock
+    private final ReactiveSightingRepository sightingRepository = Mockito.mock(ReactiveSightingRepository.class);
+    @Mock
+    private final ReactiveSightingRollupRepository sightingRollupRepository =
+            Mockito.mock(ReactiveSightingRollupRepository.class);
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+
+    @InjectMocks
+    private ReactiveBirdService birdService;
+
+    @Test
+    void saveBird_should_succeed() {
+        // given
+        final BirdSaveDto birdSaveDto = buildBirdSaveDto();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final Bird bird = buildBirdWithoutId();
+        final Bird persistedBird = buildBird();
+
+        when(modelService.getBird(birdSaveDto)).thenReturn(bird);
+        when(birdRepository.save(bird)).thenReturn(Mono.just(persistedBird));
+        when(modelService.getBirdResponseDto(persistedBird)).thenReturn(birdResponseDto);
+
+        // when
+        final BirdResponseDto result = birdService.saveBird(birdSaveDto).block();
+
+        // then
+        verify(modelService).getBird(birdSaveDto);
+        verify(birdRepository).save(bird);
+        verify(modelService).getBirdResponseDto(persistedBird);
+        verifyNoMoreInteractions(modelService, birdRepository);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(birdResponseDto, result);
+    }
+
+    @Test
+    void saveBird_withInvalidData_should_fail() {
+        // given
+        final BirdSaveDto birdSaveDto = buildBirdSaveDto();
+
+        when(modelService.getBird(birdSaveDto)).thenThrow(new IllegalArgumentException(ErrorMessages.NULL_PARAMETER_ERROR));
+
+        // when
+        final Mono<BirdResponseDto> result = birdService.saveBird(birdSaveDto);
+
+        // then
+        verifyNoInteractions(modelService, birdRepository, sightingRepository);
+
+        final Exception exception = assertThrows(IllegalArgumentException.class, result::block);
+        assertEquals(ErrorMessages.NULL_PARAMETER_ERROR, exception.getMessage());
+    }
+
+    @Test
+    void getBirdById_withInvalidId_should_fail() {
+        // given
+        final String id = "0";
+        when(birdRepository.findById(id)).thenReturn(Mono.empty());
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> birdService.getBirdById(id).block());
+
+        // then
+        verify(birdRepository).findById(id);
+        verifyNoMoreInteractions(birdRepository);
+        verifyNoInteractions(modelService, sightingRepository);
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+    }
+
+    @Test
+    void updateBird_should_succeed() {
+        // given
+        final String id = "1";
+        final BirdSaveDto birdSaveDto = new BirdSaveDto("other", "other", 1d, 2d);
+        final Bird bird = buildBird();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+
+        when(birdRepository.findById(id)).thenReturn(Mono.just(bird));
+        when(birdRepository.save(bird)).thenReturn(Mono.just(bird));
+        when(modelService.getBirdResponseDto(bird)).thenReturn(birdResponseDto);
+
+        // when
+        final BirdResponseDto result = birdService.updateBird(id, birdSaveDto).block();
+
+        // then
+        verify(birdRepository).findById(id);
+        verify(birdRepository).save(bird);
+        verify(modelService).getBirdResponseDto(bird);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(birdResponseDto, result);
+        assertEquals("other", bird.getName());
+        assertEquals("other", bird.getColor());
+    }
+
+    @Test
+    void deleteBird_should_delete_sightings_first() {
+        // given
+        final String id = "1";
+
+        when(sightingRepository.deleteByBirdId(id)).thenReturn(Mono.just(2L));
+        when(sightingRollupRepository.deleteByBirdId(id)).thenReturn(Mono.just(1L));
+        when(birdRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        // when
+        birdService.deleteBird(id).block();
+
+        // then
+        verify(sightingRepository).deleteByBirdId(id);
+        verify(sightingRollupRepository).deleteByBirdId(id);
+        verify(birdRepository).deleteById(id);
+        verifyNoMoreInteractions(sightingRepository, sightingRollupRepository, birdRepository);
+        verifyNoInteractions(modelService);
+    }
+
+    @Test
+    void getBirdsByIds_withManyIds_should_query_in_chunks() {
+        // given
+        final Set<String> ids = new LinkedHashSet<>();
+        for (int i = 0; i <= BirdService.FIND_BY_IDS_CHUNK_SIZE; i++) {
+            ids.add(String.valueOf(i));
+        }
+        final List<String> idList = new ArrayList<>(ids);
+        final List<String> firstChunk = idList.subList(0, BirdService.FIND_BY_IDS_CHUNK_SIZE);
+        final List<String> secondChunk = idList.subList(BirdService.FIND_BY_IDS_CHUNK_SIZE, idList.size());
+        final Bird bird = buildBird();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+
+        when(birdRepository.findAllById(firstChunk)).thenReturn(Flux.just(bird));
+        when(birdRepository.findAllById(secondChunk)).thenReturn(Flux.empty());
+        when(modelService.getBirdResponseDto(bird)).thenReturn(birdResponseDto);
+
+        // when
+        final List<BirdResponseDto> result = birdService.getBirdsByIds(ids).collectList().block();
+
+        // then
+        verify(birdRepository).findAllById(firstChunk);
+        verify(birdRepository).findAllById(secondChunk);
+        verify(modelService).getBirdResponseDto(bird);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(List.of(birdResponseDto), result);
+    }
+
+    @Test
+    void getBirdsByCriteria_withColor_should_succeed() {
+        // given
+        final String color = "color";
+        final BirdSearch search = new BirdSearch(null, color, null, null, null, null, null, null);
+        final Bird bird = buildBird();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+
+        when(modelService.getBirdSearch(null, color, null, null, null, null, null)).thenReturn(search);
+        when(birdRepository.search(search)).thenReturn(Flux.just(bird));
+        when(modelService.getBirdResponseDto(bird)).thenReturn(birdResponseDto);
+
+        // when
+        final List<BirdResponseDto> result = birdService.getBirdsByCriteria(null, color, null, null, null, null, null)
+                .collectList().block();
+
+        // then
+        verify(modelService).getBirdSearch(null, color, null, null, null, null, null);
+        verify(birdRepository).search(search);
+        verify(modelService).getBirdResponseDto(bird);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(List.of(birdResponseDto), result);
+    }
+
+    @Test
+    void getBirdsPage_withNextPage_should_succeed() {
+        // given
+        final String name = "name";
+        final BirdSearch search = new BirdSearch(name, null, null, null, null, null, null, null);
+        final Bird first = buildBird();
+        final Bird second = buildBirdWithoutId();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+
+        when(modelService.getBirdSearch(name, null, null, null, null, null, null)).thenReturn(search);
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(1)).thenReturn(1);
+        when(birdRepository.findPage(search, null, 2)).thenReturn(Flux.just(first, second));
+        when(modelService.getBirdResponseDTOs(List.of(first))).thenReturn(birdResponseDTOs);
+        when(modelService.getCursor(first)).thenReturn("next");
+
+        // when
+        final CursorPageDto<BirdResponseDto> result = birdService.getBirdsPage(name, null, null, null, null, null, null,
+                null, 1).block();
+
+        // then
+        verify(modelService).getBirdSearch(name, null, null, null, null, null, null);
+        verify(modelService).getPageCursor(null);
+        verify(modelService).getPageLimit(1);
+        verify(birdRepository).findPage(search, null, 2);
+        verify(modelService).getBirdResponseDTOs(List.of(first));
+        verify(modelService).getCursor(first);
+        verifyNoMoreInteractions(birdRepository, modelService);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(new CursorPageDto<>(birdResponseDTOs, "next"), result);
+    }
+
+    @Test
+    void getBirdsPage_withInvalidLimit_should_fail() {
+        // given
+        when(modelService.getBirdSearch(null, null, null, null, null, null, null)).thenReturn(BirdSearch.ALL);
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(0)).thenThrow(new IllegalArgumentException(ErrorMessages.INVALID_LIMIT));
+
+        // when
+        final Mono<CursorPageDto<BirdResponseDto>> result = birdService.getBirdsPage(null, null, null, null, null, null,
+                null, null, 0);
+
+        // then
+        verifyNoInteractions(modelService, birdRepository, sightingRepository);
+
+        final Exception exception = assertThrows(IllegalArgumentException.class, result::block);
+        assertEquals(ErrorMessages.INVALID_LIMIT, exception.getMessage());
+    }
+
+    @Test
+    void getBirdsPage_withSortAndCursor_should_fail() {
+        // given
+        final BirdSearch search = new BirdSearch(null, null, null, null, null, null, "weight", null);
+
+        when(modelService.getBirdSearch(null, null, null, null, null, null, "weight")).thenReturn(search);
+        when(modelService.getPageCursor("cursor")).thenReturn(new PageCursor(null, "0"));
+        when(modelService.getPageLimit(null)).thenReturn(100);
+
+        // when
+        final Mono<CursorPageDto<BirdResponseDto>> result = birdService.getBirdsPage(null, null, null, null, null,
+                null, "weight", "cursor", null);
+
+        // then
+        final Exception exception = assertThrows(IllegalArgumentException.class, result::block);
+        assertEquals(ErrorMessages.INVALID_SORTED_CURSOR, exception.getMessage());
+        verifyNoInteractions(birdRepository, sightingRepository);
+    }
+}
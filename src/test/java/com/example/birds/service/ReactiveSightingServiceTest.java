@@ -0,0 +1,351 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.config.SightingStorageProperties;
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
+import com.example.birds.dto.SightingResponseDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.ReactiveSightingRepository;
+import com.example.birds.repository.ReactiveSightingRollupRepository;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.utdata.SightingResponseDtoDataProvider;
+import com.example.birds.utdata.SightingSaveDtoDataProvider;
+import com.example.birds.util.BirdIndex;
+import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ReactiveSightingService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveSightingServiceTest implements SightingSaveDtoDataProvider, SightingResponseDtoDataProvider,
+        SightingDataProvider {
+
+    @Mock
+    private final ReactiveSightingRepository sightingRepository = Mockito.mock(ReactiveSightingRepository.class);
+    @Mock
+    private final ModelService modelService = Mockito.mock(ModelService.class);
+    @Mock
+    private final ReactiveBirdService birdService = Mockito.mock(ReactiveBirdService.class);
+    @Mock
+    private final ValidationService validationService = Mockito.mock(ValidationService.class);
+    @Mock
+    private final SightingStorageProperties sightingStorageProperties = Mockito.mock(SightingStorageProperties.class);
+    @Mock
+    private final ReactiveSightingRollupRepository sightingRollupRepository =
+            Mockito.mock(ReactiveSightingRollupRepository.class);
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+    @Mock
+    private final SightingHeatmapProperties sightingHeatmapProperties = Mockito.mock(SightingHeatmapProperties.class);
+
+    @InjectMocks
+    private ReactiveSightingService sightingService;
+
+    @Test
+    void saveSighting_should_succeed() {
+        // given
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final Sighting sighting = buildSighting();
+        final Sighting savedSighting = buildSighting();
+        final SightingResponseDto sightingResponseDto = buildSightingResponseDto();
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(Mono.just(birdResponseDto));
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingRepository.save(sighting)).thenReturn(Mono.just(savedSighting));
+        when(sightingRollupRepository.updateCounts(List.of(), List.of(savedSighting))).thenReturn(Mono.empty());
+        when(modelService.getSightingResponseDto(savedSighting, birdResponseDto)).thenReturn(sightingResponseDto);
+
+        // when
+        final SightingResponseDto result = sightingService.saveSighting(sightingSaveDto).block();
+
+        // then
+        verify(birdService).getBirdById(sightingSaveDto.getBirdId());
+        verify(modelService).getSighting(sightingSaveDto);
+        verify(sightingRepository).save(sighting);
+        verify(sightingRollupRepository).updateCounts(List.of(), List.of(savedSighting));
+        verify(sightingHeatmapCache).invalidate(List.of(savedSighting));
+        verify(modelService).getSightingResponseDto(savedSighting, birdResponseDto);
+        verifyNoMoreInteractions(birdService, modelService, sightingRepository, sightingRollupRepository);
+        verifyNoInteractions(validationService);
+
+        assertEquals(sightingResponseDto, result);
+    }
+
+    @Test
+    void updateSighting_withTimeSeriesAndMissingDateTime_should_fail_before_writing() {
+        // given
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("2", "location", null, null);
+        final Sighting sighting = new Sighting("2", "location", null);
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(Mono.just(buildBirdResponseDto()));
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+        doThrow(new IllegalArgumentException(ErrorMessages.MISSING_DATETIME))
+                .when(validationService).verifyTimeSeriesSighting(sighting);
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sightingService.updateSighting(sightingSaveDto, "2").block());
+
+        // then
+        assertEquals(ErrorMessages.MISSING_DATETIME, exception.getMessage());
+        verifyNoInteractions(sightingRepository, sightingRollupRepository);
+    }
+
+    @Test
+    void updateSighting_withTimeSeriesAndFailingInsert_should_restore_sighting() {
+        // given
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+        final Sighting sighting = buildSighting();
+        final Sighting previousSighting = buildSighting();
+        final IllegalStateException failure = new IllegalStateException("insert failed");
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(Mono.just(buildBirdResponseDto()));
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+        when(sightingRepository.findById("2")).thenReturn(Mono.just(previousSighting));
+        when(sightingRepository.deleteById("2")).thenReturn(Mono.empty());
+        when(sightingRepository.insert(sighting)).thenReturn(Mono.error(failure));
+        when(sightingRepository.insert(previousSighting)).thenReturn(Mono.just(previousSighting));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.updateSighting(sightingSaveDto, "2").block());
+
+        // then
+        assertSame(failure, exception);
+        verify(sightingRepository).deleteById("2");
+        verify(sightingRepository).insert(previousSighting);
+        verifyNoInteractions(sightingRollupRepository, sightingHeatmapCache);
+    }
+
+    @Test
+    void saveSighting_withInvalidBird_should_fail() {
+        // given
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId()))
+                .thenReturn(Mono.error(new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND)));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.saveSighting(sightingSaveDto).block());
+
+        // then
+        verify(birdService).getBirdById(sightingSaveDto.getBirdId());
+        verifyNoMoreInteractions(birdService);
+        verifyNoInteractions(modelService, sightingRepository, validationService);
+
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+    }
+
+    @Test
+    void getSightingById_withInvalidId_should_fail() {
+        // given
+        final String id = "0";
+
+        when(sightingRepository.findById(id)).thenReturn(Mono.empty());
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.getSightingById(id).block());
+
+        // then
+        verify(sightingRepository).findById(id);
+        verifyNoMoreInteractions(sightingRepository);
+        verifyNoInteractions(birdService, modelService, validationService);
+
+        assertEquals(ErrorMessages.SIGHTING_NOT_FOUND, exception.getMessage());
+    }
+
+    @Test
+    void getAllSightings_should_join_in_batches() {
+        // given
+        final List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i <= SightingService.STREAM_BATCH_SIZE; i++) {
+            sightings.add(buildSighting());
+        }
+        final List<Sighting> firstBatch = sightings.subList(0, SightingService.STREAM_BATCH_SIZE);
+        final List<Sighting> secondBatch = sightings.subList(SightingService.STREAM_BATCH_SIZE, sightings.size());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final SightingResponseDto first = buildSightingResponseDto();
+        final SightingResponseDto second = buildSightingResponseDto();
+
+        when(sightingRepository.findAll()).thenReturn(Flux.fromIterable(sightings));
+        when(birdService.getBirdsByIds(Set.of("1"))).thenAnswer(invocation -> Flux.fromIterable(birdResponseDTOs));
+        when(validationService.verifyOrphanRecords(firstBatch, birdResponseDTOs)).thenReturn(birdIndex);
+        when(validationService.verifyOrphanRecords(secondBatch, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(firstBatch, birdIndex)).thenReturn(List.of(first));
+        when(modelService.getSightingResponseDTOs(secondBatch, birdIndex)).thenReturn(List.of(second));
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getAllSightings().collectList().block();
+
+        // then
+        verify(sightingRepository).findAll();
+        verify(birdService, times(2)).getBirdsByIds(Set.of("1"));
+        verify(validationService).verifyOrphanRecords(firstBatch, birdResponseDTOs);
+        verify(validationService).verifyOrphanRecords(secondBatch, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(firstBatch, birdIndex);
+        verify(modelService).getSightingResponseDTOs(secondBatch, birdIndex);
+        verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
+
+        assertEquals(List.of(first, second), result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withOrphanSightings_should_fail() {
+        // given
+        final List<String> location = List.of("location");
+        final SightingSearch search = new SightingSearch(null, location, null, null, null);
+        final List<Sighting> sightings = List.of(buildSighting());
+        final String message = String.format(ErrorMessages.ORPHAN_RECORDS_IDS_ERROR, List.of("2"));
+
+        when(modelService.getSightingSearch(null, location, null, null, null)).thenReturn(search);
+        when(sightingRepository.search(search)).thenReturn(Flux.fromIterable(sightings));
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(Flux.empty());
+        when(validationService.verifyOrphanRecords(sightings, List.of()))
+                .thenThrow(new IllegalStateException(message));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.getSightingsByCriteria(null, location, null, null, null).collectList().block());
+
+        // then
+        verify(modelService).getSightingSearch(null, location, null, null, null);
+        verify(sightingRepository).search(search);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(validationService).verifyOrphanRecords(sightings, List.of());
+        verifyNoMoreInteractions(modelService, sightingRepository, birdService, validationService);
+
+        assertEquals(message, exception.getMessage());
+    }
+
+    @Test
+    void getSightingsByCriteria_withInvalidBirdId_should_fail() {
+        // given
+        final String birdId = "0";
+
+        when(modelService.getSightingSearch(birdId, null, null, null, null))
+                .thenReturn(new SightingSearch(birdId, List.of(), null, null, null));
+        when(birdService.getBirdById(birdId))
+                .thenReturn(Mono.error(new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND)));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.getSightingsByCriteria(birdId, null, null, null, null).collectList().block());
+
+        // then
+        verify(modelService).getSightingSearch(birdId, null, null, null, null);
+        verify(birdService).getBirdById(birdId);
+        verifyNoMoreInteractions(modelService, birdService);
+        verifyNoInteractions(sightingRepository, validationService);
+
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+    }
+
+    @Test
+    void getSightingsByCriteria_withInvalidDateTime_should_fail() {
+        // given
+        final String startDateTime = "invalid";
+
+        when(modelService.getSightingSearch(null, null, startDateTime, "2023-07-18T10:00:00", null))
+                .thenThrow(new IllegalArgumentException(ErrorMessages.INVALID_DATETIME));
+
+        // when
+        final Flux<SightingResponseDto> result = sightingService.getSightingsByCriteria(null, null, startDateTime,
+                "2023-07-18T10:00:00", null);
+
+        // then
+        verifyNoInteractions(modelService, sightingRepository, birdService, validationService);
+
+        final Exception exception = assertThrows(IllegalArgumentException.class, () -> result.collectList().block());
+        assertEquals(ErrorMessages.INVALID_DATETIME, exception.getMessage());
+    }
+
+    @Test
+    void getSightingsPage_withNextPage_should_succeed() {
+        // given
+        final List<String> location = List.of("location");
+        final SightingSearch search = new SightingSearch(null, location, null, null, null);
+        final Sighting first = buildSighting();
+        final Sighting second = buildSighting();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(1)).thenReturn(1);
+        when(modelService.getSightingSearch(null, location, null, null, null)).thenReturn(search);
+        when(sightingRepository.findPage(search, null, 2)).thenReturn(Flux.just(first, second));
+        when(modelService.getCursor(first)).thenReturn("next");
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(Flux.fromIterable(birdResponseDTOs));
+        when(validationService.verifyOrphanRecords(List.of(first), birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(List.of(first), birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final CursorPageDto<SightingResponseDto> result = sightingService.getSightingsPage(null, location, null, null,
+                null, null, 1).block();
+
+        // then
+        verify(modelService).getPageCursor(null);
+        verify(modelService).getPageLimit(1);
+        verify(modelService).getSightingSearch(null, location, null, null, null);
+        verify(sightingRepository).findPage(search, null, 2);
+        verify(modelService).getCursor(first);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(validationService).verifyOrphanRecords(List.of(first), birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(List.of(first), birdIndex);
+        verifyNoMoreInteractions(modelService, sightingRepository, birdService, validationService);
+
+        assertEquals(new CursorPageDto<>(sightingResponseDTOs, "next"), result);
+    }
+
+    @Test
+    void getHeatmapTile_should_aggregate_through_cache() {
+        // given
+        final SightingHeatmapSearch search = new SightingHeatmapSearch(0, 0, 0, 16, null, null);
+        final List<SightingHeatmapCellDto> cells = List.of(new SightingHeatmapCellDto(3, 5, 2));
+        final SightingHeatmapTileDto tile = new SightingHeatmapTileDto(0, 0, 0, -180, 90, 22.5, 11.25, 2, cells);
+
+        when(sightingHeatmapProperties.getCells()).thenReturn(16);
+        when(modelService.getSightingHeatmapSearch(0, 0, 0, null, null, 16)).thenReturn(search);
+        when(sightingHeatmapCache.getAsync(eq(search), any())).thenAnswer(invocation -> invocation
+                .<Function<SightingHeatmapSearch, Mono<SightingHeatmapTileDto>>>getArgument(1).apply(search));
+        when(sightingRepository.getHeatmapCells(search)).thenReturn(Flux.fromIterable(cells));
+        when(modelService.getSightingHeatmapTileDto(search, cells)).thenReturn(tile);
+
+        // when
+        final SightingHeatmapTileDto result = sightingService.getHeatmapTile(0, 0, 0, null, null).block();
+
+        // then
+        verify(sightingRepository).getHeatmapCells(search);
+        verify(modelService).getSightingHeatmapTileDto(search, cells);
+
+        assertEquals(tile, result);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.birds.service;
+
+import com.example.birds.config.FanOutMode;
+import com.example.birds.config.SightingFanOutProperties;
+import com.example.birds.config.ThreadingProperties;
+import com.example.birds.util.ErrorMessages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReadFanOut}, the forked reads held by latches.
+ */
+public class ReadFanOutTest {
+
+    private final SightingFanOutProperties sightingFanOutProperties = new SightingFanOutProperties();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readAll_should_run_reads_at_the_same_time() {
+        // given
+        final ReadFanOut readFanOut = new ReadFanOut(sightingFanOutProperties, executor);
+        final CountDownLatch started = new CountDownLatch(3);
+        final List<Supplier<String>> reads = new ArrayList<>();
+        for (String result : List.of("first", "second", "third")) {
+            // every read waits for the others to start, which only happens when they run at the same time
+            reads.add(() -> {
+                started.countDown();
+                await(started);
+                return result;
+            });
+        }
+
+        // when
+        final List<String> results = readFanOut.readAll(reads);
+
+        // then
+        assertEquals(List.of("first", "second", "third"), results);
+    }
+
+    @Test
+    void readAll_withFailingRead_should_cancel_other_reads() throws Exception {
+        // given
+        final ReadFanOut readFanOut = new ReadFanOut(sightingFanOutProperties, executor);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<Supplier<String>> reads = List.of(() -> {
+            await(started);
+            throw new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND);
+        }, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+            }
+            return "other";
+        });
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> readFanOut.readAll(reads));
+
+        // then
+        assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getMessage());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void join_afterTimeout_should_cancel_read() throws Exception {
+        // given
+        sightingFanOutProperties.setTimeout(Duration.ofMillis(10));
+        final ReadFanOut readFanOut = new ReadFanOut(sightingFanOutProperties, executor);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final ReadFanOut.Fork<String> fork = readFanOut.fork(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+
+        // when
+        final QueryTimeoutException exception = assertThrows(QueryTimeoutException.class, fork::join);
+
+        // then
+        assertEquals(ErrorMessages.READ_TIMEOUT, exception.getMessage());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fork_whenSequential_should_run_read_on_calling_thread() {
+        // given
+        sightingFanOutProperties.setMode(FanOutMode.SEQUENTIAL);
+        final ReadFanOut readFanOut = new ReadFanOut(sightingFanOutProperties, new ThreadingProperties());
+        final Thread caller = Thread.currentThread();
+        final List<String> order = new ArrayList<>();
+
+        // when
+        final ReadFanOut.Fork<Thread> fork = readFanOut.fork(() -> {
+            order.add("forked");
+            return Thread.currentThread();
+        });
+        order.add("caller");
+
+        // then
+        assertSame(caller, fork.join());
+        assertEquals(List.of("forked", "caller"), order);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
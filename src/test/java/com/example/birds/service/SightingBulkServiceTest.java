@@ -0,0 +1,182 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingBulkProperties;
+import com.example.birds.dto.SightingBulkItemDto;
+import com.example.birds.dto.SightingBulkResultDto;
+import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.utdata.BirdResponseDtoDataProvider;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.util.ErrorMessages;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SightingBulkService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SightingBulkServiceTest implements BirdResponseDtoDataProvider, SightingDataProvider {
+
+    @Mock
+    private final SightingRepository sightingRepository = Mockito.mock(SightingRepository.class);
+    @Mock
+    private final ModelService modelService = Mockito.mock(ModelService.class);
+    @Mock
+    private final BirdService birdService = Mockito.mock(BirdService.class);
+    @Mock
+    private final SightingBulkProperties sightingBulkProperties = Mockito.mock(SightingBulkProperties.class);
+    @Mock
+    private final SightingRollupRepository sightingRollupRepository = Mockito.mock(SightingRollupRepository.class);
+    @Mock
+    private final SightingTimeIndex sightingTimeIndex = Mockito.mock(SightingTimeIndex.class);
+    @Spy
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+
+    @InjectMocks
+    private SightingBulkService sightingBulkService;
+
+    @Test
+    void saveSightings_should_report_each_sighting() {
+        // given
+        final SightingSaveDto valid = new SightingSaveDto("1", "location", "2023-07-18T10:00:00", null);
+        final SightingSaveDto invalidDateTime = new SightingSaveDto("1", "location", "invalid", null);
+        final InputStream body = getBody("[{\"birdId\":\"1\",\"location\":\"location\",\"dateTime\":\"2023-07-18T10:00:00\"},"
+                + "{\"birdId\":\"3\",\"location\":\"location\",\"dateTime\":\"2023-07-18T10:00:00\"},"
+                + "{\"birdId\":\"1\",\"location\":\"location\",\"dateTime\":\"invalid\"},"
+                + "42]");
+        final Sighting sighting = buildSighting();
+
+        when(sightingBulkProperties.getChunkSize()).thenReturn(2);
+        when(birdService.getBirdsByIds(Set.of("1", "3"))).thenReturn(List.of(buildBirdResponseDto()));
+        when(modelService.getSighting(valid)).thenReturn(sighting);
+        when(modelService.getSighting(invalidDateTime))
+                .thenThrow(new IllegalArgumentException(ErrorMessages.INVALID_DATETIME));
+        when(sightingRepository.bulkInsert(List.of(sighting))).thenReturn(Map.of());
+
+        // when
+        final SightingBulkResultDto result = sightingBulkService.saveSightings(body);
+
+        // then
+        verify(sightingBulkProperties).getChunkSize();
+        // birds are only read once, the second chunk references an already checked bird
+        verify(birdService).getBirdsByIds(Set.of("1", "3"));
+        verify(modelService).getSighting(valid);
+        verify(modelService).getSighting(invalidDateTime);
+        verify(sightingRepository).bulkInsert(List.of(sighting));
+        verify(sightingRollupRepository).updateCounts(List.of(), List.of(sighting));
+        verify(sightingTimeIndex).addAll(List.of(sighting));
+        verify(sightingHeatmapCache).invalidate(List.of(sighting));
+        verifyNoMoreInteractions(sightingBulkProperties, birdService, modelService, sightingRepository,
+                sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
+
+        assertNotEquals("2", sighting.getId());
+        assertEquals(new SightingBulkResultDto(List.of(
+                new SightingBulkItemDto(0, sighting.getId(), null),
+                new SightingBulkItemDto(1, null, ErrorMessages.BIRD_NOT_FOUND),
+                new SightingBulkItemDto(2, null, ErrorMessages.INVALID_DATETIME),
+                new SightingBulkItemDto(3, null, ErrorMessages.INVALID_BULK_ITEM))), result);
+        assertEquals(1, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+    }
+
+    @Test
+    void saveSightings_withWriteErrors_should_report_failed_sightings() {
+        // given
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("1", "location", "2023-07-18T10:00:00", null);
+        final InputStream body = getBody("[{\"birdId\":\"1\",\"location\":\"location\",\"dateTime\":\"2023-07-18T10:00:00\"}]");
+        final Sighting sighting = buildSighting();
+
+        when(sightingBulkProperties.getChunkSize()).thenReturn(2);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(List.of(buildBirdResponseDto()));
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingRepository.bulkInsert(List.of(sighting))).thenReturn(Map.of(0, "duplicate key"));
+
+        // when
+        final SightingBulkResultDto result = sightingBulkService.saveSightings(body);
+
+        // then
+        verify(sightingBulkProperties).getChunkSize();
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(modelService).getSighting(sightingSaveDto);
+        verify(sightingRepository).bulkInsert(List.of(sighting));
+        verifyNoMoreInteractions(sightingBulkProperties, birdService, modelService, sightingRepository,
+                sightingRollupRepository);
+
+        assertEquals(new SightingBulkResultDto(List.of(new SightingBulkItemDto(0, null, "duplicate key"))), result);
+    }
+
+    @Test
+    void saveSightings_withMalformedJson_should_keep_read_sightings() {
+        // given
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("1", "location", "2023-07-18T10:00:00", null);
+        final InputStream body = getBody("[{\"birdId\":\"1\",\"location\":\"location\",\"dateTime\":\"2023-07-18T10:00:00\"},"
+                + "{\"birdId\":");
+        final Sighting sighting = buildSighting();
+
+        when(sightingBulkProperties.getChunkSize()).thenReturn(2);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(List.of(buildBirdResponseDto()));
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingRepository.bulkInsert(List.of(sighting))).thenReturn(Map.of());
+
+        // when
+        final SightingBulkResultDto result = sightingBulkService.saveSightings(body);
+
+        // then
+        verify(sightingBulkProperties).getChunkSize();
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(modelService).getSighting(sightingSaveDto);
+        verify(sightingRepository).bulkInsert(List.of(sighting));
+        verify(sightingRollupRepository).updateCounts(List.of(), List.of(sighting));
+        verify(sightingTimeIndex).addAll(List.of(sighting));
+        verify(sightingHeatmapCache).invalidate(List.of(sighting));
+        verifyNoMoreInteractions(sightingBulkProperties, birdService, modelService, sightingRepository,
+                sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
+
+        assertEquals(new SightingBulkResultDto(List.of(
+                new SightingBulkItemDto(0, sighting.getId(), null),
+                new SightingBulkItemDto(1, null, ErrorMessages.MALFORMED_BULK_REQUEST))), result);
+    }
+
+    @Test
+    void saveSightings_withoutArray_should_fail() {
+        // given
+        final InputStream body = getBody("{\"birdId\":\"1\"}");
+
+        when(sightingBulkProperties.getChunkSize()).thenReturn(2);
+
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> sightingBulkService.saveSightings(body));
+
+        // then
+        verify(sightingBulkProperties).getChunkSize();
+        verifyNoMoreInteractions(sightingBulkProperties);
+        verifyNoInteractions(birdService, modelService, sightingRepository);
+
+        assertEquals(ErrorMessages.INVALID_BULK_REQUEST, exception.getMessage());
+    }
+
+    private static InputStream getBody(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
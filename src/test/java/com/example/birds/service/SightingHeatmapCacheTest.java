@@ -0,0 +1,207 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.dto.CacheStatsDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.utdata.SightingDataProvider;
+import com.example.birds.util.SightingHeatmapSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SightingHeatmapCache}.
+ */
+public class SightingHeatmapCacheTest implements SightingDataProvider {
+
+    // the tile of zoom 2 holding the sighting built by buildSightingAt(-118.5, 34.0), during July 2023
+    private static final SightingHeatmapSearch SEARCH = new SightingHeatmapSearch(2, 0, 1, 16,
+            LocalDate.parse("2023-07-01"), LocalDate.parse("2023-07-31"));
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<SightingHeatmapSearch, SightingHeatmapTileDto> loader = search -> {
+        loads.incrementAndGet();
+        return new SightingHeatmapTileDto(search.getZoom(), search.getX(), search.getY(), search.getWest(),
+                search.getNorth(), search.getCellWidth(), search.getCellHeight(), 0, List.of());
+    };
+
+    @Test
+    void get_should_load_once() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+
+        // when
+        final SightingHeatmapTileDto first = cache.get(SEARCH, loader);
+        final SightingHeatmapTileDto second = cache.get(SEARCH, loader);
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(new CacheStatsDto(1, 1, 0.5, 0, 1), cache.getStats());
+    }
+
+    @Test
+    void get_withFailingLoader_should_not_cache() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class, () -> cache.get(SEARCH, search -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        // then
+        assertEquals("failed", exception.getMessage());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void get_afterExpiration_should_load_again() {
+        // given
+        final SightingHeatmapProperties properties = new SightingHeatmapProperties();
+        properties.setCacheExpireAfterWrite(Duration.ofMinutes(1));
+        final SightingHeatmapCache cache = new SightingHeatmapCache(properties, nanos::get);
+        cache.get(SEARCH, loader);
+
+        // when
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.get(SEARCH, loader);
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void get_whenDisabled_should_always_load() {
+        // given
+        final SightingHeatmapProperties properties = new SightingHeatmapProperties();
+        properties.setCacheEnabled(false);
+        final SightingHeatmapCache cache = new SightingHeatmapCache(properties, nanos::get);
+
+        // when
+        cache.get(SEARCH, loader);
+        cache.get(SEARCH, loader);
+        cache.invalidate(List.of(buildSightingAt(-118.5, 34.0)));
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(new CacheStatsDto(0, 0, 1, 0, 0), cache.getStats());
+    }
+
+    @Test
+    void getAsync_should_load_once() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+        final Function<SightingHeatmapSearch, Mono<SightingHeatmapTileDto>> asyncLoader =
+                search -> Mono.fromSupplier(() -> loader.apply(search));
+
+        // when
+        final SightingHeatmapTileDto first = cache.getAsync(SEARCH, asyncLoader).block();
+        final SightingHeatmapTileDto second = cache.getAsync(SEARCH, asyncLoader).block();
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getAsync_withFailingLoader_should_not_cache() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+
+        // when
+        final Mono<SightingHeatmapTileDto> result = cache.getAsync(SEARCH,
+                search -> Mono.error(new IllegalStateException("failed")));
+
+        // then
+        final Exception exception = assertThrows(IllegalStateException.class, result::block);
+        assertEquals("failed", exception.getMessage());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void invalidate_should_remove_tiles_holding_sighting_in_window() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+        final SightingHeatmapSearch world = new SightingHeatmapSearch(0, 0, 0, 16, null, null);
+        final SightingHeatmapSearch otherTile = new SightingHeatmapSearch(2, 1, 1, 16, null, null);
+        final SightingHeatmapSearch otherWindow = new SightingHeatmapSearch(2, 0, 1, 16, null,
+                LocalDate.parse("2023-07-17"));
+        for (SightingHeatmapSearch search : List.of(SEARCH, world, otherTile, otherWindow)) {
+            cache.get(search, loader);
+        }
+
+        // when
+        cache.invalidate(List.of(buildSightingAt(-118.5, 34.0)));
+        for (SightingHeatmapSearch search : List.of(SEARCH, world, otherTile, otherWindow)) {
+            cache.get(search, loader);
+        }
+
+        // then
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void invalidate_withoutCoordinates_should_keep_tiles() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+        cache.get(SEARCH, loader);
+
+        // when
+        cache.invalidate(List.of(buildSighting()));
+        cache.get(SEARCH, loader);
+
+        // then
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateAll_should_remove_all_tiles() {
+        // given
+        final SightingHeatmapCache cache = new SightingHeatmapCache(new SightingHeatmapProperties(), nanos::get);
+        cache.get(SEARCH, loader);
+
+        // when
+        cache.invalidateAll();
+
+        // then
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void getDatesByTile_should_hold_every_zoom_level() {
+        // given
+        final Sighting sighting = buildSightingAt(180, -90);
+
+        // when
+        final Map<Long, Set<LocalDate>> result = SightingHeatmapCache.getDatesByTile(List.of(sighting, buildSighting()));
+
+        // then
+        assertEquals(SightingHeatmapSearch.MAX_ZOOM + 1, result.size());
+        final int last = SightingHeatmapSearch.getTileCount(SightingHeatmapSearch.MAX_ZOOM) - 1;
+        assertEquals(Set.of(LocalDate.parse("2023-07-18")),
+                result.get(SightingHeatmapSearch.getTileId(SightingHeatmapSearch.MAX_ZOOM, last, last)));
+    }
+
+    private Sighting buildSightingAt(double longitude, double latitude) {
+        final Sighting sighting = buildSighting();
+        sighting.setCoordinates(new GeoJsonPoint(longitude, latitude));
+        return sighting;
+    }
+}
@@ -3,22 +3,59 @@ package com.example.birds.service;
 import com.example.birds.utdata.SightingSaveDtoDataProvider;
 import com.example.birds.utdata.SightingDataProvider;
 import com.example.birds.utdata.SightingResponseDtoDataProvider;
+import com.example.birds.config.JoinMode;
+import com.example.birds.config.SightingFanOutProperties;
+import com.example.birds.config.ThreadingProperties;
+import com.example.birds.config.SightingHeatmapProperties;
+import com.example.birds.config.SightingJoinProperties;
+import com.example.birds.config.SightingStorageProperties;
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.CursorPageDto;
+import com.example.birds.dto.RollupRebuildDto;
+import com.example.birds.dto.SightingHeatmapCellDto;
+import com.example.birds.dto.SightingHeatmapTileDto;
 import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.dto.SightingSaveDto;
+import com.example.birds.dto.SightingStatsDto;
 import com.example.birds.model.Sighting;
+import com.example.birds.model.SightingRollup;
 import com.example.birds.repository.SightingRepository;
+import com.example.birds.repository.SightingRollupRepository;
+import com.example.birds.repository.SightingRollupRepositoryCustomImpl;
+import com.example.birds.util.BirdIndex;
 import com.example.birds.util.ErrorMessages;
+import com.example.birds.util.PageCursor;
+import com.example.birds.util.SightingGeoSearch;
+import com.example.birds.util.SightingHeatmapSearch;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingStatsSearch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +74,20 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
     private final BirdService birdService = Mockito.mock(BirdService.class);
     @Mock
     private final ValidationService validationService = Mockito.mock(ValidationService.class);
+    @Mock
+    private final SightingJoinProperties sightingJoinProperties = Mockito.mock(SightingJoinProperties.class);
+    @Mock
+    private final SightingStorageProperties sightingStorageProperties = Mockito.mock(SightingStorageProperties.class);
+    @Mock
+    private final SightingRollupRepository sightingRollupRepository = Mockito.mock(SightingRollupRepository.class);
+    @Mock
+    private final SightingTimeIndex sightingTimeIndex = Mockito.mock(SightingTimeIndex.class);
+    @Mock
+    private final SightingHeatmapCache sightingHeatmapCache = Mockito.mock(SightingHeatmapCache.class);
+    @Mock
+    private final SightingHeatmapProperties sightingHeatmapProperties = Mockito.mock(SightingHeatmapProperties.class);
+    @Spy
+    private final ReadFanOut readFanOut = new ReadFanOut(new SightingFanOutProperties(), new ThreadingProperties());
 
     @InjectMocks
     private SightingService sightingService;
@@ -62,13 +113,51 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
         verify(birdService).getBirdById(sightingSaveDto.getBirdId());
         verify(modelService).getSighting(sightingSaveDto);
         verify(sightingRepository).save(sighting);
+        verify(sightingRollupRepository).updateCounts(List.of(), List.of(savedSighting));
+        verify(sightingTimeIndex).addAll(List.of(savedSighting));
+        verify(sightingHeatmapCache).invalidate(List.of(savedSighting));
         verify(modelService).getSightingResponseDto(savedSighting, birdResponseDto);
-        verifyNoMoreInteractions(birdService, modelService, sightingRepository);
+        verifyNoMoreInteractions(birdService, modelService, sightingRepository, sightingRollupRepository);
         verifyNoInteractions(validationService);
 
         assertEquals(sightingResponseDto, result);
     }
 
+    @Test
+    void saveSighting_withoutDateTime_should_count_rollup() {
+        // given
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("1", "location", null, null);
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final Sighting sighting = new Sighting("1", "location", null);
+        final SightingResponseDto sightingResponseDto = buildSightingResponseDto();
+        final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        final BulkOperations bulkOperations = mock(BulkOperations.class);
+        // the rollups are counted by the actual implementation
+        final SightingRollupRepositoryCustomImpl rollups = new SightingRollupRepositoryCustomImpl(mongoTemplate);
+
+        when(birdService.getBirdById("1")).thenReturn(birdResponseDto);
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingRepository.save(sighting)).thenReturn(sighting);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SightingRollup.class)).thenReturn(bulkOperations);
+        doAnswer(invocation -> {
+            rollups.updateCounts(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(sightingRollupRepository).updateCounts(List.of(), List.of(sighting));
+        when(modelService.getSightingResponseDto(sighting, birdResponseDto)).thenReturn(sightingResponseDto);
+
+        // when
+        final SightingResponseDto result = sightingService.saveSighting(sightingSaveDto);
+
+        // then
+        verify(sightingRepository).save(sighting);
+        verify(bulkOperations).upsert(any(Query.class), eq(new Update().inc("count", 1L)));
+        verify(bulkOperations).execute();
+        verify(sightingTimeIndex).addAll(List.of(sighting));
+        verify(sightingHeatmapCache).invalidate(List.of(sighting));
+
+        assertEquals(sightingResponseDto, result);
+    }
+
     @Test
     void updateSighting_should_succeed() {
         // given
@@ -76,11 +165,13 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
         final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
         final BirdResponseDto birdResponseDto = buildBirdResponseDto();
         final Sighting sighting = buildSighting();
+        final Sighting previousSighting = buildSighting();
         final Sighting updatedSighting = buildSighting();
         final SightingResponseDto sightingResponseDto = buildSightingResponseDto();
 
         when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(birdResponseDto);
         when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingRepository.findById(sightingId)).thenReturn(Optional.of(previousSighting));
         when(sightingRepository.save(sighting)).thenReturn(updatedSighting);
         when(modelService.getSightingResponseDto(updatedSighting, birdResponseDto)).thenReturn(sightingResponseDto);
 
@@ -90,24 +181,135 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
         // then
         verify(birdService).getBirdById(sightingSaveDto.getBirdId());
         verify(modelService).getSighting(sightingSaveDto);
+        verify(sightingRepository).findById(sightingId);
         verify(sightingRepository).save(sighting);
+        verify(sightingRollupRepository).updateCounts(List.of(previousSighting), List.of(updatedSighting));
+        verify(sightingTimeIndex).remove(previousSighting);
+        verify(sightingTimeIndex).addAll(List.of(updatedSighting));
+        verify(sightingHeatmapCache).invalidate(List.of(previousSighting));
+        verify(sightingHeatmapCache).invalidate(List.of(updatedSighting));
         verify(modelService).getSightingResponseDto(updatedSighting, birdResponseDto);
-        verifyNoMoreInteractions(birdService, modelService, sightingRepository);
+        verifyNoMoreInteractions(birdService, modelService, sightingRepository, sightingRollupRepository);
         verifyNoInteractions(validationService);
 
         assertEquals(sightingResponseDto, result);
     }
 
+    @Test
+    void updateSighting_withTimeSeriesAndMissingDateTime_should_fail_before_writing() {
+        // given
+        final String sightingId = "2";
+        final SightingSaveDto sightingSaveDto = new SightingSaveDto("2", "location", null, null);
+        final Sighting sighting = new Sighting("2", "location", null);
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(buildBirdResponseDto());
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+        doThrow(new IllegalArgumentException(ErrorMessages.MISSING_DATETIME))
+                .when(validationService).verifyTimeSeriesSighting(sighting);
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sightingService.updateSighting(sightingSaveDto, sightingId));
+
+        // then
+        assertEquals(ErrorMessages.MISSING_DATETIME, exception.getMessage());
+        verifyNoInteractions(sightingRepository, sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
+    }
+
+    @Test
+    void updateSighting_withTimeSeriesAndFailingInsert_should_restore_sighting() {
+        // given
+        final String sightingId = "2";
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+        final Sighting sighting = buildSighting();
+        final Sighting previousSighting = buildSighting();
+        final IllegalStateException failure = new IllegalStateException("insert failed");
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(buildBirdResponseDto());
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+        when(sightingRepository.findById(sightingId)).thenReturn(Optional.of(previousSighting));
+        when(sightingRepository.insert(sighting)).thenThrow(failure);
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.updateSighting(sightingSaveDto, sightingId));
+
+        // then
+        assertSame(failure, exception);
+        final InOrder inOrder = inOrder(sightingRepository);
+        inOrder.verify(sightingRepository).deleteById(sightingId);
+        inOrder.verify(sightingRepository).insert(sighting);
+        inOrder.verify(sightingRepository).insert(previousSighting);
+        verifyNoInteractions(sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
+    }
+
+    @Test
+    void updateSighting_withTimeSeries_should_delete_and_insert() {
+        // given
+        final String sightingId = "2";
+        final SightingSaveDto sightingSaveDto = buildSightingSaveDto();
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final Sighting sighting = buildSighting();
+        final Sighting updatedSighting = buildSighting();
+        final SightingResponseDto sightingResponseDto = buildSightingResponseDto();
+
+        when(birdService.getBirdById(sightingSaveDto.getBirdId())).thenReturn(birdResponseDto);
+        when(modelService.getSighting(sightingSaveDto)).thenReturn(sighting);
+        when(sightingStorageProperties.isTimeSeries()).thenReturn(true);
+        when(sightingRepository.insert(sighting)).thenReturn(updatedSighting);
+        when(modelService.getSightingResponseDto(updatedSighting, birdResponseDto)).thenReturn(sightingResponseDto);
+
+        // when
+        final SightingResponseDto result = sightingService.updateSighting(sightingSaveDto, sightingId);
+
+        // then
+        final InOrder inOrder = inOrder(sightingRepository);
+        inOrder.verify(sightingRepository).findById(sightingId);
+        inOrder.verify(sightingRepository).deleteById(sightingId);
+        inOrder.verify(sightingRepository).insert(sighting);
+        verifyNoMoreInteractions(sightingRepository);
+        // the sighting didn't exist, the update created it
+        verify(sightingRollupRepository).updateCounts(List.of(), List.of(updatedSighting));
+
+        assertEquals(sightingId, sighting.getId());
+        assertEquals(sightingResponseDto, result);
+    }
+
     @Test
     void deleteSighting_should_succeed() {
         // given
         final String id = "2";
+        final Sighting sighting = buildSighting();
+
+        when(sightingRepository.findById(id)).thenReturn(Optional.of(sighting));
 
         // when
         sightingService.deleteSighting(id);
 
         // then
+        verify(sightingRepository).findById(id);
         verify(sightingRepository).deleteById(id);
+        verify(sightingRollupRepository).updateCounts(List.of(sighting), List.of());
+        verify(sightingTimeIndex).remove(sighting);
+        verify(sightingHeatmapCache).invalidate(List.of(sighting));
+        verifyNoMoreInteractions(sightingRepository, sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
+    }
+
+    @Test
+    void deleteSighting_withMissingSighting_should_not_update_rollups() {
+        // given
+        final String id = "2";
+
+        when(sightingRepository.findById(id)).thenReturn(Optional.empty());
+
+        // when
+        sightingService.deleteSighting(id);
+
+        // then
+        verify(sightingRepository).deleteById(id);
+        verifyNoInteractions(sightingRollupRepository, sightingTimeIndex, sightingHeatmapCache);
     }
 
     @Test
@@ -159,20 +361,22 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
         // given
         final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
         final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
         final List<Sighting> sightings = List.of(buildSighting());
 
-        when(birdService.getAllBirds()).thenReturn(birdResponseDTOs);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
         when(sightingRepository.findAll()).thenReturn(sightings);
-        when(modelService.getSightingResponseDTOs(sightings, birdResponseDTOs)).thenReturn(sightingResponseDTOs);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
 
         // when
         final List<SightingResponseDto> result = sightingService.getAllSightings();
 
         // then
-        verify(birdService).getAllBirds();
+        verify(birdService).getBirdsByIds(Set.of("1"));
         verify(sightingRepository).findAll();
         verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
-        verify(modelService).getSightingResponseDTOs(sightings, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(sightings, birdIndex);
         verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
 
         assertEquals(sightingResponseDTOs, result);
@@ -182,85 +386,566 @@ public class SightingServiceTest implements SightingSaveDtoDataProvider, Sightin
     void getSightingsByCriteria_withBirdId_should_succeed() {
         // given
         final String birdId = "1";
+        final SightingSearch search = new SightingSearch(birdId, List.of(), null, null, null);
         final BirdResponseDto birdResponseDto = buildBirdResponseDto();
         final List<Sighting> sightings = List.of(buildSighting());
         final List<BirdResponseDto> birdResponseDTOs = List.of(birdResponseDto);
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
         final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
 
+        when(modelService.getSightingSearch(birdId, null, null, null, null)).thenReturn(search);
         when(birdService.getBirdById(birdId)).thenReturn(birdResponseDto);
-        when(sightingRepository.findByBirdId(birdId)).thenReturn(sightings);
-        when(modelService.getSightingResponseDTOs(sightings, birdResponseDTOs)).thenReturn(sightingResponseDTOs);
+        when(sightingRepository.search(search)).thenReturn(sightings);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
 
         // when
         final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(birdId,
-                null, null, null);
+                null, null, null, null);
 
         // then
+        verify(modelService).getSightingSearch(birdId, null, null, null, null);
         verify(birdService).getBirdById(birdId);
-        verify(sightingRepository).findByBirdId(birdId);
+        verify(sightingRepository).search(search);
         verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
-        verify(modelService).getSightingResponseDTOs(sightings, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(sightings, birdIndex);
         verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
+        verifyNoInteractions(sightingJoinProperties);
 
         assertEquals(sightingResponseDTOs, result);
     }
 
     @Test
-    void getSightingsByCriteria_withLocation_should_succeed() {
+    void getSightingsByCriteria_withLocations_should_succeed() {
         // given
-        final String location = "location";
+        final List<String> locations = List.of("location", "other location");
+        final SightingSearch search = new SightingSearch(null, locations, null, null, null);
         final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
         final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
         final List<Sighting> sightings = List.of(buildSighting());
 
-        when(birdService.getAllBirds()).thenReturn(birdResponseDTOs);
-        when(sightingRepository.findByLocation(location)).thenReturn(sightings);
-        when(modelService.getSightingResponseDTOs(sightings, birdResponseDTOs)).thenReturn(sightingResponseDTOs);
+        when(modelService.getSightingSearch(null, locations, null, null, null)).thenReturn(search);
+        when(sightingJoinProperties.getLocation()).thenReturn(JoinMode.JVM);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(sightingRepository.search(search)).thenReturn(sightings);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
 
         // when
         final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
-                location, null, null);
+                locations, null, null, null);
 
         // then
-        verify(birdService).getAllBirds();
-        verify(sightingRepository).findByLocation(location);
+        verify(modelService).getSightingSearch(null, locations, null, null, null);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(sightingRepository).search(search);
         verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
-        verify(modelService).getSightingResponseDTOs(sightings, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(sightings, birdIndex);
         verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
 
         assertEquals(sightingResponseDTOs, result);
     }
 
     @Test
-    void getSightingsByCriteria_withTimeInterval_should_succeed() {
+    void getSightingsByCriteria_withManyBirds_should_read_birds_by_chunk() {
+        // given
+        final List<String> locations = List.of("location");
+        final SightingSearch search = new SightingSearch(null, locations, null, null, null);
+        final List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i <= BirdService.FIND_BY_IDS_CHUNK_SIZE; i++) {
+            sightings.add(new Sighting(String.valueOf(i), "location", LocalDateTime.parse("2023-07-18T10:00:00")));
+        }
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(birdResponseDto, birdResponseDto);
+        final BirdIndex birdIndex = BirdIndex.of(List.of(birdResponseDto));
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingSearch(null, locations, null, null, null)).thenReturn(search);
+        when(sightingJoinProperties.getLocation()).thenReturn(JoinMode.JVM);
+        when(sightingRepository.search(search)).thenReturn(sightings);
+        when(birdService.getBirdsByIds(anyCollection())).thenReturn(List.of(birdResponseDto));
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
+                locations, null, null, null);
+
+        // then
+        verify(birdService, times(2)).getBirdsByIds(anyCollection());
+        verify(readFanOut).readAll(anyList());
+        verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withBirdIdAndFailingSearch_should_throw() {
+        // given
+        final String birdId = "1";
+        final SightingSearch search = new SightingSearch(birdId, List.of(), null, null, null);
+
+        when(modelService.getSightingSearch(birdId, null, null, null, null)).thenReturn(search);
+        lenient().when(birdService.getBirdById(birdId)).thenReturn(buildBirdResponseDto());
+        when(sightingRepository.search(search)).thenThrow(new IllegalStateException(ErrorMessages.SIGHTING_NOT_FOUND));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sightingService.getSightingsByCriteria(birdId, null, null, null, null));
+
+        // then
+        assertEquals(ErrorMessages.SIGHTING_NOT_FOUND, exception.getMessage());
+        verifyNoInteractions(validationService);
+    }
+
+    @Test
+    void getSightingsNear_withBirdId_should_check_bird() {
+        // given
+        final String birdId = "1";
+        final SightingGeoSearch search = SightingGeoSearch.near(birdId, null, null, new GeoJsonPoint(-118.5, 34.0), 500);
+        final BirdResponseDto birdResponseDto = buildBirdResponseDto();
+        final List<BirdResponseDto> birdResponseDTOs = List.of(birdResponseDto);
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<Sighting> sightings = List.of(buildSighting());
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingNearSearch(birdId, null, null, -118.5, 34.0, 500.0)).thenReturn(search);
+        when(birdService.getBirdById(birdId)).thenReturn(birdResponseDto);
+        when(sightingRepository.geoSearch(search)).thenReturn(sightings);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsNear(birdId, null, null,
+                -118.5, 34.0, 500.0);
+
+        // then
+        verify(birdService).getBirdById(birdId);
+        verify(sightingRepository).geoSearch(search);
+        verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
+        verifyNoMoreInteractions(birdService, sightingRepository, validationService);
+        verifyNoInteractions(sightingTimeIndex, sightingJoinProperties);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsWithin_should_join_referenced_birds() {
+        // given
+        final String polygon = "0,0;1,0;1,1";
+        final GeoJsonPoint origin = new GeoJsonPoint(0, 0);
+        final SightingGeoSearch search = SightingGeoSearch.within(null, null, null,
+                new GeoJsonPolygon(origin, new Point(1, 0), new Point(1, 1), origin), Sort.Direction.ASC);
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<Sighting> sightings = List.of(buildSighting());
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingWithinSearch(null, null, null, polygon, "asc")).thenReturn(search);
+        when(sightingRepository.geoSearch(search)).thenReturn(sightings);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsWithin(null, null, null, polygon, "asc");
+
+        // then
+        verify(sightingRepository).geoSearch(search);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verifyNoMoreInteractions(birdService, sightingRepository);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withIndexedTimeInterval_should_not_search_mongodb() {
         // given
         final String startTimeString = "2024-07-18T09:30:00";
-        final String endTimeString = "2024-07-18T10:30:00";
+        final SightingSearch search = new SightingSearch(null, List.of(), LocalDateTime.parse(startTimeString),
+                null, null);
         final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
-        final LocalDateTime startDateTime = LocalDateTime.parse(startTimeString);
-        final LocalDateTime endDateTime = LocalDateTime.parse(endTimeString);
         final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
         final List<Sighting> sightings = List.of(buildSighting());
 
-        when(modelService.getDateTime(startTimeString)).thenReturn(startDateTime);
-        when(modelService.getDateTime(endTimeString)).thenReturn(endDateTime);
-        when(birdService.getAllBirds()).thenReturn(birdResponseDTOs);
-        when(sightingRepository.findByDateTimeBetween(startDateTime, endDateTime)).thenReturn(sightings);
-        when(modelService.getSightingResponseDTOs(sightings, birdResponseDTOs)).thenReturn(sightingResponseDTOs);
+        when(modelService.getSightingSearch(null, null, startTimeString, null, null)).thenReturn(search);
+        when(sightingTimeIndex.find(search)).thenReturn(Optional.of(sightings));
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
 
         // when
         final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
-                null, startTimeString, endTimeString);
+                null, startTimeString, null, null);
 
         // then
-        verify(modelService).getDateTime(startTimeString);
-        verify(modelService).getDateTime(endTimeString);
-        verify(birdService).getAllBirds();
-        verify(sightingRepository).findByDateTimeBetween(startDateTime, endDateTime);
+        verify(sightingTimeIndex).find(search);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verifyNoInteractions(sightingRepository, sightingJoinProperties);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void countSightingsByCriteria_should_count_from_index_or_mongodb() {
+        // given
+        final String startTimeString = "2024-07-18T09:30:00";
+        final SightingSearch indexedSearch = new SightingSearch(null, List.of(), LocalDateTime.parse(startTimeString),
+                null, null);
+        final SightingSearch birdSearch = new SightingSearch("1", List.of(), LocalDateTime.parse(startTimeString),
+                null, null);
+
+        when(modelService.getSightingSearch(null, null, startTimeString, null, null)).thenReturn(indexedSearch);
+        when(modelService.getSightingSearch("1", null, startTimeString, null, null)).thenReturn(birdSearch);
+        when(sightingTimeIndex.count(indexedSearch)).thenReturn(OptionalLong.of(3));
+        when(sightingTimeIndex.count(birdSearch)).thenReturn(OptionalLong.empty());
+        when(sightingRepository.count(birdSearch)).thenReturn(2L);
+
+        // when
+        final long indexedResult = sightingService.countSightingsByCriteria(null, null, startTimeString, null);
+        final long result = sightingService.countSightingsByCriteria("1", null, startTimeString, null);
+
+        // then
+        verify(sightingRepository).count(birdSearch);
+        verifyNoMoreInteractions(sightingRepository);
+
+        assertEquals(3, indexedResult);
+        assertEquals(2, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withOpenTimeIntervalAndSort_should_succeed() {
+        // given
+        final String startTimeString = "2024-07-18T09:30:00";
+        final SightingSearch search = new SightingSearch(null, List.of(), LocalDateTime.parse(startTimeString),
+                null, Sort.Direction.DESC);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<Sighting> sightings = List.of(buildSighting());
+
+        when(modelService.getSightingSearch(null, null, startTimeString, null, "desc")).thenReturn(search);
+        when(sightingJoinProperties.getDateTime()).thenReturn(JoinMode.JVM);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(sightingRepository.search(search)).thenReturn(sightings);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
+                null, startTimeString, null, "desc");
+
+        // then
+        verify(modelService).getSightingSearch(null, null, startTimeString, null, "desc");
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(sightingRepository).search(search);
         verify(validationService).verifyOrphanRecords(sightings, birdResponseDTOs);
-        verify(modelService).getSightingResponseDTOs(sightings, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(sightings, birdIndex);
         verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
 
         assertEquals(sightingResponseDTOs, result);
     }
+
+    @Test
+    void getSightingsByCriteria_withoutCriteria_should_get_all_sightings() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingSearch(null, null, null, null, null)).thenReturn(SightingSearch.ALL);
+        when(sightingJoinProperties.getAll()).thenReturn(JoinMode.AGGREGATION);
+        when(sightingRepository.findSightingResponseDTOs(SightingSearch.ALL)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
+                null, null, null, null);
+
+        // then
+        verify(modelService).getSightingSearch(null, null, null, null, null);
+        verify(sightingRepository).findSightingResponseDTOs(SightingSearch.ALL);
+        verify(validationService).verifyOrphanRecords(sightingResponseDTOs);
+        verifyNoMoreInteractions(sightingRepository, validationService, modelService);
+        verifyNoInteractions(birdService);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getAllSightings_withAggregationJoin_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(sightingJoinProperties.getAll()).thenReturn(JoinMode.AGGREGATION);
+        when(sightingRepository.findSightingResponseDTOs(SightingSearch.ALL)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getAllSightings();
+
+        // then
+        verify(sightingRepository).findSightingResponseDTOs(SightingSearch.ALL);
+        verify(validationService).verifyOrphanRecords(sightingResponseDTOs);
+        verifyNoMoreInteractions(sightingRepository, validationService);
+        verifyNoInteractions(birdService, modelService);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withLocationAndAggregationJoin_should_succeed() {
+        // given
+        final List<String> location = List.of("location");
+        final SightingSearch search = new SightingSearch(null, location, null, null, null);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingSearch(null, location, null, null, null)).thenReturn(search);
+        when(sightingJoinProperties.getLocation()).thenReturn(JoinMode.AGGREGATION);
+        when(sightingRepository.findSightingResponseDTOs(search)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
+                location, null, null, null);
+
+        // then
+        verify(modelService).getSightingSearch(null, location, null, null, null);
+        verify(sightingRepository).findSightingResponseDTOs(search);
+        verify(validationService).verifyOrphanRecords(sightingResponseDTOs);
+        verifyNoMoreInteractions(sightingRepository, validationService, modelService);
+        verifyNoInteractions(birdService);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsByCriteria_withTimeIntervalAndAggregationJoin_should_succeed() {
+        // given
+        final String startTimeString = "2024-07-18T09:30:00";
+        final String endTimeString = "2024-07-18T10:30:00";
+        final LocalDateTime startDateTime = LocalDateTime.parse(startTimeString);
+        final LocalDateTime endDateTime = LocalDateTime.parse(endTimeString);
+        final SightingSearch search = new SightingSearch(null, List.of(), startDateTime, endDateTime, null);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getSightingSearch(null, null, startTimeString, endTimeString, null)).thenReturn(search);
+        when(sightingJoinProperties.getDateTime()).thenReturn(JoinMode.AGGREGATION);
+        when(sightingRepository.findSightingResponseDTOs(search)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final List<SightingResponseDto> result = sightingService.getSightingsByCriteria(null,
+                null, startTimeString, endTimeString, null);
+
+        // then
+        verify(modelService).getSightingSearch(null, null, startTimeString, endTimeString, null);
+        verify(sightingRepository).findSightingResponseDTOs(search);
+        verify(validationService).verifyOrphanRecords(sightingResponseDTOs);
+        verifyNoMoreInteractions(sightingRepository, validationService, modelService);
+        verifyNoInteractions(birdService);
+
+        assertEquals(sightingResponseDTOs, result);
+    }
+
+    @Test
+    void getSightingsPage_withNextPage_should_succeed() {
+        // given
+        final List<String> location = List.of("location");
+        final SightingSearch search = new SightingSearch(null, location, null, null, null);
+        final Sighting first = buildSighting();
+        final Sighting second = buildSighting();
+        final List<Sighting> page = List.of(first);
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getPageCursor(null)).thenReturn(null);
+        when(modelService.getPageLimit(1)).thenReturn(1);
+        when(modelService.getSightingSearch(null, location, null, null, null)).thenReturn(search);
+        when(sightingRepository.findPage(search, null, 2)).thenReturn(List.of(first, second));
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(validationService.verifyOrphanRecords(page, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(page, birdIndex)).thenReturn(sightingResponseDTOs);
+        when(modelService.getCursor(first)).thenReturn("next");
+
+        // when
+        final CursorPageDto<SightingResponseDto> result = sightingService.getSightingsPage(null, location,
+                null, null, null, null, 1);
+
+        // then
+        verify(modelService).getPageCursor(null);
+        verify(modelService).getPageLimit(1);
+        verify(modelService).getSightingSearch(null, location, null, null, null);
+        verify(sightingRepository).findPage(search, null, 2);
+        verify(birdService).getBirdsByIds(Set.of("1"));
+        verify(validationService).verifyOrphanRecords(page, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(page, birdIndex);
+        verify(modelService).getCursor(first);
+        verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
+
+        assertEquals(new CursorPageDto<>(sightingResponseDTOs, "next"), result);
+    }
+
+    @Test
+    void getSightingsPage_withTimeIntervalAndLastPage_should_succeed() {
+        // given
+        final String startTimeString = "2024-07-18T09:30:00";
+        final String endTimeString = "2024-07-18T10:30:00";
+        final LocalDateTime startDateTime = LocalDateTime.parse(startTimeString);
+        final LocalDateTime endDateTime = LocalDateTime.parse(endTimeString);
+        final SightingSearch search = new SightingSearch(null, List.of(), startDateTime, endDateTime,
+                Sort.Direction.DESC);
+        final String cursor = "cursor";
+        final PageCursor after = new PageCursor(startDateTime, "1");
+        final List<Sighting> sightings = List.of(buildSighting());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(buildSightingResponseDto());
+
+        when(modelService.getPageCursor(cursor)).thenReturn(after);
+        when(modelService.getPageLimit(null)).thenReturn(100);
+        when(modelService.getSightingSearch(null, null, startTimeString, endTimeString, "desc")).thenReturn(search);
+        when(sightingRepository.findPage(search, after, 101)).thenReturn(sightings);
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(validationService.verifyOrphanRecords(sightings, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(sightings, birdIndex)).thenReturn(sightingResponseDTOs);
+
+        // when
+        final CursorPageDto<SightingResponseDto> result = sightingService.getSightingsPage(null, null,
+                startTimeString, endTimeString, "desc", cursor, null);
+
+        // then
+        verify(sightingRepository).findPage(search, after, 101);
+        verify(modelService, never()).getCursor(any(Sighting.class));
+
+        assertEquals(new CursorPageDto<>(sightingResponseDTOs, null), result);
+    }
+
+    @Test
+    void streamSightingsByCriteria_should_join_in_batches() {
+        // given
+        final List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i <= SightingService.STREAM_BATCH_SIZE; i++) {
+            sightings.add(buildSighting());
+        }
+        final List<Sighting> firstBatch = sightings.subList(0, SightingService.STREAM_BATCH_SIZE);
+        final List<Sighting> secondBatch = sightings.subList(SightingService.STREAM_BATCH_SIZE, sightings.size());
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto());
+        final BirdIndex birdIndex = BirdIndex.of(birdResponseDTOs);
+        final SightingResponseDto first = buildSightingResponseDto();
+        final SightingResponseDto second = buildSightingResponseDto();
+        final List<SightingResponseDto> result = new ArrayList<>();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        when(modelService.getSightingSearch(null, null, null, null, null)).thenReturn(SightingSearch.ALL);
+        when(sightingRepository.stream(SightingSearch.ALL))
+                .thenReturn(sightings.stream().onClose(() -> closed.set(true)));
+        when(birdService.getBirdsByIds(Set.of("1"))).thenReturn(birdResponseDTOs);
+        when(validationService.verifyOrphanRecords(firstBatch, birdResponseDTOs)).thenReturn(birdIndex);
+        when(validationService.verifyOrphanRecords(secondBatch, birdResponseDTOs)).thenReturn(birdIndex);
+        when(modelService.getSightingResponseDTOs(firstBatch, birdIndex)).thenReturn(List.of(first));
+        when(modelService.getSightingResponseDTOs(secondBatch, birdIndex)).thenReturn(List.of(second));
+
+        // when
+        sightingService.streamSightingsByCriteria(null, null, null, null, null, result::add);
+
+        // then
+        verify(modelService).getSightingSearch(null, null, null, null, null);
+        verify(sightingRepository).stream(SightingSearch.ALL);
+        verify(birdService, times(2)).getBirdsByIds(Set.of("1"));
+        verify(validationService).verifyOrphanRecords(firstBatch, birdResponseDTOs);
+        verify(validationService).verifyOrphanRecords(secondBatch, birdResponseDTOs);
+        verify(modelService).getSightingResponseDTOs(firstBatch, birdIndex);
+        verify(modelService).getSightingResponseDTOs(secondBatch, birdIndex);
+        verifyNoMoreInteractions(birdService, sightingRepository, validationService, modelService);
+
+        assertEquals(List.of(first, second), result);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamSightingsByCriteria_withNoSightings_should_succeed() {
+        // given
+        final List<String> location = List.of("location");
+        final SightingSearch search = new SightingSearch(null, location, null, null, null);
+        final List<SightingResponseDto> result = new ArrayList<>();
+
+        when(modelService.getSightingSearch(null, location, null, null, null)).thenReturn(search);
+        when(sightingRepository.stream(search)).thenReturn(Stream.empty());
+
+        // when
+        sightingService.streamSightingsByCriteria(null, location, null, null, null, result::add);
+
+        // then
+        verify(modelService).getSightingSearch(null, location, null, null, null);
+        verify(sightingRepository).stream(search);
+        verifyNoMoreInteractions(sightingRepository, modelService);
+        verifyNoInteractions(birdService, validationService);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getSightingStats_should_read_rollups() {
+        // given
+        final List<String> groupBy = List.of("location");
+        final SightingStatsSearch search = new SightingStatsSearch(null, null, null, null,
+                SightingStatsSearch.Bucket.MONTH, false, true);
+        final List<SightingStatsDto> stats = List.of(new SightingStatsDto(null, "Forest", "2023-07", 3));
+
+        when(modelService.getSightingStatsSearch(null, null, "2023-07-01", null, "month", groupBy)).thenReturn(search);
+        when(sightingRollupRepository.getStats(search)).thenReturn(stats);
+
+        // when
+        final List<SightingStatsDto> result = sightingService.getSightingStats(null, null, "2023-07-01", null, "month",
+                groupBy);
+
+        // then
+        verify(modelService).getSightingStatsSearch(null, null, "2023-07-01", null, "month", groupBy);
+        verify(sightingRollupRepository).getStats(search);
+        verifyNoMoreInteractions(modelService, sightingRollupRepository);
+        verifyNoInteractions(sightingRepository);
+
+        assertEquals(stats, result);
+    }
+
+    @Test
+    void rebuildSightingRollups_should_report_rollup_count() {
+        // given
+        when(sightingRollupRepository.rebuild()).thenReturn(12L);
+
+        // when
+        final RollupRebuildDto result = sightingService.rebuildSightingRollups();
+
+        // then
+        verify(sightingRollupRepository).rebuild();
+        verifyNoMoreInteractions(sightingRollupRepository);
+
+        assertEquals(12, result.getRollupCount());
+    }
+
+    @Test
+    void getHeatmapTile_should_aggregate_through_cache() {
+        // given
+        final SightingHeatmapSearch search = new SightingHeatmapSearch(2, 0, 1, 16, LocalDate.parse("2023-07-01"),
+                null);
+        final List<SightingHeatmapCellDto> cells = List.of(new SightingHeatmapCellDto(3, 5, 2));
+        final SightingHeatmapTileDto tile = new SightingHeatmapTileDto(2, 0, 1, -180, 45, 5.625, 2.8125, 2, cells);
+
+        when(sightingHeatmapProperties.getCells()).thenReturn(16);
+        when(modelService.getSightingHeatmapSearch(2, 0, 1, "2023-07-01", null, 16)).thenReturn(search);
+        when(sightingHeatmapCache.get(eq(search), any())).thenAnswer(invocation ->
+                invocation.<Function<SightingHeatmapSearch, SightingHeatmapTileDto>>getArgument(1).apply(search));
+        when(sightingRepository.getHeatmapCells(search)).thenReturn(cells);
+        when(modelService.getSightingHeatmapTileDto(search, cells)).thenReturn(tile);
+
+        // when
+        final SightingHeatmapTileDto result = sightingService.getHeatmapTile(2, 0, 1, "2023-07-01", null);
+
+        // then
+        verify(modelService).getSightingHeatmapSearch(2, 0, 1, "2023-07-01", null, 16);
+        verify(sightingHeatmapCache).get(eq(search), any());
+        verify(sightingRepository).getHeatmapCells(search);
+        verify(modelService).getSightingHeatmapTileDto(search, cells);
+        verifyNoMoreInteractions(modelService, sightingRepository, sightingHeatmapCache);
+
+        assertEquals(tile, result);
+    }
 }
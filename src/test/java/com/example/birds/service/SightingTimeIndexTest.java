@@ -0,0 +1,227 @@
+package com.example.birds.service;
+
+import com.example.birds.config.SightingTimeIndexProperties;
+import com.example.birds.dto.SightingTimeIndexStatsDto;
+import com.example.birds.model.Sighting;
+import com.example.birds.repository.SightingRepository;
+import com.example.birds.utdata.SightingWithDateTimeDataProvider;
+import com.example.birds.util.SightingSearch;
+import com.example.birds.util.SightingTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SightingTimeIndex}.
+ */
+public class SightingTimeIndexTest implements SightingWithDateTimeDataProvider {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2023-07-18T10:00:00");
+
+    private final SightingRepository sightingRepository = Mockito.mock(SightingRepository.class);
+
+    private final SightingTimeIndexProperties sightingTimeIndexProperties = new SightingTimeIndexProperties();
+
+    private SightingTimeIndex sightingTimeIndex;
+
+    @BeforeEach
+    void setUp() {
+        sightingTimeIndexProperties.setEnabled(true);
+        sightingTimeIndexProperties.setRetention(Duration.ofDays(1));
+        sightingTimeIndex = new SightingTimeIndex(sightingRepository, sightingTimeIndexProperties,
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void load_should_serve_interval_searches_in_window() {
+        // given
+        final SightingSearch loadSearch = new SightingSearch(null, null, NOW.minusDays(1), null, Sort.Direction.ASC);
+        final Sighting first = buildSighting("1", "bird", NOW.minusHours(2));
+        final Sighting second = buildSighting("2", "bird", NOW.minusHours(1));
+
+        when(sightingRepository.stream(loadSearch)).thenReturn(Stream.of(first, second));
+
+        // when
+        sightingTimeIndex.load();
+        final Optional<List<Sighting>> result = sightingTimeIndex.find(
+                new SightingSearch(null, null, NOW.minusHours(3), null, Sort.Direction.DESC));
+        final OptionalLong count = sightingTimeIndex.count(
+                new SightingSearch(null, null, NOW.minusHours(3), NOW.minusHours(1), null));
+
+        // then
+        verify(sightingRepository).stream(loadSearch);
+        verifyNoMoreInteractions(sightingRepository);
+
+        assertTrue(result.isPresent());
+        assertEquals(List.of("2", "1"), getIds(result.get()));
+        assertEquals(OptionalLong.of(1), count);
+        assertEquals(2, sightingTimeIndex.getStats().getHitCount());
+    }
+
+    @Test
+    void find_outsideWindow_should_fall_back() {
+        // given
+        when(sightingRepository.stream(any())).thenReturn(Stream.empty());
+        sightingTimeIndex.load();
+
+        // when
+        final Optional<List<Sighting>> beforeWindow = sightingTimeIndex.find(
+                new SightingSearch(null, null, NOW.minusDays(2), null, null));
+        final Optional<List<Sighting>> openStart = sightingTimeIndex.find(
+                new SightingSearch(null, null, null, NOW, null));
+        final Optional<List<Sighting>> byLocation = sightingTimeIndex.find(
+                new SightingSearch(null, List.of("location"), NOW.minusHours(1), null, null));
+
+        // then
+        assertTrue(beforeWindow.isEmpty());
+        assertTrue(openStart.isEmpty());
+        assertTrue(byLocation.isEmpty());
+        // only date-time interval searches with a start are counted
+        assertEquals(1, sightingTimeIndex.getStats().getFallbackCount());
+    }
+
+    @Test
+    void find_beforeLoad_should_fall_back() {
+        // when
+        final OptionalLong result = sightingTimeIndex.count(new SightingSearch(null, null, NOW.minusHours(1), null, null));
+
+        // then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(sightingRepository);
+    }
+
+    @Test
+    void writes_should_keep_index_current() {
+        // given
+        final Sighting sighting = buildSighting("1", "bird", NOW.minusHours(1));
+        final Sighting moved = buildSighting("1", "bird", NOW.minusHours(2));
+        final Sighting other = buildSighting("2", "other bird", NOW.minusHours(1));
+        final Sighting old = buildSighting("3", "bird", NOW.minusDays(3));
+        final SightingSearch search = new SightingSearch(null, null, NOW.minusDays(1), null, null);
+
+        when(sightingRepository.stream(any())).thenReturn(Stream.empty());
+        sightingTimeIndex.load();
+
+        // when
+        sightingTimeIndex.addAll(List.of(sighting, other, old));
+        sightingTimeIndex.remove(sighting);
+        sightingTimeIndex.addAll(List.of(moved));
+        sightingTimeIndex.removeByBirdId("other bird");
+
+        // then
+        final List<Sighting> result = sightingTimeIndex.find(search).orElseThrow();
+        assertEquals(List.of("1"), getIds(result));
+        assertEquals(moved.getDateTime(), result.get(0).getDateTime());
+    }
+
+    @Test
+    void writes_withoutDateTime_should_skip_sighting() {
+        // given
+        final Sighting sighting = buildSighting("1", "bird", NOW.minusHours(1));
+        final Sighting undated = buildSighting("1", "bird", null);
+        final Sighting other = buildSighting("2", "bird", null);
+        final SightingSearch search = new SightingSearch(null, null, NOW.minusDays(1), null, null);
+
+        when(sightingRepository.stream(any())).thenReturn(Stream.empty());
+        sightingTimeIndex.load();
+        sightingTimeIndex.addAll(List.of(sighting));
+
+        // when
+        sightingTimeIndex.addAll(List.of(other));
+        sightingTimeIndex.remove(sighting);
+        sightingTimeIndex.addAll(List.of(undated));
+        sightingTimeIndex.remove(undated);
+
+        // then
+        assertEquals(List.of(), sightingTimeIndex.find(search).orElseThrow());
+        assertEquals(OptionalLong.of(0), sightingTimeIndex.count(search));
+    }
+
+    @Test
+    void load_withWritesWhileLoading_should_keep_written_state() {
+        // given
+        final Sighting loaded = buildSighting("1", "bird", NOW.minusHours(1));
+        final Sighting deleted = buildSighting("2", "bird", NOW.minusHours(1));
+        final Sighting ofDeletedBird = buildSighting("3", "deleted bird", NOW.minusHours(1));
+        final Sighting updated = buildSighting("4", "bird", NOW.minusHours(2));
+
+        when(sightingRepository.stream(any())).thenReturn(Stream.of(loaded, deleted, ofDeletedBird, updated)
+                .peek(sighting -> {
+                    // the writes happen while the cursor is read, before the sightings are added
+                    if (sighting == loaded) {
+                        sightingTimeIndex.remove(deleted);
+                        sightingTimeIndex.removeByBirdId("deleted bird");
+                        sightingTimeIndex.remove(updated);
+                        sightingTimeIndex.addAll(List.of(buildSighting("4", "bird", NOW.minusMinutes(5))));
+                    }
+                }));
+
+        // when
+        sightingTimeIndex.load();
+
+        // then
+        final List<Sighting> result = sightingTimeIndex.find(
+                new SightingSearch(null, null, NOW.minusDays(1), null, null)).orElseThrow();
+        assertEquals(List.of("1", "4"), getIds(result));
+        assertEquals(NOW.minusMinutes(5), result.get(1).getDateTime());
+    }
+
+    @Test
+    void load_overMemoryBudget_should_drop_oldest_sightings() {
+        // given
+        final List<Sighting> sightings = new ArrayList<>();
+        for (int i = 0; i < 3 * 1024; i++) {
+            sightings.add(buildSighting(String.format("%05d", i), "bird", NOW.minusHours(12).plusSeconds(i)));
+        }
+        sightingTimeIndexProperties.setMemoryBudget(DataSize.ofKilobytes(200));
+
+        when(sightingRepository.stream(any())).thenReturn(sightings.stream());
+
+        // when
+        sightingTimeIndex.load();
+
+        // then
+        final SightingTimeIndexStatsDto stats = sightingTimeIndex.getStats();
+        assertTrue(stats.isReady());
+        assertTrue(stats.getEstimatedBytes() <= DataSize.ofKilobytes(200).toBytes());
+        assertTrue(stats.getSize() > 0 && stats.getSize() < sightings.size());
+        final LocalDateTime retainedAfter = LocalDateTime.parse(stats.getRetainedAfter());
+        assertTrue(sightingTimeIndex.find(new SightingSearch(null, null, NOW.minusHours(12), null, null)).isEmpty());
+        final List<Sighting> result = sightingTimeIndex.find(
+                new SightingSearch(null, null, retainedAfter, null, null)).orElseThrow();
+        assertEquals(sightings.get(sightings.size() - 1).getId(), result.get(result.size() - 1).getId());
+        assertEquals(SightingTimeline.toEpochMilli(retainedAfter) + 1000,
+                SightingTimeline.toEpochMilli(result.get(0).getDateTime()));
+    }
+
+    @Test
+    void find_withDisabledIndex_should_fall_back() {
+        // given
+        sightingTimeIndexProperties.setEnabled(false);
+
+        // when
+        sightingTimeIndex.addAll(List.of(buildSighting("1", "bird", NOW)));
+        final Optional<List<Sighting>> result = sightingTimeIndex.find(
+                new SightingSearch(null, null, NOW.minusHours(1), null, null));
+
+        // then
+        assertTrue(result.isEmpty());
+        assertEquals(new SightingTimeIndexStatsDto(false, 0, 0, DataSize.ofMegabytes(64).toBytes(), null, 0, 0),
+                sightingTimeIndex.getStats());
+    }
+}
@@ -1,14 +1,17 @@
 package com.example.birds.service;
 
 import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.dto.SightingResponseDto;
 import com.example.birds.model.Sighting;
 import com.example.birds.utdata.BirdResponseDtoWithKeyDataProvider;
 import com.example.birds.utdata.SightingWithKeyDataProvider;
+import com.example.birds.util.BirdIndex;
 import com.example.birds.util.ErrorMessages;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +26,19 @@ public class ValidationServiceTest implements SightingWithKeyDataProvider, BirdR
 
     private final ValidationService validationService = new ValidationService();
 
+    @Test
+    void verifyTimeSeriesSighting_withoutDateTime_should_fail() {
+        // given
+        final Sighting sighting = new Sighting("1", "location", null);
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> validationService.verifyTimeSeriesSighting(sighting));
+
+        // then
+        assertEquals(ErrorMessages.MISSING_DATETIME, exception.getMessage());
+    }
+
     @Test
     void verifyOrphanRecords_withNullSightings_should_fail() {
         // given
@@ -71,7 +87,27 @@ public class ValidationServiceTest implements SightingWithKeyDataProvider, BirdR
                 () -> validationService.verifyOrphanRecords(sightings, birdResponseDTOs));
 
         // then
-        assertEquals(ErrorMessages.ORPHAN_RECORDS_ERROR, exception.getMessage());
+        assertEquals(String.format(ErrorMessages.ORPHAN_RECORDS_IDS_ERROR, List.of("11", "12")), exception.getMessage());
+    }
+
+    @Test
+    void verifyOrphanRecords_withManyOrphanRecords_should_list_first_ids() {
+        // given
+        final List<Sighting> sightings = new ArrayList<>();
+        final List<String> orphanIds = new ArrayList<>();
+        for (int i = 1; i <= 13; i++) {
+            sightings.add(buildSighting(i));
+            orphanIds.add(buildSighting(i).getId());
+        }
+        final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(20));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> validationService.verifyOrphanRecords(sightings, birdResponseDTOs));
+
+        // then
+        assertEquals(String.format(ErrorMessages.ORPHAN_RECORDS_MORE_IDS_ERROR, orphanIds.subList(0, 10), 3),
+                exception.getMessage());
     }
 
     @Test
@@ -81,14 +117,88 @@ public class ValidationServiceTest implements SightingWithKeyDataProvider, BirdR
         final List<BirdResponseDto> birdResponseDTOs = List.of(buildBirdResponseDto(1), buildBirdResponseDto(2));
         String error = NO_ERROR;
 
+        BirdIndex birdIndex = null;
+
         // when
         try {
-            validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
+            birdIndex = validationService.verifyOrphanRecords(sightings, birdResponseDTOs);
         } catch (Exception exception) {
             error = exception.getMessage();
         }
 
         // then
         assertEquals(NO_ERROR, error);
+        assertNotNull(birdIndex);
+        assertEquals(birdResponseDTOs.size(), birdIndex.size());
+    }
+
+    @Test
+    void findOrphanRecords_should_succeed() {
+        // given
+        final List<Sighting> sightings = List.of(buildSighting(1), buildSighting(2), buildSighting(3), buildSighting(2));
+        final BirdIndex birdIndex = BirdIndex.of(List.of(buildBirdResponseDto(2)));
+
+        // when
+        final List<String> result = validationService.findOrphanRecords(sightings, birdIndex);
+
+        // then
+        assertEquals(List.of("11", "13"), result);
+    }
+
+    @Test
+    void verifyOrphanRecords_withNullSightingResponseDTOs_should_fail() {
+        // given
+
+        // when
+        final Exception exception = assertThrows(RuntimeException.class,
+                () -> validationService.verifyOrphanRecords(null));
+
+        // then
+        assertEquals(ErrorMessages.NULL_PARAMETER_ERROR, exception.getMessage());
+    }
+
+    @Test
+    void verifyOrphanRecords_withJoinedOrphanRecords_should_fail() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(
+                new SightingResponseDto("11", buildBirdResponseDto(1), "location", null, null),
+                new SightingResponseDto("12", null, "location", null, null));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> validationService.verifyOrphanRecords(sightingResponseDTOs));
+
+        // then
+        assertEquals(String.format(ErrorMessages.ORPHAN_RECORDS_IDS_ERROR, List.of("12")), exception.getMessage());
+    }
+
+    @Test
+    void verifyOrphanRecords_withManyJoinedOrphanRecords_should_list_first_ids() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = new ArrayList<>();
+        final List<String> orphanIds = new ArrayList<>();
+        for (int i = 1; i <= 11; i++) {
+            sightingResponseDTOs.add(new SightingResponseDto(String.valueOf(i), null, "location", null, null));
+            orphanIds.add(String.valueOf(i));
+        }
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> validationService.verifyOrphanRecords(sightingResponseDTOs));
+
+        // then
+        assertEquals(String.format(ErrorMessages.ORPHAN_RECORDS_MORE_IDS_ERROR, orphanIds.subList(0, 10), 1),
+                exception.getMessage());
+    }
+
+    @Test
+    void verifyOrphanRecords_withoutJoinedOrphanRecords_should_succeed() {
+        // given
+        final List<SightingResponseDto> sightingResponseDTOs = List.of(
+                new SightingResponseDto("11", buildBirdResponseDto(1), "location", null, null));
+
+        // when
+        // then
+        assertDoesNotThrow(() -> validationService.verifyOrphanRecords(sightingResponseDTOs));
     }
 }
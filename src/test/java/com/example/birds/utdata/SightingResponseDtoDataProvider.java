@@ -16,6 +16,6 @@ public interface SightingResponseDtoDataProvider extends BirdResponseDtoDataProv
      */
     default SightingResponseDto buildSightingResponseDto() {
         final LocalDateTime dateTime = LocalDateTime.parse("2023-07-18T10:00:00");
-        return new SightingResponseDto("2", buildBirdResponseDto(), "location", dateTime);
+        return new SightingResponseDto("2", buildBirdResponseDto(), "location", dateTime, null);
     }
 }
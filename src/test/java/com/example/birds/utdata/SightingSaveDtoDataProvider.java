@@ -13,6 +13,6 @@ public interface SightingSaveDtoDataProvider {
      * @return SightingSaveDto
      */
     default SightingSaveDto buildSightingSaveDto() {
-        return new SightingSaveDto("2", "location", "2023-07-18T10:00:00");
+        return new SightingSaveDto("2", "location", "2023-07-18T10:00:00", null);
     }
 }
@@ -0,0 +1,40 @@
+package com.example.birds.utdata;
+
+import com.example.birds.model.Sighting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Interface used for Unit Testing.
+ */
+public interface SightingWithDateTimeDataProvider {
+
+    /**
+     * Builds an object used for Unit testing.
+     * @param id {@link String}
+     * @param birdId {@link String}
+     * @param dateTime {@link LocalDateTime}
+     * @return Sighting
+     */
+    default Sighting buildSighting(String id, String birdId, LocalDateTime dateTime) {
+        final Sighting sighting = new Sighting(birdId, "location", dateTime);
+        sighting.setId(id);
+        return sighting;
+    }
+
+    /**
+     * Gets the ids of the sightings, in order.
+     * @param sightings List of {@link Sighting}
+     * @return List of {@link String}
+     */
+    default List<String> getIds(List<Sighting> sightings) {
+        final List<String> result = new ArrayList<>();
+        for (Sighting sighting : sightings) {
+            result.add(sighting.getId());
+        }
+        return result;
+    }
+}
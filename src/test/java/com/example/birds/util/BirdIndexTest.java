@@ -0,0 +1,101 @@
+package com.example.birds.util;
+
+import com.example.birds.dto.BirdResponseDto;
+import com.example.birds.utdata.BirdResponseDtoWithKeyDataProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BirdIndex}.
+ */
+public class BirdIndexTest implements BirdResponseDtoWithKeyDataProvider {
+
+    @Test
+    void of_withNullList_should_fail() {
+        // given
+
+        // when
+        final Exception exception = assertThrows(RuntimeException.class, () -> BirdIndex.of(null));
+
+        // then
+        assertEquals(ErrorMessages.NULL_PARAMETER_ERROR, exception.getMessage());
+    }
+
+    @Test
+    void constructor_withNegativeSize_should_fail() {
+        // given
+
+        // when
+        final Exception exception = assertThrows(IllegalArgumentException.class, () -> new BirdIndex(-1));
+
+        // then
+        assertEquals(ErrorMessages.NEGATIVE_SIZE_ERROR, exception.getMessage());
+    }
+
+    @Test
+    void of_withEmptyList_should_succeed() {
+        // given
+
+        // when
+        final BirdIndex result = BirdIndex.of(List.of());
+
+        // then
+        assertEquals(0, result.size());
+        assertNull(result.get("1"));
+        assertFalse(result.contains("1"));
+    }
+
+    @Test
+    void get_withManyBirds_should_succeed() {
+        // given
+        final List<BirdResponseDto> birdResponseDTOs = new ArrayList<>();
+        for (int key = 0; key < 10_000; key++) {
+            birdResponseDTOs.add(buildBirdResponseDto(key));
+        }
+
+        // when
+        final BirdIndex result = BirdIndex.of(birdResponseDTOs);
+
+        // then
+        assertEquals(birdResponseDTOs.size(), result.size());
+        for (BirdResponseDto birdResponseDto : birdResponseDTOs) {
+            assertSame(birdResponseDto, result.get(birdResponseDto.getId()));
+        }
+        assertNull(result.get("10000"));
+        assertNull(result.get(null));
+    }
+
+    @Test
+    void put_withDuplicateId_should_replace() {
+        // given
+        final BirdIndex birdIndex = new BirdIndex(1);
+        final BirdResponseDto first = buildBirdResponseDto(1);
+        final BirdResponseDto second = new BirdResponseDto("1", "other", "other", 1d, 1d);
+
+        // when
+        birdIndex.put(first);
+        birdIndex.put(second);
+
+        // then
+        assertEquals(1, birdIndex.size());
+        assertSame(second, birdIndex.get("1"));
+    }
+
+    @Test
+    void put_overCapacity_should_fail() {
+        // given
+        final BirdIndex birdIndex = new BirdIndex(1);
+        birdIndex.put(buildBirdResponseDto(1));
+
+        // when
+        final Exception exception = assertThrows(IllegalStateException.class,
+                () -> birdIndex.put(buildBirdResponseDto(2)));
+
+        // then
+        assertEquals(ErrorMessages.INDEX_FULL_ERROR, exception.getMessage());
+    }
+}
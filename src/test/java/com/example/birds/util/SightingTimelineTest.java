@@ -0,0 +1,158 @@
+package com.example.birds.util;
+
+import com.example.birds.model.Sighting;
+import com.example.birds.utdata.SightingWithDateTimeDataProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SightingTimeline}.
+ */
+public class SightingTimelineTest implements SightingWithDateTimeDataProvider {
+
+    private static final LocalDateTime START = LocalDateTime.parse("2023-07-18T10:00:00");
+
+    @Test
+    void find_withManySightings_should_match_interval_in_order() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        final Random random = new Random(42);
+        final List<Sighting> sightings = new ArrayList<>();
+        // inserted out of order, several chunks and sightings sharing their date-time
+        for (int i = 0; i < 5 * SightingTimeline.CHUNK_CAPACITY; i++) {
+            final Sighting sighting = buildSighting(String.format("%05d", i), "bird" + (i % 7),
+                    START.plusSeconds(random.nextInt(1000)));
+            sightings.add(sighting);
+            timeline.add(sighting);
+        }
+        final LocalDateTime from = START.plusSeconds(100);
+        final LocalDateTime to = START.plusSeconds(600);
+        final List<String> expected = new ArrayList<>();
+        sightings.stream()
+                .filter(sighting -> sighting.getDateTime().isAfter(from) && sighting.getDateTime().isBefore(to))
+                .sorted((first, second) -> first.getDateTime().equals(second.getDateTime())
+                        ? first.getId().compareTo(second.getId())
+                        : first.getDateTime().compareTo(second.getDateTime()))
+                .forEach(sighting -> expected.add(sighting.getId()));
+
+        // when
+        final List<Sighting> result = timeline.find(SightingTimeline.toEpochMilli(from),
+                SightingTimeline.toEpochMilli(to), false);
+        final List<Sighting> descending = timeline.find(SightingTimeline.toEpochMilli(from),
+                SightingTimeline.toEpochMilli(to), true);
+
+        // then
+        assertEquals(5 * SightingTimeline.CHUNK_CAPACITY, timeline.size());
+        assertEquals(expected, getIds(result));
+        assertEquals(expected.size(), timeline.count(SightingTimeline.toEpochMilli(from),
+                SightingTimeline.toEpochMilli(to)));
+        assertEquals(expected.get(0), descending.get(descending.size() - 1).getId());
+        assertEquals(timeline.size(), timeline.count(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void add_withSameSighting_should_replace_it() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        timeline.add(buildSighting("1", "bird", START));
+
+        // when
+        timeline.add(buildSighting("1", "other bird", START));
+
+        // then
+        assertEquals(1, timeline.size());
+        assertEquals("other bird", timeline.find(Long.MIN_VALUE, Long.MAX_VALUE, false).get(0).getBirdId());
+    }
+
+    @Test
+    void find_should_keep_coordinates() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        final Sighting located = buildSighting("1", "bird", START);
+        located.setCoordinates(new GeoJsonPoint(-118.4912, 34.0195));
+        timeline.add(located);
+        timeline.add(buildSighting("2", "bird", START));
+
+        // when
+        final List<Sighting> result = timeline.find(Long.MIN_VALUE, Long.MAX_VALUE, false);
+
+        // then
+        assertEquals(new GeoJsonPoint(-118.4912, 34.0195), result.get(0).getCoordinates());
+        assertNull(result.get(1).getCoordinates());
+    }
+
+    @Test
+    void remove_should_remove_only_matching_sighting() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        timeline.add(buildSighting("1", "bird", START));
+        timeline.add(buildSighting("2", "bird", START));
+        final long bytes = timeline.getEstimatedBytes();
+
+        // when
+        final boolean wrongDateTime = timeline.remove("1", START.plusSeconds(1));
+        final boolean removed = timeline.remove("1", START);
+
+        // then
+        assertFalse(wrongDateTime);
+        assertTrue(removed);
+        assertEquals(List.of("2"), getIds(timeline.find(Long.MIN_VALUE, Long.MAX_VALUE, false)));
+        assertTrue(timeline.getEstimatedBytes() < bytes);
+    }
+
+    @Test
+    void removeByBirdId_should_remove_bird_sightings() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        for (int i = 0; i < 3 * SightingTimeline.CHUNK_CAPACITY; i++) {
+            timeline.add(buildSighting(String.format("%05d", i), i % 3 == 0 ? "removed" : "kept", START.plusSeconds(i)));
+        }
+
+        // when
+        final int result = timeline.removeByBirdId("removed");
+
+        // then
+        assertEquals(SightingTimeline.CHUNK_CAPACITY, result);
+        assertEquals(2 * SightingTimeline.CHUNK_CAPACITY, timeline.size());
+        assertEquals(2 * SightingTimeline.CHUNK_CAPACITY, timeline.count(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertTrue(timeline.find(Long.MIN_VALUE, Long.MAX_VALUE, false).stream()
+                .allMatch(sighting -> sighting.getBirdId().equals("kept")));
+    }
+
+    @Test
+    void removeOldestChunk_should_return_last_removed_key() {
+        // given
+        final SightingTimeline timeline = new SightingTimeline();
+        for (int i = 0; i <= SightingTimeline.CHUNK_CAPACITY; i++) {
+            timeline.add(buildSighting(String.format("%05d", i), "bird", START.plusSeconds(i)));
+        }
+
+        // when
+        final long result = timeline.removeOldestChunk();
+
+        // then
+        // the full chunk was split in two halves when the last sighting was added
+        assertEquals(SightingTimeline.toEpochMilli(START.plusSeconds(SightingTimeline.CHUNK_CAPACITY / 2 - 1)), result);
+        assertEquals(SightingTimeline.CHUNK_CAPACITY / 2 + 1, timeline.size());
+        assertEquals(0, timeline.count(Long.MIN_VALUE, result));
+    }
+
+    @Test
+    void toDateTime_should_truncate_to_milliseconds() {
+        // given
+        final LocalDateTime dateTime = LocalDateTime.parse("1969-12-31T23:59:59.999999");
+
+        // when
+        final LocalDateTime result = SightingTimeline.toDateTime(SightingTimeline.toEpochMilli(dateTime));
+
+        // then
+        assertEquals(LocalDateTime.parse("1969-12-31T23:59:59.999"), result);
+    }
+}
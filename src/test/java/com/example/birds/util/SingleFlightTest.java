@@ -0,0 +1,137 @@
+package com.example.birds.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SingleFlight}, the concurrent callers waiting on a call held by a latch.
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_concurrently_should_run_call_once() throws Exception {
+        // given
+        final List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("red", () -> blockingCall("birds"))));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("red", () -> blockingCall("other"))));
+        }
+        awaitCount(singleFlight::getDeduplicated, CALLERS - 1);
+        release.countDown();
+
+        // then
+        for (Future<String> result : results) {
+            assertEquals("birds", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.getExecuted());
+        assertEquals(CALLERS - 1, singleFlight.getDeduplicated());
+    }
+
+    @Test
+    void execute_withFailingCall_should_throw_to_every_caller() throws Exception {
+        // given
+        final Future<String> first = executor.submit(() -> singleFlight.execute("red", () -> {
+            blockingCall("birds");
+            throw new IllegalStateException(ErrorMessages.BIRD_NOT_FOUND);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<String> second = executor.submit(() -> singleFlight.execute("red", () -> blockingCall("other")));
+        awaitCount(singleFlight::getDeduplicated, 1);
+
+        // when
+        release.countDown();
+
+        // then
+        for (Future<String> result : List.of(first, second)) {
+            final ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+            assertEquals(ErrorMessages.BIRD_NOT_FOUND, exception.getCause().getMessage());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_afterCompletion_should_run_call_again() {
+        // when
+        final String first = singleFlight.execute("red", () -> "first");
+        final String second = singleFlight.execute("red", () -> "second");
+
+        // then
+        assertEquals("first", first);
+        assertEquals("second", second);
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(0, singleFlight.getDeduplicated());
+    }
+
+    @Test
+    void execute_afterForget_should_not_share_call_in_flight() throws Exception {
+        // given
+        final Future<String> first = executor.submit(() -> singleFlight.execute("red", () -> blockingCall("stale")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        singleFlight.forget("red");
+        final String second = singleFlight.execute("red", () -> "fresh");
+        release.countDown();
+
+        // then
+        assertEquals("fresh", second);
+        assertEquals("stale", first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(0, singleFlight.getDeduplicated());
+    }
+
+    private String blockingCall(String result) {
+        calls.incrementAndGet();
+        started.countDown();
+        try {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+}
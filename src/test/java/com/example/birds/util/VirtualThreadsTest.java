@@ -0,0 +1,47 @@
+package com.example.birds.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for {@link VirtualThreads}, depending on the Java version running them.
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    void newThreadPerTaskExecutor_onJava21_should_run_tasks_on_virtual_threads() throws Exception {
+        // given
+        assumeTrue(Runtime.version().feature() >= 21);
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+
+        // when
+        final Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(VirtualThreads.isSupported());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        assertEquals("test-0", thread.getName());
+        executor.shutdown();
+    }
+
+    @Test
+    void newThreadPerTaskExecutor_beforeJava21_should_throw() {
+        // given
+        assumeFalse(Runtime.version().feature() >= 21);
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+
+        // then
+        assertFalse(VirtualThreads.isSupported());
+        assertEquals(String.format(ErrorMessages.VIRTUAL_THREADS_UNSUPPORTED, Runtime.version().feature()),
+                exception.getMessage());
+    }
+}